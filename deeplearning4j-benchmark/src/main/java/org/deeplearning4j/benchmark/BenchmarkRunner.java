@@ -0,0 +1,78 @@
+package org.deeplearning4j.benchmark;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.
+ *
+ * Runs the selected JMH suites with the GC profiler enabled (allocation rate per op, GC counts) and writes the
+ * results in JSON format, so CI can publish/compare them per commit:
+ *
+ * <pre>
+ * java -jar deeplearning4j-benchmark/target/benchmarks.jar --include MultiLayerNetworkBenchmark --resultFile mln.json
+ * </pre>
+ *
+ * Any JMH option not exposed here can still be used by running {@code org.openjdk.jmh.Main} from the same jar.
+ */
+@Slf4j
+public class BenchmarkRunner {
+    @Parameter(names = {"--include"}, description = "Regular expression selecting benchmarks to run", arity = 1)
+    private String include = "org\\.deeplearning4j\\.benchmark\\..*";
+    @Parameter(names = {"--resultFile"}, description = "Path of the JSON results file", arity = 1)
+    private String resultFile = "dl4j-benchmark-results.json";
+    @Parameter(names = {"--forks"}, description = "Number of JMH forks (-1 = use annotations)", arity = 1)
+    private int forks = -1;
+    @Parameter(names = {"--warmupIterations"}, description = "Number of warmup iterations (-1 = use annotations)",
+                    arity = 1)
+    private int warmupIterations = -1;
+    @Parameter(names = {"--measurementIterations"},
+                    description = "Number of measurement iterations (-1 = use annotations)", arity = 1)
+    private int measurementIterations = -1;
+    @Parameter(names = {"--gcProfiler"}, description = "Whether to collect allocation rate with the GC profiler",
+                    arity = 1)
+    private boolean gcProfiler = true;
+
+    public static void main(String[] args) throws Exception {
+        new BenchmarkRunner().runMain(args);
+    }
+
+    public void runMain(String... args) throws Exception {
+        JCommander jcmdr = new JCommander(this);
+
+        try {
+            jcmdr.parse(args);
+        } catch (ParameterException e) {
+            System.err.println(e.getMessage());
+            //User provides invalid input -> print the usage info
+            jcmdr.usage();
+            System.exit(1);
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().include(include).resultFormat(ResultFormatType.JSON)
+                        .result(resultFile);
+
+        if (gcProfiler)
+            options.addProfiler(GCProfiler.class);
+
+        if (forks >= 0)
+            options.forks(forks);
+
+        if (warmupIterations >= 0)
+            options.warmupIterations(warmupIterations);
+
+        if (measurementIterations >= 0)
+            options.measurementIterations(measurementIterations);
+
+        new Runner(options.build()).run();
+
+        log.info("Benchmark results written to {}", resultFile);
+    }
+}
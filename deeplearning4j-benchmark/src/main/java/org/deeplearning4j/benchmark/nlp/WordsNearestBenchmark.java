@@ -0,0 +1,127 @@
+package org.deeplearning4j.benchmark.nlp;
+
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.models.embeddings.reader.impl.BasicModelUtils;
+import org.deeplearning4j.models.embeddings.reader.impl.RandomProjectionModelUtils;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.AbstractCache;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of exact {@link BasicModelUtils} vs approximate {@link RandomProjectionModelUtils} wordsNearest on a
+ * synthetic clustered vocabulary. Recall@10 of the approximate results against exact ones is logged on trial tear down.
+ */
+@Slf4j
+@State(Scope.Thread)
+@BenchmarkMode({Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class WordsNearestBenchmark {
+    private static final int LAYER_SIZE = 100;
+    private static final int NUM_CLUSTERS = 500;
+    private static final int NUM_QUERIES = 256;
+    private static final int TOP = 10;
+
+    @Param({"10000", "100000"})
+    public int vocabSize;
+
+    @Param({"500", "2000", "10000"})
+    public int searchK;
+
+    private BasicModelUtils<VocabWord> exact;
+    private RandomProjectionModelUtils<VocabWord> approximate;
+    private INDArray[] queries;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Nd4j.getRandom().setSeed(12345);
+
+        // words are grouped around random centroids, which is closer to real embeddings than uniform noise
+        INDArray centroids = Nd4j.randn(NUM_CLUSTERS, LAYER_SIZE);
+        INDArray syn0 = Nd4j.create(vocabSize, LAYER_SIZE);
+        for (int i = 0; i < vocabSize; i++)
+            syn0.putRow(i, centroids.getRow(i % NUM_CLUSTERS).add(Nd4j.randn(1, LAYER_SIZE).muli(0.3)));
+
+        exact = new BasicModelUtils<>();
+        exact.init(lookupTable(syn0.dup()));
+
+        approximate = new RandomProjectionModelUtils<>(RandomProjectionModelUtils.DEFAULT_NUM_TREES,
+                        RandomProjectionModelUtils.DEFAULT_LEAF_SIZE, searchK);
+        approximate.init(lookupTable(syn0.dup()));
+        approximate.buildIndex();
+
+        queries = new INDArray[NUM_QUERIES];
+        for (int i = 0; i < NUM_QUERIES; i++)
+            queries[i] = syn0.getRow((i * 7919) % vocabSize).add(Nd4j.randn(1, LAYER_SIZE).muli(0.1));
+    }
+
+    private static InMemoryLookupTable<VocabWord> lookupTable(INDArray syn0) {
+        AbstractCache<VocabWord> vocabCache = new AbstractCache.Builder<VocabWord>().build();
+        for (int i = 0; i < syn0.rows(); i++) {
+            VocabWord word = new VocabWord(1.0, "word_" + i);
+            word.setIndex(i);
+            vocabCache.addToken(word);
+            vocabCache.addWordToIndex(i, word.getLabel());
+        }
+
+        InMemoryLookupTable<VocabWord> lookupTable =
+                        (InMemoryLookupTable<VocabWord>) new InMemoryLookupTable.Builder<VocabWord>().cache(vocabCache)
+                                        .vectorLength(syn0.columns()).useHierarchicSoftmax(false).useAdaGrad(false)
+                                        .build();
+        lookupTable.setSyn0(syn0);
+        return lookupTable;
+    }
+
+    @TearDown(Level.Trial)
+    public void reportRecall() {
+        double hits = 0;
+        for (INDArray query : queries) {
+            Set<String> expected = new HashSet<>(exact.wordsNearest(query, TOP));
+            for (String word : approximate.wordsNearest(query, TOP)) {
+                if (expected.contains(word))
+                    hits++;
+            }
+        }
+
+        log.info("vocabSize={}, searchK={}: recall@{} = {}", vocabSize, searchK, TOP,
+                        hits / (NUM_QUERIES * TOP));
+    }
+
+    private INDArray nextQuery() {
+        cursor = (cursor + 1) % NUM_QUERIES;
+        return queries[cursor];
+    }
+
+    @Benchmark
+    public Collection<String> exact() {
+        return exact.wordsNearest(nextQuery(), TOP);
+    }
+
+    @Benchmark
+    public Collection<String> approximate() {
+        return approximate.wordsNearest(nextQuery(), TOP);
+    }
+}
@@ -0,0 +1,71 @@
+package org.deeplearning4j.benchmark.nn;
+
+import org.deeplearning4j.nn.conf.WorkspaceMode;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.MultiDataSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH suite for the {@link ComputationGraph} hot paths: fit(MultiDataSet) and output(INDArray...).
+ *
+ * Uses the same model types as {@link MultiLayerNetworkBenchmark}, so the two can be compared to see
+ * the overhead of the graph execution path itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class ComputationGraphBenchmark {
+
+    @Param({"DENSE", "LSTM", "CNN"})
+    public ModelType modelType;
+
+    @Param({"32", "128"})
+    public int minibatch;
+
+    @Param({"NONE", "SINGLE", "SEPARATE"})
+    public WorkspaceMode workspaceMode;
+
+    private ComputationGraph graph;
+    private MultiDataSet multiDataSet;
+    private INDArray features;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = new ComputationGraph(modelType.graphConfiguration(workspaceMode));
+        graph.init();
+
+        features = modelType.features(minibatch);
+        multiDataSet = new MultiDataSet(features, modelType.labels(minibatch));
+    }
+
+    @Benchmark
+    public ComputationGraph fit(ExampleCounter counter) {
+        graph.fit(multiDataSet);
+        counter.examples += minibatch;
+        return graph;
+    }
+
+    @Benchmark
+    public INDArray[] output(ExampleCounter counter) {
+        INDArray[] out = graph.output(features);
+        counter.examples += minibatch;
+        return out;
+    }
+}
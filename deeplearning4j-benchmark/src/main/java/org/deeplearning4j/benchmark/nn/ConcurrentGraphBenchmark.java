@@ -0,0 +1,121 @@
+package org.deeplearning4j.benchmark.nn;
+
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.WorkspaceMode;
+import org.deeplearning4j.nn.conf.graph.MergeVertex;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.MultiDataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH suite for concurrent branch execution in {@link ComputationGraph}: a multi-tower model (independent dense
+ * towers merged before the output layer), executed sequentially ({@code threads = 0}) or on an execution pool
+ * set with {@link ComputationGraph#setConcurrentExecution(int)}.
+ *
+ * Small minibatches are where concurrent branches are expected to pay off. At the end of each trial the per-vertex
+ * execution trace of one output() call is logged, to check how much of the pass actually ran concurrently.
+ */
+@Slf4j
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class ConcurrentGraphBenchmark {
+
+    private static final int N_IN = 784;
+    private static final int N_OUT = 10;
+    private static final int TOWER_SIZE = 512;
+
+    @Param({"0", "2", "4"})
+    public int threads;
+
+    @Param({"4"})
+    public int towers;
+
+    @Param({"1", "8", "32"})
+    public int minibatch;
+
+    private ComputationGraph graph;
+    private MultiDataSet multiDataSet;
+    private INDArray features;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ComputationGraphConfiguration.GraphBuilder builder = new NeuralNetConfiguration.Builder().seed(12345)
+                        .weightInit(WeightInit.XAVIER).activation(Activation.RELU)
+                        .learningRate(0.01).workspaceMode(WorkspaceMode.NONE)
+                        .graphBuilder().addInputs("in");
+        String[] towerOutputs = new String[towers];
+        for (int i = 0; i < towers; i++) {
+            builder.addLayer("t" + i + "_0", new DenseLayer.Builder().nIn(N_IN).nOut(TOWER_SIZE).build(), "in");
+            builder.addLayer("t" + i + "_1", new DenseLayer.Builder().nIn(TOWER_SIZE).nOut(TOWER_SIZE).build(),
+                            "t" + i + "_0");
+            towerOutputs[i] = "t" + i + "_1";
+        }
+        builder.addVertex("merge", new MergeVertex(), towerOutputs)
+                        .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                        .activation(Activation.SOFTMAX).nIn(towers * TOWER_SIZE).nOut(N_OUT)
+                                        .build(), "merge")
+                        .setOutputs("out");
+
+        graph = new ComputationGraph(builder.build());
+        graph.init();
+        if (threads > 0)
+            graph.setConcurrentExecution(threads);
+
+        features = Nd4j.rand(minibatch, N_IN);
+        INDArray labels = Nd4j.zeros(minibatch, N_OUT);
+        for (int i = 0; i < minibatch; i++)
+            labels.putScalar(i, i % N_OUT, 1.0);
+        multiDataSet = new MultiDataSet(features, labels);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        graph.setTraceExecution(true);
+        graph.output(features);
+        log.info("threads={}, minibatch={}: {}", threads, minibatch, graph.getForwardTrace());
+        graph.setTraceExecution(false);
+        if (graph.getExecutionPool() != null)
+            graph.getExecutionPool().shutdown();
+    }
+
+    @Benchmark
+    public INDArray[] output(ExampleCounter counter) {
+        INDArray[] out = graph.output(features);
+        counter.examples += minibatch;
+        return out;
+    }
+
+    @Benchmark
+    public ComputationGraph fit(ExampleCounter counter) {
+        graph.fit(multiDataSet);
+        counter.examples += minibatch;
+        return graph;
+    }
+}
@@ -0,0 +1,22 @@
+package org.deeplearning4j.benchmark.nn;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Auxiliary JMH counter: reports the number of examples processed, which JMH normalises to examples/sec
+ * alongside the regular per-invocation (i.e. per-minibatch) score.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ExampleCounter {
+    public long examples;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        examples = 0;
+    }
+}
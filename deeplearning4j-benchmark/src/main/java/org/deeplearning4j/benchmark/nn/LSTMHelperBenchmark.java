@@ -0,0 +1,98 @@
+package org.deeplearning4j.benchmark.nn;
+
+import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.conf.WorkspaceMode;
+import org.deeplearning4j.nn.conf.layers.GravesLSTM;
+import org.deeplearning4j.nn.conf.layers.RnnOutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the default GravesLSTM implementation and the fused CPU one
+ * ({@link org.deeplearning4j.nn.layers.recurrent.FusedLSTMHelper}) over sequence length.
+ *
+ * Each invocation processes exactly one minibatch of {@link ModelType#LSTM}-shaped data, with the given number of
+ * time steps.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LSTMHelperBenchmark {
+
+    @Param({"50", "100", "250", "500", "1000"})
+    public int timeSeriesLength;
+
+    @Param({"false", "true"})
+    public boolean fusedHelper;
+
+    @Param({"32"})
+    public int minibatch;
+
+    private MultiLayerNetwork network;
+    private DataSet dataSet;
+    private INDArray features;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345L).iterations(1)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT)
+                        .updater(Updater.NESTEROVS).learningRate(0.01).weightInit(WeightInit.XAVIER)
+                        .workspaceMode(WorkspaceMode.SEPARATE).list()
+                        .layer(0, new GravesLSTM.Builder().nIn(ModelType.LSTM_IN).nOut(128)
+                                        .activation(Activation.TANH).fusedHelper(fusedHelper).build())
+                        .layer(1, new RnnOutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(128)
+                                        .nOut(ModelType.NUM_CLASSES).activation(Activation.SOFTMAX).build())
+                        .pretrain(false).backprop(true).build();
+
+        network = new MultiLayerNetwork(conf);
+        network.init();
+
+        features = Nd4j.rand(new int[] {minibatch, ModelType.LSTM_IN, timeSeriesLength});
+        INDArray labels = Nd4j.zeros(new int[] {minibatch, ModelType.NUM_CLASSES, timeSeriesLength});
+        for (int i = 0; i < minibatch; i++) {
+            for (int t = 0; t < timeSeriesLength; t++) {
+                labels.putScalar(new int[] {i, (i + t) % ModelType.NUM_CLASSES, t}, 1.0);
+            }
+        }
+        dataSet = new DataSet(features, labels);
+    }
+
+    @Benchmark
+    public MultiLayerNetwork fit(ExampleCounter counter) {
+        network.fit(dataSet);
+        counter.examples += minibatch;
+        return network;
+    }
+
+    @Benchmark
+    public INDArray output(ExampleCounter counter) {
+        INDArray out = network.output(features);
+        counter.examples += minibatch;
+        return out;
+    }
+}
@@ -0,0 +1,186 @@
+package org.deeplearning4j.benchmark.nn;
+
+import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.conf.WorkspaceMode;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.GravesLSTM;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.conf.layers.RnnOutputLayer;
+import org.deeplearning4j.nn.conf.layers.SubsamplingLayer;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.util.Random;
+
+/**
+ * Network configurations used by the fit/output benchmarks.
+ *
+ * Each model type provides an equivalent {@link MultiLayerConfiguration} and {@link ComputationGraphConfiguration},
+ * so MultiLayerNetwork and ComputationGraph numbers for the same type are directly comparable.
+ * Sizes are fixed here on purpose: changing them invalidates comparisons against previously published results.
+ */
+public enum ModelType {
+    /**
+     * 784 -> 512 -> 256 -> 10 MLP
+     */
+    DENSE,
+    /**
+     * Single GravesLSTM layer (128 units) over 32 features x 50 time steps
+     */
+    LSTM,
+    /**
+     * LeNet-style CNN over 28x28x1 input
+     */
+    CNN;
+
+    public static final int NUM_CLASSES = 10;
+    public static final int DENSE_IN = 784;
+    public static final int LSTM_IN = 32;
+    public static final int LSTM_TIMESTEPS = 50;
+    public static final int CNN_HEIGHT = 28;
+    public static final int CNN_WIDTH = 28;
+    public static final int CNN_DEPTH = 1;
+
+    private static final long SEED = 12345L;
+
+    private NeuralNetConfiguration.Builder baseBuilder(WorkspaceMode workspaceMode) {
+        return new NeuralNetConfiguration.Builder().seed(SEED).iterations(1)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).updater(Updater.NESTEROVS)
+                        .learningRate(0.01).weightInit(WeightInit.XAVIER).workspaceMode(workspaceMode);
+    }
+
+    /**
+     * @param workspaceMode workspace mode for the network
+     * @return MultiLayerNetwork configuration for this model type
+     */
+    public MultiLayerConfiguration multiLayerConfiguration(WorkspaceMode workspaceMode) {
+        switch (this) {
+            case DENSE:
+                return baseBuilder(workspaceMode).list()
+                                .layer(0, new DenseLayer.Builder().nIn(DENSE_IN).nOut(512).activation(Activation.RELU)
+                                                .build())
+                                .layer(1, new DenseLayer.Builder().nIn(512).nOut(256).activation(Activation.RELU)
+                                                .build())
+                                .layer(2, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(256)
+                                                .nOut(NUM_CLASSES).activation(Activation.SOFTMAX).build())
+                                .pretrain(false).backprop(true).build();
+            case LSTM:
+                return baseBuilder(workspaceMode).list()
+                                .layer(0, new GravesLSTM.Builder().nIn(LSTM_IN).nOut(128).activation(Activation.TANH)
+                                                .build())
+                                .layer(1, new RnnOutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(128)
+                                                .nOut(NUM_CLASSES).activation(Activation.SOFTMAX).build())
+                                .pretrain(false).backprop(true).build();
+            case CNN:
+                return baseBuilder(workspaceMode).list()
+                                .layer(0, new ConvolutionLayer.Builder(5, 5).nIn(CNN_DEPTH).nOut(20).stride(1, 1)
+                                                .activation(Activation.IDENTITY).build())
+                                .layer(1, new SubsamplingLayer.Builder(SubsamplingLayer.PoolingType.MAX)
+                                                .kernelSize(2, 2).stride(2, 2).build())
+                                .layer(2, new ConvolutionLayer.Builder(5, 5).nOut(50).stride(1, 1)
+                                                .activation(Activation.IDENTITY).build())
+                                .layer(3, new SubsamplingLayer.Builder(SubsamplingLayer.PoolingType.MAX)
+                                                .kernelSize(2, 2).stride(2, 2).build())
+                                .layer(4, new DenseLayer.Builder().nOut(500).activation(Activation.RELU).build())
+                                .layer(5, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nOut(NUM_CLASSES)
+                                                .activation(Activation.SOFTMAX).build())
+                                .setInputType(InputType.convolutional(CNN_HEIGHT, CNN_WIDTH, CNN_DEPTH))
+                                .pretrain(false).backprop(true).build();
+            default:
+                throw new IllegalStateException("Unknown model type: " + this);
+        }
+    }
+
+    /**
+     * @param workspaceMode workspace mode for the network
+     * @return ComputationGraph configuration for this model type, equivalent to {@link #multiLayerConfiguration(WorkspaceMode)}
+     */
+    public ComputationGraphConfiguration graphConfiguration(WorkspaceMode workspaceMode) {
+        switch (this) {
+            case DENSE:
+                return baseBuilder(workspaceMode).graphBuilder().addInputs("in")
+                                .addLayer("dense0", new DenseLayer.Builder().nIn(DENSE_IN).nOut(512)
+                                                .activation(Activation.RELU).build(), "in")
+                                .addLayer("dense1", new DenseLayer.Builder().nIn(512).nOut(256)
+                                                .activation(Activation.RELU).build(), "dense0")
+                                .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(256)
+                                                .nOut(NUM_CLASSES).activation(Activation.SOFTMAX).build(), "dense1")
+                                .setOutputs("out").pretrain(false).backprop(true).build();
+            case LSTM:
+                return baseBuilder(workspaceMode).graphBuilder().addInputs("in")
+                                .addLayer("lstm0", new GravesLSTM.Builder().nIn(LSTM_IN).nOut(128)
+                                                .activation(Activation.TANH).build(), "in")
+                                .addLayer("out", new RnnOutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                                .nIn(128).nOut(NUM_CLASSES).activation(Activation.SOFTMAX).build(),
+                                                "lstm0")
+                                .setOutputs("out").pretrain(false).backprop(true).build();
+            case CNN:
+                return baseBuilder(workspaceMode).graphBuilder().addInputs("in")
+                                .addLayer("cnn0", new ConvolutionLayer.Builder(5, 5).nIn(CNN_DEPTH).nOut(20)
+                                                .stride(1, 1).activation(Activation.IDENTITY).build(), "in")
+                                .addLayer("pool0", new SubsamplingLayer.Builder(SubsamplingLayer.PoolingType.MAX)
+                                                .kernelSize(2, 2).stride(2, 2).build(), "cnn0")
+                                .addLayer("cnn1", new ConvolutionLayer.Builder(5, 5).nOut(50).stride(1, 1)
+                                                .activation(Activation.IDENTITY).build(), "pool0")
+                                .addLayer("pool1", new SubsamplingLayer.Builder(SubsamplingLayer.PoolingType.MAX)
+                                                .kernelSize(2, 2).stride(2, 2).build(), "cnn1")
+                                .addLayer("dense0", new DenseLayer.Builder().nOut(500).activation(Activation.RELU)
+                                                .build(), "pool1")
+                                .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                                .nOut(NUM_CLASSES).activation(Activation.SOFTMAX).build(), "dense0")
+                                .setInputTypes(InputType.convolutional(CNN_HEIGHT, CNN_WIDTH, CNN_DEPTH))
+                                .setOutputs("out").pretrain(false).backprop(true).build();
+            default:
+                throw new IllegalStateException("Unknown model type: " + this);
+        }
+    }
+
+    /**
+     * @param minibatch number of examples
+     * @return random features of the shape expected by this model type
+     */
+    public INDArray features(int minibatch) {
+        switch (this) {
+            case DENSE:
+                return Nd4j.rand(minibatch, DENSE_IN);
+            case LSTM:
+                return Nd4j.rand(new int[] {minibatch, LSTM_IN, LSTM_TIMESTEPS});
+            case CNN:
+                return Nd4j.rand(new int[] {minibatch, CNN_DEPTH, CNN_HEIGHT, CNN_WIDTH});
+            default:
+                throw new IllegalStateException("Unknown model type: " + this);
+        }
+    }
+
+    /**
+     * @param minibatch number of examples
+     * @return random one-hot labels of the shape expected by this model type
+     */
+    public INDArray labels(int minibatch) {
+        Random rng = new Random(SEED);
+        if (this == LSTM) {
+            INDArray labels = Nd4j.zeros(new int[] {minibatch, NUM_CLASSES, LSTM_TIMESTEPS});
+            for (int i = 0; i < minibatch; i++) {
+                for (int t = 0; t < LSTM_TIMESTEPS; t++) {
+                    labels.putScalar(new int[] {i, rng.nextInt(NUM_CLASSES), t}, 1.0);
+                }
+            }
+            return labels;
+        }
+
+        INDArray labels = Nd4j.zeros(minibatch, NUM_CLASSES);
+        for (int i = 0; i < minibatch; i++) {
+            labels.putScalar(i, rng.nextInt(NUM_CLASSES), 1.0);
+        }
+        return labels;
+    }
+}
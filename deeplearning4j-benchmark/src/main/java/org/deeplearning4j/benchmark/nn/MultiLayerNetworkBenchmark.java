@@ -0,0 +1,71 @@
+package org.deeplearning4j.benchmark.nn;
+
+import org.deeplearning4j.nn.conf.WorkspaceMode;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH suite for the {@link MultiLayerNetwork} hot paths: fit(DataSet) and output(INDArray).
+ *
+ * Each invocation processes exactly one minibatch. Throughput mode gives minibatches/sec (plus examples/sec via
+ * {@link ExampleCounter}), SampleTime mode gives per-minibatch latency percentiles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class MultiLayerNetworkBenchmark {
+
+    @Param({"DENSE", "LSTM", "CNN"})
+    public ModelType modelType;
+
+    @Param({"32", "128"})
+    public int minibatch;
+
+    @Param({"NONE", "SINGLE", "SEPARATE"})
+    public WorkspaceMode workspaceMode;
+
+    private MultiLayerNetwork network;
+    private DataSet dataSet;
+    private INDArray features;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        network = new MultiLayerNetwork(modelType.multiLayerConfiguration(workspaceMode));
+        network.init();
+
+        features = modelType.features(minibatch);
+        dataSet = new DataSet(features, modelType.labels(minibatch));
+    }
+
+    @Benchmark
+    public MultiLayerNetwork fit(ExampleCounter counter) {
+        network.fit(dataSet);
+        counter.examples += minibatch;
+        return network;
+    }
+
+    @Benchmark
+    public INDArray output(ExampleCounter counter) {
+        INDArray out = network.output(features);
+        counter.examples += minibatch;
+        return out;
+    }
+}
@@ -0,0 +1,81 @@
+package org.deeplearning4j.benchmark.parallel;
+
+import org.deeplearning4j.benchmark.nn.ExampleCounter;
+import org.deeplearning4j.benchmark.nn.ModelType;
+import org.deeplearning4j.datasets.iterator.impl.ListDataSetIterator;
+import org.deeplearning4j.nn.conf.WorkspaceMode;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.parallelism.ParallelWrapper;
+import org.nd4j.linalg.dataset.DataSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of {@link ParallelWrapper} training modes over the number of workers, on the same {@link ModelType#DENSE}
+ * model and data. Each invocation is one epoch of {@link #NUM_MINIBATCHES} minibatches; compare examples/sec across
+ * worker counts to get the speedup of each mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParallelTrainingBenchmark {
+    private static final int NUM_MINIBATCHES = 64;
+
+    @Param({"AVERAGING", "SHARED_GRADIENTS", "HOGWILD"})
+    public ParallelWrapper.TrainingMode trainingMode;
+
+    @Param({"1", "2", "4", "8"})
+    public int workers;
+
+    @Param({"32"})
+    public int minibatch;
+
+    private ParallelWrapper wrapper;
+    private ListDataSetIterator iterator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MultiLayerNetwork network =
+                        new MultiLayerNetwork(ModelType.DENSE.multiLayerConfiguration(WorkspaceMode.SEPARATE));
+        network.init();
+
+        List<DataSet> list = new ArrayList<>(NUM_MINIBATCHES);
+        for (int i = 0; i < NUM_MINIBATCHES; i++)
+            list.add(new DataSet(ModelType.DENSE.features(minibatch), ModelType.DENSE.labels(minibatch)));
+        // batch of 1 DataSet per next() call, i.e. each DataSet is one minibatch
+        iterator = new ListDataSetIterator(list, 1);
+
+        wrapper = new ParallelWrapper.Builder<>(network).workers(workers).prefetchBuffer(2).averagingFrequency(1)
+                        .trainingMode(trainingMode).workspaceMode(WorkspaceMode.SEPARATE).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        wrapper.shutdown();
+    }
+
+    @Benchmark
+    public ParallelWrapper fitEpoch(ExampleCounter counter) {
+        wrapper.fit(iterator);
+        counter.examples += NUM_MINIBATCHES * minibatch;
+        return wrapper;
+    }
+}
@@ -0,0 +1,643 @@
+package org.deeplearning4j.clustering.randomprojection;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.deeplearning4j.berkeley.Pair;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Forest of random projection trees for approximate maximum inner product search (Annoy-style).
+ *
+ * Every tree recursively splits the rows of the data matrix by the hyperplane equidistant to two randomly picked rows,
+ * until at most {@code leafSize} rows are left in a node. A query walks all trees at once, always expanding the node
+ * with the largest margin, until {@code searchK} candidates were collected; candidates are then scored exactly.
+ * Higher {@code searchK} means better recall at the cost of latency.
+ *
+ * For rows with unit length inner product equals cosine similarity, so normalized word vectors can be used as is.
+ *
+ * The forest keeps only tree structure: data matrix itself is referenced, not copied.
+ * That way, trees can be saved with {@link #write(DataOutputStream)} and restored with {@link #read(DataInputStream)}
+ * followed by {@link #attach(INDArray)} with the same data.
+ */
+public class RPForest {
+    private static final int MAGIC = 0x52504631;
+
+    @Getter
+    private final int numTrees;
+    @Getter
+    private final int leafSize;
+    private final long seed;
+
+    @Getter
+    private int numItems;
+    @Getter
+    private int dimensions;
+    private Tree[] trees;
+
+    private INDArray data;
+    private DataBuffer buffer;
+    private long offset;
+    private int rowStride;
+    private int columnStride;
+
+    private final ThreadLocal<SearchState> searchState = new ThreadLocal<>();
+
+    /**
+     * @param numTrees number of trees. More trees means better recall for the same searchK, and more memory
+     * @param leafSize max number of rows in a leaf
+     * @param seed rng seed
+     */
+    public RPForest(int numTrees, int leafSize, long seed) {
+        if (numTrees < 1)
+            throw new IllegalArgumentException("Number of trees should be positive, got " + numTrees);
+        if (leafSize < 1)
+            throw new IllegalArgumentException("Leaf size should be positive, got " + leafSize);
+
+        this.numTrees = numTrees;
+        this.leafSize = leafSize;
+        this.seed = seed;
+    }
+
+    /**
+     * Builds the forest over rows of the given matrix, one tree per available processor at a time
+     *
+     * @param data matrix with one item per row
+     */
+    public void fit(@NonNull INDArray data) {
+        fit(data, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Builds the forest over rows of the given matrix
+     *
+     * @param data matrix with one item per row
+     * @param workers number of threads used to build trees
+     */
+    public void fit(@NonNull INDArray data, int workers) {
+        setData(data);
+
+        final Tree[] built = new Tree[numTrees];
+        int threads = Math.max(1, Math.min(workers, numTrees));
+        if (threads == 1) {
+            for (int t = 0; t < numTrees; t++)
+                built[t] = buildTree(new Random(seed + t));
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<Tree>> futures = new ArrayList<>();
+                for (int t = 0; t < numTrees; t++) {
+                    final long treeSeed = seed + t;
+                    futures.add(executor.submit(new Callable<Tree>() {
+                        @Override
+                        public Tree call() throws Exception {
+                            return buildTree(new Random(treeSeed));
+                        }
+                    }));
+                }
+
+                for (int t = 0; t < numTrees; t++)
+                    built[t] = futures.get(t).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        this.trees = built;
+    }
+
+    /**
+     * Attaches data matrix to the forest restored with {@link #read(DataInputStream)}.
+     *
+     * @param data the same matrix forest was built on
+     */
+    public void attach(@NonNull INDArray data) {
+        if (data.rows() != numItems || data.columns() != dimensions)
+            throw new IllegalStateException("Forest was built for [" + numItems + ", " + dimensions
+                            + "] matrix, but got " + Arrays.toString(data.shape()));
+
+        setData(data);
+    }
+
+    /**
+     * @return TRUE if trees were built or restored, and data matrix is available for search
+     */
+    public boolean isReady() {
+        return trees != null && data != null;
+    }
+
+    private void setData(INDArray data) {
+        if (data.rank() != 2)
+            throw new IllegalArgumentException("Data should be a matrix, got rank " + data.rank());
+
+        this.data = data;
+        this.buffer = data.data();
+        this.offset = data.offset();
+        this.rowStride = data.stride(0);
+        this.columnStride = data.stride(1);
+        this.numItems = data.rows();
+        this.dimensions = data.columns();
+    }
+
+    private double get(int row, int column) {
+        return buffer.getDouble(offset + (long) row * rowStride + (long) column * columnStride);
+    }
+
+    private double dot(int row, float[] vector) {
+        long base = offset + (long) row * rowStride;
+        double sum = 0.0;
+        for (int j = 0; j < dimensions; j++)
+            sum += buffer.getDouble(base + (long) j * columnStride) * vector[j];
+        return sum;
+    }
+
+    private Tree buildTree(Random rng) {
+        Tree tree = new Tree(dimensions);
+        int[] items = new int[numItems];
+        for (int i = 0; i < numItems; i++)
+            items[i] = i;
+
+        tree.root = split(tree, items, 0, numItems, rng);
+        tree.trim();
+        return tree;
+    }
+
+    /**
+     * Builds node for items[from, to), returns its id
+     */
+    private int split(Tree tree, int[] items, int from, int to, Random rng) {
+        int count = to - from;
+        if (count <= leafSize)
+            return tree.addLeaf(items, from, to);
+
+        int a = items[from + rng.nextInt(count)];
+        int b = items[from + rng.nextInt(count)];
+        for (int attempt = 0; a == b && attempt < 3; attempt++)
+            b = items[from + rng.nextInt(count)];
+
+        // hyperplane equidistant to a and b
+        float[] normal = new float[dimensions];
+        double bias = 0.0;
+        for (int j = 0; j < dimensions; j++) {
+            double va = get(a, j);
+            double vb = get(b, j);
+            normal[j] = (float) (va - vb);
+            bias -= (va - vb) * (va + vb) / 2.0;
+        }
+
+        // partition items in place: positive side goes first
+        int mid = from;
+        for (int i = from; i < to; i++) {
+            double margin = dot(items[i], normal) + bias;
+            boolean positive = margin > 0 || (margin == 0 && rng.nextBoolean());
+            if (positive) {
+                int tmp = items[mid];
+                items[mid] = items[i];
+                items[i] = tmp;
+                mid++;
+            }
+        }
+
+        // degenerate split (duplicates, or a == b): fall back to random halves, so depth stays logarithmic
+        if (mid == from || mid == to) {
+            for (int i = to - 1; i > from; i--) {
+                int j = from + rng.nextInt(i - from + 1);
+                int tmp = items[i];
+                items[i] = items[j];
+                items[j] = tmp;
+            }
+            mid = from + count / 2;
+            Arrays.fill(normal, 0.0f);
+            bias = 0.0;
+        }
+
+        int node = tree.addSplit(normal, (float) bias);
+        int positive = split(tree, items, from, mid, rng);
+        int negative = split(tree, items, mid, to, rng);
+        tree.left[node] = positive;
+        tree.right[node] = negative;
+        return node;
+    }
+
+    /**
+     * Returns approximate top-k rows by inner product with the query
+     *
+     * @param query query vector, length equal to number of columns of the data
+     * @param k number of results
+     * @param searchK number of candidates to score exactly. Values <= 0 mean {@code k * numTrees * 10}
+     * @return row indices and inner products, sorted by inner product in descending order
+     */
+    public Pair<int[], double[]> search(@NonNull INDArray query, int k, int searchK) {
+        if (!isReady())
+            throw new IllegalStateException("Forest wasn't built yet");
+
+        if (query.length() != dimensions)
+            throw new IllegalArgumentException(
+                            "Query length should be " + dimensions + ", got " + query.length());
+
+        float[] vector = new float[dimensions];
+        for (int j = 0; j < dimensions; j++)
+            vector[j] = (float) query.getDouble(j);
+
+        return search(vector, k, searchK);
+    }
+
+    /**
+     * Returns approximate top-k rows by inner product with the query
+     *
+     * @param query query vector, length equal to number of columns of the data
+     * @param k number of results
+     * @param searchK number of candidates to score exactly. Values <= 0 mean {@code k * numTrees * 10}
+     * @return row indices and inner products, sorted by inner product in descending order
+     */
+    public Pair<int[], double[]> search(@NonNull float[] query, int k, int searchK) {
+        if (!isReady())
+            throw new IllegalStateException("Forest wasn't built yet");
+        if (k < 1)
+            throw new IllegalArgumentException("k should be positive, got " + k);
+
+        k = Math.min(k, numItems);
+        if (searchK <= 0)
+            searchK = k * numTrees * 10;
+        searchK = Math.max(searchK, k);
+
+        SearchState state = searchState.get();
+        if (state == null || state.seen.length != numItems) {
+            state = new SearchState(numItems);
+            searchState.set(state);
+        }
+        int stamp = state.nextStamp();
+
+        // best-first traversal over all trees, priority is the smallest margin seen on the path
+        NodeQueue queue = state.queue;
+        queue.clear();
+        for (int t = 0; t < trees.length; t++)
+            queue.push(Double.POSITIVE_INFINITY, t, trees[t].root);
+
+        TopK top = new TopK(k);
+        int candidates = 0;
+        while (candidates < searchK && queue.size() > 0) {
+            double priority = queue.topPriority();
+            int treeId = queue.topTree();
+            Tree tree = trees[treeId];
+            int node = queue.topNode();
+            queue.pop();
+
+            if (node < 0) {
+                int leaf = -node - 1;
+                for (int p = tree.leafOffsets[leaf]; p < tree.leafOffsets[leaf + 1]; p++) {
+                    int item = tree.leafItems[p];
+                    if (state.seen[item] == stamp)
+                        continue;
+
+                    state.seen[item] = stamp;
+                    top.offer(item, dot(item, query));
+                    candidates++;
+                }
+            } else {
+                double margin = tree.margin(node, query);
+                queue.push(Math.min(priority, margin), treeId, tree.left[node]);
+                queue.push(Math.min(priority, -margin), treeId, tree.right[node]);
+            }
+        }
+
+        return top.drainSorted();
+    }
+
+    /**
+     * Writes tree structures to the stream. Data matrix isn't written.
+     */
+    public void write(@NonNull DataOutputStream out) throws IOException {
+        if (trees == null)
+            throw new IllegalStateException("Forest wasn't built yet");
+
+        out.writeInt(MAGIC);
+        out.writeInt(numTrees);
+        out.writeInt(leafSize);
+        out.writeLong(seed);
+        out.writeInt(numItems);
+        out.writeInt(dimensions);
+        for (Tree tree : trees)
+            tree.write(out);
+        out.flush();
+    }
+
+    /**
+     * Restores forest previously saved with {@link #write(DataOutputStream)}.
+     * {@link #attach(INDArray)} should be called before search.
+     */
+    public static RPForest read(@NonNull DataInputStream in) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC)
+            throw new IOException("Stream doesn't contain RPForest data");
+
+        RPForest forest = new RPForest(in.readInt(), in.readInt(), in.readLong());
+        forest.numItems = in.readInt();
+        forest.dimensions = in.readInt();
+        forest.trees = new Tree[forest.numTrees];
+        for (int t = 0; t < forest.numTrees; t++)
+            forest.trees[t] = Tree.read(in, forest.dimensions);
+
+        return forest;
+    }
+
+    /**
+     * Single tree in flat primitive arrays.
+     * Node ids >= 0 are splits, leaf with index i is referenced as -(i + 1).
+     */
+    private static class Tree {
+        private final int dimensions;
+        private int root;
+
+        private int numSplits;
+        private float[] normals;
+        private float[] biases;
+        private int[] left;
+        private int[] right;
+
+        private int numLeaves;
+        private int[] leafOffsets;
+        private int[] leafItems;
+
+        private Tree(int dimensions) {
+            this.dimensions = dimensions;
+            this.normals = new float[16 * dimensions];
+            this.biases = new float[16];
+            this.left = new int[16];
+            this.right = new int[16];
+            this.leafOffsets = new int[17];
+            this.leafItems = new int[16];
+        }
+
+        private int addSplit(float[] normal, float bias) {
+            if (numSplits == biases.length) {
+                int capacity = biases.length * 2;
+                normals = Arrays.copyOf(normals, capacity * dimensions);
+                biases = Arrays.copyOf(biases, capacity);
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+            }
+
+            System.arraycopy(normal, 0, normals, numSplits * dimensions, dimensions);
+            biases[numSplits] = bias;
+            return numSplits++;
+        }
+
+        private int addLeaf(int[] items, int from, int to) {
+            if (numLeaves + 2 > leafOffsets.length)
+                leafOffsets = Arrays.copyOf(leafOffsets, leafOffsets.length * 2);
+
+            int start = leafOffsets[numLeaves];
+            int end = start + (to - from);
+            if (end > leafItems.length)
+                leafItems = Arrays.copyOf(leafItems, Math.max(end, leafItems.length * 2));
+
+            System.arraycopy(items, from, leafItems, start, to - from);
+            leafOffsets[numLeaves + 1] = end;
+            return -(++numLeaves);
+        }
+
+        private void trim() {
+            normals = Arrays.copyOf(normals, numSplits * dimensions);
+            biases = Arrays.copyOf(biases, numSplits);
+            left = Arrays.copyOf(left, numSplits);
+            right = Arrays.copyOf(right, numSplits);
+            leafOffsets = Arrays.copyOf(leafOffsets, numLeaves + 1);
+            leafItems = Arrays.copyOf(leafItems, leafOffsets[numLeaves]);
+        }
+
+        private double margin(int node, float[] query) {
+            int base = node * dimensions;
+            double sum = biases[node];
+            for (int j = 0; j < dimensions; j++)
+                sum += normals[base + j] * query[j];
+            return sum;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeInt(root);
+            out.writeInt(numSplits);
+            for (int i = 0; i < numSplits * dimensions; i++)
+                out.writeFloat(normals[i]);
+            for (int i = 0; i < numSplits; i++) {
+                out.writeFloat(biases[i]);
+                out.writeInt(left[i]);
+                out.writeInt(right[i]);
+            }
+
+            out.writeInt(numLeaves);
+            for (int i = 0; i <= numLeaves; i++)
+                out.writeInt(leafOffsets[i]);
+            for (int i = 0; i < leafOffsets[numLeaves]; i++)
+                out.writeInt(leafItems[i]);
+        }
+
+        private static Tree read(DataInputStream in, int dimensions) throws IOException {
+            Tree tree = new Tree(dimensions);
+            tree.root = in.readInt();
+            tree.numSplits = in.readInt();
+            tree.normals = new float[tree.numSplits * dimensions];
+            for (int i = 0; i < tree.normals.length; i++)
+                tree.normals[i] = in.readFloat();
+
+            tree.biases = new float[tree.numSplits];
+            tree.left = new int[tree.numSplits];
+            tree.right = new int[tree.numSplits];
+            for (int i = 0; i < tree.numSplits; i++) {
+                tree.biases[i] = in.readFloat();
+                tree.left[i] = in.readInt();
+                tree.right[i] = in.readInt();
+            }
+
+            tree.numLeaves = in.readInt();
+            tree.leafOffsets = new int[tree.numLeaves + 1];
+            for (int i = 0; i <= tree.numLeaves; i++)
+                tree.leafOffsets[i] = in.readInt();
+
+            tree.leafItems = new int[tree.leafOffsets[tree.numLeaves]];
+            for (int i = 0; i < tree.leafItems.length; i++)
+                tree.leafItems[i] = in.readInt();
+
+            return tree;
+        }
+    }
+
+    /**
+     * Per-thread scratch space, so concurrent queries don't allocate O(numItems) memory each
+     */
+    private static class SearchState {
+        private final int[] seen;
+        private final NodeQueue queue = new NodeQueue();
+        private int stamp;
+
+        private SearchState(int numItems) {
+            this.seen = new int[numItems];
+        }
+
+        private int nextStamp() {
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(seen, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+    }
+
+    /**
+     * Primitive binary max-heap of (priority, tree, node)
+     */
+    private static class NodeQueue {
+        private double[] priorities = new double[64];
+        private int[] treeIds = new int[64];
+        private int[] nodes = new int[64];
+        private int size;
+
+        private int size() {
+            return size;
+        }
+
+        private void clear() {
+            size = 0;
+        }
+
+        private double topPriority() {
+            return priorities[0];
+        }
+
+        private int topTree() {
+            return treeIds[0];
+        }
+
+        private int topNode() {
+            return nodes[0];
+        }
+
+        private void push(double priority, int tree, int node) {
+            if (size == priorities.length) {
+                priorities = Arrays.copyOf(priorities, size * 2);
+                treeIds = Arrays.copyOf(treeIds, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (priorities[parent] >= priority)
+                    break;
+                set(i, priorities[parent], treeIds[parent], nodes[parent]);
+                i = parent;
+            }
+            set(i, priority, tree, node);
+        }
+
+        private void pop() {
+            size--;
+            if (size == 0)
+                return;
+
+            double priority = priorities[size];
+            int tree = treeIds[size];
+            int node = nodes[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && priorities[child + 1] > priorities[child])
+                    child++;
+                if (priorities[child] <= priority)
+                    break;
+                set(i, priorities[child], treeIds[child], nodes[child]);
+                i = child;
+            }
+            set(i, priority, tree, node);
+        }
+
+        private void set(int i, double priority, int tree, int node) {
+            priorities[i] = priority;
+            treeIds[i] = tree;
+            nodes[i] = node;
+        }
+    }
+
+    /**
+     * Primitive binary min-heap keeping k largest scores
+     */
+    private static class TopK {
+        private final int[] items;
+        private final double[] scores;
+        private int size;
+
+        private TopK(int k) {
+            this.items = new int[k];
+            this.scores = new double[k];
+        }
+
+        private void offer(int item, double score) {
+            if (size < items.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (scores[parent] <= score)
+                        break;
+                    items[i] = items[parent];
+                    scores[i] = scores[parent];
+                    i = parent;
+                }
+                items[i] = item;
+                scores[i] = score;
+            } else if (score > scores[0]) {
+                siftDown(item, score, size);
+            }
+        }
+
+        private void siftDown(int item, double score, int size) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && scores[child + 1] < scores[child])
+                    child++;
+                if (scores[child] >= score)
+                    break;
+                items[i] = items[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            items[i] = item;
+            scores[i] = score;
+        }
+
+        private Pair<int[], double[]> drainSorted() {
+            int[] resultItems = new int[size];
+            double[] resultScores = new double[size];
+            for (int n = size; n > 0; n--) {
+                // heap root is the smallest remaining score, so we fill results from the end
+                resultItems[n - 1] = items[0];
+                resultScores[n - 1] = scores[0];
+                siftDown(items[n - 1], scores[n - 1], n - 1);
+            }
+            size = 0;
+            return new Pair<>(resultItems, resultScores);
+        }
+    }
+}
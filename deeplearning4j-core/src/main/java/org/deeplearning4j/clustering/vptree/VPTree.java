@@ -19,32 +19,47 @@
 package org.deeplearning4j.clustering.vptree;
 
 import org.deeplearning4j.berkeley.CounterMap;
+import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.berkeley.PriorityQueue;
 import org.deeplearning4j.clustering.sptree.DataPoint;
 import org.deeplearning4j.clustering.sptree.HeapItem;
-import org.deeplearning4j.util.MathUtils;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Vantage point tree implementation
  *
+ * Construction partitions each sub-range around the median distance to a random vantage point using quickselect
+ * over a primitive distance buffer (O(n log n) distance computations overall), building large subtrees in parallel.
+ * Distances are only cached in a {@link CounterMap} when one is explicitly passed to the constructor; in that case
+ * the tree is built on the calling thread.
+ *
  * @author Adam Gibson
  */
 public class VPTree {
 
     public static final String EUCLIDEAN = "euclidean";
+    /**
+     * Sub-ranges with at most this many items are built sequentially
+     */
+    public static final int PARALLEL_BUILD_THRESHOLD = 1000;
+
     private List<DataPoint> items;
-    private double tau;
     private Node root;
     private CounterMap<DataPoint, DataPoint> distances;
     private String similarityFunction;
     private boolean invert = true;
+    private int workers = 1;
 
     /**
      *
@@ -53,23 +68,25 @@ public class VPTree {
      * @param invert whether to invert the distance (similarity functions have different min/max objectives)
      */
     public VPTree(INDArray items, String similarityFunction, boolean invert) {
+        this(items, similarityFunction, invert, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     *
+     * @param items the items to use
+     * @param similarityFunction the similiarity function to use
+     * @param invert whether to invert the distance (similarity functions have different min/max objectives)
+     * @param workers number of threads used to build the tree
+     */
+    public VPTree(INDArray items, String similarityFunction, boolean invert, int workers) {
         List<DataPoint> thisItems = new ArrayList<>();
         this.similarityFunction = similarityFunction;
         this.invert = invert;
+        this.workers = workers;
         for (int i = 0; i < items.slices(); i++)
             thisItems.add(new DataPoint(i, items.slice(i), this.similarityFunction, invert));
         this.items = thisItems;
-        final int deviceId = Nd4j.getAffinityManager().getDeviceForCurrentThread();
-        distances = CounterMap.runPairWise(thisItems, new CounterMap.CountFunction<DataPoint>() {
-            @Override
-            public double count(DataPoint v1, DataPoint v2) {
-                Nd4j.getAffinityManager().attachThreadToDevice(Thread.currentThread(), deviceId);
-                return v1.distance(v2);
-            }
-        });
-
-
-        root = buildFromPoints(0, this.items.size());
+        root = build();
     }
 
     /**
@@ -85,21 +102,29 @@ public class VPTree {
         this.distances = distances;
         this.invert = invert;
         this.similarityFunction = similarityFunction;
-        root = buildFromPoints(0, items.size());
+        //CounterMap isn't safe for concurrent updates: build on the calling thread only
+        this.workers = 1;
+        root = build();
 
     }
 
     public VPTree(List<DataPoint> items, String similarityFunction, boolean invert) {
+        this(items, similarityFunction, invert, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     *
+     * @param items the items to use
+     * @param similarityFunction the similarity function to use
+     * @param invert whether to invert the metric (different optimization objective)
+     * @param workers number of threads used to build the tree
+     */
+    public VPTree(List<DataPoint> items, String similarityFunction, boolean invert, int workers) {
         this.items = items;
         this.invert = invert;
         this.similarityFunction = similarityFunction;
-        distances = CounterMap.runPairWise(items, new CounterMap.CountFunction<DataPoint>() {
-            @Override
-            public double count(DataPoint v1, DataPoint v2) {
-                return v1.distance(v2);
-            }
-        });
-        root = buildFromPoints(0, items.size());
+        this.workers = workers;
+        root = build();
     }
 
 
@@ -147,6 +172,9 @@ public class VPTree {
     }
 
     private double getDistance(DataPoint d1, DataPoint d2) {
+        if (distances == null)
+            return d1.distance(d2);
+
         double count = distances.getCount(d1, d2);
         if (count == 0) {
             double realDistance = d1.distance(d2);
@@ -157,82 +185,304 @@ public class VPTree {
         return count;
     }
 
-    private Node buildFromPoints(int lower, int upper) {
+    /**
+     * Build the tree over all items. Subtrees covering more than {@link #PARALLEL_BUILD_THRESHOLD} items are built
+     * concurrently on a ForkJoinPool when more than one worker is available.
+     */
+    private Node build() {
+        DataPoint[] points = items.toArray(new DataPoint[items.size()]);
+        double[] buffer = new double[points.length];
+
+        Node ret;
+        if (workers > 1 && points.length > PARALLEL_BUILD_THRESHOLD) {
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try {
+                ret = pool.invoke(new BuildTask(points, buffer, 0, points.length,
+                                Nd4j.getAffinityManager().getDeviceForCurrentThread()));
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            ret = buildFromPoints(points, buffer, 0, points.length);
+        }
+
+        //Items are reordered during construction: node indices refer to positions in the reordered list
+        for (int i = 0; i < points.length; i++)
+            items.set(i, points[i]);
+
+        return ret;
+    }
+
+    /**
+     * Build the subtree over points[lower, upper). Only this sub-range is touched: the distances to the vantage point
+     * are stored in buffer[lower+1, upper), and the range is partitioned around the median distance using quickselect
+     * (expected linear time), so overall construction is O(n log n) distance computations.
+     */
+    private Node buildFromPoints(DataPoint[] points, double[] buffer, int lower, int upper) {
         if (upper == lower)
             return null;
         Node ret = new Node(lower, 0);
         if (upper - lower > 1) {
-            int randomPoint = MathUtils.randomNumberBetween(lower, upper - 1);
-
-            // Partition around the median distance
-            int median = (upper + lower) / 2;
-            double distances[] = new double[items.size()];
-            double sortedDistances[] = new double[items.size()];
-            DataPoint basePoint = items.get(randomPoint);
-            for (int i = 0; i < items.size(); ++i) {
-                distances[i] = getDistance(basePoint, items.get(i));
-                sortedDistances[i] = distances[i];
-            }
+            int median = partition(points, buffer, lower, upper);
+            ret.setThreshold(buffer[median]);
+            ret.setLeft(buildFromPoints(points, buffer, lower + 1, median));
+            ret.setRight(buildFromPoints(points, buffer, median, upper));
+        }
 
-            Arrays.sort(sortedDistances);
-            final double medianDistance = sortedDistances[sortedDistances.length / 2];
-            List<DataPoint> leftPoints = new ArrayList<>(sortedDistances.length);
-            List<DataPoint> rightPoints = new ArrayList<>(sortedDistances.length);
+        return ret;
+    }
 
-            for (int i = 0; i < distances.length; i++) {
-                if (distances[i] < medianDistance) {
-                    leftPoints.add(items.get(i));
-                } else {
-                    rightPoints.add(items.get(i));
-                }
-            }
+    /**
+     * Pick a random vantage point, move it to position lower, and partition points[lower+1, upper) so that the point
+     * at the returned median position has the median distance to the vantage point, with closer (or equal) points to
+     * its left and further (or equal) points to its right.
+     */
+    private int partition(DataPoint[] points, double[] buffer, int lower, int upper) {
+        swap(points, buffer, lower, ThreadLocalRandom.current().nextInt(lower, upper));
 
-            for (int i = 0; i < leftPoints.size(); ++i) {
-                items.set(i, leftPoints.get(i));
-            }
+        DataPoint basePoint = points[lower];
+        for (int i = lower + 1; i < upper; i++)
+            buffer[i] = getDistance(basePoint, points[i]);
 
-            for (int i = 0; i < rightPoints.size(); ++i) {
-                items.set(i + leftPoints.size(), rightPoints.get(i));
+        // Partition around the median distance
+        int median = (upper + lower) / 2;
+        quickSelect(points, buffer, lower + 1, upper - 1, median);
+        return median;
+    }
+
+    /**
+     * Rearrange points/distances in [left, right] (inclusive) such that position k holds the k-th smallest distance.
+     * Uses 3-way partitioning: distances equal to the pivot are grouped together, so duplicate points (or many points
+     * at the same distance) don't degrade selection to quadratic time.
+     */
+    private static void quickSelect(DataPoint[] points, double[] distances, int left, int right, int k) {
+        while (right > left) {
+            double pivot = distances[left + (right - left) / 2];
+
+            // [left, lt) < pivot, [lt, i) == pivot, (gt, right] > pivot
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                if (distances[i] < pivot)
+                    swap(points, distances, lt++, i++);
+                else if (distances[i] > pivot)
+                    swap(points, distances, i, gt--);
+                else
+                    i++;
             }
 
-            ret.setThreshold(getDistance(items.get(lower), items.get(median)));
-            ret.setIndex(lower);
-            ret.setLeft(buildFromPoints(lower + 1, median));
-            ret.setRight(buildFromPoints(median, upper));
+            if (k < lt)
+                right = lt - 1;
+            else if (k > gt)
+                left = gt + 1;
+            else
+                return;
+        }
+    }
 
+    private static void swap(DataPoint[] points, double[] distances, int i, int j) {
+        if (i == j)
+            return;
+        DataPoint p = points[i];
+        points[i] = points[j];
+        points[j] = p;
 
+        double d = distances[i];
+        distances[i] = distances[j];
+        distances[j] = d;
+    }
 
+    /**
+     * Builds the subtree over [lower, upper), forking left/right subtrees while they are above the threshold.
+     * Concurrent tasks always work on disjoint ranges of the points and distance buffer.
+     */
+    private class BuildTask extends RecursiveTask<Node> {
+        private final DataPoint[] points;
+        private final double[] buffer;
+        private final int lower;
+        private final int upper;
+        private final int deviceId;
+
+        private BuildTask(DataPoint[] points, double[] buffer, int lower, int upper, int deviceId) {
+            this.points = points;
+            this.buffer = buffer;
+            this.lower = lower;
+            this.upper = upper;
+            this.deviceId = deviceId;
         }
 
-        return ret;
-
+        @Override
+        protected Node compute() {
+            if (upper - lower <= PARALLEL_BUILD_THRESHOLD)
+                return buildFromPoints(points, buffer, lower, upper);
+
+            Nd4j.getAffinityManager().attachThreadToDevice(Thread.currentThread(), deviceId);
+
+            Node ret = new Node(lower, 0);
+            int median = partition(points, buffer, lower, upper);
+            ret.setThreshold(buffer[median]);
+
+            BuildTask left = new BuildTask(points, buffer, lower + 1, median, deviceId);
+            BuildTask right = new BuildTask(points, buffer, median, upper, deviceId);
+            left.fork();
+            ret.setRight(right.compute());
+            ret.setLeft(left.join());
+            return ret;
+        }
     }
 
 
+    /**
+     * Find the k nearest neighbours of the target. Safe to call concurrently on the same tree.
+     *
+     * @param target the point to search around
+     * @param k the number of neighbours to return
+     * @param results the nearest items, closest first (cleared before use)
+     * @param distances the distances of the results to the target, closest first (cleared before use)
+     */
     public void search(DataPoint target, int k, List<DataPoint> results, List<Double> distances) {
-        PriorityQueue<HeapItem> pq = new PriorityQueue<>();
-        tau = Double.MAX_VALUE;
-        search(root, target, k, pq);
+        SearchHeap heap = new SearchHeap(k);
+        search(root, target, heap);
 
         results.clear();
         distances.clear();
 
-        while (!pq.isEmpty()) {
-            results.add(items.get(pq.peek().getIndex()));
-            distances.add(pq.peek().getDistance());
-            pq.next();
+        int[] positions = new int[heap.size];
+        double[] dists = new double[heap.size];
+        heap.drainSorted(positions, dists);
+        for (int i = 0; i < positions.length; i++) {
+            results.add(items.get(positions[i]));
+            distances.add(dists[i]);
         }
+    }
 
-        Collections.reverse(results);
-        Collections.reverse(distances);
+    /**
+     * Batched k nearest neighbour search, one query per row, using all available processors.
+     *
+     * @param queries the query points, one per row
+     * @param k the number of neighbours to return per query
+     * @return for each query (first) the indices ({@link DataPoint#getIndex()}) of the nearest items, closest first,
+     *         and (second) the corresponding distances. Rows are shorter than k if the tree has fewer than k items
+     */
+    public Pair<int[][], double[][]> search(INDArray queries, int k) {
+        return search(queries, k, Runtime.getRuntime().availableProcessors());
     }
 
+    /**
+     * Batched k nearest neighbour search, one query per row. Each worker thread reuses a single primitive heap for
+     * all of its queries; no per-candidate objects are allocated.
+     *
+     * @param queries the query points, one per row
+     * @param k the number of neighbours to return per query
+     * @param workers the number of threads to split the queries over
+     * @return for each query (first) the indices ({@link DataPoint#getIndex()}) of the nearest items, closest first,
+     *         and (second) the corresponding distances. Rows are shorter than k if the tree has fewer than k items
+     */
+    public Pair<int[][], double[][]> search(final INDArray queries, final int k, int workers) {
+        final int numQueries = queries.rows();
+        final int[][] indices = new int[numQueries][];
+        final double[][] distances = new double[numQueries][];
+
+        workers = Math.max(1, Math.min(workers, numQueries));
+        if (workers == 1) {
+            searchRange(queries, k, 0, numQueries, indices, distances);
+            return new Pair<>(indices, distances);
+        }
+
+        final int deviceId = Nd4j.getAffinityManager().getDeviceForCurrentThread();
+        final int chunkSize = (numQueries + workers - 1) / workers;
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int w = 0; w < workers; w++) {
+                final int from = w * chunkSize;
+                final int to = Math.min(numQueries, from + chunkSize);
+                if (from >= to)
+                    break;
+
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        Nd4j.getAffinityManager().attachThreadToDevice(Thread.currentThread(), deviceId);
+                        searchRange(queries, k, from, to, indices, distances);
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures)
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+
+        return new Pair<>(indices, distances);
+    }
+
+    private void searchRange(INDArray queries, int k, int from, int to, int[][] indices, double[][] distances) {
+        SearchHeap heap = new SearchHeap(k);
+        int[] positions = new int[heap.capacity];
+        for (int q = from; q < to; q++) {
+            heap.clear();
+            search(root, new DataPoint(q, queries.getRow(q), similarityFunction, invert), heap);
+
+            int found = heap.size;
+            double[] dists = new double[found];
+            heap.drainSorted(positions, dists);
+
+            int[] idx = new int[found];
+            for (int i = 0; i < found; i++)
+                idx[i] = items.get(positions[i]).getIndex();
+
+            indices[q] = idx;
+            distances[q] = dists;
+        }
+    }
+
+    private void search(Node node, DataPoint target, SearchHeap heap) {
+        if (node == null)
+            return;
+        DataPoint get = items.get(node.getIndex());
+        //Query distances are not cached: a CounterMap isn't safe for concurrent searches
+        double distance = get.distance(target);
+        heap.offer(node.getIndex(), distance);
+
+        if (node.getLeft() == null && node.getRight() == null)
+            return;
+
+        if (distance < node.getThreshold()) {
+            if (distance - heap.tau() <= node.getThreshold()) { // if there can still be neighbors inside the ball, recursively search left child first
+                search(node.getLeft(), target, heap);
+            }
+
+            if (distance + heap.tau() >= node.getThreshold()) { // if there can still be neighbors outside the ball, recursively search right child
+                search(node.getRight(), target, heap);
+            }
+
+        } else {
+            if (distance + heap.tau() >= node.getThreshold()) { // if there can still be neighbors outside the ball, recursively search right child first
+                search(node.getRight(), target, heap);
+            }
+
+            if (distance - heap.tau() <= node.getThreshold()) { // if there can still be neighbors inside the ball, recursively search left child
+                search(node.getLeft(), target, heap);
+            }
+        }
+
+    }
 
     public void search(Node node, DataPoint target, int k, PriorityQueue<HeapItem> pq) {
         if (node == null)
             return;
         DataPoint get = items.get(node.getIndex());
         double distance = getDistance(get, target);
+        //tau is derived from the queue instead of shared instance state, so concurrent searches don't interfere
+        double tau = pq.size() == k ? pq.peek().getDistance() : Double.MAX_VALUE;
         if (distance < tau) {
             if (pq.size() == k)
                 pq.next();
@@ -251,6 +501,7 @@ public class VPTree {
                 search(node.getLeft(), target, k, pq);
             }
 
+            tau = pq.size() == k ? pq.peek().getDistance() : Double.MAX_VALUE;
             if (distance + tau >= node.getThreshold()) { // if there can still be neighbors outside the ball, recursively search right child
                 search(node.getRight(), target, k, pq);
             }
@@ -260,6 +511,7 @@ public class VPTree {
                 search(node.getRight(), target, k, pq);
             }
 
+            tau = pq.size() == k ? pq.peek().getDistance() : Double.MAX_VALUE;
             if (distance - tau <= node.getThreshold()) { // if there can still be neighbors inside the ball, recursively search left child
                 search(node.getLeft(), target, k, pq);
             }
@@ -267,6 +519,83 @@ public class VPTree {
 
     }
 
+    /**
+     * Fixed capacity max-heap on distance over primitive arrays, holding the k best candidates of one query.
+     * tau is the current k-th best distance (or Double.MAX_VALUE until k candidates have been seen).
+     */
+    private static class SearchHeap {
+        private final int capacity;
+        private final int[] positions;
+        private final double[] distances;
+        private int size;
+
+        private SearchHeap(int capacity) {
+            if (capacity < 1)
+                throw new IllegalArgumentException("Number of neighbours to search for must be > 0, got " + capacity);
+            this.capacity = capacity;
+            this.positions = new int[capacity];
+            this.distances = new double[capacity];
+        }
+
+        private void clear() {
+            size = 0;
+        }
+
+        private double tau() {
+            return size == capacity ? distances[0] : Double.MAX_VALUE;
+        }
+
+        private void offer(int position, double distance) {
+            if (size < capacity) {
+                //Sift up
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) / 2;
+                    if (distances[parent] >= distance)
+                        break;
+                    positions[i] = positions[parent];
+                    distances[i] = distances[parent];
+                    i = parent;
+                }
+                positions[i] = position;
+                distances[i] = distance;
+            } else if (distance < distances[0]) {
+                //Replace the current worst candidate, sift down
+                siftDown(0, position, distance);
+            }
+        }
+
+        private void siftDown(int i, int position, double distance) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && distances[child + 1] > distances[child])
+                    child++;
+                if (distances[child] <= distance)
+                    break;
+                positions[i] = positions[child];
+                distances[i] = distances[child];
+                i = child;
+            }
+            positions[i] = position;
+            distances[i] = distance;
+        }
+
+        /**
+         * Empty the heap into the given arrays, closest first
+         */
+        private void drainSorted(int[] outPositions, double[] outDistances) {
+            for (int i = size - 1; i >= 0; i--) {
+                outPositions[i] = positions[0];
+                outDistances[i] = distances[0];
+                size--;
+                if (size > 0)
+                    siftDown(0, positions[size], distances[size]);
+            }
+        }
+    }
+
     public CounterMap<DataPoint, DataPoint> getDistances() {
         return distances;
     }
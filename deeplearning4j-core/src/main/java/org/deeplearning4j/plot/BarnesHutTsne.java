@@ -24,7 +24,6 @@ import com.google.common.util.concurrent.AtomicDouble;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.math3.util.FastMath;
 import org.deeplearning4j.berkeley.Pair;
-import org.deeplearning4j.clustering.sptree.DataPoint;
 import org.deeplearning4j.clustering.sptree.SpTree;
 import org.deeplearning4j.clustering.vptree.VPTree;
 import org.deeplearning4j.nn.api.Model;
@@ -44,7 +43,6 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -181,6 +179,9 @@ public class BarnesHutTsne implements Model {
         final double logU = FastMath.log(u);
         VPTree tree = new VPTree(d, simiarlityFunction, invert);
 
+        log.info("Calculating nearest neighbours...");
+        int[][] neighbours = tree.search(d, k + 1).getFirst();
+
         log.info("Calculating probabilities of data similarities...");
         for (int i = 0; i < N; i++) {
             if (i % 500 == 0)
@@ -188,11 +189,10 @@ public class BarnesHutTsne implements Model {
 
             double betaMin = -Double.MAX_VALUE;
             double betaMax = Double.MAX_VALUE;
-            List<DataPoint> results = new ArrayList<>();
-            tree.search(new DataPoint(i, d.slice(i)), k + 1, results, new ArrayList<Double>());
+            int[] results = neighbours[i];
             double betas = beta.getDouble(i);
 
-            INDArray cArr = VPTree.buildFromData(results);
+            INDArray cArr = Nd4j.pullRows(d, 1, results);
             Pair<INDArray, Double> pair = computeGaussianKernel(cArr, beta.getDouble(i), k);
             INDArray currP = pair.getFirst();
             double hDiff = pair.getSecond() - logU;
@@ -229,9 +229,9 @@ public class BarnesHutTsne implements Model {
             currP.divi(currP.sum(Integer.MAX_VALUE));
             INDArray indices = Nd4j.create(1, k + 1);
             for (int j = 0; j < indices.length(); j++) {
-                if (j >= results.size())
+                if (j >= results.length)
                     break;
-                indices.putScalar(j, results.get(j).getIndex());
+                indices.putScalar(j, results[j]);
             }
 
             for (int l = 0; l < k; l++) {
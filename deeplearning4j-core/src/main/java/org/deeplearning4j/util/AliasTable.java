@@ -0,0 +1,237 @@
+package org.deeplearning4j.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**Per-vertex alias tables (Vose's alias method) for weighted neighbour sampling.<br>
+ * Once built, each weighted step of a random walk is O(1) regardless of vertex degree, instead of summing and scanning
+ * the whole edge list. All tables are stored in flat primitive arrays (compressed sparse row layout): entries
+ * {@code offsets[v]} to {@code offsets[v+1]} hold the neighbours of vertex v, the probability of keeping each
+ * neighbour, and the alias neighbour used otherwise.<br>
+ * Tables are immutable once built, so a single instance can be shared between any number of threads/walkers.
+ * Changes made to the graph after the tables were built are not reflected.<br>
+ * Graph implementations provide their weighted edges through {@link Adjacency}.
+ */
+public class AliasTable {
+
+    /**Weighted outgoing edges of each vertex of a graph, as read when building alias tables
+     */
+    public interface Adjacency {
+
+        /** Number of vertices in the graph */
+        int numVertices();
+
+        /** Number of outgoing (or undirected) edges of the given vertex */
+        int degree(int vertex);
+
+        /**Write the neighbours of the given vertex and the (unnormalized) weights of the edges to them, starting at
+         * the given offset. Exactly {@link #degree(int)} entries must be written. May be called from multiple threads
+         * for different vertices.
+         */
+        void getEdges(int vertex, int[] neighbours, double[] weights, int offset);
+    }
+
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    private AliasTable(int[] offsets, int[] neighbours, double[] probabilities, int[] aliases) {
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.probabilities = probabilities;
+        this.aliases = aliases;
+    }
+
+    /**Build alias tables for all vertices in the graph, using all available processors
+     * @see #build(Adjacency, int)
+     */
+    public static AliasTable build(Adjacency graph) {
+        return build(graph, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**Build alias tables for all vertices in the graph. Vertices where all outgoing edges have weight 0 are sampled
+     * uniformly.
+     * @param graph graph to build tables for
+     * @param numThreads number of threads used to build tables for vertex ranges in parallel
+     * @throws IllegalArgumentException if the graph contains edges with negative, infinite or NaN weights
+     */
+    public static AliasTable build(final Adjacency graph, int numThreads) {
+        final int nVertices = graph.numVertices();
+        final int[] offsets = new int[nVertices + 1];
+        for (int i = 0; i < nVertices; i++)
+            offsets[i + 1] = offsets[i] + graph.degree(i);
+
+        int nEntries = offsets[nVertices];
+        final int[] neighbours = new int[nEntries];
+        final double[] probabilities = new double[nEntries];
+        final int[] aliases = new int[nEntries];
+
+        numThreads = Math.max(1, Math.min(numThreads, nVertices));
+        if (numThreads == 1 || nEntries < 10000) {
+            new RangeBuilder(graph, offsets, neighbours, probabilities, aliases, 0, nVertices).call();
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+            try {
+                // ranges are balanced by number of edges, not vertices: power-law graphs have few huge hubs
+                long perThread = (nEntries + numThreads - 1) / numThreads;
+                List<Future<Void>> futures = new ArrayList<>(numThreads);
+                int from = 0;
+                for (int t = 0; t < numThreads && from < nVertices; t++) {
+                    int to = from + 1;
+                    if (t == numThreads - 1) {
+                        to = nVertices;
+                    } else {
+                        while (to < nVertices && offsets[to] - offsets[from] < perThread)
+                            to++;
+                    }
+                    futures.add(executor.submit(
+                                    new RangeBuilder(graph, offsets, neighbours, probabilities, aliases, from, to)));
+                    from = to;
+                }
+
+                for (Future<Void> f : futures)
+                    f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while building alias tables", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw new RuntimeException(e.getCause());
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        return new AliasTable(offsets, neighbours, probabilities, aliases);
+    }
+
+    /** Number of vertices these tables were built for */
+    public int numVertices() {
+        return offsets.length - 1;
+    }
+
+    /** Number of outgoing (or undirected) edges of the given vertex at the time tables were built */
+    public int degree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /**Sample a neighbour of the specified vertex, with probability proportional to edge weight
+     * @param vertex vertex to sample neighbour of
+     * @param rng random number generator to use
+     * @return index of the sampled neighbour vertex, or -1 if vertex has no outgoing edges
+     */
+    public int sample(int vertex, Random rng) {
+        int start = offsets[vertex];
+        int degree = offsets[vertex + 1] - start;
+        if (degree == 0)
+            return -1;
+
+        int idx = start + (degree == 1 ? 0 : rng.nextInt(degree));
+        return rng.nextDouble() < probabilities[idx] ? neighbours[idx] : aliases[idx];
+    }
+
+    private static class RangeBuilder implements Callable<Void> {
+        private final Adjacency graph;
+        private final int[] offsets;
+        private final int[] neighbours;
+        private final double[] probabilities;
+        private final int[] aliases;
+        private final int from;
+        private final int to;
+
+        private RangeBuilder(Adjacency graph, int[] offsets, int[] neighbours,
+                        double[] probabilities, int[] aliases, int from, int to) {
+            this.graph = graph;
+            this.offsets = offsets;
+            this.neighbours = neighbours;
+            this.probabilities = probabilities;
+            this.aliases = aliases;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Void call() {
+            int[] small = new int[16];
+            int[] large = new int[16];
+
+            for (int v = from; v < to; v++) {
+                int start = offsets[v];
+                int degree = offsets[v + 1] - start;
+                if (degree == 0)
+                    continue;
+
+                graph.getEdges(v, neighbours, probabilities, start);
+
+                double totalWeight = 0.0;
+                for (int i = start; i < start + degree; i++) {
+                    double w = probabilities[i];
+                    if (w < 0.0 || Double.isNaN(w) || Double.isInfinite(w))
+                        throw new IllegalArgumentException("Invalid weight " + w + " for edge " + v + " -> "
+                                        + neighbours[i] + ": weights must be finite and non-negative");
+                    totalWeight += w;
+                }
+
+                if (totalWeight == 0.0) {
+                    for (int i = start; i < start + degree; i++) {
+                        probabilities[i] = 1.0;
+                        aliases[i] = neighbours[i];
+                    }
+                    continue;
+                }
+
+                if (small.length < degree) {
+                    small = new int[degree];
+                    large = new int[degree];
+                }
+
+                // Vose: scale weights so that average is 1, then pair each "small" entry with a "large" one
+                int nSmall = 0;
+                int nLarge = 0;
+                double scale = degree / totalWeight;
+                for (int i = 0; i < degree; i++) {
+                    double p = probabilities[start + i] * scale;
+                    probabilities[start + i] = p;
+                    if (p < 1.0)
+                        small[nSmall++] = i;
+                    else
+                        large[nLarge++] = i;
+                }
+
+                while (nSmall > 0 && nLarge > 0) {
+                    int s = small[--nSmall];
+                    int l = large[--nLarge];
+
+                    aliases[start + s] = neighbours[start + l];
+                    double p = (probabilities[start + l] + probabilities[start + s]) - 1.0;
+                    probabilities[start + l] = p;
+                    if (p < 1.0)
+                        small[nSmall++] = l;
+                    else
+                        large[nLarge++] = l;
+                }
+
+                // whatever is left is 1.0 up to rounding errors
+                while (nLarge > 0) {
+                    int l = large[--nLarge];
+                    probabilities[start + l] = 1.0;
+                    aliases[start + l] = neighbours[start + l];
+                }
+                while (nSmall > 0) {
+                    int s = small[--nSmall];
+                    probabilities[start + s] = 1.0;
+                    aliases[start + s] = neighbours[start + s];
+                }
+            }
+            return null;
+        }
+    }
+}
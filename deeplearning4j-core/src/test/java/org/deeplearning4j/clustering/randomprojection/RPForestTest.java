@@ -0,0 +1,115 @@
+package org.deeplearning4j.clustering.randomprojection;
+
+import org.deeplearning4j.berkeley.Pair;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RPForestTest {
+
+    private static int[] bruteForce(INDArray data, INDArray query, int k) {
+        INDArray scores = data.mmul(query.transpose());
+        INDArray[] sorted = Nd4j.sortWithIndices(scores.dup(), 0, false);
+        int[] result = new int[k];
+        for (int i = 0; i < k; i++)
+            result[i] = sorted[0].getInt(i);
+        return result;
+    }
+
+    @Test
+    public void testExhaustiveSearchIsExact() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray data = Nd4j.randn(500, 16);
+        data.diviColumnVector(data.norm2(1));
+
+        RPForest forest = new RPForest(4, 10, 119);
+        forest.fit(data, 2);
+
+        for (int q = 0; q < 10; q++) {
+            INDArray query = data.getRow(q * 7);
+            // searchK == numItems visits every leaf, so result should match brute force
+            Pair<int[], double[]> result = forest.search(query, 10, data.rows());
+
+            assertArrayEquals(bruteForce(data, query, 10), result.getFirst());
+            for (int i = 1; i < result.getSecond().length; i++)
+                assertTrue(result.getSecond()[i - 1] >= result.getSecond()[i]);
+        }
+    }
+
+    @Test
+    public void testRecallGrowsWithSearchK() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray data = Nd4j.randn(2000, 32);
+        data.diviColumnVector(data.norm2(1));
+
+        RPForest forest = new RPForest(10, 20, 119);
+        forest.fit(data);
+
+        int k = 10;
+        int[] budgets = new int[] {50, 500, 2000};
+        double[] recall = new double[budgets.length];
+        for (int q = 0; q < 50; q++) {
+            INDArray query = data.getRow(q * 13);
+            Set<Integer> exact = new HashSet<>();
+            for (int i : bruteForce(data, query, k))
+                exact.add(i);
+
+            for (int b = 0; b < budgets.length; b++) {
+                for (int i : forest.search(query, k, budgets[b]).getFirst())
+                    if (exact.contains(i))
+                        recall[b] += 1.0 / (50 * k);
+            }
+        }
+
+        assertTrue(Arrays.toString(recall), recall[0] <= recall[1] + 1e-6);
+        assertTrue(Arrays.toString(recall), recall[1] <= recall[2] + 1e-6);
+        assertEquals(1.0, recall[2], 1e-6);
+    }
+
+    @Test
+    public void testWriteRead() throws Exception {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray data = Nd4j.randn(300, 8);
+
+        RPForest forest = new RPForest(3, 5, 119);
+        forest.fit(data, 1);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        forest.write(new DataOutputStream(baos));
+
+        RPForest restored = RPForest.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        assertEquals(3, restored.getNumTrees());
+        assertEquals(5, restored.getLeafSize());
+        assertEquals(300, restored.getNumItems());
+
+        restored.attach(data);
+        for (int q = 0; q < 10; q++) {
+            INDArray query = data.getRow(q);
+            assertArrayEquals(forest.search(query, 5, 40).getFirst(), restored.search(query, 5, 40).getFirst());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAttachShapeMismatch() throws Exception {
+        RPForest forest = new RPForest(2, 5, 119);
+        forest.fit(Nd4j.randn(50, 4), 1);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        forest.write(new DataOutputStream(baos));
+
+        RPForest restored = RPForest.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        restored.attach(Nd4j.randn(49, 4));
+    }
+}
@@ -18,14 +18,18 @@
 
 package org.deeplearning4j.clustering.vptree;
 
+import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.clustering.sptree.DataPoint;
 import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Anatoly Borisov
@@ -48,4 +52,98 @@ public class VpTreeNodeTest {
 
     }
 
+    @Test
+    public void testBuildMatchesBruteForce() {
+        Nd4j.getRandom().setSeed(12345);
+        int n = 3 * VPTree.PARALLEL_BUILD_THRESHOLD;
+        INDArray data = Nd4j.rand(n, 4);
+        INDArray query = Nd4j.rand(1, 4);
+        int k = 5;
+
+        //Brute force k nearest neighbours
+        double[] bruteForce = new double[n];
+        for (int i = 0; i < n; i++)
+            bruteForce[i] = data.getRow(i).distance2(query);
+        Arrays.sort(bruteForce);
+
+        for (int workers : new int[] {1, 4}) {
+            List<DataPoint> points = new ArrayList<>();
+            for (int i = 0; i < n; i++)
+                points.add(new DataPoint(i, data.getRow(i)));
+
+            VPTree tree = new VPTree(points, VPTree.EUCLIDEAN, false, workers);
+            assertEquals(n, tree.getItems().size());
+
+            List<DataPoint> results = new ArrayList<>();
+            List<Double> distances = new ArrayList<>();
+            tree.search(new DataPoint(0, query), k, results, distances);
+
+            assertEquals(k, results.size());
+            for (int i = 0; i < k; i++) {
+                assertEquals(bruteForce[i], distances.get(i), 1e-5);
+                assertEquals(distances.get(i), results.get(i).getPoint().distance2(query), 1e-5);
+            }
+        }
+    }
+
+    @Test(timeout = 60000L)
+    public void testBuildWithDuplicates() {
+        //Only 3 distinct points: most distances to any vantage point are equal
+        int n = 5000;
+        INDArray[] distinct = {Nd4j.create(new double[] {0, 0}), Nd4j.create(new double[] {1, 1}),
+                        Nd4j.create(new double[] {5, 5})};
+        List<DataPoint> points = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            points.add(new DataPoint(i, distinct[i % distinct.length]));
+
+        VPTree tree = new VPTree(points, VPTree.EUCLIDEAN, false, 1);
+        assertEquals(n, tree.getItems().size());
+
+        List<DataPoint> results = new ArrayList<>();
+        List<Double> distances = new ArrayList<>();
+        tree.search(new DataPoint(0, Nd4j.create(new double[] {0.9, 0.9})), 10, results, distances);
+        assertEquals(10, results.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(distinct[1], results.get(i).getPoint());
+            assertEquals(Math.sqrt(0.02), distances.get(i), 1e-5);
+        }
+    }
+
+    @Test
+    public void testBatchedSearch() {
+        Nd4j.getRandom().setSeed(12345);
+        int n = 500;
+        INDArray data = Nd4j.rand(n, 3);
+        INDArray queries = Nd4j.rand(20, 3);
+        int k = 4;
+
+        VPTree tree = new VPTree(data, VPTree.EUCLIDEAN, false);
+
+        for (int workers : new int[] {1, 3}) {
+            Pair<int[][], double[][]> results = tree.search(queries, k, workers);
+            int[][] indices = results.getFirst();
+            double[][] distances = results.getSecond();
+            assertEquals(queries.rows(), indices.length);
+
+            for (int q = 0; q < queries.rows(); q++) {
+                INDArray query = queries.getRow(q);
+
+                //Must match the single query search
+                List<DataPoint> expResults = new ArrayList<>();
+                List<Double> expDistances = new ArrayList<>();
+                tree.search(new DataPoint(q, query), k, expResults, expDistances);
+
+                assertEquals(k, indices[q].length);
+                assertEquals(k, distances[q].length);
+                for (int i = 0; i < k; i++) {
+                    assertEquals(expResults.get(i).getIndex(), indices[q][i]);
+                    assertEquals(expDistances.get(i), distances[q][i], 1e-6);
+                    assertEquals(data.getRow(indices[q][i]).distance2(query), distances[q][i], 1e-5);
+                    if (i > 0)
+                        assertTrue(distances[q][i - 1] <= distances[q][i]);
+                }
+            }
+        }
+    }
+
 }
@@ -0,0 +1,137 @@
+package org.deeplearning4j.datasets.iterator;
+
+import org.junit.Test;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ShardedAsyncDataSetIteratorTest {
+
+    private static DataSetIterator iterator(int first, int count) {
+        List<DataSet> list = new ArrayList<>();
+        for (int i = first; i < first + count; i++)
+            list.add(new DataSet(Nd4j.create(new double[] {i, i}), Nd4j.create(new double[] {i})));
+        return new ExistingDataSetIterator(list);
+    }
+
+    private static List<Integer> drain(DataSetIterator iterator) {
+        List<Integer> result = new ArrayList<>();
+        while (iterator.hasNext())
+            result.add((int) iterator.next().getLabels().getDouble(0));
+        return result;
+    }
+
+    private static DataSetPreProcessor slowPreProcessor() {
+        return new DataSetPreProcessor() {
+            @Override
+            public void preProcess(org.nd4j.linalg.dataset.api.DataSet toPreProcess) {
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                toPreProcess.getFeatures().muli(2);
+            }
+        };
+    }
+
+    @Test
+    public void testOrderedShards() {
+        List<DataSetIterator> shards = Arrays.asList(iterator(0, 5), iterator(100, 3), iterator(200, 4));
+        ShardedAsyncDataSetIterator iterator = new ShardedAsyncDataSetIterator(shards, 2, true, false);
+
+        List<Integer> expected = Arrays.asList(0, 100, 200, 1, 101, 201, 2, 102, 202, 3, 203, 4);
+        assertEquals(expected, drain(iterator));
+        iterator.shutdown();
+    }
+
+    @Test
+    public void testUnorderedShardsWithReset() {
+        List<DataSetIterator> shards = Arrays.asList(iterator(0, 10), iterator(100, 10), iterator(200, 10));
+        ShardedAsyncDataSetIterator iterator = new ShardedAsyncDataSetIterator(shards, 3, false, false);
+
+        for (int epoch = 0; epoch < 3; epoch++) {
+            List<Integer> values = drain(iterator);
+            assertEquals(30, values.size());
+            assertEquals(30, new HashSet<>(values).size());
+            iterator.reset();
+        }
+        iterator.shutdown();
+    }
+
+    @Test
+    public void testOrderedSharedSource() {
+        for (boolean useWorkspace : new boolean[] {false, true}) {
+            ShardedAsyncDataSetIterator iterator =
+                            new ShardedAsyncDataSetIterator(iterator(0, 50), 4, 2, true, useWorkspace);
+            iterator.setPreProcessor(slowPreProcessor());
+
+            for (int i = 0; i < 50; i++) {
+                assertTrue(iterator.hasNext());
+                DataSet ds = iterator.next();
+                assertEquals(i, ds.getLabels().getDouble(0), 0.0);
+                assertEquals(2.0 * i, ds.getFeatures().getDouble(0), 0.0);
+            }
+            assertFalse(iterator.hasNext());
+            assertTrue(iterator.getEtlBoundRatio() > 0.0);
+            iterator.shutdown();
+        }
+    }
+
+    @Test
+    public void testUnorderedSharedSource() {
+        ShardedAsyncDataSetIterator iterator = new ShardedAsyncDataSetIterator(iterator(0, 50), 4, 2, false, false);
+
+        Set<Integer> values = new HashSet<>(drain(iterator));
+        assertEquals(50, values.size());
+        for (int i = 0; i < 50; i++)
+            assertTrue(values.contains(i));
+        iterator.shutdown();
+    }
+
+    @Test(timeout = 20000L)
+    public void testPrefetchSizeOne() {
+        //The DataSet held by the consumer must not use up the only prefetch slot of its producer
+        for (boolean ordered : new boolean[] {true, false}) {
+            List<DataSetIterator> shards = Arrays.asList(iterator(0, 5), iterator(100, 3), iterator(200, 4));
+            ShardedAsyncDataSetIterator iterator = new ShardedAsyncDataSetIterator(shards, 1, ordered, false);
+            List<Integer> values = drain(iterator);
+            if (ordered)
+                assertEquals(Arrays.asList(0, 100, 200, 1, 101, 201, 2, 102, 202, 3, 203, 4), values);
+            else
+                assertEquals(12, new HashSet<>(values).size());
+            iterator.shutdown();
+
+            iterator = new ShardedAsyncDataSetIterator(iterator(0, 20), 2, 1, ordered, false);
+            values = drain(iterator);
+            assertEquals(20, new HashSet<>(values).size());
+            if (ordered)
+                for (int i = 0; i < 20; i++)
+                    assertEquals(i, (int) values.get(i));
+            iterator.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testExceptionPropagation() {
+        ShardedAsyncDataSetIterator iterator = new ShardedAsyncDataSetIterator(iterator(0, 10), 2, 2, true, false);
+        iterator.setPreProcessor(new DataSetPreProcessor() {
+            @Override
+            public void preProcess(org.nd4j.linalg.dataset.api.DataSet toPreProcess) {
+                if (toPreProcess.getLabels().getDouble(0) == 5)
+                    throw new IllegalStateException("Broken record");
+            }
+        });
+
+        drain(iterator);
+    }
+}
@@ -85,6 +85,46 @@ public class TestEarlyStopping {
         assertEquals(result.getBestModelScore(), score, 1e-2);
     }
 
+    @Test
+    public void testEarlyStoppingIrisAsyncScoring() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                        .updater(Updater.SGD).weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new OutputLayer.Builder().nIn(4).nOut(3)
+                                        .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                        .pretrain(false).backprop(true).build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        //Parallel score calculation should match sequential one
+        DataSetIterator testIter = new IrisDataSetIterator(10, 150);
+        double expScore = new DataSetLossCalculator(testIter, true).calculateScore(net);
+        DataSetLossCalculator sc = new DataSetLossCalculator(testIter, true, 4);
+        assertEquals(expScore, sc.calculateScore(net), 1e-5);
+
+        DataSetIterator irisIter = new IrisDataSetIterator(150, 150);
+        EarlyStoppingModelSaver<MultiLayerNetwork> saver = new InMemoryModelSaver<>();
+        EarlyStoppingConfiguration<MultiLayerNetwork> esConf =
+                        new EarlyStoppingConfiguration.Builder<MultiLayerNetwork>()
+                                        .epochTerminationConditions(new MaxEpochsTerminationCondition(5))
+                                        .scoreCalculator(sc).asyncScoring(true).modelSaver(saver).build();
+
+        IEarlyStoppingTrainer<MultiLayerNetwork> trainer = new EarlyStoppingTrainer(esConf, net, irisIter);
+
+        EarlyStoppingResult<MultiLayerNetwork> result = trainer.fit();
+        System.out.println(result);
+
+        assertEquals(5, result.getTotalEpochs());
+        assertEquals(EarlyStoppingResult.TerminationReason.EpochTerminationCondition, result.getTerminationReason());
+        assertEquals(5, result.getScoreVsEpoch().size());
+
+        //Best model is the copy the score was calculated for
+        MultiLayerNetwork bestNetwork = result.getBestModel();
+        assertNotNull(bestNetwork);
+        assertEquals(result.getBestModelScore(), new DataSetLossCalculator(testIter, true).calculateScore(bestNetwork),
+                        1e-5);
+    }
+
     @Test
     public void testEarlyStoppingEveryNEpoch() {
         MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
@@ -21,6 +21,8 @@ import org.deeplearning4j.nn.conf.preprocessor.FeedForwardToRnnPreProcessor;
 import org.deeplearning4j.nn.conf.preprocessor.RnnToFeedForwardPreProcessor;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.graph.util.GraphExecutionTrace;
+import org.deeplearning4j.nn.graph.util.GraphMemoryPlan;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.transferlearning.TransferLearning;
 import org.deeplearning4j.nn.weights.WeightInit;
@@ -42,6 +44,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.*;
 
@@ -915,4 +918,145 @@ public class TestComputationGraphNetwork {
                         new TransferLearning.GraphBuilder(modelToTune).setFeatureExtractor("denseCentre2").build();
         System.out.println(modelNow.summary());
     }
+
+    @Test
+    public void testMemoryPlan() {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                        .activation(Activation.TANH).graphBuilder().addInputs("in")
+                        .addLayer("0", new DenseLayer.Builder().nIn(10).nOut(10).build(), "in")
+                        .addLayer("1", new DenseLayer.Builder().nIn(10).nOut(10).build(), "0")
+                        .addLayer("2", new DenseLayer.Builder().nIn(10).nOut(10).build(), "1")
+                        .addLayer("3", new DenseLayer.Builder().nIn(10).nOut(10).build(), "2")
+                        .addVertex("merge", new MergeVertex(), "1", "3")
+                        .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MSE).nIn(20).nOut(3)
+                                        .build(), "merge")
+                        .setOutputs("out").build();
+
+        ComputationGraph graph = new ComputationGraph(conf);
+        graph.init();
+
+        GraphMemoryPlan plan = graph.getMemoryPlan();
+        int[] order = graph.topologicalSortOrder();
+        int idx1 = graph.getVertex("1").getVertexIndex();
+        int idxMerge = graph.getVertex("merge").getVertexIndex();
+        int idxOut = graph.getVertex("out").getVertexIndex();
+
+        //Output of "1" is used by "2" and by "merge": live until "merge"
+        assertEquals(idxMerge, order[plan.getLastUse(idx1)]);
+        assertEquals(order.length, plan.getLastUse(idxOut));
+        assertEquals(-1, plan.getEpsilonSlot(idxOut));
+        assertEquals(3, plan.getNumActivationSlots());
+
+        long[] sizes = plan.getActivationSizes(conf, InputType.feedForward(10));
+        assertEquals(20, sizes[idxMerge]);
+        long[] activations = plan.getActivationElements(sizes);
+        assertEquals(10 + 10 + 10 + 10 + 10 + 20 + 3, activations[1]);
+        assertTrue(activations[0] < activations[1]);
+        System.out.println(graph.memoryReport(new InputType[] {InputType.feedForward(10)}, 1, 32, 128));
+
+        //Released activations at test time must not change results
+        INDArray in = Nd4j.rand(5, 10);
+        INDArray expected = graph.feedForward(in, false).get("out");
+        assertEquals(expected, graph.outputSingle(in));
+        assertEquals(expected, graph.outputSingle(in));
+
+        graph.fit(new DataSet(in, Nd4j.rand(5, 3)));
+        assertEquals(graph.feedForward(in, false).get("out"), graph.outputSingle(in));
+    }
+
+    @Test
+    public void testConcurrentExecution() {
+        ComputationGraphConfiguration.GraphBuilder builder = new NeuralNetConfiguration.Builder().seed(12345)
+                        .activation(Activation.TANH).updater(Updater.NESTEROVS).learningRate(0.1).graphBuilder()
+                        .addInputs("in");
+        String[] branches = new String[4];
+        for (int i = 0; i < branches.length; i++) {
+            branches[i] = "branch" + i;
+            builder.addLayer(branches[i] + "_0", new DenseLayer.Builder().nIn(10).nOut(16).build(), "in")
+                            .addLayer(branches[i], new DenseLayer.Builder().nIn(16).nOut(8).build(), branches[i] + "_0");
+        }
+        ComputationGraphConfiguration conf = builder.addVertex("merge", new MergeVertex(), branches)
+                        .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MSE).nIn(32).nOut(3)
+                                        .build(), "merge")
+                        .setOutputs("out").build();
+
+        ComputationGraph sequential = new ComputationGraph(conf);
+        sequential.init();
+        ComputationGraph concurrent = new ComputationGraph(conf.clone());
+        concurrent.init(sequential.params().dup(), false);
+        concurrent.setConcurrentExecution(4);
+        concurrent.setTraceExecution(true);
+
+        INDArray in = Nd4j.rand(5, 10);
+        INDArray labels = Nd4j.rand(5, 3);
+        assertEquals(sequential.outputSingle(in), concurrent.outputSingle(in));
+        assertEquals(sequential.feedForward(in, true), concurrent.feedForward(in, true));
+
+        GraphExecutionTrace trace = concurrent.getForwardTrace();
+        assertNotNull(trace);
+        assertEquals(conf.getVertices().size() + 1, trace.getVertexTimesNanos().size());
+        System.out.println(trace);
+
+        for (ComputationGraph graph : new ComputationGraph[] {sequential, concurrent}) {
+            graph.setInputs(in);
+            graph.setLabels(labels);
+            graph.computeGradientAndScore();
+        }
+        assertEquals(sequential.score(), concurrent.score(), 1e-6);
+        assertEquals(sequential.gradient().gradient(), concurrent.gradient().gradient());
+        assertEquals(sequential.gradient().gradientForVariable().keySet(),
+                        concurrent.gradient().gradientForVariable().keySet());
+        System.out.println(concurrent.getBackwardTrace());
+
+        DataSet ds = new DataSet(in, labels);
+        for (int i = 0; i < 3; i++) {
+            sequential.fit(ds);
+            concurrent.fit(ds);
+        }
+        assertEquals(sequential.params(), concurrent.params());
+        concurrent.setConcurrentExecution(0);
+    }
+
+    @Test
+    public void testConcurrentExecutionDeepGraph() {
+        ComputationGraphConfiguration.GraphBuilder builder = new NeuralNetConfiguration.Builder().seed(12345)
+                        .activation(Activation.TANH).graphBuilder().addInputs("in");
+        String last = "in";
+        for (int i = 0; i < 500; i++) {
+            builder.addLayer("layer" + i, new DenseLayer.Builder().nIn(4).nOut(4).build(), last);
+            last = "layer" + i;
+        }
+        ComputationGraphConfiguration conf = builder.addLayer("out", new OutputLayer.Builder(
+                        LossFunctions.LossFunction.MSE).activation(Activation.IDENTITY).nIn(4).nOut(2).build(), last)
+                        .setOutputs("out").build();
+
+        ComputationGraph sequential = new ComputationGraph(conf);
+        sequential.init();
+        ComputationGraph concurrent = new ComputationGraph(conf.clone());
+        concurrent.init(sequential.params().dup(), false);
+
+        //Pool set by the caller is not shut down by the graph
+        ForkJoinPool pool = new ForkJoinPool(2);
+        concurrent.setExecutionPool(pool);
+
+        INDArray in = Nd4j.rand(3, 4);
+        assertEquals(sequential.outputSingle(in), concurrent.outputSingle(in));
+
+        for (ComputationGraph graph : new ComputationGraph[] {sequential, concurrent}) {
+            graph.setInputs(in);
+            graph.setLabels(Nd4j.ones(3, 2));
+            graph.computeGradientAndScore();
+        }
+        assertEquals(sequential.gradient().gradient(), concurrent.gradient().gradient());
+
+        concurrent.setConcurrentExecution(2);
+        assertFalse(pool.isShutdown());
+        ForkJoinPool owned = concurrent.getExecutionPool();
+        concurrent.setExecutionPool(pool);
+        assertTrue(owned.isShutdown());
+        concurrent.setConcurrentExecution(0);
+        assertFalse(pool.isShutdown());
+        assertNull(concurrent.getExecutionPool());
+        pool.shutdown();
+    }
 }
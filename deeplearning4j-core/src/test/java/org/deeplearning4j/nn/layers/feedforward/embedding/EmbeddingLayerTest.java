@@ -318,4 +318,57 @@ public class EmbeddingLayerTest {
         }
     }
 
+    @Test
+    public void testEmbeddingFitMultipleIterations() {
+        //Sparse gradient path (only previously touched rows are cleared) is used for SGD; Adam requires clearing the
+        // full gradient view. In both cases, parameters after several fit calls should match the equivalent
+        // one-hot + DenseLayer network
+
+        int nClassesIn = 10;
+        int batchSize = 4;
+
+        for (Updater updater : new Updater[] {Updater.SGD, Updater.ADAM}) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().activation(Activation.TANH)
+                            .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                            .updater(updater).learningRate(0.1).seed(12345).list()
+                            .layer(0, new EmbeddingLayer.Builder().nIn(nClassesIn).nOut(5).build())
+                            .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(5).nOut(4)
+                                            .activation(Activation.SOFTMAX).build())
+                            .pretrain(false).backprop(true).build();
+            MultiLayerConfiguration conf2 = new NeuralNetConfiguration.Builder().activation(Activation.TANH)
+                            .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                            .updater(updater).learningRate(0.1).seed(12345).list()
+                            .layer(0, new DenseLayer.Builder().nIn(nClassesIn).nOut(5).build())
+                            .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(5).nOut(4)
+                                            .activation(Activation.SOFTMAX).build())
+                            .pretrain(false).backprop(true).build();
+
+            MultiLayerNetwork net = new MultiLayerNetwork(conf);
+            MultiLayerNetwork net2 = new MultiLayerNetwork(conf2);
+            net.init();
+            net2.init();
+
+            net2.setParams(net.params().dup());
+
+            Random r = new Random(12345);
+            for (int iter = 0; iter < 5; iter++) {
+                INDArray inEmbedding = Nd4j.create(batchSize, 1);
+                INDArray inOneHot = Nd4j.create(batchSize, nClassesIn);
+                INDArray outLabels = Nd4j.create(batchSize, 4);
+                for (int i = 0; i < batchSize; i++) {
+                    //Small number of classes per iteration: different rows touched on each iteration, with duplicates
+                    int classIdx = r.nextInt(nClassesIn / 2) + (iter % 2) * (nClassesIn / 2);
+                    inEmbedding.putScalar(i, classIdx);
+                    inOneHot.putScalar(new int[] {i, classIdx}, 1.0);
+                    outLabels.putScalar(new int[] {i, r.nextInt(4)}, 1.0);
+                }
+
+                net.fit(inEmbedding, outLabels);
+                net2.fit(inOneHot, outLabels);
+
+                assertEquals(updater.toString(), net2.params(), net.params());
+            }
+        }
+    }
+
 }
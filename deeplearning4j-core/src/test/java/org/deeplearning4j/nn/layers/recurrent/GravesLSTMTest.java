@@ -17,6 +17,7 @@ import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.indexing.INDArrayIndex;
 import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.nd4j.linalg.ops.transforms.Transforms;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -255,4 +256,56 @@ public class GravesLSTMTest {
             net.fit(in, labels);
         }
     }
+
+    @Test
+    public void testFusedHelperMatchesDefault() {
+        int nIn = 5;
+        int nOut = 7;
+        int miniBatch = 3;
+        int timeSeriesLength = 9;
+
+        MultiLayerNetwork[] nets = new MultiLayerNetwork[2];
+        for (int i = 0; i < 2; i++) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                            .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                            .updater(Updater.SGD).learningRate(0.1).seed(12345).list()
+                            .layer(0, new org.deeplearning4j.nn.conf.layers.GravesLSTM.Builder()
+                                            .activation(Activation.TANH).nIn(nIn).nOut(nOut).fusedHelper(i == 1)
+                                            .build())
+                            .layer(1, new org.deeplearning4j.nn.conf.layers.RnnOutputLayer.Builder()
+                                            .lossFunction(LossFunctions.LossFunction.MSE).nIn(nOut).nOut(2)
+                                            .activation(Activation.TANH).build())
+                            .build();
+            nets[i] = new MultiLayerNetwork(conf);
+            nets[i].init();
+        }
+        nets[1].setParams(nets[0].params().dup());
+
+        Nd4j.getRandom().setSeed(12345);
+        INDArray in = Nd4j.rand(new int[] {miniBatch, nIn, timeSeriesLength});
+        INDArray labels = Nd4j.rand(new int[] {miniBatch, 2, timeSeriesLength});
+
+        assertClose(nets[0].output(in), nets[1].output(in));
+
+        INDArray step = in.get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.interval(0, 4));
+        assertClose(nets[0].rnnTimeStep(step), nets[1].rnnTimeStep(step));
+        assertClose(nets[0].rnnTimeStep(step), nets[1].rnnTimeStep(step));
+
+        for (MultiLayerNetwork net : nets) {
+            net.rnnClearPreviousState();
+            net.setInput(in);
+            net.setLabels(labels);
+            net.computeGradientAndScore();
+        }
+        assertEquals(nets[0].score(), nets[1].score(), 1e-5);
+        for (String key : nets[0].gradient().gradientForVariable().keySet()) {
+            assertClose(nets[0].gradient().getGradientFor(key), nets[1].gradient().getGradientFor(key));
+        }
+    }
+
+    private static void assertClose(INDArray expected, INDArray actual) {
+        assertArrayEquals(expected.shape(), actual.shape());
+        double maxDiff = Transforms.abs(expected.sub(actual)).maxNumber().doubleValue();
+        assertTrue("Max difference: " + maxDiff, maxDiff < 1e-4);
+    }
 }
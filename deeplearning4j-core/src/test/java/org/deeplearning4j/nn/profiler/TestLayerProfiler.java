@@ -0,0 +1,163 @@
+package org.deeplearning4j.nn.profiler;
+
+import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.WorkspaceMode;
+import org.deeplearning4j.nn.conf.graph.MergeVertex;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.optimize.listeners.ProfilingListener;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestLayerProfiler {
+
+    @Test
+    public void testPercentiles() {
+        LayerProfiler profiler = new LayerProfiler(100);
+        for (int i = 1; i <= 100; i++)
+            profiler.record("layer", LayerProfiler.Phase.FORWARD, i * 1000000L, -1);
+
+        List<LayerProfiler.Summary> summaries = profiler.getSummaries();
+        assertEquals(1, summaries.size());
+        LayerProfiler.Summary s = summaries.get(0);
+        assertEquals("layer", s.getName());
+        assertEquals(LayerProfiler.Phase.FORWARD, s.getPhase());
+        assertEquals(100, s.getCount());
+        assertEquals(50.5, s.getMeanMs(), 1e-6);
+        assertEquals(50.0, s.getP50Ms(), 1e-6);
+        assertEquals(90.0, s.getP90Ms(), 1e-6);
+        assertEquals(99.0, s.getP99Ms(), 1e-6);
+        assertEquals(100.0, s.getMaxMs(), 1e-6);
+        assertEquals(-1, s.getMeanBytes());
+
+        //Percentiles only cover the window, mean and count all samples
+        profiler = new LayerProfiler(10);
+        for (int i = 1; i <= 100; i++)
+            profiler.record("layer", LayerProfiler.Phase.BACKWARD, i * 1000000L, 10);
+        s = profiler.getSummaries(LayerProfiler.Phase.BACKWARD).get(0);
+        assertEquals(100, s.getCount());
+        assertEquals(50.5, s.getMeanMs(), 1e-6);
+        assertEquals(100.0, s.getMaxMs(), 1e-6);
+        assertEquals(95.0, s.getP50Ms(), 1e-6);
+        assertEquals(10, s.getMeanBytes());
+
+        profiler.reset();
+        assertTrue(profiler.getSummaries().isEmpty());
+    }
+
+    @Test
+    public void testProfileMultiLayerNetwork() {
+        DataSet ds = new IrisDataSetIterator(150, 150).next();
+
+        for (WorkspaceMode wsm : new WorkspaceMode[] {WorkspaceMode.NONE, WorkspaceMode.SEPARATE}) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).workspaceMode(wsm)
+                            .list()
+                            .layer(0, new DenseLayer.Builder().nIn(4).nOut(10).activation(Activation.TANH).build())
+                            .layer(1, new DenseLayer.Builder().nIn(10).nOut(10).activation(Activation.TANH).build())
+                            .layer(2, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                            .activation(Activation.SOFTMAX).nIn(10).nOut(3).build())
+                            .pretrain(false).backprop(true).build();
+
+            MultiLayerNetwork net = new MultiLayerNetwork(conf);
+            net.init();
+            assertNull(net.getProfiler());
+
+            LayerProfiler profiler = new LayerProfiler();
+            net.setProfiler(profiler);
+            for (int i = 0; i < 5; i++)
+                net.fit(ds);
+
+            assertEquals(names("layer0", "layer1"), names(profiler.getSummaries(LayerProfiler.Phase.FORWARD)));
+            assertEquals(names("layer2", "layer1", "layer0"),
+                            names(profiler.getSummaries(LayerProfiler.Phase.BACKWARD)));
+            assertEquals(names("layer0", "layer1", "layer2"),
+                            names(profiler.getSummaries(LayerProfiler.Phase.UPDATER)));
+            for (LayerProfiler.Summary s : profiler.getSummaries()) {
+                assertEquals(s.toString(), 5, s.getCount());
+                assertTrue(s.getP50Ms() <= s.getP90Ms() && s.getP90Ms() <= s.getP99Ms()
+                                && s.getP99Ms() <= s.getMaxMs());
+            }
+
+            profiler.reset();
+            net.output(ds.getFeatures());
+            assertEquals(names("layer0", "layer1", "layer2"),
+                            names(profiler.getSummaries(LayerProfiler.Phase.FORWARD)));
+            assertTrue(profiler.getSummaries(LayerProfiler.Phase.BACKWARD).isEmpty());
+            System.out.println(profiler);
+
+            //Disabled: nothing recorded
+            net.setProfiler(null);
+            profiler.reset();
+            net.fit(ds);
+            assertTrue(profiler.getSummaries().isEmpty());
+        }
+    }
+
+    @Test
+    public void testProfileComputationGraph() {
+        DataSet ds = new IrisDataSetIterator(150, 150).next();
+
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                        .activation(Activation.TANH).graphBuilder().addInputs("in")
+                        .addLayer("d0", new DenseLayer.Builder().nIn(4).nOut(5).build(), "in")
+                        .addLayer("d1", new DenseLayer.Builder().nIn(4).nOut(5).build(), "in")
+                        .addVertex("merge", new MergeVertex(), "d0", "d1")
+                        .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                        .activation(Activation.SOFTMAX).nIn(10).nOut(3).build(), "merge")
+                        .setOutputs("out").pretrain(false).backprop(true).build();
+
+        ComputationGraph graph = new ComputationGraph(conf);
+        graph.init();
+
+        //Profiling is enabled by the listener, starting from the first iteration
+        graph.setListeners(new ProfilingListener(2, false));
+        for (int i = 0; i < 4; i++)
+            graph.fit(ds);
+        LayerProfiler profiler = graph.getProfiler();
+        assertNotNull(profiler);
+
+        //Order of independent vertices depends on the topological sort: compare as sets
+        assertEquals(new HashSet<>(names("d0", "d1", "merge")),
+                        new HashSet<>(names(profiler.getSummaries(LayerProfiler.Phase.FORWARD))));
+        assertEquals(new HashSet<>(names("out", "merge", "d1", "d0")),
+                        new HashSet<>(names(profiler.getSummaries(LayerProfiler.Phase.BACKWARD))));
+        assertEquals(3, profiler.getSummaries(LayerProfiler.Phase.UPDATER).size());
+        for (LayerProfiler.Summary s : profiler.getSummaries())
+            assertEquals(s.toString(), 3, s.getCount());
+
+        //Also recorded when branches are executed concurrently
+        profiler.reset();
+        graph.setConcurrentExecution(2);
+        graph.fit(ds);
+        assertEquals(3, profiler.getSummaries(LayerProfiler.Phase.FORWARD).size());
+        assertEquals(4, profiler.getSummaries(LayerProfiler.Phase.BACKWARD).size());
+        graph.getExecutionPool().shutdown();
+    }
+
+    private static List<String> names(String... names) {
+        List<String> list = new ArrayList<>();
+        for (String s : names)
+            list.add(s);
+        return list;
+    }
+
+    private static List<String> names(List<LayerProfiler.Summary> summaries) {
+        List<String> list = new ArrayList<>();
+        for (LayerProfiler.Summary s : summaries)
+            list.add(s.getName());
+        return list;
+    }
+}
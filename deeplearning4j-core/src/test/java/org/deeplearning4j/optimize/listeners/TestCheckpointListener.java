@@ -0,0 +1,122 @@
+package org.deeplearning4j.optimize.listeners;
+
+import com.google.common.io.Files;
+import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class TestCheckpointListener {
+
+    private static MultiLayerNetwork getNetwork() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).learningRate(0.1)
+                        .updater(Updater.NESTEROVS).activation(Activation.TANH).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(10).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                        .activation(Activation.SOFTMAX).nIn(10).nOut(3).build())
+                        .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
+
+    private static int countCheckpoints(File dir) {
+        int count = 0;
+        for (File f : dir.listFiles()) {
+            if (f.getName().endsWith(CheckpointListener.FULL_EXTENSION)
+                            || f.getName().endsWith(CheckpointListener.DELTA_EXTENSION))
+                count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void testFullCheckpoints() throws Exception {
+        File dir = Files.createTempDir();
+        dir.deleteOnExit();
+
+        MultiLayerNetwork net = getNetwork();
+        CheckpointListener listener = new CheckpointListener.Builder(dir).saveEveryNIterations(2).saveEveryNEpochs(0)
+                        .keepLast(2).build();
+        net.setListeners(listener);
+
+        net.fit(new IrisDataSetIterator(10, 150));
+        listener.checkpoint(net);
+        listener.flush();
+
+        assertNull(listener.getLastException());
+        assertEquals(2, countCheckpoints(dir));
+        assertEquals(listener.getLastCheckpoint(), CheckpointListener.lastCheckpoint(dir));
+
+        MultiLayerNetwork restored = ModelSerializer.restoreMultiLayerNetwork(listener.getLastCheckpoint());
+        assertEquals(net.params(), restored.params());
+        assertEquals(net.getUpdater().getStateViewArray(), restored.getUpdater().getStateViewArray());
+        listener.shutdown();
+    }
+
+    @Test
+    public void testDeltaCheckpoints() throws Exception {
+        File dir = Files.createTempDir();
+        dir.deleteOnExit();
+
+        MultiLayerNetwork net = getNetwork();
+        CheckpointListener listener = new CheckpointListener.Builder(dir).saveEveryNIterations(1).saveEveryNEpochs(0)
+                        .keepLast(2).deltaCheckpoints(4, 0.0).blockSize(8).build();
+        net.setListeners(listener);
+
+        net.fit(new IrisDataSetIterator(10, 150));
+        listener.flush();
+
+        File last = listener.getLastCheckpoint();
+        assertTrue(last.getName().endsWith(CheckpointListener.DELTA_EXTENSION));
+        //Last two checkpoints, and full checkpoint they refer to
+        assertEquals(3, countCheckpoints(dir));
+
+        MultiLayerNetwork restored = CheckpointListener.restoreMultiLayerNetwork(last, true);
+        assertEquals(net.params(), restored.params());
+        assertEquals(net.getUpdater().getStateViewArray(), restored.getUpdater().getStateViewArray());
+        listener.shutdown();
+    }
+
+    @Test
+    public void testDeltaCheckpointsGraph() throws Exception {
+        File dir = Files.createTempDir();
+        dir.deleteOnExit();
+
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).learningRate(0.1)
+                        .updater(Updater.NESTEROVS).activation(Activation.TANH).graphBuilder().addInputs("in")
+                        .addLayer("dense", new DenseLayer.Builder().nIn(4).nOut(10).build(), "in")
+                        .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                        .activation(Activation.SOFTMAX).nIn(10).nOut(3).build(), "dense")
+                        .setOutputs("out").build();
+        ComputationGraph graph = new ComputationGraph(conf);
+        graph.init();
+
+        CheckpointListener listener = new CheckpointListener.Builder(dir).saveEveryNEpochs(1).keepLast(0)
+                        .deltaCheckpoints(3, 0.0).build();
+        graph.setListeners(listener);
+
+        for (int i = 0; i < 5; i++)
+            graph.fit(new IrisDataSetIterator(50, 150));
+        listener.flush();
+
+        assertEquals(5, countCheckpoints(dir));
+        ComputationGraph restored = CheckpointListener.restoreComputationGraph(listener.getLastCheckpoint(), true);
+        assertEquals(graph.params(), restored.params());
+        assertEquals(graph.getUpdater().getStateViewArray(), restored.getUpdater().getStateViewArray());
+        listener.shutdown();
+    }
+}
@@ -5,6 +5,7 @@ import org.deeplearning4j.nn.api.OptimizationAlgorithm;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
 import org.deeplearning4j.nn.conf.layers.DenseLayer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
 import org.deeplearning4j.nn.graph.ComputationGraph;
@@ -12,8 +13,10 @@ import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.dataset.api.preprocessor.NormalizerMinMaxScaler;
+import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 
 import java.io.File;
@@ -22,6 +25,7 @@ import java.io.FileOutputStream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author raver119@gmail.com
@@ -153,4 +157,83 @@ public class ModelSerializerTest {
         assertEquals(cg.params(), network.params());
         assertEquals(cg.getUpdater(), network.getUpdater());
     }
+
+    @Test
+    public void testWriteMLNModelMapped() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).learningRate(0.1)
+                        .updater(Updater.NESTEROVS).activation(Activation.TANH).weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new DenseLayer.Builder().nIn(5).nOut(20).build())
+                        .layer(1, new OutputLayer.Builder().lossFunction(LossFunctions.LossFunction.MSE).nIn(20)
+                                        .nOut(6).build())
+                        .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        net.fit(Nd4j.rand(10, 5), Nd4j.rand(10, 6));
+
+        File tempFile = File.createTempFile("tsfs", "fdfsdf");
+        tempFile.deleteOnExit();
+
+        MappedModelSerializer.writeModel(net, tempFile, true);
+        assertTrue(MappedModelSerializer.isMappedModel(tempFile));
+
+        for (boolean map : new boolean[] {false, true}) {
+            MultiLayerNetwork network = MappedModelSerializer.restoreMultiLayerNetwork(tempFile, true, map);
+
+            assertEquals(net.getLayerWiseConfigurations().toJson(), network.getLayerWiseConfigurations().toJson());
+            assertEquals(net.params(), network.params());
+            assertEquals(net.getUpdater().getStateViewArray(), network.getUpdater().getStateViewArray());
+            assertEquals(net.output(Nd4j.ones(3, 5)), network.output(Nd4j.ones(3, 5)));
+
+            //Mapped parameters are copy-on-write: training must not affect the file
+            network.fit(Nd4j.rand(10, 5), Nd4j.rand(10, 6));
+        }
+
+        MultiLayerNetwork network = ModelSerializer.restoreMultiLayerNetwork(tempFile);
+        assertEquals(net.params(), network.params());
+        assertEquals(net.getUpdater(), network.getUpdater());
+    }
+
+    @Test
+    public void testWriteCGModelMapped() throws Exception {
+        ComputationGraphConfiguration config = new NeuralNetConfiguration.Builder()
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).learningRate(0.1)
+                        .updater(Updater.NESTEROVS).graphBuilder().addInputs("in")
+                        .addLayer("dense", new DenseLayer.Builder().nIn(4).nOut(2).build(), "in").addLayer("out",
+                                        new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(2).nOut(3)
+                                                        .build(),
+                                        "dense")
+                        .setOutputs("out").pretrain(false).backprop(true).build();
+
+        ComputationGraph cg = new ComputationGraph(config);
+        cg.init();
+
+        File tempFile = File.createTempFile("tsfs", "fdfsdf");
+        tempFile.deleteOnExit();
+        FileOutputStream fos = new FileOutputStream(tempFile);
+
+        MappedModelSerializer.writeModel(cg, fos, true);
+        fos.close();
+
+        ComputationGraph mapped = MappedModelSerializer.restoreComputationGraph(tempFile, true, true);
+        assertEquals(cg.getConfiguration().toJson(), mapped.getConfiguration().toJson());
+        assertEquals(cg.params(), mapped.params());
+        assertEquals(cg.getUpdater().getStateViewArray(), mapped.getUpdater().getStateViewArray());
+
+        ComputationGraph network = ModelSerializer.restoreComputationGraph(tempFile);
+        assertEquals(cg.getConfiguration().toJson(), network.getConfiguration().toJson());
+        assertEquals(cg.params(), network.params());
+        assertEquals(cg.getUpdater(), network.getUpdater());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWriteMappedMixedDataTypes() throws Exception {
+        INDArray params = Nd4j.create(Nd4j.getDataBufferFactory().createFloat(new float[] {1, 2, 3}));
+        INDArray updaterState = Nd4j.create(Nd4j.getDataBufferFactory().createDouble(new double[] {1, 2, 3}));
+
+        File tempFile = File.createTempFile("tsfs", "fdfsdf");
+        tempFile.deleteOnExit();
+
+        MappedModelSerializer.writeModel("{}", false, params, updaterState, tempFile);
+    }
 }
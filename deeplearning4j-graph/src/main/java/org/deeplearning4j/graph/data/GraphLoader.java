@@ -4,6 +4,7 @@ import org.deeplearning4j.graph.api.Edge;
 import org.deeplearning4j.graph.api.Vertex;
 import org.deeplearning4j.graph.data.impl.DelimitedEdgeLineProcessor;
 import org.deeplearning4j.graph.data.impl.WeightedEdgeLineProcessor;
+import org.deeplearning4j.graph.graph.CSRGraph;
 import org.deeplearning4j.graph.graph.Graph;
 import org.deeplearning4j.graph.vertexfactory.StringVertexFactory;
 import org.deeplearning4j.graph.vertexfactory.VertexFactory;
@@ -12,6 +13,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 /** Utility methods for loading graphs
@@ -172,4 +174,114 @@ public class GraphLoader {
 
         return graph;
     }
+
+    /**Load an undirected, unweighted graph from an edge list file into a {@link CSRGraph}. Same file format as
+     * {@link #loadUndirectedGraphEdgeListFile(String, int, String)}
+     * @param path Path to the edge list file
+     * @param numVertices number of vertices in the graph
+     * @param delim The delimiter used in the file (typically: "," or " " etc)
+     * @return graph
+     * @throws IOException if file cannot be read
+     */
+    public static CSRGraph<String> loadUndirectedCSRGraph(String path, int numVertices, String delim)
+                    throws IOException {
+        return loadCSRGraph(path, new DelimitedEdgeLineProcessor(delim, false), new StringVertexFactory(),
+                        numVertices, false);
+    }
+
+    /**Load a weighted graph from an edge list file into a {@link CSRGraph}. Same file format as
+     * {@link #loadWeightedEdgeListFile(String, int, String, boolean, String...)}
+     * @param path Path to the edge list file
+     * @param numVertices The number of vertices in the graph
+     * @param delim The delimiter used in the file (typically: "," or " " etc)
+     * @param directed whether the edges should be treated as directed (true) or undirected (false)
+     * @param ignoreLinesStartingWith Starting characters for comment lines. May be null. For example: "//" or "#"
+     * @return The graph
+     * @throws IOException if file cannot be read
+     */
+    public static CSRGraph<String> loadWeightedCSRGraph(String path, int numVertices, String delim, boolean directed,
+                    String... ignoreLinesStartingWith) throws IOException {
+        return loadCSRGraph(path, new WeightedEdgeLineProcessor(delim, directed, ignoreLinesStartingWith),
+                        new StringVertexFactory(), numVertices, true);
+    }
+
+    /**Load a graph into a {@link CSRGraph}, using a given EdgeLineProcessor. Assume one edge per line.<br>
+     * The file is read twice: first pass counts vertex degrees, second pass fills the preallocated primitive
+     * arrays. Edges produced by the line processor are never retained, so peak memory use is roughly the size of
+     * the final CSRGraph. Multiple edges between the same pair of vertices are kept as-is.
+     * @param path Path to the file containing the edges, one per line
+     * @param lineProcessor EdgeLineProcessor used to convert lines of text into edges (or null for comment lines etc).
+     *                      All edges must be either directed or undirected
+     * @param vertexFactory Used to create vertices (on demand)
+     * @param numVertices number of vertices in the graph
+     * @param weighted if true: edge values are stored as float weights, and hence must be instances of {@link Number}
+     * @return CSRGraph
+     */
+    public static <V, E> CSRGraph<V> loadCSRGraph(String path, EdgeLineProcessor<E> lineProcessor,
+                    VertexFactory<V> vertexFactory, int numVertices, boolean weighted) throws IOException {
+        if (numVertices <= 0)
+            throw new IllegalArgumentException("Invalid number of vertices: " + numVertices);
+
+        //First pass: count edges for each vertex
+        int[] offsets = new int[numVertices + 1];
+        Boolean directed = null;
+        long numEntries = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(new File(path)))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                Edge<E> edge = lineProcessor.processLine(line);
+                if (edge == null)
+                    continue;
+                if (edge.getFrom() < 0 || edge.getFrom() >= numVertices || edge.getTo() < 0
+                                || edge.getTo() >= numVertices)
+                    throw new IllegalArgumentException("Invalid edge: " + edge + ", from/to indexes out of range");
+                if (directed == null)
+                    directed = edge.isDirected();
+                else if (directed != edge.isDirected())
+                    throw new IllegalArgumentException("CSRGraph doesn't support mixed directed/undirected edges");
+
+                offsets[edge.getFrom() + 1]++;
+                numEntries++;
+                if (!edge.isDirected()) {
+                    offsets[edge.getTo() + 1]++;
+                    numEntries++;
+                }
+            }
+        }
+
+        if (numEntries > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("Too many edges for CSRGraph: " + numEntries);
+        for (int i = 0; i < numVertices; i++)
+            offsets[i + 1] += offsets[i];
+
+        //Second pass: fill edges
+        int[] targets = new int[(int) numEntries];
+        float[] weights = (weighted ? new float[(int) numEntries] : null);
+        int[] position = Arrays.copyOf(offsets, numVertices);
+        try (BufferedReader br = new BufferedReader(new FileReader(new File(path)))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                Edge<E> edge = lineProcessor.processLine(line);
+                if (edge == null)
+                    continue;
+
+                int from = edge.getFrom();
+                int to = edge.getTo();
+                float weight = (weighted ? ((Number) edge.getValue()).floatValue() : 0.0f);
+                if (position[from] >= offsets[from + 1] || (!edge.isDirected() && position[to] >= offsets[to + 1]))
+                    throw new IllegalStateException("File " + path + " was modified while loading graph");
+
+                if (weighted)
+                    weights[position[from]] = weight;
+                targets[position[from]++] = to;
+                if (!edge.isDirected()) {
+                    if (weighted)
+                        weights[position[to]] = weight;
+                    targets[position[to]++] = from;
+                }
+            }
+        }
+
+        return new CSRGraph<>(offsets, targets, weights, directed == null || directed, vertexFactory);
+    }
 }
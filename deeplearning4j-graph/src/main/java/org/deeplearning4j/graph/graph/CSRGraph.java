@@ -0,0 +1,270 @@
+package org.deeplearning4j.graph.graph;
+
+import org.deeplearning4j.graph.api.Edge;
+import org.deeplearning4j.graph.api.IGraph;
+import org.deeplearning4j.graph.api.Vertex;
+import org.deeplearning4j.graph.exception.NoEdgesException;
+import org.deeplearning4j.graph.vertexfactory.VertexFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/** Immutable graph, where edges are stored in compressed sparse row (CSR) format.<br>
+ * Instead of one {@link Edge} object per edge (as in {@link Graph}), edges are stored in primitive arrays: the
+ * neighbours of vertex i are {@code targets[offsets[i]]} to {@code targets[offsets[i+1]-1]}, with optional float
+ * weights in a parallel array. This needs 4 (unweighted) or 8 (weighted) bytes per stored edge, which makes
+ * graphs with hundreds of millions of edges practical to keep in memory.<br>
+ * As with {@link Graph}, undirected edges are stored twice (once for each vertex). A single CSRGraph is either
+ * entirely directed or entirely undirected.<br>
+ * Edge values are weights: {@code Double} for weighted graphs, or 1.0 for all edges of unweighted graphs.
+ * {@link Edge} objects are only created when requested via {@link #getEdgesOut(int)}; random walk iterators
+ * use the primitive accessors instead.<br>
+ * Vertices are either stored as a list, or created on demand with a {@link VertexFactory} (so no per-vertex objects
+ * are retained).<br>
+ * CSRGraph instances can be loaded from edge list files using
+ * {@link org.deeplearning4j.graph.data.GraphLoader#loadCSRGraph(String, org.deeplearning4j.graph.data.EdgeLineProcessor, VertexFactory, int, boolean)},
+ * or copied from other graphs with {@link #fromGraph(IGraph, boolean)}.
+ * @param <V> Type parameter for vertices (type of objects attached to each vertex)
+ */
+public class CSRGraph<V> implements IGraph<V, Double> {
+    private final int[] offsets;
+    private final int[] targets;
+    private final float[] weights;
+    private final boolean directed;
+    private final List<Vertex<V>> vertices;
+    private final VertexFactory<V> vertexFactory;
+
+    /**
+     * @param offsets offsets[i] is the index of first edge of vertex i in targets array. Length numVertices + 1,
+     *                with offsets[numVertices] == targets.length
+     * @param targets edge targets (neighbour vertex indices), grouped by source vertex
+     * @param weights edge weights, parallel to targets. May be null for unweighted graphs
+     * @param directed whether edges are directed. For undirected graphs both directions must be present in targets
+     * @param vertexFactory used to create vertex objects on demand
+     */
+    public CSRGraph(int[] offsets, int[] targets, float[] weights, boolean directed, VertexFactory<V> vertexFactory) {
+        this(offsets, targets, weights, directed, null, vertexFactory);
+    }
+
+    /**
+     * @param offsets offsets[i] is the index of first edge of vertex i in targets array. Length numVertices + 1,
+     *                with offsets[numVertices] == targets.length
+     * @param targets edge targets (neighbour vertex indices), grouped by source vertex
+     * @param weights edge weights, parallel to targets. May be null for unweighted graphs
+     * @param directed whether edges are directed. For undirected graphs both directions must be present in targets
+     * @param vertices vertices of the graph; vertices.get(i).vertexID() must be i
+     */
+    public CSRGraph(int[] offsets, int[] targets, float[] weights, boolean directed, List<Vertex<V>> vertices) {
+        this(offsets, targets, weights, directed, new ArrayList<>(vertices), null);
+    }
+
+    private CSRGraph(int[] offsets, int[] targets, float[] weights, boolean directed, List<Vertex<V>> vertices,
+                    VertexFactory<V> vertexFactory) {
+        if (offsets == null || offsets.length == 0 || targets == null)
+            throw new IllegalArgumentException("Offsets and targets arrays must be provided");
+        if (offsets[offsets.length - 1] != targets.length)
+            throw new IllegalArgumentException("Last offset (" + offsets[offsets.length - 1]
+                            + ") must be equal to number of edges (" + targets.length + ")");
+        if (weights != null && weights.length != targets.length)
+            throw new IllegalArgumentException("Weights length (" + weights.length
+                            + ") must be equal to number of edges (" + targets.length + ")");
+        if (vertices != null && vertices.size() != offsets.length - 1)
+            throw new IllegalArgumentException("Number of vertices (" + vertices.size()
+                            + ") doesn't match offsets length (" + offsets.length + ")");
+
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.directed = directed;
+        this.vertices = vertices;
+        this.vertexFactory = vertexFactory;
+    }
+
+    /** Create a CSRGraph copy of an existing graph.
+     * @param graph graph to copy. All edges must be either directed or undirected
+     * @param weighted if true, edge values are stored as weights (and hence must be instances of {@link Number})
+     */
+    public static <V> CSRGraph<V> fromGraph(IGraph<V, ?> graph, boolean weighted) {
+        int nVertices = graph.numVertices();
+        int[] offsets = new int[nVertices + 1];
+        for (int i = 0; i < nVertices; i++)
+            offsets[i + 1] = offsets[i] + graph.getVertexDegree(i);
+
+        int[] targets = new int[offsets[nVertices]];
+        float[] weights = (weighted ? new float[targets.length] : null);
+        Boolean directed = null;
+        for (int i = 0; i < nVertices; i++) {
+            int idx = offsets[i];
+            for (Edge<?> edge : graph.getEdgesOut(i)) {
+                if (directed == null)
+                    directed = edge.isDirected();
+                else if (directed != edge.isDirected())
+                    throw new IllegalArgumentException("CSRGraph doesn't support mixed directed/undirected edges");
+
+                targets[idx] = (edge.isDirected() || edge.getFrom() == i) ? edge.getTo() : edge.getFrom();
+                if (weighted)
+                    weights[idx] = ((Number) edge.getValue()).floatValue();
+                idx++;
+            }
+        }
+
+        return new CSRGraph<>(offsets, targets, weights, directed == null || directed,
+                        graph.getVertices(0, nVertices - 1));
+    }
+
+    @Override
+    public int numVertices() {
+        return offsets.length - 1;
+    }
+
+    /** Number of stored edges. Undirected edges are counted twice (once for each vertex) */
+    public int numEdges() {
+        return targets.length;
+    }
+
+    public boolean isDirected() {
+        return directed;
+    }
+
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    @Override
+    public Vertex<V> getVertex(int idx) {
+        if (idx < 0 || idx >= numVertices())
+            throw new IllegalArgumentException("Invalid index: " + idx);
+        if (vertices != null)
+            return vertices.get(idx);
+        return vertexFactory.create(idx);
+    }
+
+    @Override
+    public List<Vertex<V>> getVertices(int[] indexes) {
+        List<Vertex<V>> out = new ArrayList<>(indexes.length);
+        for (int i : indexes)
+            out.add(getVertex(i));
+        return out;
+    }
+
+    @Override
+    public List<Vertex<V>> getVertices(int from, int to) {
+        if (to < from || from < 0 || to >= numVertices())
+            throw new IllegalArgumentException("Invalid range: from=" + from + ", to=" + to);
+        List<Vertex<V>> out = new ArrayList<>(to - from + 1);
+        for (int i = from; i <= to; i++)
+            out.add(getVertex(i));
+        return out;
+    }
+
+    @Override
+    public void addEdge(Edge<Double> edge) {
+        throw new UnsupportedOperationException("CSRGraph is immutable");
+    }
+
+    @Override
+    public void addEdge(int from, int to, Double value, boolean directed) {
+        throw new UnsupportedOperationException("CSRGraph is immutable");
+    }
+
+    @Override
+    public List<Edge<Double>> getEdgesOut(int vertex) {
+        int start = offsets[vertex];
+        int end = offsets[vertex + 1];
+        if (start == end)
+            return Collections.emptyList();
+
+        List<Edge<Double>> out = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++)
+            out.add(new Edge<>(vertex, targets[i], getEdgeWeight(i), directed));
+        return out;
+    }
+
+    @Override
+    public int getVertexDegree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /** Index of the first edge of the specified vertex, for use with {@link #getEdgeTarget(int)} and
+     * {@link #getEdgeWeight(int)}. Edges of vertex v have indices getEdgeOffset(v) to getEdgeOffset(v+1)-1
+     */
+    public int getEdgeOffset(int vertex) {
+        return offsets[vertex];
+    }
+
+    /** Target (neighbour) vertex of the edge with the specified index */
+    public int getEdgeTarget(int edgeIdx) {
+        return targets[edgeIdx];
+    }
+
+    /** Weight of the edge with the specified index; 1.0 for unweighted graphs */
+    public double getEdgeWeight(int edgeIdx) {
+        return weights == null ? 1.0 : weights[edgeIdx];
+    }
+
+    /** Randomly (uniformly) sample index of a vertex connected to the given vertex, without creating any objects
+     * @return index of connected vertex, or -1 if vertex has no outgoing edges
+     */
+    public int getRandomConnectedVertexIndex(int vertex, Random rng) {
+        int start = offsets[vertex];
+        int degree = offsets[vertex + 1] - start;
+        if (degree == 0)
+            return -1;
+        return targets[start + rng.nextInt(degree)];
+    }
+
+    @Override
+    public Vertex<V> getRandomConnectedVertex(int vertex, Random rng) throws NoEdgesException {
+        if (vertex < 0 || vertex >= numVertices())
+            throw new IllegalArgumentException("Invalid vertex index: " + vertex);
+        int next = getRandomConnectedVertexIndex(vertex, rng);
+        if (next < 0)
+            throw new NoEdgesException("Cannot generate random connected vertex: vertex " + vertex
+                            + " has no outgoing/undirected edges");
+        return getVertex(next);
+    }
+
+    @Override
+    public List<Vertex<V>> getConnectedVertices(int vertex) {
+        if (vertex < 0 || vertex >= numVertices())
+            throw new IllegalArgumentException("Invalid vertex index: " + vertex);
+        return getVertices(getConnectedVertexIndices(vertex));
+    }
+
+    @Override
+    public int[] getConnectedVertexIndices(int vertex) {
+        return Arrays.copyOfRange(targets, offsets[vertex], offsets[vertex + 1]);
+    }
+
+    @Override
+    public String toString() {
+        return "CSRGraph(numVertices=" + numVertices() + ", numEdges=" + numEdges() + ", directed=" + directed
+                        + ", weighted=" + isWeighted() + ")";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof CSRGraph))
+            return false;
+        CSRGraph<?> g = (CSRGraph<?>) o;
+        if (directed != g.directed)
+            return false;
+        if (!Arrays.equals(offsets, g.offsets) || !Arrays.equals(targets, g.targets)
+                        || !Arrays.equals(weights, g.weights))
+            return false;
+        return getVertices(0, numVertices() - 1).equals(g.getVertices(0, g.numVertices() - 1));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 23;
+        result = 31 * result + (directed ? 1 : 0);
+        result = 31 * result + Arrays.hashCode(offsets);
+        result = 31 * result + Arrays.hashCode(targets);
+        result = 31 * result + Arrays.hashCode(weights);
+        return result;
+    }
+}
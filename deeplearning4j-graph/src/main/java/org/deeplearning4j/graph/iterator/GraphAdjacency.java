@@ -0,0 +1,70 @@
+package org.deeplearning4j.graph.iterator;
+
+import org.deeplearning4j.graph.api.Edge;
+import org.deeplearning4j.graph.api.IGraph;
+import org.deeplearning4j.graph.graph.CSRGraph;
+import org.deeplearning4j.util.AliasTable;
+
+import java.util.List;
+
+/**Weighted edges of an {@link IGraph}, used to build {@link AliasTable}s. Edge values are used as (unnormalized)
+ * weights.
+ */
+public class GraphAdjacency implements AliasTable.Adjacency {
+
+    private final IGraph<?, ? extends Number> graph;
+    //CSRGraph: read neighbours and weights directly, without creating Edge objects
+    private final CSRGraph<?> csrGraph;
+
+    public GraphAdjacency(IGraph<?, ? extends Number> graph) {
+        this.graph = graph;
+        this.csrGraph = (graph instanceof CSRGraph ? (CSRGraph<?>) graph : null);
+    }
+
+    /**Build alias tables for all vertices in the graph, using all available processors
+     */
+    public static AliasTable buildAliasTable(IGraph<?, ? extends Number> graph) {
+        return AliasTable.build(new GraphAdjacency(graph));
+    }
+
+    /**Build alias tables for all vertices in the graph
+     * @param numThreads number of threads used to build tables for vertex ranges in parallel
+     */
+    public static AliasTable buildAliasTable(IGraph<?, ? extends Number> graph, int numThreads) {
+        return AliasTable.build(new GraphAdjacency(graph), numThreads);
+    }
+
+    @Override
+    public int numVertices() {
+        return graph.numVertices();
+    }
+
+    @Override
+    public int degree(int vertex) {
+        return graph.getVertexDegree(vertex);
+    }
+
+    @Override
+    public void getEdges(int vertex, int[] neighbours, double[] weights, int offset) {
+        int degree = graph.getVertexDegree(vertex);
+        if (csrGraph != null) {
+            int edgeOffset = csrGraph.getEdgeOffset(vertex);
+            for (int i = 0; i < degree; i++) {
+                neighbours[offset + i] = csrGraph.getEdgeTarget(edgeOffset + i);
+                weights[offset + i] = csrGraph.getEdgeWeight(edgeOffset + i);
+            }
+            return;
+        }
+
+        List<? extends Edge<? extends Number>> edges = graph.getEdgesOut(vertex);
+        if (edges.size() != degree)
+            throw new IllegalStateException("Graph was modified while building alias tables: vertex " + vertex
+                            + " had " + degree + " edges, now has " + edges.size());
+        for (int i = 0; i < degree; i++) {
+            Edge<? extends Number> edge = edges.get(i);
+            //Undirected edge: might be next--v instead of v--next
+            neighbours[offset + i] = (edge.isDirected() || edge.getFrom() == vertex) ? edge.getTo() : edge.getFrom();
+            weights[offset + i] = edge.getValue().doubleValue();
+        }
+    }
+}
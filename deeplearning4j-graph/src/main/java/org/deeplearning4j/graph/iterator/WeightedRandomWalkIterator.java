@@ -1,13 +1,12 @@
 package org.deeplearning4j.graph.iterator;
 
-import org.deeplearning4j.graph.api.Edge;
 import org.deeplearning4j.graph.api.IGraph;
 import org.deeplearning4j.graph.api.IVertexSequence;
 import org.deeplearning4j.graph.api.NoEdgeHandling;
 import org.deeplearning4j.graph.exception.NoEdgesException;
 import org.deeplearning4j.graph.graph.VertexSequence;
+import org.deeplearning4j.util.AliasTable;
 
-import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Random;
 
@@ -17,7 +16,9 @@ import java.util.Random;
  * Because the edge values are used to determine the probabilities of selecting an edge, the {@code WeightedRandomWalkIterator}
  * can only be used on graphs with an edge type that extends the {@link java.lang.Number} class (i.e., Integer, Double, etc)<br>
  * Random walks are generated starting at every node in the graph exactly once, though the order of the starting nodes
- * is randomized.
+ * is randomized.<br>
+ * Next vertex of each step is sampled in O(1) time using {@link AliasTable}. Tables are built on first use, unless
+ * prebuilt ones are passed to constructor (for example, to share them between multiple iterators over the same graph).
  * @author Alex Black
  */
 public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
@@ -27,7 +28,7 @@ public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
     private final NoEdgeHandling mode;
     private final int firstVertex;
     private final int lastVertex;
-
+    private AliasTable aliasTable;
 
     private int position;
     private Random rng;
@@ -68,7 +69,26 @@ public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
      */
     public WeightedRandomWalkIterator(IGraph<V, ? extends Number> graph, int walkLength, long rngSeed,
                     NoEdgeHandling mode, int firstVertex, int lastVertex) {
+        this(graph, walkLength, rngSeed, mode, firstVertex, lastVertex, null);
+    }
+
+    /**Constructor used to generate random walks starting at a subset of the vertices in the graph, using prebuilt
+     * alias tables for the graph
+     * @param graph IGraph to conduct walks on
+     * @param walkLength length of each walk. Walk of length 0 includes 1 vertex, walk of 1 includes 2 vertices etc
+     * @param rngSeed seed for randomization
+     * @param mode mode for handling random walks from vertices with either no edges, or no outgoing edges (for directed graphs)
+     * @param firstVertex first vertex index (inclusive) to start random walks from
+     * @param lastVertex last vertex index (exclusive) to start random walks from
+     * @param aliasTable alias tables built for this graph. May be null, in which case tables are built on first use
+     */
+    public WeightedRandomWalkIterator(IGraph<V, ? extends Number> graph, int walkLength, long rngSeed,
+                    NoEdgeHandling mode, int firstVertex, int lastVertex, AliasTable aliasTable) {
+        if (aliasTable != null && aliasTable.numVertices() != graph.numVertices())
+            throw new IllegalArgumentException("Alias table was built for " + aliasTable.numVertices()
+                            + " vertices, but graph has " + graph.numVertices());
         this.graph = graph;
+        this.aliasTable = aliasTable;
         this.walkLength = walkLength;
         this.rng = new Random(rngSeed);
         this.mode = mode;
@@ -92,14 +112,17 @@ public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
         if (walkLength == 0)
             return new VertexSequence<>(graph, indices);
 
+        if (aliasTable == null)
+            aliasTable = GraphAdjacency.buildAliasTable(graph);
+
         for (int i = 1; i <= walkLength; i++) {
-            List<? extends Edge<? extends Number>> edgeList = graph.getEdgesOut(currVertexIdx);
+            int next = aliasTable.sample(currVertexIdx, rng);
 
             //First: check if there are any outgoing edges from this vertex. If not: handle the situation
-            if (edgeList == null || edgeList.isEmpty()) {
+            if (next < 0) {
                 switch (mode) {
                     case SELF_LOOP_ON_DISCONNECTED:
-                        for (int j = i; j < walkLength; j++)
+                        for (int j = i; j <= walkLength; j++)
                             indices[j] = currVertexIdx;
                         return new VertexSequence<>(graph, indices);
                     case EXCEPTION_ON_DISCONNECTED:
@@ -112,31 +135,8 @@ public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
                 }
             }
 
-            //To do a weighted random walk: we need to know total weight of all outgoing edges
-            double totalWeight = 0.0;
-            for (Edge<? extends Number> edge : edgeList) {
-                totalWeight += edge.getValue().doubleValue();
-            }
-
-            double d = rng.nextDouble();
-            double threshold = d * totalWeight;
-            double sumWeight = 0.0;
-            for (Edge<? extends Number> edge : edgeList) {
-                sumWeight += edge.getValue().doubleValue();
-                if (sumWeight >= threshold) {
-                    if (edge.isDirected()) {
-                        currVertexIdx = edge.getTo();
-                    } else {
-                        if (edge.getFrom() == currVertexIdx) {
-                            currVertexIdx = edge.getTo();
-                        } else {
-                            currVertexIdx = edge.getFrom(); //Undirected edge: might be next--currVertexIdx instead of currVertexIdx--next
-                        }
-                    }
-                    indices[i] = currVertexIdx;
-                    break;
-                }
-            }
+            currVertexIdx = next;
+            indices[i] = currVertexIdx;
         }
         return new VertexSequence<>(graph, indices);
     }
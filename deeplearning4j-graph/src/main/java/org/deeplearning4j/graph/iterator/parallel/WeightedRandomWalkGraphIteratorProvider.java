@@ -2,8 +2,10 @@ package org.deeplearning4j.graph.iterator.parallel;
 
 import org.deeplearning4j.graph.api.IGraph;
 import org.deeplearning4j.graph.api.NoEdgeHandling;
+import org.deeplearning4j.graph.iterator.GraphAdjacency;
 import org.deeplearning4j.graph.iterator.GraphWalkIterator;
 import org.deeplearning4j.graph.iterator.WeightedRandomWalkIterator;
+import org.deeplearning4j.util.AliasTable;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,7 +15,8 @@ import java.util.Random;
  * split up the generation of weighted random walks for parallel learning. Specifically: with N threads and V vertices:
  * - First iterator generates weighted random walks starting at vertices 0 to V/N
  * - Second iterator generates weighted random walks starting at vertices V/N+1 to 2*V/N
- * - and so on
+ * - and so on<br>
+ * Alias tables for weighted sampling are built once (in parallel) and shared between all iterators.
  * @param <V> Vertex type
  * @see WeightedRandomWalkIterator
  */
@@ -23,6 +26,7 @@ public class WeightedRandomWalkGraphIteratorProvider<V> implements GraphWalkIter
     private int walkLength;
     private Random rng;
     private NoEdgeHandling mode;
+    private AliasTable aliasTable;
 
     public WeightedRandomWalkGraphIteratorProvider(IGraph<V, ? extends Number> graph, int walkLength) {
         this(graph, walkLength, System.currentTimeMillis(), NoEdgeHandling.EXCEPTION_ON_DISCONNECTED);
@@ -45,6 +49,9 @@ public class WeightedRandomWalkGraphIteratorProvider<V> implements GraphWalkIter
 
         int verticesPerIter = nVertices / numIterators;
 
+        if (aliasTable == null)
+            aliasTable = GraphAdjacency.buildAliasTable(graph);
+
         List<GraphWalkIterator<V>> list = new ArrayList<>(numIterators);
         int last = 0;
         for (int i = 0; i < numIterators; i++) {
@@ -54,7 +61,7 @@ public class WeightedRandomWalkGraphIteratorProvider<V> implements GraphWalkIter
                 to = nVertices;
 
             GraphWalkIterator<V> iter =
-                            new WeightedRandomWalkIterator<>(graph, walkLength, rng.nextLong(), mode, from, to);
+                            new WeightedRandomWalkIterator<>(graph, walkLength, rng.nextLong(), mode, from, to, aliasTable);
             list.add(iter);
             last = to;
         }
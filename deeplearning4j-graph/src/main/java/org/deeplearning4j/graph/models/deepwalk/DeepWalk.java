@@ -10,11 +10,18 @@ import org.deeplearning4j.graph.iterator.parallel.RandomWalkGraphIteratorProvide
 import org.deeplearning4j.graph.models.embeddings.GraphVectorLookupTable;
 import org.deeplearning4j.graph.models.embeddings.GraphVectorsImpl;
 import org.deeplearning4j.graph.models.embeddings.InMemoryGraphLookupTable;
+import org.nd4j.linalg.api.ops.aggregates.Aggregate;
+import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -26,6 +33,9 @@ import java.util.concurrent.atomic.AtomicLong;
  * the graph.<br>
  * Once learned, these vector representations can then be used for purposes such as classification, clustering, similarity
  * search, etc on the graph<br>
+ * Training is Hogwild style: threads update shared vectors without locking. By default, skip-gram updates are executed
+ * as batches of native aggregate ops (the same path used by SkipGram in deeplearning4j-nlp) - see
+ * {@link Builder#batchSize(int)}. Training throughput can be monitored with {@link DeepWalkListener}s.
  * @author Alex Black
  */
 public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
@@ -39,12 +49,26 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
     private long seed;
     private ExecutorService executorService;
     private int nThreads = Runtime.getRuntime().availableProcessors();
+    private int batchSize = 512;
     private transient AtomicLong walkCounter = new AtomicLong(0);
+    private transient AtomicLong pairCounter = new AtomicLong(0);
+    private transient List<DeepWalkListener> listeners = new CopyOnWriteArrayList<>();
+    private transient volatile long fitStartTime;
+    private transient volatile long fitStartWalks;
+    private transient volatile long fitStartPairs;
 
     public DeepWalk() {
 
     }
 
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        //Transient training state is not serialized: listeners have to be set again after deserialization
+        walkCounter = new AtomicLong(0);
+        pairCounter = new AtomicLong(0);
+        listeners = new CopyOnWriteArrayList<>();
+    }
+
     public int getVectorSize() {
         return vectorSize;
     }
@@ -53,6 +77,26 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
         return windowSize;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /** Set the listeners for training throughput, replacing any existing listeners */
+    public void setListeners(Collection<DeepWalkListener> listeners) {
+        this.listeners.clear();
+        if (listeners != null)
+            this.listeners.addAll(listeners);
+    }
+
+    /** Set the listeners for training throughput, replacing any existing listeners */
+    public void setListeners(DeepWalkListener... listeners) {
+        setListeners(listeners == null ? null : Arrays.asList(listeners));
+    }
+
+    public List<DeepWalkListener> getListeners() {
+        return listeners;
+    }
+
     public double getLearningRate() {
         return learningRate;
     }
@@ -125,10 +169,13 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
             }
         });
 
+        startThroughput();
+
         List<Future<Void>> list = new ArrayList<>(iteratorList.size());
         //log.info("Fitting Graph with {} threads", Math.max(nThreads,iteratorList.size()));
-        for (GraphWalkIterator<V> iter : iteratorList) {
-            LearningCallable c = new LearningCallable(iter);
+        for (int i = 0; i < iteratorList.size(); i++) {
+            //Each thread gets its own RNG seed
+            LearningCallable c = new LearningCallable(iteratorList.get(i), seed + i);
             list.add(executorService.submit(c));
         }
 
@@ -147,6 +194,8 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
                 throw new RuntimeException(e);
             }
         }
+
+        reportThroughput(false);
     }
 
     /**Fit the DeepWalk model <b>using a single thread</b> using a given GraphWalkIterator. If parallel fitting is required,
@@ -158,27 +207,49 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
     public void fit(GraphWalkIterator<V> iterator) {
         if (!initCalled)
             throw new UnsupportedOperationException("DeepWalk not initialized (call initialize before fit)");
+
+        startThroughput();
+        fit(iterator, seed);
+        reportThroughput(false);
+    }
+
+    private void fit(GraphWalkIterator<V> iterator, long threadSeed) {
         int walkLength = iterator.walkLength();
+        Random rng = new Random(threadSeed);
+
+        List<Aggregate> batch = null;
+        InMemoryGraphLookupTable nativeTable = null;
+        if (batchSize > 0 && lookupTable instanceof InMemoryGraphLookupTable) {
+            nativeTable = (InMemoryGraphLookupTable) lookupTable;
+            batch = new ArrayList<>(batchSize);
+        }
 
+        int[] walk = new int[walkLength + 1];
         while (iterator.hasNext()) {
             IVertexSequence<V> sequence = iterator.next();
 
             //Skipgram model:
-            int[] walk = new int[walkLength + 1];
             int i = 0;
             while (sequence.hasNext())
                 walk[i++] = sequence.next().vertexID();
 
-            skipGram(walk);
+            long pairs = (nativeTable != null ? skipGram(walk, nativeTable, batch, rng) : skipGram(walk));
 
+            pairCounter.addAndGet(pairs);
             long iter = walkCounter.incrementAndGet();
             if (iter % STATUS_UPDATE_FREQUENCY == 0) {
-                log.info("Processed {} random walks on graph", iter);
+                reportThroughput(true);
             }
         }
+
+        if (batch != null && !batch.isEmpty()) {
+            Nd4j.getExecutioner().exec(batch);
+            batch.clear();
+        }
     }
 
-    private void skipGram(int[] walk) {
+    private long skipGram(int[] walk) {
+        long pairs = 0;
         for (int mid = windowSize; mid < walk.length - windowSize; mid++) {
             for (int pos = mid - windowSize; pos <= mid + windowSize; pos++) {
                 if (pos == mid)
@@ -186,8 +257,50 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
 
                 //pair of vertices: walk[mid] -> walk[pos]
                 lookupTable.iterate(walk[mid], walk[pos]);
+                pairs++;
+            }
+        }
+        return pairs;
+    }
+
+    private long skipGram(int[] walk, InMemoryGraphLookupTable table, List<Aggregate> batch, Random rng) {
+        long pairs = 0;
+        for (int mid = windowSize; mid < walk.length - windowSize; mid++) {
+            for (int pos = mid - windowSize; pos <= mid + windowSize; pos++) {
+                if (pos == mid)
+                    continue;
+
+                //pair of vertices: walk[mid] -> walk[pos]
+                batch.add(table.iterateAggregate(walk[mid], walk[pos], rng.nextLong() & Long.MAX_VALUE));
+                pairs++;
+
+                if (batch.size() >= batchSize) {
+                    Nd4j.getExecutioner().exec(batch);
+                    batch.clear();
+                }
             }
         }
+        return pairs;
+    }
+
+    private void startThroughput() {
+        fitStartWalks = walkCounter.get();
+        fitStartPairs = pairCounter.get();
+        fitStartTime = System.currentTimeMillis();
+    }
+
+    private void reportThroughput(boolean logProgress) {
+        long walks = walkCounter.get() - fitStartWalks;
+        long pairs = pairCounter.get() - fitStartPairs;
+        double seconds = Math.max(1, System.currentTimeMillis() - fitStartTime) / 1000.0;
+        double walksPerSec = walks / seconds;
+        double pairsPerSec = pairs / seconds;
+
+        if (logProgress)
+            log.info("Processed {} random walks on graph ({} walks/sec, {} pairs/sec)", walkCounter.get(),
+                            String.format("%.1f", walksPerSec), String.format("%.1f", pairsPerSec));
+        for (DeepWalkListener listener : listeners)
+            listener.onThroughput(this, walks, pairs, walksPerSec, pairsPerSec);
     }
 
     public GraphVectorLookupTable lookupTable() {
@@ -200,6 +313,9 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
         private long seed = System.currentTimeMillis();
         private double learningRate = 0.01;
         private int windowSize = 2;
+        private int nThreads = Runtime.getRuntime().availableProcessors();
+        private int batchSize = 512;
+        private List<DeepWalkListener> listeners = new ArrayList<>();
 
         /** Sets the size of the vectors to be learned for each vertex in the graph */
         public Builder<V, E> vectorSize(int vectorSize) {
@@ -228,12 +344,41 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
             return this;
         }
 
+        /** Number of threads to use when fitting with {@link DeepWalk#fit(GraphWalkIteratorProvider)} or
+         * {@link DeepWalk#fit(IGraph, int)}. Defaults to the number of available processors */
+        public Builder<V, E> nThreads(int nThreads) {
+            if (nThreads <= 0)
+                throw new IllegalArgumentException("Number of threads must be positive: got " + nThreads);
+            this.nThreads = nThreads;
+            return this;
+        }
+
+        /** Number of skip-gram pairs executed together as a batch of native aggregate ops (default: 512).<br>
+         * Batching significantly reduces per-update overhead. Set to 0 to use per-pair INDArray updates via
+         * {@link GraphVectorLookupTable#iterate(int, int)} instead
+         */
+        public Builder<V, E> batchSize(int batchSize) {
+            if (batchSize < 0)
+                throw new IllegalArgumentException("Batch size must be >= 0: got " + batchSize);
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /** Add listeners for training throughput (walks/sec, pairs/sec) */
+        public Builder<V, E> listeners(DeepWalkListener... listeners) {
+            this.listeners.addAll(Arrays.asList(listeners));
+            return this;
+        }
+
         public DeepWalk<V, E> build() {
             DeepWalk<V, E> dw = new DeepWalk<>();
             dw.vectorSize = vectorSize;
             dw.windowSize = windowSize;
             dw.learningRate = learningRate;
             dw.seed = seed;
+            dw.nThreads = nThreads;
+            dw.batchSize = batchSize;
+            dw.setListeners(listeners);
 
             return dw;
         }
@@ -243,10 +388,11 @@ public class DeepWalk<V, E> extends GraphVectorsImpl<V, E> {
     private class LearningCallable implements Callable<Void> {
 
         private final GraphWalkIterator<V> iterator;
+        private final long threadSeed;
 
         @Override
         public Void call() throws Exception {
-            fit(iterator);
+            fit(iterator, threadSeed);
 
             return null;
         }
@@ -0,0 +1,18 @@
+package org.deeplearning4j.graph.models.deepwalk;
+
+/**Listener for DeepWalk training progress.<br>
+ * Called from the training threads every {@link DeepWalk#STATUS_UPDATE_FREQUENCY} walks, and once more (from the
+ * calling thread) at the end of each fit call. Implementations should be thread safe, and fast.
+ */
+public interface DeepWalkListener {
+
+    /**
+     * @param deepWalk model being trained
+     * @param walks number of walks processed since the current fit call started
+     * @param pairs number of skip-gram (vertex, context vertex) pairs processed since the current fit call started
+     * @param walksPerSecond average number of walks per second since the current fit call started
+     * @param pairsPerSecond average number of skip-gram pairs per second since the current fit call started
+     */
+    void onThroughput(DeepWalk<?, ?> deepWalk, long walks, long pairs, double walksPerSecond, double pairsPerSecond);
+
+}
@@ -4,8 +4,11 @@ import org.apache.commons.math3.util.FastMath;
 import org.deeplearning4j.graph.models.BinaryTree;
 import org.nd4j.linalg.api.blas.Level1;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.aggregates.impl.AggregateSkipGram;
 import org.nd4j.linalg.factory.Nd4j;
 
+import java.util.Arrays;
+
 /** A standard in-memory implementation of a lookup table for vector representations of the vertices in a graph
  * @author Alex Black
  */
@@ -21,6 +24,12 @@ public class InMemoryGraphLookupTable implements GraphVectorLookupTable {
     protected double[] expTable;
     protected static double MAX_EXP = 6;
 
+    //Lazily initialized state for native (aggregate) updates: exp table as INDArray, plus per-vertex inner node
+    //indices and word2vec-style codes for hierarchical softmax
+    protected volatile INDArray expTableArray;
+    protected volatile int[][] hsPoints;
+    protected int[][] hsCodes;
+
     public InMemoryGraphLookupTable(int nVertices, int vectorSize, BinaryTree tree, double learningRate) {
         this.nVertices = nVertices;
         this.vectorSize = vectorSize;
@@ -67,6 +76,47 @@ public class InMemoryGraphLookupTable implements GraphVectorLookupTable {
         }
     }
 
+    /**Create a native skip-gram op, that performs the same hierarchical softmax update as {@link #iterate(int, int)}.
+     * Ops can be executed in batches via {@code Nd4j.getExecutioner().exec(List<Aggregate>)}; updates are applied
+     * to the vertex vectors and inner node vectors of this table without any locking (Hogwild style).<br>
+     * Note that, like word2vec, the native implementation uses a lookup table for sigmoid and skips inner nodes where
+     * the dot product is outside of [-6, 6], so results are close to (but not exactly the same as) iterate(int, int)
+     * @param first first (input) vertex index: vector of this vertex is updated
+     * @param second second (output) vertex index: inner nodes along the path to this vertex are updated
+     * @param nextRandom random seed for the op
+     */
+    public AggregateSkipGram iterateAggregate(int first, int second, long nextRandom) {
+        if (hsPoints == null)
+            initHierarchicSoftmaxCodes();
+
+        return new AggregateSkipGram(vertexVectors, outWeights, null, expTableArray, null, first, hsPoints[second],
+                        hsCodes[second], 0, second, vectorSize, learningRate, nextRandom, nVertices, null);
+    }
+
+    protected synchronized void initHierarchicSoftmaxCodes() {
+        if (hsPoints != null)
+            return;
+        if (tree == null)
+            throw new IllegalStateException("Cannot create native updates: binary tree is not set");
+
+        int[][] points = new int[nVertices][0];
+        int[][] codes = new int[nVertices][0];
+        for (int v = 0; v < nVertices; v++) {
+            int codeLength = tree.getCodeLength(v);
+            long code = tree.getCode(v);
+            points[v] = Arrays.copyOf(tree.getPathInnerNodes(v), codeLength);
+            codes[v] = new int[codeLength];
+            for (int i = 0; i < codeLength; i++) {
+                //path == true means the inner node should output 1, which is code 0 in word2vec convention
+                codes[v][i] = getBit(code, i) ? 0 : 1;
+            }
+        }
+
+        expTableArray = Nd4j.create(expTable);
+        hsCodes = codes;
+        hsPoints = points;
+    }
+
     /** Returns vertex vector and vector gradients, plus inner node vectors and inner node gradients<br>
      * Specifically, out[0] are vectors, out[1] are gradients for the corresponding vectors<br>
      * out[0][0] is vector for first vertex; out[0][1] is gradient for this vertex vector<br>
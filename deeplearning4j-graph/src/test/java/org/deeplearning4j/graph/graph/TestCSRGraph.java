@@ -0,0 +1,146 @@
+package org.deeplearning4j.graph.graph;
+
+import org.deeplearning4j.graph.api.Edge;
+import org.deeplearning4j.graph.api.IVertexSequence;
+import org.deeplearning4j.graph.api.NoEdgeHandling;
+import org.deeplearning4j.graph.data.GraphLoader;
+import org.deeplearning4j.graph.iterator.RandomWalkIterator;
+import org.deeplearning4j.graph.iterator.WeightedRandomWalkIterator;
+import org.deeplearning4j.graph.models.deepwalk.DeepWalk;
+import org.deeplearning4j.graph.vertexfactory.StringVertexFactory;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.io.ClassPathResource;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TestCSRGraph {
+
+    @Test
+    public void testLoadUndirected() throws Exception {
+        String path = new ClassPathResource("testgraph_7vertices.txt").getTempFileFromArchive().getAbsolutePath();
+
+        Graph<String, String> graph = GraphLoader.loadUndirectedGraphEdgeListFile(path, 7, ",");
+        CSRGraph<String> csrGraph = GraphLoader.loadUndirectedCSRGraph(path, 7, ",");
+
+        assertEquals(7, csrGraph.numVertices());
+        assertFalse(csrGraph.isDirected());
+        assertFalse(csrGraph.isWeighted());
+
+        int numEdges = 0;
+        for (int i = 0; i < 7; i++) {
+            assertEquals(graph.getVertex(i), csrGraph.getVertex(i));
+            assertEquals(graph.getVertexDegree(i), csrGraph.getVertexDegree(i));
+
+            int[] expected = graph.getConnectedVertexIndices(i);
+            int[] actual = csrGraph.getConnectedVertexIndices(i);
+            Arrays.sort(expected);
+            Arrays.sort(actual);
+            assertArrayEquals(expected, actual);
+
+            for (Edge<Double> e : csrGraph.getEdgesOut(i)) {
+                assertEquals(i, e.getFrom());
+                assertEquals(1.0, e.getValue(), 0.0);
+                assertFalse(e.isDirected());
+            }
+            numEdges += csrGraph.getVertexDegree(i);
+        }
+        assertEquals(numEdges, csrGraph.numEdges());
+    }
+
+    @Test
+    public void testLoadWeighted() throws Exception {
+        String path = new ClassPathResource("WeightedGraph.txt").getTempFileFromArchive().getAbsolutePath();
+
+        Graph<String, Double> graph = GraphLoader.loadWeightedEdgeListFile(path, 9, ",", true, "//");
+        CSRGraph<String> csrGraph = GraphLoader.loadWeightedCSRGraph(path, 9, ",", true, "//");
+
+        assertTrue(csrGraph.isDirected());
+        assertTrue(csrGraph.isWeighted());
+        for (int i = 0; i < 9; i++) {
+            List<Edge<Double>> expected = graph.getEdgesOut(i);
+            List<Edge<Double>> actual = csrGraph.getEdgesOut(i);
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertEquals(expected.get(j).getTo(), actual.get(j).getTo());
+                assertEquals(expected.get(j).getValue(), actual.get(j).getValue(), 1e-5);
+            }
+        }
+
+        assertEquals(csrGraph, CSRGraph.fromGraph(graph, true));
+    }
+
+    @Test
+    public void testRandomWalks() {
+        //Ring graph: 0--1--2--...--9--0
+        Graph<String, Double> graph = new Graph<>(10, new StringVertexFactory());
+        for (int i = 0; i < 10; i++)
+            graph.addEdge(new Edge<>(i, (i + 1) % 10, 1.0 + i, false));
+        CSRGraph<String> csrGraph = CSRGraph.fromGraph(graph, true);
+
+        RandomWalkIterator<String> iter = new RandomWalkIterator<>(csrGraph, 5, 12345);
+        WeightedRandomWalkIterator<String> weightedIter = new WeightedRandomWalkIterator<>(csrGraph, 5, 12345);
+
+        Set<Integer> starts = new HashSet<>();
+        while (iter.hasNext()) {
+            checkRingWalk(iter.next(), starts);
+            checkRingWalk(weightedIter.next(), null);
+        }
+        assertEquals(10, starts.size());
+        assertFalse(weightedIter.hasNext());
+    }
+
+    private static void checkRingWalk(IVertexSequence<String> seq, Set<Integer> starts) {
+        assertEquals(6, seq.sequenceLength());
+        int last = -1;
+        while (seq.hasNext()) {
+            int curr = seq.next().vertexID();
+            if (last == -1) {
+                if (starts != null)
+                    starts.add(curr);
+            } else {
+                assertTrue(curr == (last + 1) % 10 || last == (curr + 1) % 10);
+            }
+            last = curr;
+        }
+    }
+
+    @Test
+    public void testSelfLoopOnDisconnected() {
+        CSRGraph<String> graph = new CSRGraph<>(new int[] {0, 1, 1}, new int[] {1}, null, true,
+                        new StringVertexFactory());
+
+        RandomWalkIterator<String> iter =
+                        new RandomWalkIterator<>(graph, 3, 12345, NoEdgeHandling.SELF_LOOP_ON_DISCONNECTED, 1, 2);
+        IVertexSequence<String> seq = iter.next();
+        while (seq.hasNext())
+            assertEquals(1, seq.next().vertexID());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        CSRGraph<String> graph = new CSRGraph<>(new int[] {0, 0, 0}, new int[0], null, true,
+                        new StringVertexFactory());
+        graph.addEdge(0, 1, 1.0, true);
+    }
+
+    @Test
+    public void testDeepWalk() throws Exception {
+        String path = new ClassPathResource("testgraph_7vertices.txt").getTempFileFromArchive().getAbsolutePath();
+        CSRGraph<String> graph = GraphLoader.loadUndirectedCSRGraph(path, 7, ",");
+
+        DeepWalk<String, Double> deepWalk = new DeepWalk.Builder<String, Double>().learningRate(0.01).vectorSize(5)
+                        .windowSize(2).build();
+        deepWalk.fit(graph, 8);
+
+        for (int i = 0; i < 7; i++) {
+            INDArray vector = deepWalk.getVertexVector(i);
+            assertArrayEquals(new int[] {1, 5}, vector.shape());
+        }
+    }
+}
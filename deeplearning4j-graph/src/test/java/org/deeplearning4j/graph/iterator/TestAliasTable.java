@@ -0,0 +1,105 @@
+package org.deeplearning4j.graph.iterator;
+
+import org.deeplearning4j.graph.api.Edge;
+import org.deeplearning4j.graph.api.IVertexSequence;
+import org.deeplearning4j.graph.api.NoEdgeHandling;
+import org.deeplearning4j.graph.graph.Graph;
+import org.deeplearning4j.graph.vertexfactory.IntegerVertexFactory;
+import org.deeplearning4j.util.AliasTable;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestAliasTable {
+
+    @Test
+    public void testHubDistribution() {
+        //Vertex 0 is a hub, connected to every other vertex with weight equal to vertex index
+        int nVertices = 200;
+        Graph<Integer, Double> graph = new Graph<>(nVertices, new IntegerVertexFactory());
+        double totalWeight = 0.0;
+        for (int i = 1; i < nVertices; i++) {
+            graph.addEdge(new Edge<>(0, i, (double) i, true));
+            totalWeight += i;
+        }
+
+        AliasTable table = GraphAdjacency.buildAliasTable(graph);
+        assertEquals(nVertices, table.numVertices());
+        assertEquals(nVertices - 1, table.degree(0));
+        assertEquals(0, table.degree(1));
+        assertEquals(-1, table.sample(1, new Random(12345)));
+
+        int nSamples = 2000000;
+        int[] counts = new int[nVertices];
+        Random rng = new Random(12345);
+        for (int i = 0; i < nSamples; i++)
+            counts[table.sample(0, rng)]++;
+
+        assertEquals(0, counts[0]);
+        for (int i = 1; i < nVertices; i++)
+            assertEquals(i / totalWeight, counts[i] / (double) nSamples, 0.001);
+    }
+
+    @Test
+    public void testParallelBuildMatchesSequential() {
+        int nVertices = 5000;
+        Random r = new Random(12345);
+        Graph<Integer, Double> graph = new Graph<>(nVertices, true, new IntegerVertexFactory());
+        for (int i = 0; i < 50000; i++)
+            graph.addEdge(new Edge<>(r.nextInt(nVertices), r.nextInt(nVertices), r.nextDouble(), false));
+
+        AliasTable sequential = GraphAdjacency.buildAliasTable(graph, 1);
+        AliasTable parallel = GraphAdjacency.buildAliasTable(graph, 4);
+
+        Random rng1 = new Random(12345);
+        Random rng2 = new Random(12345);
+        for (int v = 0; v < nVertices; v++) {
+            assertEquals(sequential.degree(v), parallel.degree(v));
+            for (int i = 0; i < 10; i++)
+                assertEquals(sequential.sample(v, rng1), parallel.sample(v, rng2));
+        }
+    }
+
+    @Test
+    public void testZeroWeightsUniform() {
+        Graph<Integer, Double> graph = new Graph<>(4, new IntegerVertexFactory());
+        for (int i = 1; i < 4; i++)
+            graph.addEdge(new Edge<>(0, i, 0.0, false));
+
+        AliasTable table = GraphAdjacency.buildAliasTable(graph);
+        int[] counts = new int[4];
+        Random rng = new Random(12345);
+        for (int i = 0; i < 30000; i++)
+            counts[table.sample(0, rng)]++;
+
+        //Undirected edges: other vertices always walk back to 0
+        assertEquals(0, table.sample(2, rng));
+        for (int i = 1; i < 4; i++)
+            assertEquals(1.0 / 3, counts[i] / 30000.0, 0.02);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWeight() {
+        Graph<Integer, Double> graph = new Graph<>(2, new IntegerVertexFactory());
+        graph.addEdge(new Edge<>(0, 1, -1.0, true));
+        GraphAdjacency.buildAliasTable(graph);
+    }
+
+    @Test
+    public void testSelfLoopOnDisconnected() {
+        Graph<Integer, Double> graph = new Graph<>(3, new IntegerVertexFactory());
+        graph.addEdge(new Edge<>(0, 1, 1.0, true));
+
+        WeightedRandomWalkIterator<Integer> iter = new WeightedRandomWalkIterator<>(graph, 4, 12345,
+                        NoEdgeHandling.SELF_LOOP_ON_DISCONNECTED, 0, 1, GraphAdjacency.buildAliasTable(graph));
+        IVertexSequence<Integer> seq = iter.next();
+
+        int[] expected = {0, 1, 1, 1, 1};
+        int i = 0;
+        while (seq.hasNext())
+            assertEquals(expected[i++], seq.next().vertexID());
+        assertEquals(expected.length, i);
+    }
+}
@@ -10,6 +10,7 @@ import org.deeplearning4j.graph.iterator.RandomWalkIterator;
 import org.deeplearning4j.graph.iterator.parallel.GraphWalkIteratorProvider;
 import org.deeplearning4j.graph.iterator.parallel.WeightedRandomWalkGraphIteratorProvider;
 import org.deeplearning4j.graph.models.GraphVectors;
+import org.deeplearning4j.graph.models.embeddings.InMemoryGraphLookupTable;
 import org.deeplearning4j.graph.models.loader.GraphVectorSerializer;
 import org.deeplearning4j.graph.vertexfactory.StringVertexFactory;
 import org.junit.Test;
@@ -21,6 +22,8 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.*;
 
@@ -244,4 +247,67 @@ public class TestDeepWalk {
         deepWalk.fit(iteratorProvider);
 
     }
+
+    @Test
+    public void testNativeUpdateMatchesPerPairUpdate() {
+        Graph<String, String> graph = generateRandomGraph(50, 4);
+        int[] degrees = new int[50];
+        for (int i = 0; i < 50; i++)
+            degrees[i] = graph.getVertexDegree(i);
+        GraphHuffman tree = new GraphHuffman(50);
+        tree.buildTree(degrees);
+
+        Nd4j.getRandom().setSeed(12345);
+        InMemoryGraphLookupTable perPair = new InMemoryGraphLookupTable(50, 10, tree, 0.01);
+        InMemoryGraphLookupTable nativeTable = new InMemoryGraphLookupTable(50, 10, tree, 0.01);
+        nativeTable.getVertexVectors().assign(perPair.getVertexVectors());
+        nativeTable.getOutWeights().assign(perPair.getOutWeights());
+
+        Random r = new Random(12345);
+        for (int i = 0; i < 100; i++) {
+            int first = r.nextInt(50);
+            int second = r.nextInt(50);
+            perPair.iterate(first, second);
+            Nd4j.getExecutioner().exec(nativeTable.iterateAggregate(first, second, 1));
+        }
+
+        //Native op uses sigmoid lookup table, so results aren't exactly the same
+        INDArray diffVectors = perPair.getVertexVectors().sub(nativeTable.getVertexVectors());
+        INDArray diffOut = perPair.getOutWeights().sub(nativeTable.getOutWeights());
+        assertEquals(0.0, diffVectors.norm1Number().doubleValue() / diffVectors.length(), 1e-4);
+        assertEquals(0.0, diffOut.norm1Number().doubleValue() / diffOut.length(), 1e-4);
+    }
+
+    @Test
+    public void testThroughputListener() {
+        IGraph<String, String> graph = generateRandomGraph(1000, 10);
+
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicLong lastWalks = new AtomicLong();
+        final AtomicLong lastPairs = new AtomicLong();
+        DeepWalkListener listener = new DeepWalkListener() {
+            @Override
+            public void onThroughput(DeepWalk<?, ?> deepWalk, long walks, long pairs, double walksPerSecond,
+                            double pairsPerSecond) {
+                assertTrue(walksPerSecond > 0);
+                assertTrue(pairsPerSecond > 0);
+                calls.incrementAndGet();
+                lastWalks.set(walks);
+                lastPairs.set(pairs);
+            }
+        };
+
+        DeepWalk<String, String> deepWalk = new DeepWalk.Builder<String, String>().vectorSize(20).windowSize(2)
+                        .nThreads(4).batchSize(128).listeners(listener).seed(12345).build();
+        deepWalk.initialize(graph);
+
+        for (int epoch = 1; epoch <= 2; epoch++) {
+            deepWalk.fit(graph, 10);
+
+            //Counts are reported per fit call: walk of length 10 has 11 vertices -> 7 windows of 4 pairs each
+            assertEquals(1000, lastWalks.get());
+            assertEquals(1000 * 7 * 4, lastPairs.get());
+        }
+        assertTrue(calls.get() >= 2);
+    }
 }
@@ -0,0 +1,283 @@
+package org.deeplearning4j.models.embeddings.loader;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.models.embeddings.wordvectors.WordVectors;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.AbstractCache;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.compression.AbstractStorage;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only vectors storage backed by memory-mapped file, suited for StaticWord2Vec.
+ *
+ * File layout:
+ * <pre>
+ * header:  magic, version, numWords, layerSize, matrix offset
+ * vocab:   label + element frequency for each word, in index order
+ * padding: up to the next page boundary
+ * matrix:  numWords x layerSize little-endian floats, row per word
+ * </pre>
+ *
+ * Opening the file only reads header and vocab. Matrix is mapped with {@link FileChannel#map}, so JVMs serving the same
+ * file share the OS page cache, and vectors are paged in on first access. With float data type on little-endian host
+ * vectors returned by {@link #get(Integer)} are views over the mapped memory, otherwise they're copied.
+ *
+ * Matrix is mapped copy-on-write: in-place modifications of returned vectors are never written back to the file.
+ */
+@Slf4j
+public class MappedVectorStorage implements AbstractStorage<Integer> {
+    private static final long MAGIC = 0x444C344A5732564DL; // DL4JW2VM
+    private static final int VERSION = 1;
+    private static final int PAGE_SIZE = 4096;
+    // we don't map more than 1GB at once, so huge models can be mapped too
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final int numWords;
+    private final int layerSize;
+    private final int rowsPerSegment;
+    private final MappedByteBuffer[] segments;
+    private final VocabCache<VocabWord> vocabCache;
+    private final boolean zeroCopy;
+
+    private MappedVectorStorage(int numWords, int layerSize, MappedByteBuffer[] segments, int rowsPerSegment,
+                    VocabCache<VocabWord> vocabCache) {
+        this.numWords = numWords;
+        this.layerSize = layerSize;
+        this.segments = segments;
+        this.rowsPerSegment = rowsPerSegment;
+        this.vocabCache = vocabCache;
+        this.zeroCopy = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN
+                        && Nd4j.dataType() == DataBuffer.Type.FLOAT;
+    }
+
+    /**
+     * Checks if file starts with mapped format header
+     */
+    public static boolean isMappedModel(@NonNull File file) {
+        if (!file.isFile() || file.length() < 8)
+            return false;
+
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(file))) {
+            return dis.readLong() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes vectors for all words in vocab into mapped format
+     *
+     * @param vectors word vectors to be saved
+     * @param file destination file
+     */
+    public static void write(@NonNull WordVectors vectors, @NonNull File file) throws IOException {
+        VocabCache<?> vocab = vectors.vocab();
+        int numWords = vocab.numWords();
+        if (numWords == 0)
+            throw new IllegalStateException("Can't write empty vocabulary");
+
+        int layerSize = vectors.getWordVectorMatrix(vocab.wordAtIndex(0)).length();
+
+        // we write header & vocab first, so we know where matrix starts
+        File tmpHeader = File.createTempFile("mapped", "header");
+        tmpHeader.deleteOnExit();
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpHeader)))) {
+            for (int i = 0; i < numWords; i++) {
+                String word = vocab.wordAtIndex(i);
+                dos.writeUTF(word);
+                dos.writeDouble(vocab.wordFrequency(word));
+            }
+        }
+
+        long headerSize = 8 + 4 + 4 + 4 + 8;
+        long matrixOffset = headerSize + tmpHeader.length();
+        matrixOffset = ((matrixOffset + PAGE_SIZE - 1) / PAGE_SIZE) * PAGE_SIZE;
+
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            dos.writeLong(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeInt(numWords);
+            dos.writeInt(layerSize);
+            dos.writeLong(matrixOffset);
+
+            try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(tmpHeader))) {
+                byte[] bytes = new byte[8192];
+                int read;
+                while ((read = bis.read(bytes)) != -1)
+                    dos.write(bytes, 0, read);
+            }
+
+            for (long i = headerSize + tmpHeader.length(); i < matrixOffset; i++)
+                dos.writeByte(0);
+
+            ByteBuffer row = ByteBuffer.allocate(layerSize * 4).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < numWords; i++) {
+                INDArray vector = vectors.getWordVectorMatrix(vocab.wordAtIndex(i));
+                if (vector.length() != layerSize)
+                    throw new IllegalStateException("Vector for word [" + vocab.wordAtIndex(i) + "] has length "
+                                    + vector.length() + ", expected " + layerSize);
+
+                row.clear();
+                for (int j = 0; j < layerSize; j++)
+                    row.putFloat(vector.getFloat(j));
+
+                dos.write(row.array(), 0, row.capacity());
+            }
+        } finally {
+            tmpHeader.delete();
+        }
+    }
+
+    /**
+     * Opens previously written file. Only header and vocab are read here.
+     */
+    public static MappedVectorStorage open(@NonNull File file) throws IOException {
+        int numWords;
+        int layerSize;
+        long matrixOffset;
+        AbstractCache<VocabWord> vocabCache = new AbstractCache.Builder<VocabWord>().build();
+
+        try (DataInputStream dis = new DataInputStream(
+                        new BufferedInputStream(new FileInputStream(file), 1024 * 1024))) {
+            if (dis.readLong() != MAGIC)
+                throw new IOException("File [" + file.getAbsolutePath() + "] isn't mapped vectors file");
+
+            int version = dis.readInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported mapped vectors file version: " + version);
+
+            numWords = dis.readInt();
+            layerSize = dis.readInt();
+            matrixOffset = dis.readLong();
+
+            for (int i = 0; i < numWords; i++) {
+                String label = dis.readUTF();
+                VocabWord word = new VocabWord(dis.readDouble(), label);
+                word.setIndex(i);
+
+                vocabCache.addToken(word);
+                vocabCache.addWordToIndex(i, label);
+            }
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long rowBytes = (long) layerSize * 4;
+            long expected = matrixOffset + rowBytes * numWords;
+            if (raf.length() < expected)
+                throw new IOException("File [" + file.getAbsolutePath() + "] is truncated: expected " + expected
+                                + " bytes, got " + raf.length());
+
+            int rowsPerSegment = (int) Math.max(1, Math.min(numWords, MAX_SEGMENT_BYTES / rowBytes));
+            int numSegments = (numWords + rowsPerSegment - 1) / rowsPerSegment;
+            MappedByteBuffer[] segments = new MappedByteBuffer[numSegments];
+
+            FileChannel channel = raf.getChannel();
+            for (int s = 0; s < numSegments; s++) {
+                int rows = Math.min(rowsPerSegment, numWords - s * rowsPerSegment);
+                segments[s] = channel.map(FileChannel.MapMode.PRIVATE,
+                                matrixOffset + (long) s * rowsPerSegment * rowBytes, rows * rowBytes);
+                segments[s].order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            log.debug("Mapped {} vectors of size {} from [{}] in {} segment(s)", numWords, layerSize,
+                            file.getAbsolutePath(), numSegments);
+
+            // mapping stays valid after channel is closed
+            return new MappedVectorStorage(numWords, layerSize, segments, rowsPerSegment, vocabCache);
+        }
+    }
+
+    /**
+     * @return vocab restored from the file, word index is row index in the matrix
+     */
+    public VocabCache<VocabWord> getVocabCache() {
+        return vocabCache;
+    }
+
+    public int getLayerSize() {
+        return layerSize;
+    }
+
+    @Override
+    public INDArray get(Integer key) {
+        if (key == null || key < 0 || key >= numWords)
+            return null;
+
+        ByteBuffer row = segments[key / rowsPerSegment].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int position = (key % rowsPerSegment) * layerSize * 4;
+        row.position(position);
+        row.limit(position + layerSize * 4);
+        row = row.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+        if (zeroCopy)
+            return Nd4j.create(Nd4j.createBuffer(row, DataBuffer.Type.FLOAT, layerSize), new int[] {1, layerSize});
+
+        float[] vector = new float[layerSize];
+        row.asFloatBuffer().get(vector);
+        return Nd4j.create(vector, new int[] {1, layerSize});
+    }
+
+    @Override
+    public boolean containsKey(Integer key) {
+        return key != null && key >= 0 && key < numWords;
+    }
+
+    @Override
+    public long size() {
+        return numWords;
+    }
+
+    @Override
+    public void store(Integer key, INDArray object) {
+        throw new UnsupportedOperationException("MappedVectorStorage is read-only");
+    }
+
+    @Override
+    public void store(Integer key, float[] array) {
+        throw new UnsupportedOperationException("MappedVectorStorage is read-only");
+    }
+
+    @Override
+    public void store(Integer key, double[] array) {
+        throw new UnsupportedOperationException("MappedVectorStorage is read-only");
+    }
+
+    @Override
+    public boolean storeIfAbsent(Integer key, INDArray object) {
+        throw new UnsupportedOperationException("MappedVectorStorage is read-only");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("MappedVectorStorage is read-only");
+    }
+
+    @Override
+    public void drop(Integer key) {
+        throw new UnsupportedOperationException("MappedVectorStorage is read-only");
+    }
+
+    @Override
+    public String toString() {
+        return "MappedVectorStorage{numWords=" + numWords + ", layerSize=" + layerSize + ", segments="
+                        + segments.length + "}";
+    }
+}
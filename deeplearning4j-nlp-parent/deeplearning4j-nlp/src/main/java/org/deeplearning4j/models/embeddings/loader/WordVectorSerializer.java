@@ -40,9 +40,11 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.LineIterator;
 import org.apache.commons.io.output.*;
 import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.clustering.randomprojection.RPForest;
 import org.deeplearning4j.models.embeddings.WeightLookupTable;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
 import org.deeplearning4j.models.embeddings.reader.impl.BasicModelUtils;
+import org.deeplearning4j.models.embeddings.reader.impl.RandomProjectionModelUtils;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectors;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectorsImpl;
 import org.deeplearning4j.models.glove.Glove;
@@ -93,6 +95,7 @@ public class WordVectorSerializer {
     private static final int MAX_SIZE = 50;
     private static final String whitespaceReplacement = "_Az92_";
     private static final Logger log = LoggerFactory.getLogger(WordVectorSerializer.class);
+    private static final String INDEX_ENTRY = "rpforest.bin";
 
     private WordVectorSerializer() {}
 
@@ -655,6 +658,8 @@ public class WordVectorSerializer {
         writeEntry(fis, zipfile);
         fis.close();
 
+        writeIndex(vectors, zipfile);
+
         ZipEntry config = new ZipEntry("config.json");
         zipfile.putNextEntry(config);
         //log.info("Current config: {}", vectors.getConfiguration().toJson());
@@ -766,6 +771,8 @@ public class WordVectorSerializer {
         writeEntry(fis, zipfile);
         fis.close();
 
+        writeIndex(vectors, zipfile);
+
         ZipEntry config = new ZipEntry("config.json");
         zipfile.putNextEntry(config);
         writeEntry(new ByteArrayInputStream(vectors.getConfiguration().toJson().getBytes()), zipfile);
@@ -853,6 +860,8 @@ public class WordVectorSerializer {
 
         vectors.extractLabels();
 
+        readIndex(vectors, zipFile);
+
         return vectors;
     }
 
@@ -966,6 +975,8 @@ public class WordVectorSerializer {
                 }
             }
 
+            readIndex(w2v, zipFile);
+
             return w2v;
         } finally {
             if (originalPeriodic)
@@ -986,6 +997,39 @@ public class WordVectorSerializer {
         return readParagraphVectors(tmpFile);
     }
 
+    /**
+     * Saves approximate nearest neighbours index, if model uses RandomProjectionModelUtils and index was built
+     */
+    private static void writeIndex(WordVectorsImpl<?> vectors, ZipOutputStream zipfile) throws IOException {
+        if (!(vectors.getModelUtils() instanceof RandomProjectionModelUtils))
+            return;
+
+        RPForest index = ((RandomProjectionModelUtils<?>) vectors.getModelUtils()).getIndex();
+        if (index == null)
+            return;
+
+        zipfile.putNextEntry(new ZipEntry(INDEX_ENTRY));
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new CloseShieldOutputStream(zipfile)));
+        index.write(dos);
+        dos.close();
+    }
+
+    /**
+     * Restores approximate nearest neighbours index saved with the model, if model uses RandomProjectionModelUtils
+     */
+    private static void readIndex(WordVectorsImpl<?> vectors, ZipFile zipFile) throws IOException {
+        if (!(vectors.getModelUtils() instanceof RandomProjectionModelUtils))
+            return;
+
+        ZipEntry entry = zipFile.getEntry(INDEX_ENTRY);
+        if (entry == null)
+            return;
+
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(zipFile.getInputStream(entry)))) {
+            ((RandomProjectionModelUtils<?>) vectors.getModelUtils()).setIndex(RPForest.read(dis));
+        }
+    }
+
     private static void writeEntry(InputStream inputStream, ZipOutputStream zipStream) throws IOException {
         byte[] bytes = new byte[1024];
         int bytesRead;
@@ -2500,6 +2544,13 @@ public class WordVectorSerializer {
 
         vec = builder.build();
 
+        try (ZipFile zipFile = new ZipFile(file)) {
+            readIndex(vec, zipFile);
+        } catch (IOException e) {
+            // model wasn't saved as zip, so there's no index to restore
+            log.debug("Index wasn't restored: {}", e.getMessage());
+        }
+
         return vec;
     }
 
@@ -2532,14 +2583,29 @@ public class WordVectorSerializer {
         return null;
     }
 
+    /**
+     * This method saves word vectors in binary page-aligned format, which can be memory-mapped by loadStaticModel().
+     * Only vocab and syn0 are saved.
+     *
+     * @param vectors word vectors to be saved
+     * @param file destination file
+     */
+    public static void writeMappedModel(@NonNull WordVectors vectors, @NonNull File file) throws IOException {
+        MappedVectorStorage.write(vectors, file);
+    }
+
     /**
      * This method restores previously saved w2v model. File can be in one of the following formats:
      * 1) Binary model, either compressed or not. Like well-known Google Model
      * 2) Popular CSV word2vec text format
      * 3) DL4j compressed format
+     * 4) Memory-mapped format, saved with writeMappedModel()
      *
      * In return you get StaticWord2Vec model, which might be used as lookup table only in multi-gpu environment.
      *
+     * PLEASE NOTE: Memory-mapped format is the fastest to load: only vocab is read upfront, vectors are paged in on demand,
+     * and page cache is shared between JVMs using the same file.
+     *
      * @param file File should point to previously saved w2v model
      * @return
      */
@@ -2549,6 +2615,16 @@ public class WordVectorSerializer {
             throw new RuntimeException(
                             new FileNotFoundException("File [" + file.getAbsolutePath() + "] was not found"));
 
+        if (MappedVectorStorage.isMappedModel(file)) {
+            log.debug("Trying mapped format...");
+            try {
+                MappedVectorStorage storage = MappedVectorStorage.open(file);
+                return new StaticWord2Vec.Builder(storage, storage.getVocabCache()).build();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
         int originalFreq = Nd4j.getMemoryManager().getOccasionalGcFrequency();
         boolean originalPeriodic = Nd4j.getMemoryManager().isPeriodicGcActive();
 
@@ -1,6 +1,5 @@
 package org.deeplearning4j.models.embeddings.reader.impl;
 
-import com.google.common.collect.Lists;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NonNull;
@@ -12,6 +11,7 @@ import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
 import org.deeplearning4j.util.MathUtils;
 import org.deeplearning4j.util.SetUtils;
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.ops.transforms.Transforms;
@@ -228,25 +228,16 @@ public class BasicModelUtils<T extends SequenceElement> implements ModelUtils<T>
         if (lookupTable instanceof InMemoryLookupTable) {
             InMemoryLookupTable l = (InMemoryLookupTable) lookupTable;
 
-            INDArray syn0 = l.getSyn0();
-
-            if (!normalized) {
-                synchronized (this) {
-                    if (!normalized) {
-                        syn0.diviColumnVector(syn0.norm2(1));
-                        normalized = true;
-                    }
-                }
-            }
+            INDArray syn0 = normalizedSyn0(l);
 
             INDArray similarity = Transforms.unitVec(words).mmul(syn0.transpose());
 
-            List<Double> highToLowSimList = getTopN(similarity, top + 20);
+            int[] highToLowSimList = getTopN(similarity, top + 20);
 
             List<WordSimilarity> result = new ArrayList<>();
 
-            for (int i = 0; i < highToLowSimList.size(); i++) {
-                String word = vocabCache.wordAtIndex(highToLowSimList.get(i).intValue());
+            for (int i = 0; i < highToLowSimList.length; i++) {
+                String word = vocabCache.wordAtIndex(highToLowSimList[i]);
                 if (word != null && !word.equals("UNK") && !word.equals("STOP")) {
                     INDArray otherVec = lookupTable.vector(word);
                     double sim = Transforms.cosineSim(words, otherVec);
@@ -276,36 +267,102 @@ public class BasicModelUtils<T extends SequenceElement> implements ModelUtils<T>
     }
 
     /**
-     * Get top N elements
+     * Normalizes syn0 of the given lookup table in place, once per init() call
+     *
+     * @return normalized syn0
+     */
+    protected INDArray normalizedSyn0(InMemoryLookupTable lookupTable) {
+        INDArray syn0 = lookupTable.getSyn0();
+
+        if (!normalized) {
+            synchronized (this) {
+                if (!normalized) {
+                    syn0.diviColumnVector(syn0.norm2(1));
+                    normalized = true;
+                }
+            }
+        }
+
+        return syn0;
+    }
+
+    /**
+     * Get indices of top N elements, without boxing or copying the vector.
+     * NaN values are ranked below any other value.
      *
      * @param vec the vec to extract the top elements from
      * @param N the number of elements to extract
-     * @return the indices and the sorted top N elements
+     * @return indices of the top N elements, sorted from high to low
      */
-    private List<Double> getTopN(INDArray vec, int N) {
-        ArrayComparator comparator = new ArrayComparator();
-        PriorityQueue<Double[]> queue = new PriorityQueue<>(vec.rows(), comparator);
-
-        for (int j = 0; j < vec.length(); j++) {
-            final Double[] pair = new Double[] {vec.getDouble(j), (double) j};
-            if (queue.size() < N) {
-                queue.add(pair);
-            } else {
-                Double[] head = queue.peek();
-                if (comparator.compare(pair, head) > 0) {
-                    queue.poll();
-                    queue.add(pair);
+    public static int[] getTopN(INDArray vec, int N) {
+        if (!vec.isVector() && !vec.isScalar())
+            throw new IllegalArgumentException("Top N can only be selected from vector");
+
+        int length = vec.length();
+        if (vec.elementWiseStride() < 1)
+            vec = vec.dup();
+
+        DataBuffer buffer = vec.data();
+        long offset = vec.offset();
+        int stride = vec.elementWiseStride();
+
+        N = Math.min(N, length);
+        if (N <= 0)
+            return new int[0];
+
+        // min-heap of the best N elements seen so far, root is the smallest one
+        int[] indices = new int[N];
+        double[] values = new double[N];
+        int size = 0;
+        for (int j = 0; j < length; j++) {
+            double value = buffer.getDouble(offset + (long) j * stride);
+            if (Double.isNaN(value))
+                value = Double.NEGATIVE_INFINITY;
+
+            if (size < N) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (values[parent] <= value)
+                        break;
+                    indices[i] = indices[parent];
+                    values[i] = values[parent];
+                    i = parent;
                 }
+                indices[i] = j;
+                values[i] = value;
+            } else if (value > values[0]) {
+                siftDown(indices, values, size, j, value);
             }
         }
 
-        List<Double> lowToHighSimLst = new ArrayList<>();
+        // heap sort: the smallest remaining element goes to the end
+        int[] result = new int[size];
+        for (int n = size; n > 0; n--) {
+            result[n - 1] = indices[0];
+            siftDown(indices, values, n - 1, indices[n - 1], values[n - 1]);
+        }
+        return result;
+    }
 
-        while (!queue.isEmpty()) {
-            double ind = queue.poll()[1];
-            lowToHighSimLst.add(ind);
+    private static void siftDown(int[] indices, double[] values, int size, int index, double value) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && values[child + 1] < values[child])
+                child++;
+            if (values[child] >= value)
+                break;
+            indices[i] = indices[child];
+            values[i] = values[child];
+            i = child;
+        }
+        if (size > 0) {
+            indices[i] = index;
+            values[i] = value;
         }
-        return Lists.reverse(lowToHighSimLst);
     }
 
     /**
@@ -321,22 +378,14 @@ public class BasicModelUtils<T extends SequenceElement> implements ModelUtils<T>
             INDArray syn0 = l.getSyn0();
             INDArray weights = syn0.norm2(0).rdivi(1).muli(words);
             INDArray distances = syn0.mulRowVector(weights).sum(1);
-            INDArray[] sorted = Nd4j.sortWithIndices(distances, 0, false);
-            INDArray sort = sorted[0];
+            int[] sort = getTopN(distances, top + 20);
             List<String> ret = new ArrayList<>();
-            if (top > sort.length())
-                top = sort.length();
-            //there will be a redundant word
-            int end = top;
-            for (int i = 0; i < end; i++) {
-                String add = vocabCache.wordAtIndex(sort.getInt(i));
-                if (add == null || add.equals("UNK") || add.equals("STOP")) {
-                    end++;
-                    if (end >= sort.length())
-                        break;
+            for (int i = 0; i < sort.length && ret.size() < top; i++) {
+                String add = vocabCache.wordAtIndex(sort[i]);
+                if (add == null || add.equals("UNK") || add.equals("STOP"))
                     continue;
-                }
-                ret.add(vocabCache.wordAtIndex(sort.getInt(i)));
+
+                ret.add(add);
             }
             return ret;
         }
@@ -389,6 +438,10 @@ public class BasicModelUtils<T extends SequenceElement> implements ModelUtils<T>
         }
     }
 
+    /**
+     * @deprecated Not used anymore: nearest words are selected without sorting Double[] pairs. Will be removed
+     */
+    @Deprecated
     public static class ArrayComparator implements Comparator<Double[]> {
         @Override
         public int compare(Double[] o1, Double[] o2) {
@@ -1,13 +1,16 @@
 package org.deeplearning4j.models.embeddings.reader.impl;
 
 import org.deeplearning4j.berkeley.Counter;
+import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
 import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.ops.transforms.Transforms;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * This model reader is suited for model tests, and for cases where flat scan against elements is required.
@@ -46,6 +49,22 @@ public class FlatModelUtils<T extends SequenceElement> extends BasicModelUtils<T
      */
     @Override
     public Collection<String> wordsNearest(INDArray words, int top) {
+        if (lookupTable instanceof InMemoryLookupTable) {
+            // cosine similarity against every row, without touching syn0 itself
+            INDArray syn0 = ((InMemoryLookupTable) lookupTable).getSyn0();
+            INDArray similarity = syn0.mmul(words.reshape(words.length(), 1)).divi(syn0.norm2(1))
+                            .divi(words.norm2Number());
+
+            int[] highToLowSimList = getTopN(similarity, top);
+            List<String> result = new ArrayList<>();
+            for (int index : highToLowSimList) {
+                String word = vocabCache.wordAtIndex(index);
+                if (word != null)
+                    result.add(word);
+            }
+            return result;
+        }
+
         Counter<String> distances = new Counter<>();
 
         for (String s : vocabCache.words()) {
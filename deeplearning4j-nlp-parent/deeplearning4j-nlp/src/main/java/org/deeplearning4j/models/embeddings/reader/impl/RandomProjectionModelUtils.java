@@ -0,0 +1,155 @@
+package org.deeplearning4j.models.embeddings.reader.impl;
+
+import lombok.NonNull;
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.clustering.randomprojection.RPForest;
+import org.deeplearning4j.models.embeddings.WeightLookupTable;
+import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.ops.transforms.Transforms;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Approximate nearest neighbours implementation for wordsNearest methods, backed by {@link RPForest}.
+ * Suited for large vocabularies and many consequent calls: each query scores only {@code searchK} candidates instead
+ * of the whole lookup table.
+ *
+ * Forest is built upon first call to wordsNearest, over normalized syn0, and is reset by init(). It's saved with the
+ * model zip by WordVectorSerializer, so it doesn't have to be rebuilt after restore.
+ *
+ * Recall/latency trade-off is controlled by searchK, which can be changed at any time. Non-positive searchK means
+ * {@code top * numTrees * 10} candidates per query.
+ *
+ * PLEASE NOTE: Only InMemoryLookupTable is supported, for other tables exact BasicModelUtils search is used.
+ */
+public class RandomProjectionModelUtils<T extends SequenceElement> extends BasicModelUtils<T> {
+    public static final int DEFAULT_NUM_TREES = 10;
+    public static final int DEFAULT_LEAF_SIZE = 64;
+
+    private static final Logger log = LoggerFactory.getLogger(RandomProjectionModelUtils.class);
+
+    protected int numTrees = DEFAULT_NUM_TREES;
+    protected int leafSize = DEFAULT_LEAF_SIZE;
+    protected volatile int searchK = -1;
+    protected long seed = 119L;
+
+    protected volatile RPForest index;
+
+    public RandomProjectionModelUtils() {
+
+    }
+
+    /**
+     * @param numTrees number of random projection trees
+     * @param leafSize max number of words in tree leaf
+     * @param searchK number of candidates scored per query, non-positive value means default
+     */
+    public RandomProjectionModelUtils(int numTrees, int leafSize, int searchK) {
+        this.numTrees = numTrees;
+        this.leafSize = leafSize;
+        this.searchK = searchK;
+    }
+
+    @Override
+    public void init(@NonNull WeightLookupTable<T> lookupTable) {
+        super.init(lookupTable);
+        index = null;
+    }
+
+    public int getSearchK() {
+        return searchK;
+    }
+
+    /**
+     * Sets number of candidates scored exactly per query. Higher values give better recall and higher latency.
+     *
+     * @param searchK number of candidates, non-positive value means {@code top * numTrees * 10}
+     */
+    public void setSearchK(int searchK) {
+        this.searchK = searchK;
+    }
+
+    /**
+     * @return current index, or null if it wasn't built or restored yet
+     */
+    public RPForest getIndex() {
+        return index;
+    }
+
+    /**
+     * Sets previously built index, i.e. one restored from model file. It'll be attached to syn0 upon first query.
+     */
+    public void setIndex(RPForest index) {
+        this.index = index;
+    }
+
+    /**
+     * Builds index now, instead of first wordsNearest call
+     */
+    public RPForest buildIndex() {
+        if (!(lookupTable instanceof InMemoryLookupTable))
+            throw new IllegalStateException("RandomProjectionModelUtils requires InMemoryLookupTable");
+
+        return checkIndex((InMemoryLookupTable) lookupTable);
+    }
+
+    protected RPForest checkIndex(InMemoryLookupTable lookupTable) {
+        INDArray syn0 = normalizedSyn0(lookupTable);
+
+        RPForest forest = index;
+        if (forest != null && forest.isReady())
+            return forest;
+
+        synchronized (this) {
+            forest = index;
+            if (forest != null && !forest.isReady()) {
+                if (forest.getNumItems() == syn0.rows() && forest.getDimensions() == syn0.columns()) {
+                    forest.attach(syn0);
+                } else {
+                    log.warn("Restored index doesn't match lookup table, rebuilding it...");
+                    forest = null;
+                }
+            }
+
+            if (forest == null) {
+                long time = System.currentTimeMillis();
+                forest = new RPForest(numTrees, leafSize, seed);
+                forest.fit(syn0);
+                log.info("Built index with {} trees over {} words in {} ms", numTrees, syn0.rows(),
+                                System.currentTimeMillis() - time);
+            }
+
+            index = forest;
+            return forest;
+        }
+    }
+
+    @Override
+    public Collection<String> wordsNearest(INDArray words, int top) {
+        if (!(lookupTable instanceof InMemoryLookupTable))
+            return super.wordsNearest(words, top);
+
+        RPForest forest = checkIndex((InMemoryLookupTable) lookupTable);
+
+        // a few extra results to make up for filtered out elements
+        Pair<int[], double[]> nearest = forest.search(Transforms.unitVec(words), top + 20, searchK);
+
+        List<String> result = new ArrayList<>();
+        for (int idx : nearest.getFirst()) {
+            String word = vocabCache.wordAtIndex(idx);
+            if (word != null && !word.equals("UNK") && !word.equals("STOP"))
+                result.add(word);
+
+            if (result.size() >= top)
+                break;
+        }
+
+        return result;
+    }
+}
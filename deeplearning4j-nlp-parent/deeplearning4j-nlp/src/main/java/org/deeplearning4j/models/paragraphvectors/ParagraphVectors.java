@@ -1,6 +1,5 @@
 package org.deeplearning4j.models.paragraphvectors;
 
-import com.google.common.collect.Lists;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
@@ -567,10 +566,10 @@ public class ParagraphVectors extends Word2Vec {
         }
 
         INDArray similarity = Transforms.unitVec(labelVector).mmul(labelsMatrix.transpose());
-        List<Double> highToLowSimList = getTopN(similarity, topN + 20);
+        int[] highToLowSimList = BasicModelUtils.getTopN(similarity, topN + 20);
 
-        for (int i = 0; i < highToLowSimList.size(); i++) {
-            String word = labelsList.get(highToLowSimList.get(i).intValue()).getLabel();
+        for (int i = 0; i < highToLowSimList.length; i++) {
+            String word = labelsList.get(highToLowSimList[i]).getLabel();
             if (word != null && !word.equals("UNK") && !word.equals("STOP")) {
                 INDArray otherVec = lookupTable.vector(word);
                 double sim = Transforms.cosineSim(labelVector, otherVec);
@@ -584,39 +583,6 @@ public class ParagraphVectors extends Word2Vec {
         return BasicModelUtils.getLabels(result, topN);
     }
 
-    /**
-     * Get top N elements
-     *
-     * @param vec the vec to extract the top elements from
-     * @param N the number of elements to extract
-     * @return the indices and the sorted top N elements
-     */
-    private List<Double> getTopN(INDArray vec, int N) {
-        BasicModelUtils.ArrayComparator comparator = new BasicModelUtils.ArrayComparator();
-        PriorityQueue<Double[]> queue = new PriorityQueue<>(vec.rows(), comparator);
-
-        for (int j = 0; j < vec.length(); j++) {
-            final Double[] pair = new Double[] {vec.getDouble(j), (double) j};
-            if (queue.size() < N) {
-                queue.add(pair);
-            } else {
-                Double[] head = queue.peek();
-                if (comparator.compare(pair, head) > 0) {
-                    queue.poll();
-                    queue.add(pair);
-                }
-            }
-        }
-
-        List<Double> lowToHighSimLst = new ArrayList<>();
-
-        while (!queue.isEmpty()) {
-            double ind = queue.poll()[1];
-            lowToHighSimLst.add(ind);
-        }
-        return Lists.reverse(lowToHighSimLst);
-    }
-
     /**
      * This method returns similarity of the document to specific label, based on mean value
      *
@@ -102,9 +102,10 @@ public class PopularityWalker<T extends SequenceElement> extends RandomWalker<T>
                     if (connections.length > 0) {
 
 
+                        // popularity is vertex degree, no need to materialize neighbour lists for that
                         for (int connected : connections) {
-                            queue.add(new Node<T>(connected, sourceGraph.getConnectedVertices(connected).size()),
-                                            sourceGraph.getConnectedVertices(connected).size());
+                            int popularity = sourceGraph.getVertexDegree(connected);
+                            queue.add(new Node<T>(connected, popularity), popularity);
                         }
 
 
@@ -4,25 +4,27 @@ import lombok.NonNull;
 import org.deeplearning4j.models.sequencevectors.graph.enums.NoEdgeHandling;
 import org.deeplearning4j.models.sequencevectors.graph.enums.WalkDirection;
 import org.deeplearning4j.models.sequencevectors.graph.exception.NoEdgesException;
-import org.deeplearning4j.models.sequencevectors.graph.primitives.Edge;
+import org.deeplearning4j.models.sequencevectors.graph.primitives.GraphAdjacency;
 import org.deeplearning4j.models.sequencevectors.graph.primitives.IGraph;
 import org.deeplearning4j.models.sequencevectors.graph.primitives.Vertex;
 import org.deeplearning4j.models.sequencevectors.graph.walkers.GraphWalker;
 import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
 import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
+import org.deeplearning4j.util.AliasTable;
 
-import java.util.List;
 import java.util.Random;
 
 /**
  * This is vertex weight-based walker for SequenceVectors-based DeepWalk implementation.
  * Instead of random walks, this walker produces walks based on weight of the edges.
+ * Next hop is sampled in O(1) time using per-vertex {@link AliasTable}, built once when walker is built.
  *
  * @author AlexDBlack
  * @author raver119@gmail.com
  * Based on Alex Black WeightedWalkIterator implementation
  */
 public class WeightedWalker<T extends SequenceElement> extends RandomWalker<T> implements GraphWalker<T> {
+    protected AliasTable aliasTable;
 
     protected WeightedWalker() {
 
@@ -67,9 +69,9 @@ public class WeightedWalker<T extends SequenceElement> extends RandomWalker<T> i
             Vertex<T> vertex = sourceGraph.getVertex(currentPoint);
             sequence.addElement(vertex.getValue());
 
-            List<? extends Edge<? extends Number>> edges = sourceGraph.getEdgesOut(currentPoint);
+            int next = aliasTable.sample(currentPoint, rng);
 
-            if (edges == null || edges.isEmpty()) {
+            if (next < 0) {
                 switch (noEdgeHandling) {
                     case CUTOFF_ON_DISCONNECTED:
                         // we just break this sequence
@@ -88,30 +90,8 @@ public class WeightedWalker<T extends SequenceElement> extends RandomWalker<T> i
                         break;
                 }
             } else {
-                double totalWeight = 0.0;
-                for (Edge<? extends Number> edge : edges) {
-                    totalWeight += edge.getValue().doubleValue();
-                }
-
-                double d = rng.nextDouble();
-                double threshold = d * totalWeight;
-                double sumWeight = 0.0;
-                for (Edge<? extends Number> edge : edges) {
-                    sumWeight += edge.getValue().doubleValue();
-                    if (sumWeight >= threshold) {
-                        if (edge.isDirected()) {
-                            currentPoint = edge.getTo();
-                        } else {
-                            if (edge.getFrom() == currentPoint) {
-                                currentPoint = edge.getTo();
-                            } else {
-                                currentPoint = edge.getFrom(); //Undirected edge: might be next--currVertexIdx instead of currVertexIdx--next
-                            }
-                        }
-                        lastId = currentPoint;
-                        break;
-                    }
-                }
+                currentPoint = next;
+                lastId = currentPoint;
             }
         }
 
@@ -129,9 +109,27 @@ public class WeightedWalker<T extends SequenceElement> extends RandomWalker<T> i
     }
 
     public static class Builder<T extends SequenceElement> extends RandomWalker.Builder<T> {
+        protected IGraph<T, ? extends Number> weightedGraph;
+        protected AliasTable aliasTable;
 
         public Builder(IGraph<T, ? extends Number> sourceGraph) {
             super(sourceGraph);
+            this.weightedGraph = sourceGraph;
+        }
+
+        /**
+         * This method allows you to pass alias tables built for the same graph earlier, so multiple walkers can share them.
+         * If not set, tables will be built in parallel during build() call.
+         *
+         * @param aliasTable
+         * @return
+         */
+        public Builder<T> setAliasTable(@NonNull AliasTable aliasTable) {
+            if (aliasTable.numVertices() != weightedGraph.numVertices())
+                throw new IllegalArgumentException("Alias table was built for " + aliasTable.numVertices()
+                                + " vertices, but graph has " + weightedGraph.numVertices());
+            this.aliasTable = aliasTable;
+            return this;
         }
 
         /**
@@ -203,6 +201,8 @@ public class WeightedWalker<T extends SequenceElement> extends RandomWalker<T> i
             walker.seed = this.seed;
             walker.walkDirection = this.walkDirection;
             walker.alpha = this.alpha;
+            walker.aliasTable = this.aliasTable != null ? this.aliasTable
+                            : GraphAdjacency.buildAliasTable(weightedGraph);
 
             walker.order = new int[sourceGraph.numVertices()];
             for (int i = 0; i < walker.order.length; i++) {
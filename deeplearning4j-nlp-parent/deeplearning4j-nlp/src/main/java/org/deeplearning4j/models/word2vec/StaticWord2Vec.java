@@ -159,7 +159,8 @@ public class StaticWord2Vec implements WordVectors {
      */
     @Override
     public INDArray getWordVectorMatrixNormalized(String word) {
-        return Transforms.unitVec(getWordVectorMatrix(word));
+        // storage might return views, i.e. over memory-mapped file, so we don't want to modify them in place
+        return Transforms.unitVec(getWordVectorMatrix(word).dup());
     }
 
     /**
@@ -328,7 +329,8 @@ public class StaticWord2Vec implements WordVectors {
 
         /**
          *
-         * @param storage AbstractStorage implementation, key has to be Integer, index of vocabWords
+         * @param storage AbstractStorage implementation, key has to be Integer, index of vocabWords.
+         *                I.e. CompressedRamStorage, or MappedVectorStorage for memory-mapped models
          * @param vocabCache VocabCache implementation, which will be used to lookup word indexes
          */
         public Builder(AbstractStorage<Integer> storage, VocabCache<VocabWord> vocabCache) {
@@ -0,0 +1,95 @@
+package org.deeplearning4j.models.embeddings.loader;
+
+import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.models.embeddings.wordvectors.WordVectors;
+import org.deeplearning4j.models.word2vec.StaticWord2Vec;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.Word2Vec;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.AbstractCache;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MappedVectorStorageTest {
+
+    private static Word2Vec buildModel(INDArray syn0) {
+        AbstractCache<VocabWord> vocabCache = new AbstractCache.Builder<VocabWord>().build();
+        for (int i = 0; i < syn0.rows(); i++) {
+            VocabWord word = new VocabWord(i + 1, "word_" + i);
+            word.setIndex(i);
+            vocabCache.addToken(word);
+            vocabCache.addWordToIndex(i, word.getLabel());
+        }
+
+        InMemoryLookupTable<VocabWord> lookupTable =
+                        (InMemoryLookupTable<VocabWord>) new InMemoryLookupTable.Builder<VocabWord>().cache(vocabCache)
+                                        .vectorLength(syn0.columns()).useHierarchicSoftmax(false).useAdaGrad(false)
+                                        .build();
+        lookupTable.setSyn0(syn0);
+
+        return new Word2Vec.Builder().lookupTable(lookupTable).vocabCache(vocabCache).layerSize(syn0.columns())
+                        .useHierarchicSoftmax(false).resetModel(false).build();
+    }
+
+    @Test
+    public void testWriteAndMap() throws Exception {
+        Nd4j.getRandom().setSeed(12345);
+        Word2Vec vec = buildModel(Nd4j.rand(300, 50));
+
+        File tmp = File.createTempFile("mapped", "w2v");
+        tmp.deleteOnExit();
+        WordVectorSerializer.writeMappedModel(vec, tmp);
+
+        assertTrue(MappedVectorStorage.isMappedModel(tmp));
+
+        MappedVectorStorage storage = MappedVectorStorage.open(tmp);
+        assertEquals(300, storage.size());
+        assertEquals(50, storage.getLayerSize());
+        assertEquals(300, storage.getVocabCache().numWords());
+        assertEquals(8.0, storage.getVocabCache().wordFrequency("word_7"), 1e-5);
+        assertNull(storage.get(300));
+
+        WordVectors restored = WordVectorSerializer.loadStaticModel(tmp);
+        assertTrue(restored instanceof StaticWord2Vec);
+
+        for (int i = 0; i < 300; i++) {
+            String word = "word_" + i;
+            assertEquals(i, restored.indexOf(word));
+            assertEquals(vec.getWordVectorMatrix(word), restored.getWordVectorMatrix(word));
+        }
+
+        assertEquals(vec.similarity("word_1", "word_2"), restored.similarity("word_1", "word_2"), 1e-5);
+
+        // normalization shouldn't modify stored vectors
+        INDArray before = restored.getWordVectorMatrix("word_3").dup();
+        restored.getWordVectorMatrixNormalized("word_3");
+        assertEquals(before, restored.getWordVectorMatrix("word_3"));
+    }
+
+    @Test
+    public void testNotMapped() throws Exception {
+        File tmp = File.createTempFile("mapped", "txt");
+        tmp.deleteOnExit();
+
+        Word2Vec vec = buildModel(Nd4j.rand(10, 5));
+        WordVectorSerializer.writeWordVectors(vec, tmp);
+
+        assertFalse(MappedVectorStorage.isMappedModel(tmp));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() throws Exception {
+        File tmp = File.createTempFile("mapped", "w2v");
+        tmp.deleteOnExit();
+
+        WordVectorSerializer.writeMappedModel(buildModel(Nd4j.rand(10, 5)), tmp);
+        MappedVectorStorage.open(tmp).store(0, new float[5]);
+    }
+}
@@ -0,0 +1,36 @@
+package org.deeplearning4j.models.embeddings.reader.impl;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BasicModelUtilsTest {
+
+    @Test
+    public void testGetTopN() {
+        INDArray vec = Nd4j.create(new double[] {0.1, 0.9, -0.5, 0.3, Double.NaN, 0.7, 0.2});
+
+        assertArrayEquals(new int[] {1, 5, 3}, BasicModelUtils.getTopN(vec, 3));
+        assertArrayEquals(new int[] {1}, BasicModelUtils.getTopN(vec, 1));
+        // NaN goes last
+        assertArrayEquals(new int[] {1, 5, 3, 6, 0, 2, 4}, BasicModelUtils.getTopN(vec, 10));
+        assertEquals(0, BasicModelUtils.getTopN(vec, 0).length);
+    }
+
+    @Test
+    public void testGetTopNOnView() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray matrix = Nd4j.rand(50, 40);
+
+        // column of c-ordered matrix is a strided view
+        INDArray column = matrix.getColumn(7);
+        INDArray[] sorted = Nd4j.sortWithIndices(column.dup(), 0, false);
+
+        int[] top = BasicModelUtils.getTopN(column, 10);
+        for (int i = 0; i < top.length; i++)
+            assertEquals(sorted[0].getInt(i), top[i]);
+    }
+}
@@ -0,0 +1,114 @@
+package org.deeplearning4j.models.embeddings.reader.impl;
+
+import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.models.embeddings.loader.WordVectorSerializer;
+import org.deeplearning4j.models.embeddings.reader.ModelUtils;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.Word2Vec;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.AbstractCache;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class RandomProjectionModelUtilsTest {
+    private static final int NUM_WORDS = 1000;
+    private static final int LAYER_SIZE = 32;
+
+    private static Word2Vec buildModel(INDArray syn0, ModelUtils<VocabWord> modelUtils) {
+        AbstractCache<VocabWord> vocabCache = new AbstractCache.Builder<VocabWord>().build();
+        for (int i = 0; i < syn0.rows(); i++) {
+            VocabWord word = new VocabWord(1.0, "word_" + i);
+            word.setIndex(i);
+            vocabCache.addToken(word);
+            vocabCache.addWordToIndex(i, word.getLabel());
+        }
+
+        InMemoryLookupTable<VocabWord> lookupTable =
+                        (InMemoryLookupTable<VocabWord>) new InMemoryLookupTable.Builder<VocabWord>().cache(vocabCache)
+                                        .vectorLength(syn0.columns()).useHierarchicSoftmax(false).useAdaGrad(false)
+                                        .build();
+        lookupTable.setSyn0(syn0);
+
+        return new Word2Vec.Builder().lookupTable(lookupTable).vocabCache(vocabCache).layerSize(syn0.columns())
+                        .useHierarchicSoftmax(false).resetModel(false).modelUtils(modelUtils).build();
+    }
+
+    @Test
+    public void testMatchesBasicModelUtils() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray syn0 = Nd4j.randn(NUM_WORDS, LAYER_SIZE);
+
+        Word2Vec exact = buildModel(syn0.dup(), new BasicModelUtils<VocabWord>());
+        // exhaustive candidate budget: approximate search should give exactly the same results
+        Word2Vec approximate = buildModel(syn0.dup(), new RandomProjectionModelUtils<VocabWord>(5, 16, NUM_WORDS));
+
+        for (int i = 0; i < 20; i++) {
+            String word = "word_" + (i * 31);
+            assertEquals(new ArrayList<>(exact.wordsNearest(word, 10)),
+                            new ArrayList<>(approximate.wordsNearest(word, 10)));
+        }
+    }
+
+    @Test
+    public void testRecall() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray syn0 = Nd4j.randn(NUM_WORDS, LAYER_SIZE);
+
+        Word2Vec exact = buildModel(syn0.dup(), new BasicModelUtils<VocabWord>());
+        RandomProjectionModelUtils<VocabWord> utils = new RandomProjectionModelUtils<>(10, 16, 200);
+        Word2Vec approximate = buildModel(syn0.dup(), utils);
+
+        double hits = 0;
+        double total = 0;
+        for (int i = 0; i < 50; i++) {
+            String word = "word_" + (i * 17);
+            Collection<String> expected = exact.wordsNearest(word, 10);
+            for (String w : approximate.wordsNearest(word, 10)) {
+                if (expected.contains(w))
+                    hits++;
+            }
+            total += expected.size();
+        }
+
+        assertTrue("Recall was " + hits / total, hits / total > 0.7);
+    }
+
+    @Test
+    public void testIndexPersistence() throws Exception {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray syn0 = Nd4j.randn(NUM_WORDS, LAYER_SIZE);
+
+        RandomProjectionModelUtils<VocabWord> utils = new RandomProjectionModelUtils<>(5, 16, 200);
+        Word2Vec vec = buildModel(syn0, utils);
+        utils.buildIndex();
+
+        List<Collection<String>> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            expected.add(vec.wordsNearest("word_" + i, 10));
+
+        File tmp = File.createTempFile("rpforest", "w2v");
+        tmp.deleteOnExit();
+        WordVectorSerializer.writeWord2VecModel(vec, tmp);
+
+        Word2Vec restored = WordVectorSerializer.readWord2VecModel(tmp);
+        assertTrue(restored.getModelUtils() instanceof RandomProjectionModelUtils);
+
+        RandomProjectionModelUtils<VocabWord> restoredUtils =
+                        (RandomProjectionModelUtils<VocabWord>) restored.getModelUtils();
+        assertNotNull(restoredUtils.getIndex());
+        restoredUtils.setSearchK(200);
+
+        for (int i = 0; i < 10; i++)
+            assertEquals(new ArrayList<>(expected.get(i)),
+                            new ArrayList<>(restored.wordsNearest("word_" + i, 10)));
+    }
+}
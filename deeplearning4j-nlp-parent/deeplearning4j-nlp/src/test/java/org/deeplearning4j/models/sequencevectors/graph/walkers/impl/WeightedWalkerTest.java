@@ -2,11 +2,13 @@ package org.deeplearning4j.models.sequencevectors.graph.walkers.impl;
 
 import org.deeplearning4j.models.sequencevectors.graph.enums.NoEdgeHandling;
 import org.deeplearning4j.models.sequencevectors.graph.enums.WalkDirection;
+import org.deeplearning4j.models.sequencevectors.graph.primitives.GraphAdjacency;
 import org.deeplearning4j.models.sequencevectors.graph.primitives.Graph;
 import org.deeplearning4j.models.sequencevectors.graph.vertex.AbstractVertexFactory;
 import org.deeplearning4j.models.sequencevectors.graph.walkers.GraphWalker;
 import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
 import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.util.AliasTable;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -61,4 +63,39 @@ public class WeightedWalkerTest {
         assertEquals(basicGraph.numVertices(), cnt);
     }
 
+    @Test
+    public void testTransitionProbabilities() throws Exception {
+        // star graph: vertex 0 is connected to vertex i with weight i
+        Graph<VocabWord, Integer> graph = new Graph<>(5, false, new AbstractVertexFactory<VocabWord>());
+        for (int i = 0; i < 5; i++) {
+            graph.getVertex(i).setValue(new VocabWord(1, String.valueOf(i)));
+            if (i > 0)
+                graph.addEdge(0, i, i, true);
+        }
+
+        AliasTable aliasTable = GraphAdjacency.buildAliasTable(graph);
+        assertEquals(4, aliasTable.degree(0));
+        assertEquals(0, aliasTable.degree(1));
+
+        int[] counts = new int[5];
+        int total = 0;
+        for (int e = 0; e < 5000; e++) {
+            GraphWalker<VocabWord> walker = new WeightedWalker.Builder<>(graph).setWalkLength(2).setSeed(e + 1)
+                            .setAliasTable(aliasTable).setNoEdgeHandling(NoEdgeHandling.CUTOFF_ON_DISCONNECTED)
+                            .build();
+
+            while (walker.hasNext()) {
+                Sequence<VocabWord> sequence = walker.next();
+                if (sequence.getElements().get(0).getLabel().equals("0")) {
+                    assertEquals(2, sequence.getElements().size());
+                    counts[Integer.parseInt(sequence.getElements().get(1).getLabel())]++;
+                    total++;
+                }
+            }
+        }
+
+        assertEquals(0, counts[0]);
+        for (int i = 1; i < 5; i++)
+            assertEquals(i / 10.0, counts[i] / (double) total, 0.02);
+    }
 }
@@ -0,0 +1,529 @@
+package org.deeplearning4j.datasets.iterator;
+
+import lombok.NonNull;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
+import org.nd4j.linalg.api.memory.enums.AllocationPolicy;
+import org.nd4j.linalg.api.memory.enums.ResetPolicy;
+import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ShardedAsyncDataSetIterator is multi-producer alternative to {@link AsyncDataSetIterator}, for the cases when ETL
+ * (record parsing, image decoding, normalization etc) is slower than the model, and single background thread can't
+ * keep up with it.<br>
+ * There are two ways to split the work between producer threads:
+ * <ul>
+ * <li>K independent iterator shards (i.e. iterators over different splits of the data): each shard gets its own
+ * producer thread, so whole ETL runs in parallel</li>
+ * <li>Single source iterator shared by K producer threads: calls to source next() are serialized, but preprocessor set
+ * on this iterator (via {@link #setPreProcessor(DataSetPreProcessor)}) is applied by producers in parallel</li>
+ * </ul>
+ * If ordering is enabled, DataSets are returned round-robin from producers: for sharded iterator that means
+ * shard 0, shard 1, ..., shard K-1, shard 0, ... (exhausted shards are skipped), for shared source - exactly the same
+ * order as source iterator returns them. If ordering is disabled, DataSets are returned as soon as any producer has
+ * them ready.<br>
+ * <br>
+ * Each producer fetches DataSets into its own cyclic workspace, so DataSet memory gets reused instead of being
+ * allocated for each minibatch. Producer has at most prefetchSize DataSets outstanding: DataSet is considered released
+ * once next() is called again, so DataSet returned by next() is valid until next call to next() only. Use
+ * {@link DataSet#detach()} or disable workspaces if DataSets are kept around for longer.<br>
+ * <br>
+ * Time consumer spent waiting for data vs. time spent between next() calls is tracked, and is available as
+ * {@link #getEtlBoundRatio()}: values close to 1.0 mean training is ETL-bound, values close to 0.0 mean it's
+ * compute-bound.
+ * <p>
+ * PLEASE NOTE: Preprocessor set on this iterator is called from multiple threads concurrently, so it must be thread safe.
+ * PLEASE NOTE: If used together with CUDA backend, please use it with caution.
+ */
+public class ShardedAsyncDataSetIterator implements DataSetIterator {
+    protected static final Logger logger = LoggerFactory.getLogger(ShardedAsyncDataSetIterator.class);
+
+    private final List<DataSetIterator> shards;
+    private final boolean sharedSource;
+    private final int numProducers;
+    private final int prefetchSize;
+    private final boolean ordered;
+    private MemoryWorkspace[] workspaces;
+    private volatile DataSetPreProcessor preProcessor;
+
+    private Producer[] producers;
+    private Semaphore[] permits;
+    private List<BlockingQueue<Item>> queues;
+
+    // shared source state, guarded by sourceLock
+    private final Object sourceLock = new Object();
+    private int turn;
+    private boolean sourceExhausted;
+
+    // consumer state
+    private List<Integer> rotation;
+    private int rotationPosition;
+    private int liveProducers;
+    private Item nextItem;
+    private Item currentItem;
+    private long lastReturnTime;
+
+    private final AtomicLong producerTime = new AtomicLong(0);
+    private final AtomicLong produced = new AtomicLong(0);
+    private long waitTime;
+    private long computeTime;
+
+    /**
+     * Create iterator with one producer thread per shard, and workspaces enabled
+     *
+     * @param shards       iterators over disjoint parts of the data
+     * @param prefetchSize max number of DataSets to prefetch, per shard
+     * @param ordered      if true, DataSets are returned round-robin from shards
+     */
+    public ShardedAsyncDataSetIterator(@NonNull List<DataSetIterator> shards, int prefetchSize, boolean ordered) {
+        this(shards, prefetchSize, ordered, true);
+    }
+
+    public ShardedAsyncDataSetIterator(@NonNull List<DataSetIterator> shards, int prefetchSize, boolean ordered,
+                    boolean useWorkspace) {
+        this(new ArrayList<>(shards), false, shards.size(), prefetchSize, ordered, useWorkspace);
+    }
+
+    /**
+     * Create iterator with numProducers threads sharing single source iterator, and workspaces enabled
+     *
+     * @param source       source iterator
+     * @param numProducers number of producer threads
+     * @param prefetchSize max number of DataSets to prefetch, per producer
+     * @param ordered      if true, DataSets are returned in the same order as source returns them
+     */
+    public ShardedAsyncDataSetIterator(@NonNull DataSetIterator source, int numProducers, int prefetchSize,
+                    boolean ordered) {
+        this(source, numProducers, prefetchSize, ordered, true);
+    }
+
+    public ShardedAsyncDataSetIterator(@NonNull DataSetIterator source, int numProducers, int prefetchSize,
+                    boolean ordered, boolean useWorkspace) {
+        this(Collections.singletonList(source), true, numProducers, prefetchSize, ordered, useWorkspace);
+    }
+
+    private ShardedAsyncDataSetIterator(List<DataSetIterator> shards, boolean sharedSource, int numProducers,
+                    int prefetchSize, boolean ordered, boolean useWorkspace) {
+        if (shards.isEmpty())
+            throw new IllegalArgumentException("At least one shard is required");
+        if (numProducers <= 0)
+            throw new IllegalArgumentException("Number of producers must be > 0");
+        if (prefetchSize <= 0)
+            throw new IllegalArgumentException("Prefetch size must be > 0");
+
+        this.shards = shards;
+        this.sharedSource = sharedSource;
+        this.numProducers = numProducers;
+        this.prefetchSize = prefetchSize;
+        this.ordered = ordered;
+
+        if (useWorkspace && resetSupported()) {
+            // sampling first DataSet to get workspace size, same way AsyncDataSetIterator does
+            DataSetIterator first = shards.get(0);
+            first.reset();
+            if (first.hasNext()) {
+                DataSet ds = first.next();
+                logger.info("Sample dimensions: {}", Arrays.toString(ds.getFeatures().shape()));
+
+                // cyclic workspace should fit all DataSets producer may have outstanding: prefetched ones, plus
+                // the one held by the consumer (a permit is acquired before fetching, so this includes the one being fetched)
+                long initSize = Math.max(ds.getMemoryFootprint() * (prefetchSize + 1), 10 * 1024L * 1024L);
+
+                WorkspaceConfiguration configuration = WorkspaceConfiguration.builder().initialSize(initSize)
+                                .overallocationLimit(2.0).policyReset(ResetPolicy.ENDOFBUFFER_REACHED)
+                                .policyAllocation(AllocationPolicy.OVERALLOCATE).build();
+
+                workspaces = new MemoryWorkspace[numProducers];
+                for (int i = 0; i < numProducers; i++)
+                    workspaces[i] = Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread(configuration,
+                                    "SADSI_ITER_" + i);
+            }
+        }
+
+        if (resetSupported())
+            for (DataSetIterator shard : shards)
+                shard.reset();
+
+        start();
+    }
+
+    private void start() {
+        turn = 0;
+        sourceExhausted = false;
+
+        permits = new Semaphore[numProducers];
+        producers = new Producer[numProducers];
+        queues = new ArrayList<>(numProducers);
+        rotation = new ArrayList<>(numProducers);
+
+        BlockingQueue<Item> shared = ordered ? null : new LinkedBlockingQueue<Item>();
+        for (int i = 0; i < numProducers; i++) {
+            // one extra permit for the DataSet held by the consumer: it's released on the next call to next() only,
+            // and hasNext() may block waiting for this producer before that
+            permits[i] = new Semaphore(prefetchSize + 1);
+            // queues are unbounded, number of DataSets in flight is limited by permits
+            queues.add(ordered ? new LinkedBlockingQueue<Item>() : shared);
+            rotation.add(i);
+        }
+
+        rotationPosition = 0;
+        liveProducers = numProducers;
+        nextItem = null;
+        currentItem = null;
+        lastReturnTime = 0;
+
+        /**
+         * We want to ensure, that background threads will have the same thread->device affinity, as master thread
+         */
+        Integer deviceId = Nd4j.getAffinityManager().getDeviceForCurrentThread();
+        for (int i = 0; i < numProducers; i++) {
+            producers[i] = new Producer(i);
+            Nd4j.getAffinityManager().attachThreadToDevice(producers[i], deviceId);
+            producers[i].start();
+        }
+    }
+
+    private void stop() {
+        for (Producer producer : producers) {
+            producer.killed = true;
+            producer.interrupt();
+        }
+
+        for (Producer producer : producers) {
+            try {
+                producer.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+     * This method fetches next DataSet for given producer, or returns null if there's nothing left
+     */
+    private DataSet fetch(int producerId) throws InterruptedException {
+        DataSet ds;
+        if (!sharedSource) {
+            DataSetIterator shard = shards.get(producerId);
+            ds = shard.hasNext() ? shard.next() : null;
+        } else {
+            DataSetIterator source = shards.get(0);
+            synchronized (sourceLock) {
+                if (ordered)
+                    while (turn != producerId && !sourceExhausted)
+                        sourceLock.wait();
+
+                if (sourceExhausted || !source.hasNext()) {
+                    sourceExhausted = true;
+                    sourceLock.notifyAll();
+                    return null;
+                }
+
+                ds = source.next();
+                turn = (turn + 1) % numProducers;
+                sourceLock.notifyAll();
+            }
+        }
+
+        DataSetPreProcessor preProcessor = this.preProcessor;
+        if (ds != null && preProcessor != null)
+            preProcessor.preProcess(ds);
+
+        return ds;
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        return fill();
+    }
+
+    @Override
+    public synchronized DataSet next() {
+        if (!fill())
+            throw new NoSuchElementException();
+
+        // previous DataSet is released now, so its producer is free to overwrite it
+        if (currentItem != null)
+            permits[currentItem.producer].release();
+
+        currentItem = nextItem;
+        nextItem = null;
+        lastReturnTime = System.nanoTime();
+        return currentItem.dataSet;
+    }
+
+    /**
+     * This method waits until next DataSet is available, or all producers are done
+     *
+     * @return true if there's next DataSet available
+     */
+    private boolean fill() {
+        if (nextItem != null)
+            return true;
+
+        long start = System.nanoTime();
+        if (lastReturnTime > 0) {
+            computeTime += start - lastReturnTime;
+            lastReturnTime = 0;
+        }
+
+        try {
+            while (liveProducers > 0) {
+                Item item;
+                if (ordered) {
+                    item = queues.get(rotation.get(rotationPosition)).take();
+                    if (item.isEnd()) {
+                        rotation.remove(rotationPosition);
+                        if (rotationPosition >= rotation.size())
+                            rotationPosition = 0;
+                    } else {
+                        rotationPosition = (rotationPosition + 1) % rotation.size();
+                    }
+                } else {
+                    item = queues.get(0).take();
+                }
+
+                if (item.isEnd()) {
+                    liveProducers--;
+                    if (item.exception != null)
+                        throw item.exception;
+                    continue;
+                }
+
+                nextItem = item;
+                return true;
+            }
+
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            waitTime += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public DataSet next(int num) {
+        throw new UnsupportedOperationException("Next(int) not supported for ShardedAsyncDataSetIterator");
+    }
+
+    @Override
+    public int totalExamples() {
+        int total = 0;
+        for (DataSetIterator shard : shards)
+            total += shard.totalExamples();
+        return total;
+    }
+
+    @Override
+    public int inputColumns() {
+        return shards.get(0).inputColumns();
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return shards.get(0).totalOutcomes();
+    }
+
+    @Override
+    public boolean resetSupported() {
+        for (DataSetIterator shard : shards)
+            if (!shard.resetSupported())
+                return false;
+        return true;
+    }
+
+    @Override
+    public boolean asyncSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void reset() {
+        if (!resetSupported())
+            throw new UnsupportedOperationException(
+                            "Cannot reset ShardedAsyncDataSetIterator wrapping iterator that does not support reset");
+
+        stop();
+
+        for (DataSetIterator shard : shards)
+            shard.reset();
+
+        start();
+    }
+
+    @Override
+    public int batch() {
+        return shards.get(0).batch();
+    }
+
+    @Override
+    public int cursor() {
+        return 0;
+    }
+
+    @Override
+    public int numExamples() {
+        int total = 0;
+        for (DataSetIterator shard : shards)
+            total += shard.numExamples();
+        return total;
+    }
+
+    /**
+     * This method sets preprocessor, that will be applied by producer threads after DataSet was fetched from source
+     *
+     * @param preProcessor thread safe preprocessor
+     */
+    @Override
+    public void setPreProcessor(DataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    @Override
+    public DataSetPreProcessor getPreProcessor() {
+        return preProcessor;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return shards.get(0).getLabels();
+    }
+
+    /**
+     * Shut down producer threads.
+     * Behaviour of next(), hasNext() etc methods after shutdown is undefined
+     */
+    public synchronized void shutdown() {
+        stop();
+    }
+
+    /**
+     * Total time consumer spent waiting for DataSets, in milliseconds
+     */
+    public synchronized long getEtlWaitTimeMillis() {
+        return waitTime / 1000000L;
+    }
+
+    /**
+     * Total time consumer spent between next() calls, i.e. working with DataSets, in milliseconds
+     */
+    public synchronized long getComputeTimeMillis() {
+        return computeTime / 1000000L;
+    }
+
+    /**
+     * Fraction of consumer time spent waiting for DataSets. Values close to 1.0 mean consumer is ETL-bound,
+     * values close to 0.0 mean it's compute-bound.
+     */
+    public synchronized double getEtlBoundRatio() {
+        long total = waitTime + computeTime;
+        return total == 0 ? 0.0 : waitTime / (double) total;
+    }
+
+    /**
+     * Average time producers spent on single DataSet (fetch and preprocessing), in milliseconds
+     */
+    public double getAverageProducerTimeMillis() {
+        long count = produced.get();
+        return count == 0 ? 0.0 : producerTime.get() / 1e6 / count;
+    }
+
+    @Override
+    public void remove() {}
+
+    private static class Item {
+        private final int producer;
+        private final DataSet dataSet;
+        private final RuntimeException exception;
+
+        private Item(int producer, DataSet dataSet, RuntimeException exception) {
+            this.producer = producer;
+            this.dataSet = dataSet;
+            this.exception = exception;
+        }
+
+        private boolean isEnd() {
+            return dataSet == null;
+        }
+    }
+
+    private class Producer extends Thread {
+        private final int producerId;
+        private final Semaphore permits;
+        private final BlockingQueue<Item> queue;
+        private volatile boolean killed = false;
+
+        private Producer(int producerId) {
+            this.producerId = producerId;
+            this.permits = ShardedAsyncDataSetIterator.this.permits[producerId];
+            this.queue = queues.get(producerId);
+            this.setName("ShardedAsyncIterator thread " + producerId);
+            this.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            RuntimeException exception = null;
+            try {
+                while (!killed) {
+                    permits.acquire();
+
+                    long time1 = System.nanoTime();
+                    DataSet ds;
+                    if (workspaces != null) {
+                        try (MemoryWorkspace ws = workspaces[producerId].notifyScopeEntered()) {
+                            ds = fetch(producerId);
+                        }
+                    } else
+                        ds = fetch(producerId);
+
+                    if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                        ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+
+                    if (ds == null)
+                        break;
+
+                    producerTime.addAndGet(System.nanoTime() - time1);
+                    produced.incrementAndGet();
+                    queue.put(new Item(producerId, ds, null));
+                }
+            } catch (InterruptedException e) {
+                if (killed)
+                    return;
+                exception = new RuntimeException("Producer interrupted unexpectedly", e);
+            } catch (RuntimeException e) {
+                exception = e;
+            } finally {
+                if (sharedSource && ordered) {
+                    // other producers may be waiting for this producer's turn
+                    synchronized (sourceLock) {
+                        sourceExhausted = true;
+                        sourceLock.notifyAll();
+                    }
+                }
+            }
+
+            if (!killed)
+                queue.add(new Item(producerId, null, exception));
+        }
+    }
+}
@@ -41,6 +41,7 @@ import java.util.List;
  *     (ii) Epoch termination conditions: calculated once per epoch. For example, maxEpochs or no improvement for N epochs<br>
  * (c) Score calculator: what score should be calculated at every epoch? (For example: test set loss or test set accuracy)<br>
  * (d) How frequently (ever N epochs) should scores be calculated? (Default: every epoch)<br>
+ * (e) Should scores be calculated in background, while training continues? (Default: false)<br>
  * @param <T> Type of model. For example, {@link org.deeplearning4j.nn.multilayer.MultiLayerNetwork} or {@link org.deeplearning4j.nn.graph.ComputationGraph}
  * @author Alex Black
  */
@@ -54,6 +55,7 @@ public class EarlyStoppingConfiguration<T extends Model> implements Serializable
     private boolean saveLastModel;
     private int evaluateEveryNEpochs;
     private ScoreCalculator<T> scoreCalculator;
+    private boolean asyncScoring;
 
     private EarlyStoppingConfiguration(Builder<T> builder) {
         this.modelSaver = builder.modelSaver;
@@ -62,6 +64,7 @@ public class EarlyStoppingConfiguration<T extends Model> implements Serializable
         this.saveLastModel = builder.saveLastModel;
         this.evaluateEveryNEpochs = builder.evaluateEveryNEpochs;
         this.scoreCalculator = builder.scoreCalculator;
+        this.asyncScoring = builder.asyncScoring;
     }
 
 
@@ -73,6 +76,7 @@ public class EarlyStoppingConfiguration<T extends Model> implements Serializable
         private boolean saveLastModel = false;
         private int evaluateEveryNEpochs = 1;
         private ScoreCalculator<T> scoreCalculator;
+        private boolean asyncScoring = false;
 
         /** How should models be saved? (Default: in memory)*/
         public Builder<T> modelSaver(EarlyStoppingModelSaver<T> modelSaver) {
@@ -124,6 +128,17 @@ public class EarlyStoppingConfiguration<T extends Model> implements Serializable
             return this;
         }
 
+        /** Calculate scores asynchronously? If true: score is calculated on a copy of the model in a background
+         * thread, while training of the next epoch continues. Best/latest model saving, listener notification and
+         * epoch termination conditions are applied once the score is available (at the latest, at the end of the
+         * next epoch) - thus at most one extra epoch may be trained after the epoch termination condition was hit.
+         * The copy of the model is what gets saved. Default: false
+         */
+        public Builder<T> asyncScoring(boolean asyncScoring) {
+            this.asyncScoring = asyncScoring;
+            return this;
+        }
+
         /** Create the early stopping configuration */
         public EarlyStoppingConfiguration<T> build() {
             return new EarlyStoppingConfiguration<>(this);
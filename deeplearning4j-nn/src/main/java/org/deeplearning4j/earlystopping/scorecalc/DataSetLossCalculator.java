@@ -17,6 +17,8 @@ public class DataSetLossCalculator implements ScoreCalculator<MultiLayerNetwork>
     private DataSetIterator dataSetIterator;
     @JsonProperty
     private boolean average;
+    @JsonProperty
+    private int numThreads = 1;
 
     /**Calculate the score (loss function value) on a given data set (usually a test set)
      *
@@ -24,14 +26,47 @@ public class DataSetLossCalculator implements ScoreCalculator<MultiLayerNetwork>
      * @param average Whether to return the average (sum of loss / N) or just (sum of loss)
      */
     public DataSetLossCalculator(DataSetIterator dataSetIterator, boolean average) {
+        this(dataSetIterator, average, 1);
+    }
+
+    /**Calculate the score (loss function value) on a given data set (usually a test set), using multiple threads.
+     * Data sets from the iterator are split between threads, each thread scores them on its own copy of the network
+     *
+     * @param dataSetIterator Data set to calculate the score for
+     * @param average Whether to return the average (sum of loss / N) or just (sum of loss)
+     * @param numThreads Number of threads to use for score calculation
+     */
+    public DataSetLossCalculator(DataSetIterator dataSetIterator, boolean average, int numThreads) {
         this.dataSetIterator = dataSetIterator;
         this.average = average;
+        this.numThreads = numThreads;
     }
 
     @Override
     public double calculateScore(MultiLayerNetwork network) {
         dataSetIterator.reset();
 
+        if (numThreads > 1) {
+            double[] result = new ParallelLossCalculation<MultiLayerNetwork, DataSet>() {
+                @Override
+                protected double score(MultiLayerNetwork network, DataSet dataSet) {
+                    return network.score(dataSet);
+                }
+
+                @Override
+                protected int numExamples(DataSet dataSet) {
+                    return dataSet.getFeatureMatrix().size(0);
+                }
+
+                @Override
+                protected MultiLayerNetwork copy(MultiLayerNetwork network) {
+                    return network.clone();
+                }
+            }.calculate(network, dataSetIterator, numThreads);
+
+            return average ? result[0] / result[1] : result[0];
+        }
+
         double lossSum = 0.0;
         int exCount = 0;
         while (dataSetIterator.hasNext()) {
@@ -51,6 +86,6 @@ public class DataSetLossCalculator implements ScoreCalculator<MultiLayerNetwork>
 
     @Override
     public String toString() {
-        return "DataSetLossCalculator(" + dataSetIterator + ",average=" + average + ")";
+        return "DataSetLossCalculator(" + dataSetIterator + ",average=" + average + ",numThreads=" + numThreads + ")";
     }
 }
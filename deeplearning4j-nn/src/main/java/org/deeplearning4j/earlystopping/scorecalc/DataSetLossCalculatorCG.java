@@ -40,6 +40,8 @@ public class DataSetLossCalculatorCG implements ScoreCalculator<ComputationGraph
     private MultiDataSetIterator multiDataSetIterator;
     @JsonProperty
     private boolean average;
+    @JsonProperty
+    private int numThreads = 1;
 
     /**Calculate the score (loss function value) on a given data set (usually a test set)
      *
@@ -47,8 +49,20 @@ public class DataSetLossCalculatorCG implements ScoreCalculator<ComputationGraph
      * @param average Whether to return the average (sum of loss / N) or just (sum of loss)
      */
     public DataSetLossCalculatorCG(DataSetIterator dataSetIterator, boolean average) {
+        this(dataSetIterator, average, 1);
+    }
+
+    /**Calculate the score (loss function value) on a given data set (usually a test set), using multiple threads.
+     * Data sets from the iterator are split between threads, each thread scores them on its own copy of the network
+     *
+     * @param dataSetIterator Data set to calculate the score for
+     * @param average Whether to return the average (sum of loss / N) or just (sum of loss)
+     * @param numThreads Number of threads to use for score calculation
+     */
+    public DataSetLossCalculatorCG(DataSetIterator dataSetIterator, boolean average, int numThreads) {
         this.dataSetIterator = dataSetIterator;
         this.average = average;
+        this.numThreads = numThreads;
     }
 
     /**Calculate the score (loss function value) on a given data set (usually a test set)
@@ -57,12 +71,27 @@ public class DataSetLossCalculatorCG implements ScoreCalculator<ComputationGraph
      * @param average Whether to return the average (sum of loss / N) or just (sum of loss)
      */
     public DataSetLossCalculatorCG(MultiDataSetIterator dataSetIterator, boolean average) {
+        this(dataSetIterator, average, 1);
+    }
+
+    /**Calculate the score (loss function value) on a given data set (usually a test set), using multiple threads.
+     * Data sets from the iterator are split between threads, each thread scores them on its own copy of the network
+     *
+     * @param dataSetIterator Data set to calculate the score for
+     * @param average Whether to return the average (sum of loss / N) or just (sum of loss)
+     * @param numThreads Number of threads to use for score calculation
+     */
+    public DataSetLossCalculatorCG(MultiDataSetIterator dataSetIterator, boolean average, int numThreads) {
         this.multiDataSetIterator = dataSetIterator;
         this.average = average;
+        this.numThreads = numThreads;
     }
 
     @Override
     public double calculateScore(ComputationGraph network) {
+        if (numThreads > 1)
+            return calculateScoreParallel(network);
+
         double lossSum = 0.0;
         int exCount = 0;
 
@@ -92,8 +121,52 @@ public class DataSetLossCalculatorCG implements ScoreCalculator<ComputationGraph
             return lossSum;
     }
 
+    private double calculateScoreParallel(ComputationGraph network) {
+        double[] result;
+        if (dataSetIterator != null) {
+            dataSetIterator.reset();
+            result = new ParallelLossCalculation<ComputationGraph, DataSet>() {
+                @Override
+                protected double score(ComputationGraph network, DataSet dataSet) {
+                    return network.score(dataSet);
+                }
+
+                @Override
+                protected int numExamples(DataSet dataSet) {
+                    return dataSet.getFeatureMatrix().size(0);
+                }
+
+                @Override
+                protected ComputationGraph copy(ComputationGraph network) {
+                    return network.clone();
+                }
+            }.calculate(network, dataSetIterator, numThreads);
+        } else {
+            multiDataSetIterator.reset();
+            result = new ParallelLossCalculation<ComputationGraph, MultiDataSet>() {
+                @Override
+                protected double score(ComputationGraph network, MultiDataSet dataSet) {
+                    return network.score(dataSet);
+                }
+
+                @Override
+                protected int numExamples(MultiDataSet dataSet) {
+                    return dataSet.getFeatures(0).size(0);
+                }
+
+                @Override
+                protected ComputationGraph copy(ComputationGraph network) {
+                    return network.clone();
+                }
+            }.calculate(network, multiDataSetIterator, numThreads);
+        }
+
+        return average ? result[0] / result[1] : result[0];
+    }
+
     @Override
     public String toString() {
-        return "DataSetLossCalculatorCG(" + dataSetIterator + ",average=" + average + ")";
+        return "DataSetLossCalculatorCG(" + dataSetIterator + ",average=" + average + ",numThreads=" + numThreads
+                        + ")";
     }
 }
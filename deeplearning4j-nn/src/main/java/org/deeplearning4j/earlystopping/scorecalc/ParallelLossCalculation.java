@@ -0,0 +1,118 @@
+package org.deeplearning4j.earlystopping.scorecalc;
+
+import org.deeplearning4j.nn.api.Model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**Helper for calculating total loss over an iterator using multiple threads.<br>
+ * Data sets are pulled from the shared iterator by all threads. Each thread scores its data sets on its own copy of
+ * the network (the calling thread uses the network itself), as scoring isn't thread safe.<br>
+ * Additional threads are taken from a pool shared by all score calculations, created on first use: idle threads
+ * are released after 60 seconds.
+ *
+ * @param <M> Type of model
+ * @param <D> Type of data set
+ */
+abstract class ParallelLossCalculation<M extends Model, D> {
+
+    private static volatile ExecutorService executor;
+
+    /** Returns loss of the network on the given data set (average over examples) */
+    protected abstract double score(M network, D dataSet);
+
+    /** Returns number of examples in the given data set */
+    protected abstract int numExamples(D dataSet);
+
+    /** Returns a copy of the network, that can be used from another thread */
+    protected abstract M copy(M network);
+
+    /**
+     * @param network    network to calculate the loss for
+     * @param iterator   iterator to calculate the loss on. Should be reset already
+     * @param numThreads number of threads to use, including the calling thread
+     * @return {sum of loss over all examples, number of examples}
+     */
+    double[] calculate(M network, final Iterator<D> iterator, int numThreads) {
+        if (numThreads <= 1)
+            return scoreAll(network, iterator);
+
+        List<Future<double[]>> futures = new ArrayList<>(numThreads - 1);
+        boolean done = false;
+        try {
+            for (int t = 1; t < numThreads; t++) {
+                final M net = copy(network);
+                futures.add(executor().submit(new Callable<double[]>() {
+                    @Override
+                    public double[] call() {
+                        return scoreAll(net, iterator);
+                    }
+                }));
+            }
+
+            double[] result = scoreAll(network, iterator);
+            for (Future<double[]> f : futures) {
+                double[] partial = f.get();
+                result[0] += partial[0];
+                result[1] += partial[1];
+            }
+            done = true;
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while calculating score", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        } finally {
+            if (!done)
+                for (Future<double[]> f : futures)
+                    f.cancel(true);
+        }
+    }
+
+    private double[] scoreAll(M net, Iterator<D> iterator) {
+        double lossSum = 0.0;
+        int exCount = 0;
+        while (true) {
+            D dataSet;
+            synchronized (iterator) {
+                if (!iterator.hasNext())
+                    break;
+                dataSet = iterator.next();
+            }
+            if (dataSet == null)
+                break;
+
+            int nEx = numExamples(dataSet);
+            lossSum += score(net, dataSet) * nEx;
+            exCount += nEx;
+        }
+        return new double[] {lossSum, exCount};
+    }
+
+    private static ExecutorService executor() {
+        if (executor == null) {
+            synchronized (ParallelLossCalculation.class) {
+                if (executor == null)
+                    executor = Executors.newCachedThreadPool(new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r, "ParallelLossCalculation");
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+            }
+        }
+        return executor;
+    }
+}
@@ -21,7 +21,6 @@ package org.deeplearning4j.earlystopping.trainer;
 import org.deeplearning4j.earlystopping.EarlyStoppingConfiguration;
 import org.deeplearning4j.earlystopping.EarlyStoppingResult;
 import org.deeplearning4j.earlystopping.listener.EarlyStoppingListener;
-import org.deeplearning4j.earlystopping.scorecalc.ScoreCalculator;
 import org.deeplearning4j.earlystopping.termination.EpochTerminationCondition;
 import org.deeplearning4j.earlystopping.termination.IterationTerminationCondition;
 import org.deeplearning4j.nn.api.Model;
@@ -54,9 +53,7 @@ public abstract class BaseEarlyStoppingTrainer<T extends Model> implements IEarl
     private final MultiDataSetIterator trainMulti;
     private final Iterator<?> iterator;
     private EarlyStoppingListener<T> listener;
-
-    private double bestModelScore = Double.MAX_VALUE;
-    private int bestModelEpoch = -1;
+    private final EarlyStoppingScoring<T> scoring;
 
     protected BaseEarlyStoppingTrainer(EarlyStoppingConfiguration<T> earlyStoppingConfiguration, T model,
                     DataSetIterator train, MultiDataSetIterator trainMulti, EarlyStoppingListener<T> listener) {
@@ -66,6 +63,7 @@ public abstract class BaseEarlyStoppingTrainer<T extends Model> implements IEarl
         this.trainMulti = trainMulti;
         this.iterator = (train != null ? train : trainMulti);
         this.listener = listener;
+        this.scoring = new EarlyStoppingScoring<>(earlyStoppingConfiguration, listener);
     }
 
     protected abstract void fit(DataSet ds);
@@ -96,160 +94,115 @@ public abstract class BaseEarlyStoppingTrainer<T extends Model> implements IEarl
 
         Map<Integer, Double> scoreVsEpoch = new LinkedHashMap<>();
 
-        int epochCount = 0;
-        while (true) {
-            reset();
-            double lastScore;
-            boolean terminate = false;
-            IterationTerminationCondition terminationReason = null;
-            int iterCount = 0;
-            while (iterator.hasNext()) {
-                try {
-                    if (train != null) {
-                        fit((DataSet) iterator.next());
-                    } else
-                        fit(trainMulti.next());
-                } catch (Exception e) {
-                    log.warn("Early stopping training terminated due to exception at epoch {}, iteration {}",
-                                    epochCount, iterCount, e);
-                    //Load best model to return
-                    T bestModel;
+        scoring.start();
+        try {
+            int epochCount = 0;
+            while (true) {
+                reset();
+                double lastScore;
+                boolean terminate = false;
+                IterationTerminationCondition terminationReason = null;
+                int iterCount = 0;
+                while (iterator.hasNext()) {
                     try {
-                        bestModel = esConfig.getModelSaver().getBestModel();
-                    } catch (IOException e2) {
-                        throw new RuntimeException(e2);
+                        if (train != null) {
+                            fit((DataSet) iterator.next());
+                        } else
+                            fit(trainMulti.next());
+                    } catch (Exception e) {
+                        log.warn("Early stopping training terminated due to exception at epoch {}, iteration {}",
+                                        epochCount, iterCount, e);
+                        //Load best model to return
+                        T bestModel;
+                        try {
+                            bestModel = esConfig.getModelSaver().getBestModel();
+                        } catch (IOException e2) {
+                            throw new RuntimeException(e2);
+                        }
+                        return new EarlyStoppingResult<>(EarlyStoppingResult.TerminationReason.Error, e.toString(),
+                                        scoreVsEpoch, scoring.getBestModelEpoch(), scoring.getBestModelScore(),
+                                        epochCount, bestModel);
                     }
-                    return new EarlyStoppingResult<>(EarlyStoppingResult.TerminationReason.Error, e.toString(),
-                                    scoreVsEpoch, bestModelEpoch, bestModelScore, epochCount, bestModel);
-                }
 
-                //Check per-iteration termination conditions
-                lastScore = model.score();
-                for (IterationTerminationCondition c : esConfig.getIterationTerminationConditions()) {
-                    if (c.terminate(lastScore)) {
-                        terminate = true;
-                        terminationReason = c;
-                        break;
+                    //Check per-iteration termination conditions
+                    lastScore = model.score();
+                    for (IterationTerminationCondition c : esConfig.getIterationTerminationConditions()) {
+                        if (c.terminate(lastScore)) {
+                            terminate = true;
+                            terminationReason = c;
+                            break;
+                        }
                     }
-                }
-                if (terminate) {
-                    break;
-                }
-
-                iterCount++;
-            }
-            if (terminate) {
-                //Handle termination condition:
-                log.info("Hit per iteration epoch termination condition at epoch {}, iteration {}. Reason: {}",
-                                epochCount, iterCount, terminationReason);
-
-                if (esConfig.isSaveLastModel()) {
-                    //Save last model:
-                    try {
-                        esConfig.getModelSaver().saveLatestModel(model, 0.0);
-                    } catch (IOException e) {
-                        throw new RuntimeException("Error saving most recent model", e);
+                    if (terminate) {
+                        break;
                     }
-                }
 
-                T bestModel;
-                try {
-                    bestModel = esConfig.getModelSaver().getBestModel();
-                } catch (IOException e2) {
-                    throw new RuntimeException(e2);
-                }
+                    iterCount++;
 
-
-                EarlyStoppingResult<T> result = new EarlyStoppingResult<>(
-                                EarlyStoppingResult.TerminationReason.IterationTerminationCondition,
-                                terminationReason.toString(), scoreVsEpoch, bestModelEpoch, bestModelScore, epochCount,
-                                bestModel);
-                if (listener != null) {
-                    listener.onCompletion(result);
+                    //Apply score of the previous epoch as soon as it's available
+                    EarlyStoppingResult<T> result = scoring.pollPending(scoreVsEpoch);
+                    if (result != null)
+                        return result;
                 }
-                return result;
-            }
-
-            log.info("Completed training epoch {}", epochCount);
-
-
-            if ((epochCount == 0 && esConfig.getEvaluateEveryNEpochs() == 1)
-                            || epochCount % esConfig.getEvaluateEveryNEpochs() == 0) {
-                //Calculate score at this epoch:
-                ScoreCalculator sc = esConfig.getScoreCalculator();
-                double score = (sc == null ? 0.0 : esConfig.getScoreCalculator().calculateScore(model));
-                scoreVsEpoch.put(epochCount - 1, score);
 
-                if (sc != null && score < bestModelScore) {
-                    //Save best model:
-                    if (bestModelEpoch == -1) {
-                        //First calculated/reported score
-                        log.info("Score at epoch {}: {}", epochCount, score);
-                    } else {
-                        log.info("New best model: score = {}, epoch = {} (previous: score = {}, epoch = {})", score,
-                                        epochCount, bestModelScore, bestModelEpoch);
-                    }
-                    bestModelScore = score;
-                    bestModelEpoch = epochCount;
-
-                    try {
-                        esConfig.getModelSaver().saveBestModel(model, score);
-                    } catch (IOException e) {
-                        throw new RuntimeException("Error saving best model", e);
-                    }
-                }
+                //Epoch termination condition (if any) was hit before this iteration termination condition
+                EarlyStoppingResult<T> pendingResult = scoring.awaitPending(scoreVsEpoch);
+                if (pendingResult != null)
+                    return pendingResult;
 
-                if (esConfig.isSaveLastModel()) {
-                    //Save last model:
-                    try {
-                        esConfig.getModelSaver().saveLatestModel(model, score);
-                    } catch (IOException e) {
-                        throw new RuntimeException("Error saving most recent model", e);
+                if (terminate) {
+                    //Handle termination condition:
+                    log.info("Hit per iteration epoch termination condition at epoch {}, iteration {}. Reason: {}",
+                                    epochCount, iterCount, terminationReason);
+
+                    if (esConfig.isSaveLastModel()) {
+                        //Save last model:
+                        try {
+                            esConfig.getModelSaver().saveLatestModel(model, 0.0);
+                        } catch (IOException e) {
+                            throw new RuntimeException("Error saving most recent model", e);
+                        }
                     }
-                }
 
-                if (listener != null) {
-                    listener.onEpoch(epochCount, score, esConfig, model);
-                }
-
-                //Check per-epoch termination conditions:
-                boolean epochTerminate = false;
-                EpochTerminationCondition termReason = null;
-                for (EpochTerminationCondition c : esConfig.getEpochTerminationConditions()) {
-                    if (c.terminate(epochCount, score)) {
-                        epochTerminate = true;
-                        termReason = c;
-                        break;
-                    }
-                }
-                if (epochTerminate) {
-                    log.info("Hit epoch termination condition at epoch {}. Details: {}", epochCount,
-                                    termReason.toString());
                     T bestModel;
                     try {
                         bestModel = esConfig.getModelSaver().getBestModel();
                     } catch (IOException e2) {
                         throw new RuntimeException(e2);
                     }
+
+
                     EarlyStoppingResult<T> result = new EarlyStoppingResult<>(
-                                    EarlyStoppingResult.TerminationReason.EpochTerminationCondition,
-                                    termReason.toString(), scoreVsEpoch, bestModelEpoch, bestModelScore, epochCount + 1,
-                                    bestModel);
+                                    EarlyStoppingResult.TerminationReason.IterationTerminationCondition,
+                                    terminationReason.toString(), scoreVsEpoch, scoring.getBestModelEpoch(),
+                                    scoring.getBestModelScore(), epochCount, bestModel);
                     if (listener != null) {
                         listener.onCompletion(result);
                     }
-
                     return result;
                 }
-            }
-            epochCount++;
 
+                log.info("Completed training epoch {}", epochCount);
+
+
+                if ((epochCount == 0 && esConfig.getEvaluateEveryNEpochs() == 1)
+                                || epochCount % esConfig.getEvaluateEveryNEpochs() == 0) {
+                    EarlyStoppingResult<T> result = scoring.score(epochCount, model, scoreVsEpoch);
+                    if (result != null)
+                        return result;
+                }
+                epochCount++;
+
+            }
+        } finally {
+            scoring.shutdown();
         }
     }
 
     @Override
     public void setListener(EarlyStoppingListener<T> listener) {
         this.listener = listener;
+        this.scoring.setListener(listener);
     }
 
     protected void reset() {
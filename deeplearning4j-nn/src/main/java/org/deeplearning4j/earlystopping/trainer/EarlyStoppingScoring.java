@@ -0,0 +1,249 @@
+package org.deeplearning4j.earlystopping.trainer;
+
+import org.deeplearning4j.earlystopping.EarlyStoppingConfiguration;
+import org.deeplearning4j.earlystopping.EarlyStoppingResult;
+import org.deeplearning4j.earlystopping.listener.EarlyStoppingListener;
+import org.deeplearning4j.earlystopping.scorecalc.ScoreCalculator;
+import org.deeplearning4j.earlystopping.termination.EpochTerminationCondition;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**Per-epoch scoring logic shared by the early stopping trainers: calculates the score of the model (synchronously,
+ * or on a copy of the model in background if {@link EarlyStoppingConfiguration#isAsyncScoring()} is set), keeps track
+ * of the best model, saves best/latest models, notifies the listener and checks epoch termination conditions.<br>
+ * Usage: {@link #start()} before training, {@link #score(int, Model, Map)} at the end of each epoch to be scored,
+ * {@link #pollPending(Map)}/{@link #awaitPending(Map)} to apply a score calculated in background, and
+ * {@link #shutdown()} once training is done.
+ *
+ * @param <T> Type of model
+ */
+public class EarlyStoppingScoring<T extends Model> {
+
+    private static Logger log = LoggerFactory.getLogger(EarlyStoppingScoring.class);
+
+    private final EarlyStoppingConfiguration<T> esConfig;
+    private EarlyStoppingListener<T> listener;
+
+    private double bestModelScore = Double.MAX_VALUE;
+    private int bestModelEpoch = -1;
+
+    private ExecutorService scoringExecutor;
+    private PendingScore<T> pending;
+
+    public EarlyStoppingScoring(EarlyStoppingConfiguration<T> esConfig, EarlyStoppingListener<T> listener) {
+        this.esConfig = esConfig;
+        this.listener = listener;
+    }
+
+    public void setListener(EarlyStoppingListener<T> listener) {
+        this.listener = listener;
+    }
+
+    public double getBestModelScore() {
+        return bestModelScore;
+    }
+
+    public int getBestModelEpoch() {
+        return bestModelEpoch;
+    }
+
+    /**Start background scoring thread, if asynchronous scoring is enabled
+     */
+    public void start() {
+        pending = null;
+        if (scoringExecutor == null && esConfig.isAsyncScoring() && esConfig.getScoreCalculator() != null)
+            scoringExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "EarlyStoppingScoring");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+    }
+
+    /**Stop background scoring thread. Score calculation in progress (if any) is discarded
+     */
+    public void shutdown() {
+        pending = null;
+        if (scoringExecutor != null) {
+            scoringExecutor.shutdownNow();
+            scoringExecutor = null;
+        }
+    }
+
+    /**Score the model at the given epoch. With asynchronous scoring, score is calculated for a copy of the model
+     * while training continues, and applied by {@link #pollPending(Map)} or {@link #awaitPending(Map)}
+     * @param epochCount epoch to score
+     * @param model model being trained
+     * @param scoreVsEpoch scores calculated so far
+     * @return early stopping result if the epoch termination condition was hit, null otherwise
+     */
+    public EarlyStoppingResult<T> score(int epochCount, T model, Map<Integer, Double> scoreVsEpoch) {
+        if (scoringExecutor != null) {
+            //Calculate score on a copy of the model, while the next epoch is trained
+            pending = submitScore(model, epochCount);
+            return null;
+        }
+
+        //Calculate score at this epoch:
+        ScoreCalculator sc = esConfig.getScoreCalculator();
+        double score = (sc == null ? 0.0 : esConfig.getScoreCalculator().calculateScore(model));
+        return onEpochScore(epochCount, score, model, scoreVsEpoch);
+    }
+
+    /**Apply the score calculated in background, if its calculation is already done
+     * @return early stopping result if the epoch termination condition was hit, null otherwise
+     */
+    public EarlyStoppingResult<T> pollPending(Map<Integer, Double> scoreVsEpoch) {
+        if (pending == null || !pending.score.isDone())
+            return null;
+        return awaitPending(scoreVsEpoch);
+    }
+
+    /**Wait for the score calculated in background (if any), and apply it
+     * @return early stopping result if the epoch termination condition was hit, null otherwise
+     */
+    public EarlyStoppingResult<T> awaitPending(Map<Integer, Double> scoreVsEpoch) {
+        if (pending == null)
+            return null;
+
+        PendingScore<T> p = pending;
+        pending = null;
+        double score;
+        try {
+            score = p.score.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for score calculation", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error calculating score at epoch " + p.epoch, e.getCause());
+        }
+        return onEpochScore(p.epoch, score, p.model, scoreVsEpoch);
+    }
+
+    /**Submit score calculation for a copy of the current model to the scoring executor
+     */
+    protected PendingScore<T> submitScore(T model, int epochCount) {
+        final T snapshot = snapshot(model);
+        final ScoreCalculator<T> sc = esConfig.getScoreCalculator();
+        Future<Double> future = scoringExecutor.submit(new Callable<Double>() {
+            @Override
+            public Double call() {
+                return sc.calculateScore(snapshot);
+            }
+        });
+        return new PendingScore<>(epochCount, snapshot, future);
+    }
+
+    /**Save best/latest models, notify the listener and check epoch termination conditions for the score calculated
+     * at the given epoch
+     * @param epochCount epoch the score was calculated at
+     * @param score score of the model
+     * @param scoredModel model the score was calculated for (the model being trained, or a copy of it)
+     * @return early stopping result if the epoch termination condition was hit, null otherwise
+     */
+    protected EarlyStoppingResult<T> onEpochScore(int epochCount, double score, T scoredModel,
+                    Map<Integer, Double> scoreVsEpoch) {
+        ScoreCalculator sc = esConfig.getScoreCalculator();
+        scoreVsEpoch.put(epochCount - 1, score);
+
+        if (sc != null && score < bestModelScore) {
+            //Save best model:
+            if (bestModelEpoch == -1) {
+                //First calculated/reported score
+                log.info("Score at epoch {}: {}", epochCount, score);
+            } else {
+                log.info("New best model: score = {}, epoch = {} (previous: score = {}, epoch = {})", score,
+                                epochCount, bestModelScore, bestModelEpoch);
+            }
+            bestModelScore = score;
+            bestModelEpoch = epochCount;
+
+            try {
+                esConfig.getModelSaver().saveBestModel(scoredModel, score);
+            } catch (IOException e) {
+                throw new RuntimeException("Error saving best model", e);
+            }
+        }
+
+        if (esConfig.isSaveLastModel()) {
+            //Save last model:
+            try {
+                esConfig.getModelSaver().saveLatestModel(scoredModel, score);
+            } catch (IOException e) {
+                throw new RuntimeException("Error saving most recent model", e);
+            }
+        }
+
+        if (listener != null) {
+            listener.onEpoch(epochCount, score, esConfig, scoredModel);
+        }
+
+        //Check per-epoch termination conditions:
+        boolean epochTerminate = false;
+        EpochTerminationCondition termReason = null;
+        for (EpochTerminationCondition c : esConfig.getEpochTerminationConditions()) {
+            if (c.terminate(epochCount, score)) {
+                epochTerminate = true;
+                termReason = c;
+                break;
+            }
+        }
+        if (epochTerminate) {
+            log.info("Hit epoch termination condition at epoch {}. Details: {}", epochCount, termReason.toString());
+            T bestModel;
+            try {
+                bestModel = esConfig.getModelSaver().getBestModel();
+            } catch (IOException e2) {
+                throw new RuntimeException(e2);
+            }
+            EarlyStoppingResult<T> result = new EarlyStoppingResult<>(
+                            EarlyStoppingResult.TerminationReason.EpochTerminationCondition, termReason.toString(),
+                            scoreVsEpoch, bestModelEpoch, bestModelScore, epochCount + 1, bestModel);
+            if (listener != null) {
+                listener.onCompletion(result);
+            }
+
+            return result;
+        }
+        return null;
+    }
+
+    /**Returns a copy of the model, used to calculate score while training continues
+     */
+    @SuppressWarnings("unchecked")
+    protected T snapshot(T model) {
+        if (model instanceof MultiLayerNetwork) {
+            return (T) ((MultiLayerNetwork) model).clone();
+        } else if (model instanceof ComputationGraph) {
+            return (T) ((ComputationGraph) model).clone();
+        }
+        throw new UnsupportedOperationException("Asynchronous scoring is not supported for model type: "
+                        + model.getClass().getName());
+    }
+
+    protected static class PendingScore<T extends Model> {
+        private final int epoch;
+        private final T model;
+        private final Future<Double> score;
+
+        protected PendingScore(int epoch, T model, Future<Double> score) {
+            this.epoch = epoch;
+            this.model = model;
+            this.score = score;
+        }
+    }
+}
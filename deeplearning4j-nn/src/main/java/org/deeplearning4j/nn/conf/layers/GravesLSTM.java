@@ -45,11 +45,13 @@ public class GravesLSTM extends BaseRecurrentLayer {
 
     private double forgetGateBiasInit;
     private IActivation gateActivationFn = new ActivationSigmoid();
+    private boolean fusedHelper;
 
     private GravesLSTM(Builder builder) {
         super(builder);
         this.forgetGateBiasInit = builder.forgetGateBiasInit;
         this.gateActivationFn = builder.gateActivationFn;
+        this.fusedHelper = builder.fusedHelper;
     }
 
     @Override
@@ -122,6 +124,7 @@ public class GravesLSTM extends BaseRecurrentLayer {
 
         private double forgetGateBiasInit = 1.0;
         private IActivation gateActivationFn = new ActivationSigmoid();
+        private boolean fusedHelper = false;
 
         /** Set forget gate bias initalizations. Values in range 1-5 can potentially
          * help with learning or longer-term dependencies.
@@ -162,6 +165,18 @@ public class GravesLSTM extends BaseRecurrentLayer {
             return this;
         }
 
+        /**
+         * If true, fused CPU implementation ({@link org.deeplearning4j.nn.layers.recurrent.FusedLSTMHelper}) is used
+         * where supported: sigmoid gates, tanh activation function, no DropConnect. Otherwise, default implementation
+         * is used. Default: false
+         *
+         * @param fusedHelper whether fused LSTM implementation should be used
+         */
+        public Builder fusedHelper(boolean fusedHelper) {
+            this.fusedHelper = fusedHelper;
+            return this;
+        }
+
         @SuppressWarnings("unchecked")
         public GravesLSTM build() {
             return new GravesLSTM(this);
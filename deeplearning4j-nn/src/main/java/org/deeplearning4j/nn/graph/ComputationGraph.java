@@ -36,16 +36,20 @@ import org.deeplearning4j.nn.conf.BackpropType;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.WorkspaceMode;
+import org.deeplearning4j.nn.conf.inputs.InputType;
 import org.deeplearning4j.nn.conf.layers.FeedForwardLayer;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.graph.util.ComputationGraphUtil;
+import org.deeplearning4j.nn.graph.util.GraphExecutionTrace;
+import org.deeplearning4j.nn.graph.util.GraphMemoryPlan;
 import org.deeplearning4j.nn.graph.vertex.GraphVertex;
 import org.deeplearning4j.nn.graph.vertex.VertexIndices;
 import org.deeplearning4j.nn.graph.vertex.impl.InputVertex;
 import org.deeplearning4j.nn.graph.vertex.impl.LayerVertex;
 import org.deeplearning4j.nn.layers.FrozenLayer;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.profiler.LayerProfiler;
 import org.deeplearning4j.nn.updater.graph.ComputationGraphUpdater;
 import org.deeplearning4j.optimize.Solver;
 import org.deeplearning4j.optimize.api.ConvexOptimizer;
@@ -58,6 +62,7 @@ import org.nd4j.linalg.api.memory.enums.AllocationPolicy;
 import org.nd4j.linalg.api.memory.enums.LearningPolicy;
 import org.nd4j.linalg.api.memory.enums.ResetPolicy;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
 import org.nd4j.linalg.dataset.api.DataSet;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
@@ -76,6 +81,13 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A ComputationGraph network is a neural network with arbitrary (directed acyclic graph) connection structure.
@@ -123,6 +135,19 @@ public class ComputationGraph implements Serializable, Model {
      * This array also defines the order in which the getLayer(int) method returns layers.
      */
     protected Layer[] layers;
+    /**
+     * Liveness plan for vertex activations and epsilons, based on the topological order
+     */
+    protected transient GraphMemoryPlan memoryPlan;
+    /**
+     * If not null (and workspaces are disabled): independent vertices are executed concurrently in this pool
+     */
+    protected transient ForkJoinPool executionPool;
+    protected transient boolean ownsExecutionPool; //True if executionPool was created by setConcurrentExecution
+    protected boolean traceExecution = false;
+    protected transient GraphExecutionTrace forwardTrace;
+    protected transient GraphExecutionTrace backwardTrace;
+    protected transient LayerProfiler profiler; //Per-vertex timings; null unless profiling was enabled
 
     /**
      * The number of input arrays to the network. Many networks only have 1 input; however, a ComputationGraph may
@@ -494,6 +519,8 @@ public class ComputationGraph implements Serializable, Model {
             gv.setOutputVertices(outputIndices);
         }
 
+        memoryPlan = new GraphMemoryPlan(vertices, topologicalOrder);
+
         initCalled = true;
     }
 
@@ -1201,7 +1228,22 @@ public class ComputationGraph implements Serializable, Model {
     }
 
     private Map<String, INDArray> feedForward(boolean train, boolean excludeOutputLayers) {
+        return feedForward(train, excludeOutputLayers, false);
+    }
+
+    /**
+     * @param releaseActivations if true, activations are released as soon as their last consumer has run (according
+     *                           to the memory plan): returned map contains network outputs only. Can't be used if
+     *                           backprop follows
+     */
+    private Map<String, INDArray> feedForward(boolean train, boolean excludeOutputLayers, boolean releaseActivations) {
+        if (canExecuteConcurrently())
+            return feedForwardConcurrent(train, excludeOutputLayers, releaseActivations);
+
         Map<String, INDArray> layerActivations = new HashMap<>();
+        GraphExecutionTrace trace = traceExecution ? new GraphExecutionTrace("forward", vertices) : null;
+        if (trace != null)
+            trace.passStarted();
 
         WorkspaceConfiguration wsConf = WorkspaceConfiguration.builder()
                 .initialSize(0)
@@ -1219,6 +1261,8 @@ public class ComputationGraph implements Serializable, Model {
         //Do forward pass according to the topological ordering of the network
         for (int i = 0; i < topologicalOrder.length; i++) {
             GraphVertex current = vertices[topologicalOrder[i]];
+            if (trace != null)
+                trace.vertexStarted(current.getVertexIndex());
             try (MemoryWorkspace ws = workspace.notifyScopeEntered()) {
 
                 if (current.isInputVertex()) {
@@ -1254,7 +1298,11 @@ public class ComputationGraph implements Serializable, Model {
                         continue;
                     }
                     // once again, pushing stuff out of this workspace
-                    INDArray out = current.doForward(train).leverageTo(workspaceExternal);
+                    LayerProfiler.Section section = startProfiling(current, LayerProfiler.Phase.FORWARD);
+                    INDArray out = current.doForward(train);
+                    if (section != null)
+                        section.end();
+                    out = out.leverageTo(workspaceExternal);
 
                     if (current.hasLayer()) {
                         layerActivations.put(current.getVertexName(), out);
@@ -1277,8 +1325,28 @@ public class ComputationGraph implements Serializable, Model {
                             }
                         }
                     }
+
+                    if (releaseActivations) {
+                        //Inputs of this vertex aren't needed anymore
+                        current.clear();
+                        if (current.hasLayer() && !current.isOutputVertex())
+                            current.getLayer().clear();
+                    }
                 }
             }
+
+            if (trace != null)
+                trace.vertexFinished(current.getVertexIndex());
+
+            if (releaseActivations) {
+                for (int released : getMemoryPlan().getReleasedAfterStep(i))
+                    layerActivations.remove(vertices[released].getVertexName());
+            }
+        }
+
+        if (trace != null) {
+            trace.passFinished();
+            forwardTrace = trace;
         }
 
         if (!train)
@@ -1331,7 +1399,8 @@ public class ComputationGraph implements Serializable, Model {
 
         try(MemoryWorkspace ws = workspace.notifyScopeEntered()) {
             setInputs(input);
-            Map<String, INDArray> activations = feedForward(train);
+            //At test time, intermediate activations are released as soon as they're not needed anymore
+            Map<String, INDArray> activations = feedForward(train, false, !train);
             INDArray[] outputs = new INDArray[numOutputArrays];
             int i = 0;
             for (String s : configuration.getNetworkOutputs()) {
@@ -1391,6 +1460,15 @@ public class ComputationGraph implements Serializable, Model {
                 initGradientsView();
             }
         }
+
+        if (canExecuteConcurrently() && !hasFrozenLayers()) {
+            calcBackpropGradientsConcurrent(truncatedBPTT, externalEpsilons);
+            return;
+        }
+
+        GraphExecutionTrace trace = traceExecution ? new GraphExecutionTrace("backward", vertices) : null;
+        if (trace != null)
+            trace.passStarted();
         WorkspaceConfiguration wsConf = WorkspaceConfiguration.builder()
                 .initialSize(0)
                 .overallocationLimit(0.15)
@@ -1418,6 +1496,8 @@ public class ComputationGraph implements Serializable, Model {
                 //FIXME: make the frozen vertex feature extraction more flexible
                 if (current.hasLayer() && current.getLayer() instanceof FrozenLayer)
                     break;
+                if (trace != null)
+                    trace.vertexStarted(current.getVertexIndex());
 
                 if (current.isOutputVertex()) {
                     //Two reasons for a vertex to be an output vertex:
@@ -1436,8 +1516,13 @@ public class ComputationGraph implements Serializable, Model {
                     }
                 }
 
+                LayerProfiler.Section section = startProfiling(current, LayerProfiler.Phase.BACKWARD);
                 Pair<Gradient, INDArray[]> pair = current.doBackward(truncatedBPTT);
+                if (section != null)
+                    section.end();
                 INDArray[] epsilons = pair.getSecond();
+                //Epsilon of this vertex isn't needed anymore (see memory plan)
+                current.setEpsilon(null);
 
                 for (int x = 0; x < epsilons.length; x++) {
                     if (epsilons[x] == null) {
@@ -1486,9 +1571,16 @@ public class ComputationGraph implements Serializable, Model {
                     for (Triple<String, INDArray, Character> t : tempList)
                         gradients.addFirst(t);
                 }
+                if (trace != null)
+                    trace.vertexFinished(current.getVertexIndex());
             }
         }
 
+        if (trace != null) {
+            trace.passFinished();
+            backwardTrace = trace;
+        }
+
         //Now, add the gradients in the order we need them in for flattening (same as params order)
         Gradient gradient = new DefaultGradient(flattenedGradients);
         for (Triple<String, INDArray, Character> t : gradients) {
@@ -1501,6 +1593,425 @@ public class ComputationGraph implements Serializable, Model {
         this.gradient = gradient;
     }
 
+    /**
+     * Enables concurrent execution of independent vertices (for example, parallel branches of inception-style
+     * blocks or multi-tower models) in output(), feedForward() and backprop, using a new ForkJoinPool with the given
+     * number of threads. Vertices are scheduled as soon as all vertices they depend on are done.<br>
+     * Concurrent execution is only used when workspaces are disabled (WorkspaceMode.NONE): otherwise the graph is
+     * executed sequentially, as usual. Backprop of graphs with frozen layers is always sequential. Execution is also
+     * sequential with a GridExecutioner, as its op queue is not flushed before vertex outputs are handed to other
+     * threads.
+     *
+     * @param numThreads Number of threads. 0 or 1: sequential execution (default)
+     */
+    public void setConcurrentExecution(int numThreads) {
+        if (numThreads <= 1) {
+            setExecutionPool(null);
+            return;
+        }
+
+        //Worker threads use the same device as the thread enabling concurrent execution
+        final Integer deviceId = Nd4j.getAffinityManager().getDeviceForCurrentThread();
+        setExecutionPool(new ForkJoinPool(numThreads, new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+            @Override
+            public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("ComputationGraph-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                Nd4j.getAffinityManager().attachThreadToDevice(thread, deviceId);
+                return thread;
+            }
+        }, null, false));
+        ownsExecutionPool = true;
+    }
+
+    /**
+     * Enables concurrent execution of independent vertices in the given pool, see {@link #setConcurrentExecution(int)}.
+     * The pool is owned by the caller: it is never shut down by this ComputationGraph
+     *
+     * @param pool Pool to use. May be null: sequential execution
+     */
+    public void setExecutionPool(ForkJoinPool pool) {
+        if (pool != null && configuration.getWorkspaceMode() != WorkspaceMode.NONE)
+            log.warn("Concurrent vertex execution is only used with WorkspaceMode.NONE; workspace mode is {}",
+                            configuration.getWorkspaceMode());
+        //Only shut down the pool created by setConcurrentExecution
+        if (ownsExecutionPool && executionPool != null && executionPool != pool)
+            executionPool.shutdown();
+        this.executionPool = pool;
+        this.ownsExecutionPool = false;
+    }
+
+    public ForkJoinPool getExecutionPool() {
+        return executionPool;
+    }
+
+    /**
+     * If enabled, per-vertex timings of the last forward and backward passes are recorded, see
+     * {@link #getForwardTrace()} and {@link #getBackwardTrace()}
+     */
+    public void setTraceExecution(boolean traceExecution) {
+        this.traceExecution = traceExecution;
+    }
+
+    /**
+     * @return Per-vertex timing trace of the last forward pass, or null if tracing is disabled
+     */
+    public GraphExecutionTrace getForwardTrace() {
+        return forwardTrace;
+    }
+
+    /**
+     * @return Per-vertex timing trace of the last backward pass, or null if tracing is disabled
+     */
+    public GraphExecutionTrace getBackwardTrace() {
+        return backwardTrace;
+    }
+
+    /**
+     * Enable (or, with null, disable) per-vertex profiling of forward pass, backward pass and updater times.
+     * See {@link LayerProfiler} and {@link org.deeplearning4j.optimize.listeners.ProfilingListener}
+     *
+     * @param profiler Profiler to record timings to, or null to disable profiling
+     */
+    public void setProfiler(LayerProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * @return the profiler set with {@link #setProfiler(LayerProfiler)}, or null if profiling is disabled
+     */
+    public LayerProfiler getProfiler() {
+        return profiler;
+    }
+
+    protected LayerProfiler.Section startProfiling(GraphVertex vertex, LayerProfiler.Phase phase) {
+        return profiler == null ? null : profiler.start(vertex.getVertexName(), phase);
+    }
+
+    protected boolean canExecuteConcurrently() {
+        //GridExecutioner queues ops per thread: results would be published to other threads before being computed
+        return executionPool != null && configuration.getWorkspaceMode() == WorkspaceMode.NONE
+                        && !(Nd4j.getExecutioner() instanceof GridExecutioner);
+    }
+
+    private boolean hasFrozenLayers() {
+        for (Layer l : layers) {
+            if (l instanceof FrozenLayer)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * State shared by the tasks of a single concurrent forward or backward pass
+     */
+    private static class ConcurrentPass {
+        private final AtomicInteger[] pending;
+        private final GraphExecutionTrace trace;
+        private final boolean train;
+        private final boolean excludeOutputLayers;
+        private final boolean releaseActivations;
+        private final Map<String, INDArray> activations = new ConcurrentHashMap<>();
+        private final boolean[] epsilonSet;
+        private final List<Triple<String, INDArray, Character>>[] gradients;
+        private boolean truncatedBPTT;
+        private INDArray[] externalEpsilons;
+        private final AtomicInteger running = new AtomicInteger();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        @SuppressWarnings("unchecked")
+        private ConcurrentPass(int numVertices, GraphExecutionTrace trace, boolean train, boolean excludeOutputLayers,
+                        boolean releaseActivations) {
+            this.pending = new AtomicInteger[numVertices];
+            this.trace = trace;
+            this.train = train;
+            this.excludeOutputLayers = excludeOutputLayers;
+            this.releaseActivations = releaseActivations;
+            this.epsilonSet = new boolean[numVertices];
+            this.gradients = new List[numVertices];
+        }
+
+        private void fork(RecursiveAction task) {
+            //Counted before forking, while the forking task itself is still running: count can't drop to 0 early
+            running.incrementAndGet();
+            task.fork();
+        }
+
+        private void failed(Throwable t) {
+            error.compareAndSet(null, t);
+        }
+
+        private void taskFinished() {
+            if (running.decrementAndGet() == 0)
+                done.countDown();
+        }
+    }
+
+    /**
+     * Execute the initial tasks of a concurrent pass, and wait until all tasks they forked are done.<br>
+     * Tasks are not joined: a task executes one of the vertices it made ready itself, in a loop, and forks the
+     * others, so stack depth doesn't grow with the depth of the graph.
+     */
+    private void runConcurrentPass(ConcurrentPass pass, List<? extends RecursiveAction> initial) {
+        if (initial.isEmpty())
+            return;
+
+        pass.running.set(initial.size());
+        for (RecursiveAction task : initial)
+            executionPool.execute(task);
+
+        try {
+            pass.done.await();
+        } catch (InterruptedException e) {
+            //Stop scheduling further vertices
+            pass.failed(e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during concurrent graph execution", e);
+        }
+
+        Throwable t = pass.error.get();
+        if (t instanceof RuntimeException)
+            throw (RuntimeException) t;
+        if (t instanceof Error)
+            throw (Error) t;
+        if (t != null)
+            throw new RuntimeException(t);
+    }
+
+    private Map<String, INDArray> feedForwardConcurrent(boolean train, boolean excludeOutputLayers,
+                    boolean releaseActivations) {
+        GraphExecutionTrace trace = traceExecution ? new GraphExecutionTrace("forward", vertices) : null;
+        ConcurrentPass pass = new ConcurrentPass(vertices.length, trace, train, excludeOutputLayers,
+                        releaseActivations);
+
+        //A vertex is ready once all of its inputs are set
+        List<ForwardTask> initial = new ArrayList<>();
+        for (GraphVertex gv : vertices) {
+            pass.pending[gv.getVertexIndex()] = new AtomicInteger(gv.isInputVertex() ? 0 : gv.getNumInputArrays());
+            if (gv.isInputVertex())
+                initial.add(new ForwardTask(gv.getVertexIndex(), pass));
+        }
+
+        if (trace != null)
+            trace.passStarted();
+        runConcurrentPass(pass, initial);
+        if (trace != null) {
+            trace.passFinished();
+            forwardTrace = trace;
+        }
+
+        return new HashMap<>(pass.activations);
+    }
+
+    private class ForwardTask extends RecursiveAction {
+        private final int vertexIdx;
+        private final ConcurrentPass pass;
+
+        private ForwardTask(int vertexIdx, ConcurrentPass pass) {
+            this.vertexIdx = vertexIdx;
+            this.pass = pass;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                int idx = vertexIdx;
+                while (idx >= 0 && pass.error.get() == null)
+                    idx = forward(idx);
+            } catch (Throwable t) {
+                pass.failed(t);
+            } finally {
+                pass.taskFinished();
+            }
+        }
+
+        /**
+         * Forward pass of the given vertex
+         *
+         * @return index of the next vertex to execute in this task, or -1 if none
+         */
+        private int forward(int vertexIdx) {
+            GraphVertex current = vertices[vertexIdx];
+            if (pass.trace != null)
+                pass.trace.vertexStarted(vertexIdx);
+
+            INDArray out;
+            if (current.isInputVertex()) {
+                out = inputs[vertexIdx];
+                if (!pass.releaseActivations)
+                    pass.activations.put(current.getVertexName(), out);
+            } else if (pass.excludeOutputLayers && current.isOutputVertex() && current.hasLayer()
+                            && current.getLayer() instanceof IOutputLayer) {
+                out = null;
+            } else {
+                LayerProfiler.Section section = startProfiling(current, LayerProfiler.Phase.FORWARD);
+                out = current.doForward(pass.train);
+                if (section != null)
+                    section.end();
+                if (current.hasLayer() && (!pass.releaseActivations || current.isOutputVertex()))
+                    pass.activations.put(current.getVertexName(), out);
+                if (pass.releaseActivations) {
+                    current.clear();
+                    if (current.hasLayer() && !current.isOutputVertex())
+                        current.getLayer().clear();
+                }
+            }
+
+            if (pass.trace != null)
+                pass.trace.vertexFinished(vertexIdx);
+
+            int next = -1;
+            VertexIndices[] outputsTo = current.getOutputVertices();
+            if (outputsTo != null) {
+                for (VertexIndices v : outputsTo) {
+                    if (out != null)
+                        vertices[v.getVertexIndex()].setInput(v.getVertexEdgeNumber(), out);
+                    if (pass.pending[v.getVertexIndex()].decrementAndGet() == 0) {
+                        if (next < 0)
+                            next = v.getVertexIndex();
+                        else
+                            pass.fork(new ForwardTask(v.getVertexIndex(), pass));
+                    }
+                }
+            }
+            return next;
+        }
+    }
+
+    private void calcBackpropGradientsConcurrent(boolean truncatedBPTT, INDArray[] externalEpsilons) {
+        GraphExecutionTrace trace = traceExecution ? new GraphExecutionTrace("backward", vertices) : null;
+        ConcurrentPass pass = new ConcurrentPass(vertices.length, trace, true, false, false);
+        pass.truncatedBPTT = truncatedBPTT;
+        pass.externalEpsilons = externalEpsilons;
+
+        //A vertex is ready once epsilons from all of the vertices it outputs to are set
+        List<BackwardTask> initial = new ArrayList<>();
+        for (GraphVertex gv : vertices) {
+            int numOutputs = gv.getOutputVertices() == null ? 0 : gv.getOutputVertices().length;
+            pass.pending[gv.getVertexIndex()] = new AtomicInteger(numOutputs);
+            if (numOutputs == 0)
+                initial.add(new BackwardTask(gv.getVertexIndex(), pass));
+        }
+
+        if (trace != null)
+            trace.passStarted();
+        runConcurrentPass(pass, initial);
+        if (trace != null) {
+            trace.passFinished();
+            backwardTrace = trace;
+        }
+
+        //Add the gradients in the same order as sequential backprop: the order we need them in for flattening
+        Gradient gradient = new DefaultGradient(flattenedGradients);
+        for (int idx : topologicalOrder) {
+            if (pass.gradients[idx] == null)
+                continue;
+            for (Triple<String, INDArray, Character> t : pass.gradients[idx])
+                gradient.setGradientFor(t.getFirst(), t.getSecond(), t.getThird());
+        }
+        this.gradient = gradient;
+    }
+
+    private class BackwardTask extends RecursiveAction {
+        private final int vertexIdx;
+        private final ConcurrentPass pass;
+
+        private BackwardTask(int vertexIdx, ConcurrentPass pass) {
+            this.vertexIdx = vertexIdx;
+            this.pass = pass;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                int idx = vertexIdx;
+                while (idx >= 0 && pass.error.get() == null)
+                    idx = backward(idx);
+            } catch (Throwable t) {
+                pass.failed(t);
+            } finally {
+                pass.taskFinished();
+            }
+        }
+
+        /**
+         * Backward pass of the given vertex
+         *
+         * @return index of the next vertex to execute in this task, or -1 if none
+         */
+        private int backward(int vertexIdx) {
+            GraphVertex current = vertices[vertexIdx];
+            if (current.isInputVertex())
+                return -1;
+
+            if (pass.trace != null)
+                pass.trace.vertexStarted(vertexIdx);
+
+            if (current.isOutputVertex()) {
+                int thisOutputNumber = configuration.getNetworkOutputs().indexOf(current.getVertexName());
+                if (current.getLayer() instanceof IOutputLayer) {
+                    ((IOutputLayer) current.getLayer()).setLabels(labels[thisOutputNumber]);
+                } else {
+                    current.setEpsilon(pass.externalEpsilons[thisOutputNumber]);
+                }
+            }
+
+            LayerProfiler.Section section = startProfiling(current, LayerProfiler.Phase.BACKWARD);
+            Pair<Gradient, INDArray[]> pair = current.doBackward(pass.truncatedBPTT);
+            if (section != null)
+                section.end();
+            INDArray[] epsilons = pair.getSecond();
+            current.setEpsilon(null);
+
+            //Set (or add to) epsilons for the vertices that provide inputs to this vertex
+            int next = -1;
+            List<BackwardTask> ready = new ArrayList<>();
+            VertexIndices[] inputVertices = current.getInputVertices();
+            if (inputVertices != null) {
+                int j = 0;
+                for (VertexIndices v : inputVertices) {
+                    GraphVertex gv = vertices[v.getVertexIndex()];
+                    INDArray eps = epsilons[j++];
+                    synchronized (gv) {
+                        if (pass.epsilonSet[gv.getVertexIndex()]) {
+                            gv.setEpsilon(gv.getEpsilon().add(eps));
+                        } else {
+                            gv.setEpsilon(eps);
+                        }
+                        pass.epsilonSet[gv.getVertexIndex()] = true;
+                    }
+                    if (pass.pending[gv.getVertexIndex()].decrementAndGet() == 0) {
+                        if (next < 0)
+                            next = gv.getVertexIndex();
+                        else
+                            ready.add(new BackwardTask(gv.getVertexIndex(), pass));
+                    }
+                }
+            }
+
+            if (pair.getFirst() != null) {
+                Gradient g = pair.getFirst();
+                List<Triple<String, INDArray, Character>> list = new ArrayList<>();
+                for (Map.Entry<String, INDArray> entry : g.gradientForVariable().entrySet()) {
+                    String origName = entry.getKey();
+                    list.add(new Triple<>(current.getVertexName() + "_" + origName, entry.getValue(),
+                                    g.flatteningOrderForVariable(origName)));
+                }
+                pass.gradients[vertexIdx] = list;
+            }
+
+            if (pass.trace != null)
+                pass.trace.vertexFinished(vertexIdx);
+
+            //Gradients of this vertex are stored: vertices made ready can be executed now
+            for (BackwardTask task : ready)
+                pass.fork(task);
+            return next;
+        }
+    }
+
     @Override
     public ComputationGraph clone() {
         ComputationGraph cg = new ComputationGraph(configuration.clone());
@@ -2771,6 +3282,32 @@ public class ComputationGraph implements Serializable, Model {
         return evaluation;
     }
 
+    /**
+     * Returns the liveness plan for vertex activations and epsilons, computed from the topological order of
+     * the network
+     */
+    public GraphMemoryPlan getMemoryPlan() {
+        if (memoryPlan == null) {
+            if (!initCalled)
+                throw new IllegalStateException("Network is not initialized: call init() first");
+            memoryPlan = new GraphMemoryPlan(vertices, topologicalOrder);
+        }
+        return memoryPlan;
+    }
+
+    /**
+     * Returns a report of planned peak activation/epsilon memory, for the given network input types and
+     * each of the given minibatch sizes. Figures are theoretical, and only relevant to WorkspaceMode.NONE: plan
+     * slots are not backed by preallocated buffers. See {@link GraphMemoryPlan}
+     *
+     * @param inputTypes     Network input types, in the same order as network inputs
+     * @param minibatchSizes Minibatch sizes to report
+     * @return Memory report
+     */
+    public String memoryReport(InputType[] inputTypes, int... minibatchSizes) {
+        return getMemoryPlan().getReport(configuration, inputTypes, minibatchSizes);
+    }
+
     /**
      * String detailing the architecture of the computation graph.
      * Vertices are printed in a topological sort order.
@@ -0,0 +1,126 @@
+package org.deeplearning4j.nn.graph.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.deeplearning4j.nn.graph.vertex.GraphVertex;
+
+import java.util.*;
+
+/**
+ * Per-vertex timing trace of a single ComputationGraph forward or backward pass: when (relative to the start of the
+ * pass), for how long, and on which thread each vertex was executed.
+ *
+ * Comparing the wall time of the pass with the total time spent in vertices shows how much of the work was
+ * actually done concurrently, see {@link #getParallelism()}.
+ */
+public class GraphExecutionTrace {
+
+    private final String phase;
+    private final String[] vertexNames;
+    private final long[] start;
+    private final long[] end;
+    private final String[] threads;
+    private long passStart;
+    private long passEnd;
+
+    public GraphExecutionTrace(String phase, GraphVertex[] vertices) {
+        this.phase = phase;
+        this.vertexNames = new String[vertices.length];
+        for (GraphVertex gv : vertices)
+            vertexNames[gv.getVertexIndex()] = gv.getVertexName();
+        this.start = new long[vertices.length];
+        this.end = new long[vertices.length];
+        this.threads = new String[vertices.length];
+    }
+
+    public void passStarted() {
+        passStart = System.nanoTime();
+    }
+
+    public void passFinished() {
+        passEnd = System.nanoTime();
+    }
+
+    public void vertexStarted(int vertexIdx) {
+        threads[vertexIdx] = Thread.currentThread().getName();
+        start[vertexIdx] = System.nanoTime();
+    }
+
+    public void vertexFinished(int vertexIdx) {
+        end[vertexIdx] = System.nanoTime();
+    }
+
+    /**
+     * @return "forward" or "backward"
+     */
+    public String getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return wall time of the whole pass, in nanoseconds
+     */
+    public long getWallTimeNanos() {
+        return passEnd - passStart;
+    }
+
+    /**
+     * @return execution time of each executed vertex, in nanoseconds. Key: vertex name
+     */
+    public Map<String, Long> getVertexTimesNanos() {
+        Map<String, Long> times = new LinkedHashMap<>();
+        for (int idx : executionOrder())
+            times.put(vertexNames[idx], end[idx] - start[idx]);
+        return times;
+    }
+
+    /**
+     * @return total time spent in vertices, in nanoseconds
+     */
+    public long getTotalVertexTimeNanos() {
+        long total = 0;
+        for (int idx : executionOrder())
+            total += end[idx] - start[idx];
+        return total;
+    }
+
+    /**
+     * @return total time spent in vertices divided by the wall time of the pass: ~1.0 or less for sequential
+     *         execution, higher when independent vertices were executed concurrently
+     */
+    public double getParallelism() {
+        long wall = getWallTimeNanos();
+        return wall <= 0 ? 0.0 : getTotalVertexTimeNanos() / (double) wall;
+    }
+
+    private List<Integer> executionOrder() {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < vertexNames.length; i++)
+            if (end[i] != 0)
+                order.add(i);
+        Collections.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Long.compare(start[o1], start[o2]);
+            }
+        });
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n").append(StringUtils.repeat("=", 100)).append("\n");
+        sb.append(String.format("%-40s%-30s%-15s%-15s\n", "VertexName (" + phase + ")", "Thread", "Start (us)",
+                        "Time (us)"));
+        sb.append(StringUtils.repeat("=", 100)).append("\n");
+        for (int idx : executionOrder()) {
+            sb.append(String.format("%-40s%-30s%-15d%-15d\n", vertexNames[idx], threads[idx],
+                            (start[idx] - passStart) / 1000, (end[idx] - start[idx]) / 1000));
+        }
+        sb.append(StringUtils.repeat("-", 100)).append("\n");
+        sb.append(String.format("Wall time: %d us, total vertex time: %d us, parallelism: %.2f\n",
+                        getWallTimeNanos() / 1000, getTotalVertexTimeNanos() / 1000, getParallelism()));
+        sb.append(StringUtils.repeat("=", 100)).append("\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,349 @@
+package org.deeplearning4j.nn.graph.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.graph.LayerVertex;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.graph.vertex.GraphVertex;
+import org.deeplearning4j.nn.graph.vertex.VertexIndices;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.*;
+
+/**
+ * Static memory plan for ComputationGraph activations and epsilons, computed once from the topological order
+ * and the fan-out of each vertex.
+ *
+ * Forward pass: output of a vertex is live from the step it's produced at, until the step of its last consumer
+ * (network outputs stay live until the end of the pass). Backward pass: epsilon of a vertex is live from the step
+ * its first consumer is back-propagated at, until the step of the vertex itself (epsilons of network inputs are
+ * retained until the end of the pass). Live ranges are then assigned to reusable slots: a slot freed by a dead
+ * array is reused by arrays produced later.
+ *
+ * Activation sizes aren't known until network input types are known, so memory estimates are calculated for given
+ * input types and minibatch sizes, see {@link #getReport(ComputationGraphConfiguration, InputType[], int...)}.
+ * Recurrent activations are estimated per time step.
+ *
+ * PLEASE NOTE: slots are not backed by preallocated buffers. The plan is only used to drop references to dead
+ * activations at inference time, which lets them be garbage collected with WorkspaceMode.NONE; with workspaces
+ * enabled, memory use is determined by the workspaces instead. "Planned" figures are therefore a theoretical lower
+ * bound for WorkspaceMode.NONE, not measured or guaranteed memory use.
+ */
+public class GraphMemoryPlan {
+
+    private final String[] vertexNames;
+    private final boolean[] inputVertex;
+    private final int[] topologicalOrder;
+    private final int[] forwardStep;
+    private final int[] lastUse;
+    private final int[] activationSlot;
+    private final int numActivationSlots;
+    private final int[] epsilonStart;
+    private final int[] epsilonEnd;
+    private final int[] epsilonSlot;
+    private final int numEpsilonSlots;
+    private final int[][] releasedAfterStep;
+
+    public GraphMemoryPlan(GraphVertex[] vertices, int[] topologicalOrder) {
+        int n = topologicalOrder.length;
+        this.topologicalOrder = topologicalOrder;
+        this.vertexNames = new String[vertices.length];
+        this.inputVertex = new boolean[vertices.length];
+        this.forwardStep = new int[vertices.length];
+        for (int i = 0; i < n; i++)
+            forwardStep[topologicalOrder[i]] = i;
+
+        //Forward pass: last step reading the output of each vertex
+        lastUse = new int[vertices.length];
+        epsilonStart = new int[vertices.length];
+        epsilonEnd = new int[vertices.length];
+        List<List<Integer>> released = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            released.add(new ArrayList<Integer>());
+
+        for (GraphVertex gv : vertices) {
+            int idx = gv.getVertexIndex();
+            vertexNames[idx] = gv.getVertexName();
+            inputVertex[idx] = gv.isInputVertex();
+
+            VertexIndices[] outputsTo = gv.getOutputVertices();
+            if (outputsTo == null || outputsTo.length == 0) {
+                //Network output: live until the end of the pass, no incoming epsilon from other vertices
+                lastUse[idx] = n;
+                epsilonStart[idx] = -1;
+                epsilonEnd[idx] = -1;
+                continue;
+            }
+
+            int last = forwardStep[idx];
+            for (VertexIndices v : outputsTo)
+                last = Math.max(last, forwardStep[v.getVertexIndex()]);
+            if (gv.isOutputVertex()) {
+                //Network output that's also an input to other vertices
+                lastUse[idx] = n;
+            } else {
+                lastUse[idx] = last;
+                released.get(last).add(idx);
+            }
+
+            //Backward pass steps are numbered in reverse topological order. Epsilons of network inputs are retained
+            epsilonStart[idx] = n - 1 - last;
+            epsilonEnd[idx] = gv.isInputVertex() ? n - 1 : n - 1 - forwardStep[idx];
+        }
+
+        releasedAfterStep = new int[n][0];
+        for (int i = 0; i < n; i++) {
+            List<Integer> list = released.get(i);
+            releasedAfterStep[i] = new int[list.size()];
+            for (int j = 0; j < list.size(); j++)
+                releasedAfterStep[i][j] = list.get(j);
+        }
+
+        int[] activationStart = new int[vertices.length];
+        int[] backwardOrder = new int[n];
+        for (int i = 0; i < n; i++) {
+            activationStart[topologicalOrder[i]] = i;
+            backwardOrder[i] = topologicalOrder[n - 1 - i];
+        }
+
+        activationSlot = new int[vertices.length];
+        numActivationSlots = assignSlots(topologicalOrder, activationStart, lastUse, activationSlot);
+
+        epsilonSlot = new int[vertices.length];
+        numEpsilonSlots = assignSlots(backwardOrder, epsilonStart, epsilonEnd, epsilonSlot);
+    }
+
+    /**
+     * Greedy interval assignment: arrays are processed in the order they are produced; each one takes a slot
+     * released by an array that is dead at that point, or a new slot if there are none
+     *
+     * @return number of slots
+     */
+    private static int assignSlots(int[] order, int[] start, int[] end, int[] slots) {
+        Arrays.fill(slots, -1);
+        PriorityQueue<int[]> busy = new PriorityQueue<>(11, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] o1, int[] o2) {
+                return Integer.compare(o1[0], o2[0]);
+            }
+        });
+        Deque<Integer> free = new ArrayDeque<>();
+        int numSlots = 0;
+
+        List<Integer> sorted = new ArrayList<>();
+        for (int idx : order)
+            if (start[idx] >= 0)
+                sorted.add(idx);
+        Collections.sort(sorted, new StartComparator(start));
+
+        for (int idx : sorted) {
+            //An array read at step s is still live while step s produces its outputs
+            while (!busy.isEmpty() && busy.peek()[0] < start[idx])
+                free.push(busy.poll()[1]);
+
+            int slot = free.isEmpty() ? numSlots++ : free.pop();
+            slots[idx] = slot;
+            busy.add(new int[] {end[idx], slot});
+        }
+        return numSlots;
+    }
+
+    private static class StartComparator implements Comparator<Integer> {
+        private final int[] start;
+
+        private StartComparator(int[] start) {
+            this.start = start;
+        }
+
+        @Override
+        public int compare(Integer o1, Integer o2) {
+            return Integer.compare(start[o1], start[o2]);
+        }
+    }
+
+    /**
+     * Vertices whose outputs are not used anymore after the given step of the forward pass
+     *
+     * @param step index in the topological order
+     * @return vertex indices
+     */
+    public int[] getReleasedAfterStep(int step) {
+        return releasedAfterStep[step];
+    }
+
+    /**
+     * @return last step of the forward pass (index in the topological order) that reads the output of the vertex;
+     *         number of vertices for network outputs
+     */
+    public int getLastUse(int vertexIdx) {
+        return lastUse[vertexIdx];
+    }
+
+    /**
+     * @return activation slot assigned to the vertex output
+     */
+    public int getActivationSlot(int vertexIdx) {
+        return activationSlot[vertexIdx];
+    }
+
+    /**
+     * @return epsilon slot assigned to the vertex, or -1 for network outputs (no epsilon from other vertices)
+     */
+    public int getEpsilonSlot(int vertexIdx) {
+        return epsilonSlot[vertexIdx];
+    }
+
+    public int getNumActivationSlots() {
+        return numActivationSlots;
+    }
+
+    public int getNumEpsilonSlots() {
+        return numEpsilonSlots;
+    }
+
+    /**
+     * Calculates number of elements per example for the output of each vertex, for given network input types
+     *
+     * @param configuration graph configuration
+     * @param inputTypes network input types, in the same order as network inputs
+     * @return number of elements per example, by vertex index
+     */
+    public long[] getActivationSizes(ComputationGraphConfiguration configuration, InputType... inputTypes) {
+        List<String> networkInputs = configuration.getNetworkInputs();
+        if (inputTypes == null || inputTypes.length != networkInputs.size())
+            throw new IllegalArgumentException("Invalid number of input types: expected " + networkInputs.size()
+                            + ", got " + (inputTypes == null ? 0 : inputTypes.length));
+
+        Map<String, InputType> types = new HashMap<>();
+        long[] sizes = new long[vertexNames.length];
+        int layerIdx = -1;
+        for (int idx : topologicalOrder) {
+            String name = vertexNames[idx];
+            InputType type;
+            if (inputVertex[idx]) {
+                type = inputTypes[networkInputs.indexOf(name)];
+            } else {
+                org.deeplearning4j.nn.conf.graph.GraphVertex gv = configuration.getVertices().get(name);
+                List<String> inputs = configuration.getVertexInputs().get(name);
+                InputType[] in = new InputType[inputs.size()];
+                for (int i = 0; i < in.length; i++)
+                    in[i] = types.get(inputs.get(i));
+                if (gv instanceof LayerVertex)
+                    layerIdx++;
+                type = gv.getOutputType(layerIdx, in);
+            }
+            types.put(name, type);
+            sizes[idx] = elementsPerExample(type);
+        }
+        return sizes;
+    }
+
+    private static long elementsPerExample(InputType type) {
+        switch (type.getType()) {
+            case FF:
+                return ((InputType.InputTypeFeedForward) type).getSize();
+            case RNN:
+                return ((InputType.InputTypeRecurrent) type).getSize();
+            case CNN:
+                InputType.InputTypeConvolutional c = (InputType.InputTypeConvolutional) type;
+                return (long) c.getHeight() * c.getWidth() * c.getDepth();
+            case CNNFlat:
+                InputType.InputTypeConvolutionalFlat f = (InputType.InputTypeConvolutionalFlat) type;
+                return (long) f.getHeight() * f.getWidth() * f.getDepth();
+            default:
+                throw new IllegalStateException("Unknown input type: " + type);
+        }
+    }
+
+    /**
+     * Peak number of activation elements per example: planned (sum of slot sizes), and total if every
+     * activation is retained until the end of the pass (i.e., as required for backprop)
+     *
+     * @return {planned, retained}
+     */
+    public long[] getActivationElements(long[] sizes) {
+        long[] slotSizes = new long[numActivationSlots];
+        long total = 0;
+        for (int idx : topologicalOrder) {
+            slotSizes[activationSlot[idx]] = Math.max(slotSizes[activationSlot[idx]], sizes[idx]);
+            total += sizes[idx];
+        }
+        long planned = 0;
+        for (long s : slotSizes)
+            planned += s;
+        return new long[] {planned, total};
+    }
+
+    /**
+     * Peak number of epsilon elements per example: planned (sum of slot sizes), and total if every epsilon is
+     * retained until the end of the backward pass
+     *
+     * @return {planned, retained}
+     */
+    public long[] getEpsilonElements(long[] sizes) {
+        long[] slotSizes = new long[numEpsilonSlots];
+        long total = 0;
+        for (int idx : topologicalOrder) {
+            if (epsilonSlot[idx] < 0)
+                continue;
+            slotSizes[epsilonSlot[idx]] = Math.max(slotSizes[epsilonSlot[idx]], sizes[idx]);
+            total += sizes[idx];
+        }
+        long planned = 0;
+        for (long s : slotSizes)
+            planned += s;
+        return new long[] {planned, total};
+    }
+
+    /**
+     * Returns a report of planned peak memory for activations (inference) and activations + epsilons (training),
+     * compared to memory required if all arrays are retained, for each minibatch size.
+     * Figures are theoretical and only relevant to WorkspaceMode.NONE, see class description
+     *
+     * @param configuration graph configuration
+     * @param inputTypes network input types, in the same order as network inputs
+     * @param minibatchSizes minibatch sizes to report
+     * @return report
+     */
+    public String getReport(ComputationGraphConfiguration configuration, InputType[] inputTypes,
+                    int... minibatchSizes) {
+        long[] sizes = getActivationSizes(configuration, inputTypes);
+        long[] activations = getActivationElements(sizes);
+        long[] epsilons = getEpsilonElements(sizes);
+        int elementSize = Nd4j.sizeOfDataType();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n").append(StringUtils.repeat("=", 100)).append("\n");
+        sb.append("Theoretical activation/epsilon memory plan (WorkspaceMode.NONE only; slots are not preallocated)\n");
+        sb.append(StringUtils.repeat("=", 100)).append("\n");
+        sb.append(String.format("%-40s%-15s%-15s%-15s\n", "VertexName", "ElementsPerEx", "ActSlot", "EpsSlot"));
+        sb.append(StringUtils.repeat("=", 100)).append("\n");
+        for (int idx : topologicalOrder) {
+            sb.append(String.format("%-40s%-15d%-15d%-15s\n", vertexNames[idx], sizes[idx], activationSlot[idx],
+                            epsilonSlot[idx] < 0 ? "-" : String.valueOf(epsilonSlot[idx])));
+        }
+        sb.append(StringUtils.repeat("-", 100)).append("\n");
+        sb.append(String.format("Activation slots: %d (vertices: %d), epsilon slots: %d\n", numActivationSlots,
+                        topologicalOrder.length, numEpsilonSlots));
+        sb.append(String.format("%-15s%-22s%-22s%-22s%-22s\n", "Minibatch", "Inference planned", "Inference retained",
+                        "Training planned", "Training retained"));
+        for (int mb : minibatchSizes) {
+            long bytes = (long) mb * elementSize;
+            sb.append(String.format("%-15d%-22s%-22s%-22s%-22s\n", mb, bytes(activations[0] * bytes),
+                            bytes(activations[1] * bytes), bytes((activations[1] + epsilons[0]) * bytes),
+                            bytes((activations[1] + epsilons[1]) * bytes)));
+        }
+        sb.append(StringUtils.repeat("=", 100)).append("\n");
+        return sb.toString();
+    }
+
+    private static String bytes(long bytes) {
+        if (bytes < 1024)
+            return bytes + " B";
+        if (bytes < 1024 * 1024)
+            return String.format("%.1f KB", bytes / 1024.0);
+        if (bytes < 1024L * 1024 * 1024)
+            return String.format("%.1f MB", bytes / (1024.0 * 1024));
+        return String.format("%.2f GB", bytes / (1024.0 * 1024 * 1024));
+    }
+}
@@ -21,11 +21,14 @@ package org.deeplearning4j.nn.layers.feedforward.embedding;
 import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.exception.DL4JInvalidInputException;
+import org.deeplearning4j.nn.api.OptimizationAlgorithm;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.layers.BaseLayer;
 import org.deeplearning4j.nn.params.DefaultParamInitializer;
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
@@ -43,6 +46,12 @@ import java.util.Arrays;
  */
 @Slf4j
 public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.EmbeddingLayer> {
+    /**
+     * Row indices written to the weight gradient view on the last backprop pass. When the updater leaves untouched rows
+     * at zero (see {@link #sparseGradientsAllowed()}), only these rows need to be cleared on the next pass.
+     */
+    protected transient int[] lastTouchedRows;
+
     public EmbeddingLayer(NeuralNetConfiguration conf) {
         super(conf);
     }
@@ -51,7 +60,8 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
     public Pair<Gradient, INDArray> backpropGradient(INDArray epsilon) {
 
         //If this layer is layer L, then epsilon is (w^(L+1)*(d^(L+1))^T) (or equivalent)
-        INDArray z = preOutput(input);
+        int[] indexes = getIndexes();
+        INDArray z = preOutput(indexes);
         //INDArray activationDerivative = Nd4j.getExecutioner().execAndReturn(Nd4j.getOpFactory().createTransform(conf().getLayer().getActivationFunction(), z).derivative());
         //        INDArray activationDerivative = conf().getLayer().getActivationFn().getGradient(z);
         //        INDArray delta = epsilon.muli(activationDerivative);
@@ -61,17 +71,17 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
             delta.muliColumnVector(maskArray);
         }
 
-        INDArray weights = getParam(DefaultParamInitializer.WEIGHT_KEY);
         INDArray weightGradients = gradientViews.get(DefaultParamInitializer.WEIGHT_KEY);
-        weightGradients.assign(0);
-
-        int[] indexes = new int[input.length()];
-        for (int i = 0; i < indexes.length; i++) {
-            indexes[i] = input.getInt(i, 0);
-
-            weightGradients.getRow(indexes[i]).addi(delta.getRow(i));
+        if (lastTouchedRows != null && sparseGradientsAllowed()) {
+            //Only the rows touched on the previous iteration can be non-zero: no need to zero the full [nIn,nOut] view
+            zeroRows(weightGradients, lastTouchedRows);
+        } else {
+            weightGradients.assign(0);
         }
 
+        scatterAddRows(weightGradients, indexes, delta);
+        lastTouchedRows = indexes;
+
         INDArray biasGradientsView = gradientViews.get(DefaultParamInitializer.BIAS_KEY);
         INDArray biasGradients = delta.sum(0);
         biasGradientsView.assign(biasGradients); //TODO do this without the assign...
@@ -85,17 +95,13 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
 
     @Override
     public INDArray preOutput(boolean training) {
-        if (input.columns() != 1) {
-            //Assume shape is [numExamples,1], and each entry is an integer index
-            throw new DL4JInvalidInputException(
-                            "Cannot do forward pass for embedding layer with input more than one column. "
-                                            + "Expected input shape: [numExamples,1] with each entry being an integer index");
-        }
-
-        int[] indexes = new int[input.length()];
-        for (int i = 0; i < indexes.length; i++)
-            indexes[i] = input.getInt(i, 0);
+        return preOutput(getIndexes());
+    }
 
+    /**
+     * Forward pass for the given class indices, as returned by {@link #getIndexes()}
+     */
+    protected INDArray preOutput(int[] indexes) {
         INDArray weights = getParam(DefaultParamInitializer.WEIGHT_KEY);
         INDArray bias = getParam(DefaultParamInitializer.BIAS_KEY);
 
@@ -124,6 +130,115 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
         return ret;
     }
 
+    @Override
+    public void setBackpropGradientsViewArray(INDArray gradients) {
+        super.setBackpropGradientsViewArray(gradients);
+        //New (or reassigned) view: we can't assume anything about its current contents
+        lastTouchedRows = null;
+    }
+
+    /**
+     * Extract the integer class indices from the [numExamples,1] input in one bulk buffer copy, instead of one
+     * getInt call per example
+     */
+    protected int[] getIndexes() {
+        if (input.columns() != 1) {
+            //Assume shape is [numExamples,1], and each entry is an integer index
+            throw new DL4JInvalidInputException(
+                            "Cannot do forward pass for embedding layer with input more than one column. "
+                                            + "Expected input shape: [numExamples,1] with each entry being an integer index");
+        }
+
+        INDArray in = input;
+        if (in.isView() || in.data().length() != in.length())
+            in = in.dup('c');
+
+        int[] indexes = in.data().asInt();
+        int nIn = getParam(DefaultParamInitializer.WEIGHT_KEY).rows();
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] < 0 || indexes[i] >= nIn) {
+                throw new DL4JInvalidInputException("Invalid index for embedding layer: got index " + indexes[i]
+                                + " for example " + i + ", but expected index in range 0 to " + (nIn - 1)
+                                + " (nIn = " + nIn + ")");
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Whether the weight gradient view is guaranteed to be zero outside of the rows touched on the last backprop pass,
+     * after the updater has been applied. That holds for stateless updaters (SGD, NONE) without L1/L2 on the weights,
+     * when using plain SGD (line search optimizers may modify the gradient array arbitrarily).
+     * For all other configurations the full gradient view has to be cleared on each pass.
+     */
+    protected boolean sparseGradientsAllowed() {
+        NeuralNetConfiguration conf = conf();
+        if (conf.getOptimizationAlgo() != OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT)
+            return false;
+
+        Updater updater = conf.getLayer().getUpdaterByParam(DefaultParamInitializer.WEIGHT_KEY);
+        if (updater != Updater.SGD && updater != Updater.NONE)
+            return false;
+
+        return !conf.isUseRegularization() || (conf.getL1ByParam(DefaultParamInitializer.WEIGHT_KEY) <= 0
+                        && conf.getL2ByParam(DefaultParamInitializer.WEIGHT_KEY) <= 0);
+    }
+
+    /**
+     * Batched scatter-add: target.getRow(indexes[i]) += delta.getRow(i) for all i, done as a single pass over the
+     * underlying buffers rather than creating one row view (and executing one op) per example.
+     * Duplicate indexes are accumulated.
+     */
+    protected static void scatterAddRows(INDArray target, int[] indexes, INDArray delta) {
+        if (delta.isView() || delta.ordering() != 'c' || delta.data().length() != delta.length())
+            delta = delta.dup('c');
+
+        DataBuffer buffer = target.data();
+        long offset = target.offset();
+        long rowStride = target.stride(0);
+        long colStride = target.stride(1);
+        int columns = target.columns();
+
+        if (buffer.dataType() == DataBuffer.Type.DOUBLE) {
+            double[] deltas = delta.data().asDouble();
+            for (int i = 0; i < indexes.length; i++) {
+                long rowOffset = offset + indexes[i] * rowStride;
+                int deltaOffset = i * columns;
+                for (int j = 0; j < columns; j++) {
+                    long pos = rowOffset + j * colStride;
+                    buffer.put(pos, buffer.getDouble(pos) + deltas[deltaOffset + j]);
+                }
+            }
+        } else {
+            float[] deltas = delta.data().asFloat();
+            for (int i = 0; i < indexes.length; i++) {
+                long rowOffset = offset + indexes[i] * rowStride;
+                int deltaOffset = i * columns;
+                for (int j = 0; j < columns; j++) {
+                    long pos = rowOffset + j * colStride;
+                    buffer.put(pos, buffer.getFloat(pos) + deltas[deltaOffset + j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Set the specified rows of the target array to 0, without touching the rest of the array
+     */
+    protected static void zeroRows(INDArray target, int[] rows) {
+        DataBuffer buffer = target.data();
+        long offset = target.offset();
+        long rowStride = target.stride(0);
+        long colStride = target.stride(1);
+        int columns = target.columns();
+        for (int row : rows) {
+            long rowOffset = offset + row * rowStride;
+            for (int j = 0; j < columns; j++) {
+                buffer.put(rowOffset + j * colStride, 0.0);
+            }
+        }
+    }
+
     @Override
     public boolean isPretrainLayer() {
         return false;
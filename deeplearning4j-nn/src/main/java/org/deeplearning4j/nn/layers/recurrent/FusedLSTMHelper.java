@@ -0,0 +1,359 @@
+package org.deeplearning4j.nn.layers.recurrent;
+
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.gradient.DefaultGradient;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.nd4j.linalg.activations.IActivation;
+import org.nd4j.linalg.activations.impl.ActivationSigmoid;
+import org.nd4j.linalg.activations.impl.ActivationTanH;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.Map;
+
+/**
+ * Fused CPU implementation of the GravesLSTM forward and backward passes. Math is the same as in {@link LSTMHelpers}.
+ *
+ * Instead of a sequence of separate elementwise ops (and temporary arrays) per time step, gate activations, memory cell
+ * state and their derivatives are calculated in a single pass over the IFOG block of each time step.
+ * All buffers are allocated once per sequence, and input weight contributions (and, in backprop, input weight
+ * gradients, bias gradients and epsilons) are calculated for all time steps at once, with a single gemm.
+ * Only the recurrent gemm is done per time step.
+ *
+ * Supported configurations: sigmoid gate activations, tanh layer activation, 3d input, no DropConnect and no mask
+ * array. For anything else, null is returned and the default implementation is used.
+ */
+public class FusedLSTMHelper implements LSTMHelper {
+
+    /**
+     * Forward pass state, stored for backprop. All arrays have shape [miniBatchSize,hiddenLayerSize,timeSeriesLength]
+     * and 'f' order
+     */
+    static class FusedFwdPassReturn extends FwdPassReturn {
+        INDArray inputActivations;
+        INDArray forgetGateActivations;
+        INDArray outputGateActivations;
+        INDArray inputModGateActivations;
+        INDArray memCellStates;
+        INDArray memCellActivations;
+        INDArray outputActivations;
+    }
+
+    protected boolean checkSupported(NeuralNetConfiguration conf, IActivation gateActivationFn, INDArray input,
+                    boolean training, INDArray maskArray) {
+        return gateActivationFn instanceof ActivationSigmoid
+                        && conf.getLayer().getActivationFn() instanceof ActivationTanH && input != null
+                        && input.rank() == 3 && maskArray == null
+                        && !(conf.isUseDropConnect() && training && conf.getLayer().getDropOut() > 0)
+                        && Nd4j.dataType() != DataBuffer.Type.HALF
+                        && !(Nd4j.getExecutioner() instanceof GridExecutioner);
+    }
+
+    @Override
+    public FwdPassReturn activate(Layer layer, NeuralNetConfiguration conf, IActivation gateActivationFn, INDArray input,
+                    INDArray recurrentWeights, INDArray inputWeights, INDArray biases, boolean training,
+                    INDArray prevOutputActivations, INDArray prevMemCellState, boolean forBackprop, boolean forwards,
+                    String inputWeightKey, INDArray maskArray) {
+        if (!checkSupported(conf, gateActivationFn, input, training, maskArray))
+            return null;
+
+        int miniBatchSize = input.size(0);
+        int nIn = input.size(1);
+        int timeSeriesLength = input.size(2);
+        int hiddenLayerSize = recurrentWeights.size(0);
+
+        //Invalid input or stored state: let the default implementation report it
+        if (nIn != inputWeights.size(0) || (prevOutputActivations != null
+                        && prevOutputActivations.size(0) != miniBatchSize))
+            return null;
+
+        int m = miniBatchSize;
+        int h = hiddenLayerSize;
+        long mh = (long) m * h;
+        long mt = (long) m * timeSeriesLength;
+
+        //Input contributions for all time steps at once. Row (i + m*t) of zInput is example i at time step t
+        INDArray zInput = Nd4j.create(new int[] {m * timeSeriesLength, 4 * h}, 'f');
+        Nd4j.gemm(inputAs2d(input), inputWeights, zInput, false, false, 1.0, 0.0);
+
+        INDArray recurrentWeightsIFOG =
+                        recurrentWeights.get(NDArrayIndex.all(), NDArrayIndex.interval(0, 4 * h)).dup('f');
+        double[] wFF = column(recurrentWeights, 4 * h);
+        double[] wOO = column(recurrentWeights, 4 * h + 1);
+        double[] wGG = column(recurrentWeights, 4 * h + 2);
+        double[] b = new double[4 * h];
+        for (int k = 0; k < b.length; k++)
+            b[k] = biases.getDouble(k);
+
+        //Per-sequence buffers
+        INDArray prevAct = Nd4j.create(new int[] {m, h}, 'f');
+        INDArray zRecurrent = Nd4j.create(new int[] {m, 4 * h}, 'f');
+        double[] prevMem = new double[(int) mh];
+        double[] currMem = new double[(int) mh];
+        double[] currAct = new double[(int) mh];
+
+        boolean hasPrevAct = prevOutputActivations != null;
+        if (hasPrevAct)
+            prevAct.assign(prevOutputActivations);
+        if (prevMemCellState != null) {
+            DataBuffer prevMemF = prevMemCellState.dup('f').data();
+            for (int e = 0; e < prevMem.length; e++)
+                prevMem[e] = prevMemF.getDouble(e);
+        }
+
+        FusedFwdPassReturn toReturn = new FusedFwdPassReturn();
+        int[] shape = {m, h, timeSeriesLength};
+        INDArray outputActivations = Nd4j.create(shape, 'f');
+        if (forBackprop) {
+            toReturn.inputActivations = Nd4j.create(shape, 'f');
+            toReturn.forgetGateActivations = Nd4j.create(shape, 'f');
+            toReturn.outputGateActivations = Nd4j.create(shape, 'f');
+            toReturn.inputModGateActivations = Nd4j.create(shape, 'f');
+            toReturn.memCellStates = Nd4j.create(shape, 'f');
+            toReturn.memCellActivations = Nd4j.create(shape, 'f');
+            toReturn.outputActivations = outputActivations;
+        } else {
+            toReturn.fwdPassOutput = outputActivations;
+        }
+
+        DataBuffer zIn = zInput.data();
+        DataBuffer zRec = zRecurrent.data();
+        DataBuffer prevActBuffer = prevAct.data();
+        DataBuffer out = outputActivations.data();
+        DataBuffer ia = forBackprop ? toReturn.inputActivations.data() : null;
+        DataBuffer fa = forBackprop ? toReturn.forgetGateActivations.data() : null;
+        DataBuffer oa = forBackprop ? toReturn.outputGateActivations.data() : null;
+        DataBuffer ga = forBackprop ? toReturn.inputModGateActivations.data() : null;
+        DataBuffer memCells = forBackprop ? toReturn.memCellStates.data() : null;
+        DataBuffer memCellActs = forBackprop ? toReturn.memCellActivations.data() : null;
+
+        for (int iTimeIndex = 0; iTimeIndex < timeSeriesLength; iTimeIndex++) {
+            int time = forwards ? iTimeIndex : timeSeriesLength - iTimeIndex - 1;
+
+            boolean recurrent = iTimeIndex > 0 || hasPrevAct;
+            if (recurrent)
+                Nd4j.gemm(prevAct, recurrentWeightsIFOG, zRecurrent, false, false, 1.0, 0.0);
+
+            long timeOffset = mh * time;
+            for (int j = 0; j < h; j++) {
+                for (int i = 0; i < m; i++) {
+                    int e = i + m * j;
+                    long row = i + (long) m * time;
+                    double prevMemCell = prevMem[e];
+
+                    double zi = zIn.getDouble(row + mt * j) + b[j];
+                    double zf = zIn.getDouble(row + mt * (h + j)) + b[h + j] + prevMemCell * wFF[j];
+                    double zo = zIn.getDouble(row + mt * (2 * h + j)) + b[2 * h + j];
+                    double zg = zIn.getDouble(row + mt * (3 * h + j)) + b[3 * h + j] + prevMemCell * wGG[j];
+                    if (recurrent) {
+                        zi += zRec.getDouble(e);
+                        zf += zRec.getDouble(e + mh);
+                        zo += zRec.getDouble(e + 2 * mh);
+                        zg += zRec.getDouble(e + 3 * mh);
+                    }
+
+                    double ai = Math.tanh(zi);
+                    double af = sigmoid(zf);
+                    double ag = sigmoid(zg);
+                    double memCell = af * prevMemCell + ag * ai;
+                    double ao = sigmoid(zo + memCell * wOO[j]);
+                    double memCellAct = Math.tanh(memCell);
+                    double act = memCellAct * ao;
+
+                    currMem[e] = memCell;
+                    currAct[e] = act;
+                    out.put(timeOffset + e, act);
+
+                    if (forBackprop) {
+                        ia.put(timeOffset + e, ai);
+                        fa.put(timeOffset + e, af);
+                        oa.put(timeOffset + e, ao);
+                        ga.put(timeOffset + e, ag);
+                        memCells.put(timeOffset + e, memCell);
+                        memCellActs.put(timeOffset + e, memCellAct);
+                    }
+                }
+            }
+
+            for (int e = 0; e < currAct.length; e++)
+                prevActBuffer.put(e, currAct[e]);
+
+            double[] swap = prevMem;
+            prevMem = currMem;
+            currMem = swap;
+        }
+
+        toReturn.lastAct = Nd4j.create(currAct, new int[] {m, h}, 'f');
+        toReturn.lastMemCell = Nd4j.create(prevMem, new int[] {m, h}, 'f');
+        return toReturn;
+    }
+
+    @Override
+    public Pair<Gradient, INDArray> backpropGradient(NeuralNetConfiguration conf, IActivation gateActivationFn,
+                    INDArray input, INDArray recurrentWeights, INDArray inputWeights, INDArray epsilon,
+                    boolean truncatedBPTT, int tbpttBackwardLength, FwdPassReturn fwdPass, boolean forwards,
+                    String inputWeightKey, String recurrentWeightKey, String biasWeightKey,
+                    Map<String, INDArray> gradientViews, INDArray maskArray) {
+        if (!(fwdPass instanceof FusedFwdPassReturn) || epsilon.rank() != 3 || maskArray != null)
+            return null;
+        FusedFwdPassReturn fwd = (FusedFwdPassReturn) fwdPass;
+
+        int m = epsilon.size(0);
+        int h = recurrentWeights.size(0);
+        int prevLayerSize = inputWeights.size(0);
+        int timeSeriesLength = epsilon.size(2);
+        long mh = (long) m * h;
+        long mt = (long) m * timeSeriesLength;
+
+        int endIdx = 0;
+        if (truncatedBPTT) {
+            endIdx = Math.max(0, timeSeriesLength - tbpttBackwardLength);
+        }
+
+        INDArray wIFOG = recurrentWeights.get(NDArrayIndex.all(), NDArrayIndex.interval(0, 4 * h)).dup('f');
+        double[] wFF = column(recurrentWeights, 4 * h);
+        double[] wOO = column(recurrentWeights, 4 * h + 1);
+        double[] wGG = column(recurrentWeights, 4 * h + 2);
+
+        //Deltas and previous activations for all time steps, row (i + m*t) is example i at time step t.
+        //Rows of time steps before endIdx stay 0, and don't contribute to gradients
+        INDArray deltaifogAll = Nd4j.create(new int[] {m * timeSeriesLength, 4 * h}, 'f');
+        INDArray prevActAll = Nd4j.create(new int[] {m * timeSeriesLength, h}, 'f');
+
+        //Per-sequence buffers
+        INDArray deltaifog = Nd4j.create(new int[] {m, 4 * h}, 'f');
+        INDArray nablaOutRecurrent = Nd4j.create(new int[] {m, h}, 'f');
+        double[] nablaCellStateNext = new double[(int) mh];
+        double[] nextForgetGateAs = new double[(int) mh];
+        double[] dLdwFF = new double[h];
+        double[] dLdwOO = new double[h];
+        double[] dLdwGG = new double[h];
+
+        DataBuffer eps = epsilon.dup('f').data();
+        DataBuffer ia = fwd.inputActivations.data();
+        DataBuffer fa = fwd.forgetGateActivations.data();
+        DataBuffer oa = fwd.outputGateActivations.data();
+        DataBuffer ga = fwd.inputModGateActivations.data();
+        DataBuffer memCells = fwd.memCellStates.data();
+        DataBuffer memCellActs = fwd.memCellActivations.data();
+        DataBuffer acts = fwd.outputActivations.data();
+        DataBuffer delta = deltaifog.data();
+        DataBuffer deltaAll = deltaifogAll.data();
+        DataBuffer prevActs = prevActAll.data();
+        DataBuffer nablaRec = nablaOutRecurrent.data();
+
+        for (int iTimeIndex = timeSeriesLength - 1; iTimeIndex >= endIdx; iTimeIndex--) {
+            int time = forwards ? iTimeIndex : timeSeriesLength - iTimeIndex - 1;
+            int prevTime = forwards ? time - 1 : time + 1;
+            boolean last = iTimeIndex == timeSeriesLength - 1;
+            boolean first = iTimeIndex == 0;
+
+            if (!last) {
+                //deltaifog still holds deltas of the next time step here
+                Nd4j.gemm(deltaifog, wIFOG, nablaOutRecurrent, false, true, 1.0, 0.0);
+            }
+
+            long timeOffset = mh * time;
+            long prevTimeOffset = mh * prevTime;
+            for (int j = 0; j < h; j++) {
+                for (int i = 0; i < m; i++) {
+                    int e = i + m * j;
+                    long o = timeOffset + e;
+                    long row = i + (long) m * time;
+
+                    double nablaOut = eps.getDouble(o);
+                    double nablaCellState = 0.0;
+                    if (!last) {
+                        nablaOut += nablaRec.getDouble(e);
+                        nablaCellState = delta.getDouble(e + mh) * wFF[j] + delta.getDouble(e + 3 * mh) * wGG[j]
+                                        + nextForgetGateAs[e] * nablaCellStateNext[e];
+                    }
+
+                    double ai = ia.getDouble(o);
+                    double af = fa.getDouble(o);
+                    double ao = oa.getDouble(o);
+                    double ag = ga.getDouble(o);
+                    double memCell = memCells.getDouble(o);
+                    double memCellAct = memCellActs.getDouble(o);
+                    double prevMemCell = first ? 0.0 : memCells.getDouble(prevTimeOffset + e);
+
+                    double deltao = nablaOut * memCellAct * ao * (1.0 - ao);
+                    nablaCellState += (1.0 - memCellAct * memCellAct) * ao * nablaOut + deltao * wOO[j];
+
+                    double deltaf = first ? 0.0 : af * (1.0 - af) * nablaCellState * prevMemCell;
+                    double deltag = ag * (1.0 - ag) * ai * nablaCellState;
+                    double deltai = (1.0 - ai * ai) * ag * nablaCellState;
+
+                    nablaCellStateNext[e] = nablaCellState;
+                    nextForgetGateAs[e] = af;
+
+                    delta.put(e, deltai);
+                    delta.put(e + mh, deltaf);
+                    delta.put(e + 2 * mh, deltao);
+                    delta.put(e + 3 * mh, deltag);
+
+                    deltaAll.put(row + mt * j, deltai);
+                    deltaAll.put(row + mt * (h + j), deltaf);
+                    deltaAll.put(row + mt * (2 * h + j), deltao);
+                    deltaAll.put(row + mt * (3 * h + j), deltag);
+
+                    dLdwOO[j] += deltao * memCell;
+                    if (!first) {
+                        dLdwFF[j] += deltaf * prevMemCell;
+                        dLdwGG[j] += deltag * prevMemCell;
+                        prevActs.put(row + mt * j, acts.getDouble(prevTimeOffset + e));
+                    }
+                }
+            }
+        }
+
+        INDArray iwGradientsOut = gradientViews.get(inputWeightKey);
+        INDArray rwGradientsOut = gradientViews.get(recurrentWeightKey); //Order: {I,F,O,G,FF,OO,GG}
+        INDArray bGradientsOut = gradientViews.get(biasWeightKey);
+
+        Nd4j.gemm(inputAs2d(input), deltaifogAll, iwGradientsOut, true, false, 1.0, 0.0);
+        INDArray rwGradientsIFOG = rwGradientsOut.get(NDArrayIndex.all(), NDArrayIndex.interval(0, 4 * h));
+        Nd4j.gemm(prevActAll, deltaifogAll, rwGradientsIFOG, true, false, 1.0, 0.0);
+        for (int j = 0; j < h; j++) {
+            rwGradientsOut.putScalar(j, 4 * h, dLdwFF[j]);
+            rwGradientsOut.putScalar(j, 4 * h + 1, dLdwOO[j]);
+            rwGradientsOut.putScalar(j, 4 * h + 2, dLdwGG[j]);
+        }
+        bGradientsOut.assign(deltaifogAll.sum(0));
+
+        INDArray epsilonNext2d = Nd4j.create(new int[] {m * timeSeriesLength, prevLayerSize}, 'f');
+        Nd4j.gemm(deltaifogAll, inputWeights, epsilonNext2d, false, true, 1.0, 0.0);
+        INDArray epsilonNext = Nd4j.create(new int[] {m, prevLayerSize, timeSeriesLength}, 'f');
+        epsilonNext.assign(epsilonNext2d.reshape('f', m, timeSeriesLength, prevLayerSize).permute(0, 2, 1));
+
+        Gradient retGradient = new DefaultGradient();
+        retGradient.gradientForVariable().put(inputWeightKey, iwGradientsOut);
+        retGradient.gradientForVariable().put(recurrentWeightKey, rwGradientsOut);
+        retGradient.gradientForVariable().put(biasWeightKey, bGradientsOut);
+
+        return new Pair<>(retGradient, epsilonNext);
+    }
+
+    /**
+     * Input of shape [m,nIn,T] as 'f' order [m*T,nIn] matrix, with row (i + m*t) being example i at time step t
+     */
+    private static INDArray inputAs2d(INDArray input) {
+        return input.permute(0, 2, 1).dup('f').reshape('f', input.size(0) * input.size(2), input.size(1));
+    }
+
+    private static double[] column(INDArray matrix, int column) {
+        double[] result = new double[matrix.size(0)];
+        for (int j = 0; j < result.length; j++)
+            result[j] = matrix.getDouble(j, column);
+        return result;
+    }
+
+    private static double sigmoid(double x) {
+        return 1.0 / (1.0 + Math.exp(-x));
+    }
+}
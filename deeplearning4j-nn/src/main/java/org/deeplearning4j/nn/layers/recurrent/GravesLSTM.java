@@ -42,12 +42,22 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
     public static final String STATE_KEY_PREV_ACTIVATION = "prevAct";
     public static final String STATE_KEY_PREV_MEMCELL = "prevMem";
 
+    protected LSTMHelper helper = null;
+
     public GravesLSTM(NeuralNetConfiguration conf) {
         super(conf);
+        initializeHelper();
     }
 
     public GravesLSTM(NeuralNetConfiguration conf, INDArray input) {
         super(conf, input);
+        initializeHelper();
+    }
+
+    void initializeHelper() {
+        if (layerConf().isFusedHelper()) {
+            helper = new FusedLSTMHelper();
+        }
     }
 
     @Override
@@ -80,9 +90,10 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
 
         //First: Do forward pass to get gate activations, zs etc.
         FwdPassReturn fwdPass;
+        final INDArray prevOutputActivations = truncatedBPTT ? stateMap.get(STATE_KEY_PREV_ACTIVATION) : null;
+        final INDArray prevMemCellState = truncatedBPTT ? stateMap.get(STATE_KEY_PREV_MEMCELL) : null;
         if (truncatedBPTT) {
-            fwdPass = activateHelper(true, stateMap.get(STATE_KEY_PREV_ACTIVATION),
-                            stateMap.get(STATE_KEY_PREV_MEMCELL), true);
+            fwdPass = activateHelper(true, prevOutputActivations, prevMemCellState, true);
             //Store last time step of output activations and memory cell state in tBpttStateMap
             tBpttStateMap.put(STATE_KEY_PREV_ACTIVATION, fwdPass.lastAct);
             tBpttStateMap.put(STATE_KEY_PREV_MEMCELL, fwdPass.lastMemCell);
@@ -90,6 +101,20 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
             fwdPass = activateHelper(true, null, null, true);
         }
 
+        if (helper != null) {
+            Pair<Gradient, INDArray> ret = helper.backpropGradient(this.conf, this.layerConf().getGateActivationFn(),
+                            this.input, recurrentWeights, inputWeights, epsilon, truncatedBPTT, tbpttBackwardLength,
+                            fwdPass, true, GravesLSTMParamInitializer.INPUT_WEIGHT_KEY,
+                            GravesLSTMParamInitializer.RECURRENT_WEIGHT_KEY, GravesLSTMParamInitializer.BIAS_KEY,
+                            gradientViews, null);
+            if (ret != null) {
+                return ret;
+            }
+            if (fwdPass instanceof FusedLSTMHelper.FusedFwdPassReturn) {
+                //Fused forward pass doesn't keep the arrays needed by the default backprop: redo it without the helper
+                fwdPass = defaultActivateHelper(true, prevOutputActivations, prevMemCellState, true);
+            }
+        }
 
         return LSTMHelpers.backpropGradientHelper(this.conf, this.layerConf().getGateActivationFn(), this.input,
                         recurrentWeights, inputWeights, epsilon, truncatedBPTT, tbpttBackwardLength, fwdPass, true,
@@ -139,9 +164,25 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
         final INDArray inputWeights = getParam(GravesLSTMParamInitializer.INPUT_WEIGHT_KEY); //Shape: [n^(L-1),4*hiddenLayerSize]; order: [wi,wf,wo,wg]
         final INDArray biases = getParam(GravesLSTMParamInitializer.BIAS_KEY); //by row: IFOG			//Shape: [4,hiddenLayerSize]; order: [bi,bf,bo,bg]^T
 
+        if (helper != null) {
+            FwdPassReturn ret = helper.activate(this, this.conf, this.layerConf().getGateActivationFn(), this.input,
+                            recurrentWeights, inputWeights, biases, training, prevOutputActivations,
+                            prevMemCellState, forBackprop, true, GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, null);
+            if (ret != null) {
+                return ret;
+            }
+        }
+
+        return defaultActivateHelper(training, prevOutputActivations, prevMemCellState, forBackprop);
+    }
+
+    private FwdPassReturn defaultActivateHelper(final boolean training, final INDArray prevOutputActivations,
+                    final INDArray prevMemCellState, boolean forBackprop) {
         return LSTMHelpers.activateHelper(this, this.conf, this.layerConf().getGateActivationFn(), this.input,
-                        recurrentWeights, inputWeights, biases, training, prevOutputActivations, prevMemCellState,
-                        forBackprop, true, GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, null);
+                        getParam(GravesLSTMParamInitializer.RECURRENT_WEIGHT_KEY),
+                        getParam(GravesLSTMParamInitializer.INPUT_WEIGHT_KEY),
+                        getParam(GravesLSTMParamInitializer.BIAS_KEY), training, prevOutputActivations,
+                        prevMemCellState, forBackprop, true, GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, null);
     }
 
     @Override
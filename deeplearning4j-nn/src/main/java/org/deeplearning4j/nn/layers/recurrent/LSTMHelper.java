@@ -0,0 +1,27 @@
+package org.deeplearning4j.nn.layers.recurrent;
+
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.nd4j.linalg.activations.IActivation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.Map;
+
+/**
+ * Helper for the LSTM layers. Arguments are the same as for {@link LSTMHelpers}.
+ * Methods return null if helper doesn't support given configuration/input, and default implementation should be used.
+ */
+public interface LSTMHelper {
+    FwdPassReturn activate(Layer layer, NeuralNetConfiguration conf, IActivation gateActivationFn, INDArray input,
+                    INDArray recurrentWeights, INDArray inputWeights, INDArray biases, boolean training,
+                    INDArray prevOutputActivations, INDArray prevMemCellState, boolean forBackprop, boolean forwards,
+                    String inputWeightKey, INDArray maskArray);
+
+    Pair<Gradient, INDArray> backpropGradient(NeuralNetConfiguration conf, IActivation gateActivationFn, INDArray input,
+                    INDArray recurrentWeights, INDArray inputWeights, INDArray epsilon, boolean truncatedBPTT,
+                    int tbpttBackwardLength, FwdPassReturn fwdPass, boolean forwards, String inputWeightKey,
+                    String recurrentWeightKey, String biasWeightKey, Map<String, INDArray> gradientViews,
+                    INDArray maskArray);
+}
@@ -35,6 +35,7 @@ import org.deeplearning4j.nn.conf.layers.FeedForwardLayer;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.layers.FrozenLayer;
+import org.deeplearning4j.nn.profiler.LayerProfiler;
 import org.deeplearning4j.nn.updater.MultiLayerUpdater;
 import org.deeplearning4j.nn.updater.UpdaterCreator;
 import org.deeplearning4j.nn.weights.WeightInit;
@@ -112,6 +113,8 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
 
     protected transient Solver solver; //Used to call optimizers during backprop
 
+    protected transient LayerProfiler profiler; //Per-layer timings; null unless profiling was enabled
+
     protected final static String workspaceExternal = "LOOP_EXTERNAL";
     protected final static String workspaceFeedForward = "LOOP_FF";
     protected final static String workspaceBackProp = "LOOP_BP";
@@ -617,9 +620,16 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
      * @return the activation from the previous layer
      */
     public INDArray activationFromPrevLayer(int curr, INDArray input, boolean training) {
-        if (getLayerWiseConfigurations().getInputPreProcess(curr) != null)
+        if (getLayerWiseConfigurations().getInputPreProcess(curr) != null) {
+            LayerProfiler.Section section = startProfiling(curr, true, LayerProfiler.Phase.FORWARD);
             input = getLayerWiseConfigurations().getInputPreProcess(curr).preProcess(input, getInputMiniBatchSize());
+            if (section != null)
+                section.end();
+        }
+        LayerProfiler.Section section = startProfiling(curr, false, LayerProfiler.Phase.FORWARD);
         INDArray ret = layers[curr].activate(input, training);
+        if (section != null)
+            section.end();
         return ret;
     }
 
@@ -1138,7 +1148,10 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
             if (labels == null)
                 throw new IllegalStateException("No labels found");
             outputLayer.setLabels(labels);
+            LayerProfiler.Section section = startProfiling(numLayers - 1, false, LayerProfiler.Phase.BACKWARD);
             currPair = outputLayer.backpropGradient(null);
+            if (section != null)
+                section.end();
 
             for (Map.Entry<String, INDArray> entry : currPair.getFirst().gradientForVariable().entrySet()) {
                 String origName = entry.getKey();
@@ -1146,10 +1159,14 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
                 gradientList.addLast(new Triple<>(multiGradientKey, entry.getValue(),
                                 currPair.getFirst().flatteningOrderForVariable(origName)));
             }
-            if (getLayerWiseConfigurations().getInputPreProcess(numLayers - 1) != null)
+            if (getLayerWiseConfigurations().getInputPreProcess(numLayers - 1) != null) {
+                section = startProfiling(numLayers - 1, true, LayerProfiler.Phase.BACKWARD);
                 currPair = new Pair<>(currPair.getFirst(),
                                 this.layerWiseConfigurations.getInputPreProcess(numLayers - 1)
                                                 .backprop(currPair.getSecond(), getInputMiniBatchSize()));
+                if (section != null)
+                    section.end();
+            }
 
             layerFrom = numLayers - 2;
         } else {
@@ -1182,7 +1199,10 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
                 if (currLayer instanceof FrozenLayer) {
                     break;
                 }
+                LayerProfiler.Section section = startProfiling(j, false, LayerProfiler.Phase.BACKWARD);
                 currPair = currLayer.backpropGradient(currPair.getSecond());
+                if (section != null)
+                    section.end();
                 if(currPair.getSecond() != null){
                     //Epsilons may be null for embedding layer
                     currPair.setSecond(currPair.getSecond().leverageTo(workspaceExternal));
@@ -1199,9 +1219,13 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
                     gradientList.addFirst(triple);
 
                 //Pass epsilon through input processor before passing to next layer (if applicable)
-                if (getLayerWiseConfigurations().getInputPreProcess(j) != null)
+                if (getLayerWiseConfigurations().getInputPreProcess(j) != null) {
+                    section = startProfiling(j, true, LayerProfiler.Phase.BACKWARD);
                     currPair = new Pair<>(currPair.getFirst(), getLayerWiseConfigurations().getInputPreProcess(j)
                             .backprop(currPair.getSecond(), getInputMiniBatchSize()));
+                    if (section != null)
+                        section.end();
+                }
 
                 //log.info("This layer space: {}", ((Nd4jWorkspace) ws).getThisCycleAllocations());
             } catch (Exception e) {
@@ -1323,26 +1347,36 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
         //Store gradients is a list; used to ensure iteration order in DefaultGradient linked hash map. i.e., layer 0 first instead of output layer
         LinkedList<Pair<String, INDArray>> gradientList = new LinkedList<>();
 
+        LayerProfiler.Section section = startProfiling(numLayers - 1, false, LayerProfiler.Phase.BACKWARD);
         Pair<Gradient, INDArray> currPair = outputLayer.backpropGradient(null);
+        if (section != null)
+            section.end();
 
         for (Map.Entry<String, INDArray> entry : currPair.getFirst().gradientForVariable().entrySet()) {
             multiGradientKey = String.valueOf(numLayers - 1) + "_" + entry.getKey();
             gradientList.addLast(new Pair<>(multiGradientKey, entry.getValue()));
         }
 
-        if (getLayerWiseConfigurations().getInputPreProcess(numLayers - 1) != null)
+        if (getLayerWiseConfigurations().getInputPreProcess(numLayers - 1) != null) {
+            section = startProfiling(numLayers - 1, true, LayerProfiler.Phase.BACKWARD);
             currPair = new Pair<>(currPair.getFirst(), this.layerWiseConfigurations.getInputPreProcess(numLayers - 1)
                             .backprop(currPair.getSecond(), getInputMiniBatchSize()));
+            if (section != null)
+                section.end();
+        }
 
         // Calculate gradients for previous layers & drops output layer in count
         for (int j = numLayers - 2; j >= 0; j--) {
             currLayer = getLayer(j);
+            section = startProfiling(j, false, LayerProfiler.Phase.BACKWARD);
             if (currLayer instanceof RecurrentLayer) {
                 currPair = ((RecurrentLayer) currLayer).tbpttBackpropGradient(currPair.getSecond(),
                                 layerWiseConfigurations.getTbpttBackLength());
             } else {
                 currPair = currLayer.backpropGradient(currPair.getSecond());
             }
+            if (section != null)
+                section.end();
 
             LinkedList<Pair<String, INDArray>> tempList = new LinkedList<>();
             for (Map.Entry<String, INDArray> entry : currPair.getFirst().gradientForVariable().entrySet()) {
@@ -1354,9 +1388,13 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
                 gradientList.addFirst(pair);
 
             //Pass epsilon through input processor before passing to next layer (if applicable)
-            if (getLayerWiseConfigurations().getInputPreProcess(j) != null)
+            if (getLayerWiseConfigurations().getInputPreProcess(j) != null) {
+                section = startProfiling(j, true, LayerProfiler.Phase.BACKWARD);
                 currPair = new Pair<>(currPair.getFirst(), getLayerWiseConfigurations().getInputPreProcess(j)
                                 .backprop(currPair.getSecond(), getInputMiniBatchSize()));
+                if (section != null)
+                    section.end();
+            }
         }
 
         //Add gradients to Gradients, in correct order
@@ -1364,6 +1402,36 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
             gradient.setGradientFor(pair.getFirst(), pair.getSecond());
     }
 
+    /**
+     * Enable (or, with null, disable) per-layer profiling of forward pass, backward pass and updater times.
+     * See {@link LayerProfiler} and {@link org.deeplearning4j.optimize.listeners.ProfilingListener}
+     *
+     * @param profiler Profiler to record timings to, or null to disable profiling
+     */
+    public void setProfiler(LayerProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * @return the profiler set with {@link #setProfiler(LayerProfiler)}, or null if profiling is disabled
+     */
+    public LayerProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Start profiling a section of work of the given layer (or of its input preprocessor)
+     *
+     * @return the section to end once the work is done, or null if profiling is disabled
+     */
+    protected LayerProfiler.Section startProfiling(int layerIdx, boolean preProcessor, LayerProfiler.Phase phase) {
+        if (profiler == null)
+            return null;
+        String name = layers[layerIdx].conf().getLayer().getLayerName();
+        if (name == null)
+            name = String.valueOf(layerIdx);
+        return profiler.start(preProcessor ? name + "/preprocessor" : name, phase);
+    }
 
     /**
      *
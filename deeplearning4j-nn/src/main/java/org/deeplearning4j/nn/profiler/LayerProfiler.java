@@ -0,0 +1,254 @@
+package org.deeplearning4j.nn.profiler;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.apache.commons.lang3.StringUtils;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.memory.abstracts.Nd4jWorkspace;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Opt-in per-layer (MultiLayerNetwork) and per-vertex (ComputationGraph) profiler: records the time spent in the
+ * forward pass, backward pass and updater of each layer/vertex, and the number of bytes allocated while doing so
+ * when the work is executed in a workspace.
+ *
+ * Enable it with {@code MultiLayerNetwork.setProfiler(new LayerProfiler())} or
+ * {@code ComputationGraph.setProfiler(new LayerProfiler())}; with no profiler set (the default) nothing is recorded.
+ * Percentiles are computed over the last {@code windowSize} samples of each layer/phase, means and totals over all
+ * samples since the last {@link #reset()}.
+ *
+ * Notes:<br>
+ * - During training, the output layer computes its activations as part of its backward pass, so its forward time
+ *   is reported under {@link Phase#BACKWARD}<br>
+ * - For MultiLayerNetwork, input preprocessors are reported separately, as {@code <layerName>/preprocessor}; in a
+ *   ComputationGraph they are part of the layer vertex<br>
+ * - Allocation bytes are only available inside a workspace (WorkspaceMode.SINGLE/SEPARATE), otherwise they are
+ *   reported as -1
+ */
+public class LayerProfiler {
+
+    public enum Phase {
+        FORWARD, BACKWARD, UPDATER
+    }
+
+    public static final int DEFAULT_WINDOW_SIZE = 1000;
+
+    private final int windowSize;
+    private final Map<Phase, Map<String, Record>> records = new EnumMap<>(Phase.class);
+
+    public LayerProfiler() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize Number of most recent samples per layer and phase used to compute percentiles
+     */
+    public LayerProfiler(int windowSize) {
+        if (windowSize <= 0)
+            throw new IllegalArgumentException("Window size must be > 0, got " + windowSize);
+        this.windowSize = windowSize;
+        for (Phase p : Phase.values())
+            records.put(p, new LinkedHashMap<String, Record>());
+    }
+
+    /**
+     * Get the profiler of the given model, setting a new one first if profiling is not enabled yet.
+     *
+     * @param model MultiLayerNetwork or ComputationGraph
+     * @return the profiler of the model, or null for other model types
+     */
+    public static LayerProfiler attach(Model model) {
+        if (model instanceof MultiLayerNetwork) {
+            MultiLayerNetwork network = (MultiLayerNetwork) model;
+            if (network.getProfiler() == null)
+                network.setProfiler(new LayerProfiler());
+            return network.getProfiler();
+        } else if (model instanceof ComputationGraph) {
+            ComputationGraph graph = (ComputationGraph) model;
+            if (graph.getProfiler() == null)
+                graph.setProfiler(new LayerProfiler());
+            return graph.getProfiler();
+        }
+        return null;
+    }
+
+    /**
+     * Start measuring a section of work. {@link Section#end()} must be called on the thread that started it.
+     *
+     * @param name  Name of the layer or vertex
+     * @param phase Phase the work belongs to
+     */
+    public Section start(String name, Phase phase) {
+        MemoryWorkspace workspace = Nd4j.getMemoryManager().getCurrentWorkspace();
+        return new Section(name, phase, workspace, workspaceAllocations(workspace), System.nanoTime());
+    }
+
+    /**
+     * Record a sample
+     *
+     * @param name  Name of the layer or vertex
+     * @param phase Phase the sample belongs to
+     * @param nanos Duration, in nanoseconds
+     * @param bytes Bytes allocated, or -1 if unknown
+     */
+    public synchronized void record(String name, Phase phase, long nanos, long bytes) {
+        Map<String, Record> map = records.get(phase);
+        Record r = map.get(name);
+        if (r == null) {
+            r = new Record(windowSize);
+            map.put(name, r);
+        }
+        r.add(nanos, bytes);
+    }
+
+    /**
+     * Remove all recorded samples
+     */
+    public synchronized void reset() {
+        for (Map<String, Record> map : records.values())
+            map.clear();
+    }
+
+    /**
+     * @return one summary per layer/vertex and phase, ordered by phase and then by first execution
+     */
+    public synchronized List<Summary> getSummaries() {
+        List<Summary> list = new ArrayList<>();
+        for (Phase p : Phase.values())
+            list.addAll(getSummaries(p));
+        return list;
+    }
+
+    /**
+     * @return one summary per layer/vertex for the given phase, in order of first execution
+     */
+    public synchronized List<Summary> getSummaries(Phase phase) {
+        List<Summary> list = new ArrayList<>();
+        for (Map.Entry<String, Record> e : records.get(phase).entrySet())
+            list.add(e.getValue().summarize(e.getKey(), phase));
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        List<Summary> summaries = getSummaries();
+        double total = 0.0;
+        for (Summary s : summaries)
+            total += s.getTotalMs();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n").append(StringUtils.repeat("=", 130)).append("\n");
+        sb.append(String.format("%-35s%-10s%-10s%-12s%-12s%-12s%-12s%-12s%-10s%-15s\n", "Name", "Phase", "Count",
+                        "Mean (ms)", "p50 (ms)", "p90 (ms)", "p99 (ms)", "Max (ms)", "% Total", "Mean bytes"));
+        sb.append(StringUtils.repeat("=", 130)).append("\n");
+        for (Summary s : summaries) {
+            sb.append(String.format("%-35s%-10s%-10d%-12.3f%-12.3f%-12.3f%-12.3f%-12.3f%-10.1f%-15s\n",
+                            s.getName(), s.getPhase(), s.getCount(), s.getMeanMs(), s.getP50Ms(), s.getP90Ms(),
+                            s.getP99Ms(), s.getMaxMs(), total > 0 ? 100.0 * s.getTotalMs() / total : 0.0,
+                            s.getMeanBytes() < 0 ? "-" : String.valueOf(s.getMeanBytes())));
+        }
+        sb.append(StringUtils.repeat("=", 130)).append("\n");
+        return sb.toString();
+    }
+
+    private static long workspaceAllocations(MemoryWorkspace workspace) {
+        if (workspace instanceof Nd4jWorkspace)
+            return ((Nd4jWorkspace) workspace).getThisCycleAllocations();
+        return -1;
+    }
+
+    /**
+     * A section of work being measured, see {@link #start(String, Phase)}
+     */
+    public class Section {
+        private final String name;
+        private final Phase phase;
+        private final MemoryWorkspace workspace;
+        private final long startBytes;
+        private final long startNanos;
+
+        private Section(String name, Phase phase, MemoryWorkspace workspace, long startBytes, long startNanos) {
+            this.name = name;
+            this.phase = phase;
+            this.workspace = workspace;
+            this.startBytes = startBytes;
+            this.startNanos = startNanos;
+        }
+
+        public void end() {
+            long nanos = System.nanoTime() - startNanos;
+            long bytes = -1;
+            //Only meaningful if we are still in the same workspace, and no new cycle was started in the meantime
+            if (startBytes >= 0 && Nd4j.getMemoryManager().getCurrentWorkspace() == workspace) {
+                long endBytes = workspaceAllocations(workspace);
+                if (endBytes >= startBytes)
+                    bytes = endBytes - startBytes;
+            }
+            record(name, phase, nanos, bytes);
+        }
+    }
+
+    /**
+     * Aggregated timings of one layer/vertex and phase. Times in milliseconds; meanBytes is -1 if allocations
+     * could not be measured.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Summary implements Serializable {
+        private String name;
+        private Phase phase;
+        private long count;
+        private double meanMs;
+        private double p50Ms;
+        private double p90Ms;
+        private double p99Ms;
+        private double maxMs;
+        private double totalMs;
+        private long meanBytes;
+    }
+
+    private static class Record {
+        private final long[] window;
+        private int next;
+        private long count;
+        private long totalNanos;
+        private long totalBytes;
+        private long bytesCount;
+
+        private Record(int windowSize) {
+            this.window = new long[windowSize];
+        }
+
+        private void add(long nanos, long bytes) {
+            window[next] = nanos;
+            next = (next + 1) % window.length;
+            count++;
+            totalNanos += nanos;
+            if (bytes >= 0) {
+                totalBytes += bytes;
+                bytesCount++;
+            }
+        }
+
+        private Summary summarize(String name, Phase phase) {
+            long[] sorted = Arrays.copyOf(window, (int) Math.min(count, window.length));
+            Arrays.sort(sorted);
+            return new Summary(name, phase, count, totalNanos / 1e6 / count, percentile(sorted, 50) / 1e6,
+                            percentile(sorted, 90) / 1e6, percentile(sorted, 99) / 1e6,
+                            sorted[sorted.length - 1] / 1e6, totalNanos / 1e6,
+                            bytesCount == 0 ? -1 : totalBytes / bytesCount);
+        }
+
+        private static long percentile(long[] sorted, int p) {
+            //Nearest rank
+            int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+            return sorted[Math.max(rank, 1) - 1];
+        }
+    }
+}
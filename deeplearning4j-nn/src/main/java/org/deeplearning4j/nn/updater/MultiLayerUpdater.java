@@ -10,6 +10,7 @@ import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.profiler.LayerProfiler;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
@@ -138,16 +139,31 @@ public class MultiLayerUpdater implements Updater {
             layerGradients[layerIdx].gradientForVariable().put(newKey, gradientPair.getValue());
         }
 
+        LayerProfiler profiler = mln.getProfiler();
         for (int i = 0; i < layerUpdaters.length; i++) {
             if (Nd4j.getWorkspaceManager().checkIfWorkspaceExists(ComputationGraph.workspaceFeedForward)) {
                 try (MemoryWorkspace workspace = Nd4j.getWorkspaceManager().getAndActivateWorkspace(ComputationGraph.workspaceFeedForward)) {
+                    LayerProfiler.Section section = startProfiling(profiler, mln.getLayer(i), i);
                     layerUpdaters[i].update(mln.getLayer(i), layerGradients[i], iteration, batchSize);
+                    if (section != null)
+                        section.end();
                 }
-            } else
+            } else {
+                LayerProfiler.Section section = startProfiling(profiler, mln.getLayer(i), i);
                 layerUpdaters[i].update(mln.getLayer(i), layerGradients[i], iteration, batchSize);
+                if (section != null)
+                    section.end();
+            }
         }
     }
 
+    private static LayerProfiler.Section startProfiling(LayerProfiler profiler, Layer layer, int layerIdx) {
+        if (profiler == null)
+            return null;
+        String name = layer.conf().getLayer().getLayerName();
+        return profiler.start(name == null ? String.valueOf(layerIdx) : name, LayerProfiler.Phase.UPDATER);
+    }
+
     @Override
     public Updater clone() {
         throw new UnsupportedOperationException("Not yet implemented");
@@ -5,6 +5,7 @@ import org.deeplearning4j.nn.api.Updater;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.profiler.LayerProfiler;
 import org.deeplearning4j.nn.updater.UpdaterCreator;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -127,12 +128,17 @@ public class ComputationGraphUpdater implements Serializable {
             g.setGradientFor(newKey, gradientPair.getValue());
         }
 
+        LayerProfiler profiler = graph.getProfiler();
         for (Map.Entry<String, Gradient> entry : layerGradients.entrySet()) {
             if (Nd4j.getWorkspaceManager().checkIfWorkspaceExists(ComputationGraph.workspaceFeedForward)) {
                 try (MemoryWorkspace workspace = Nd4j.getWorkspaceManager().getAndActivateWorkspace(ComputationGraph.workspaceFeedForward)) {
                     String layerName = entry.getKey();
                     int updaterIdx = layerUpdatersMap.get(layerName);
+                    LayerProfiler.Section section = profiler == null ? null
+                                    : profiler.start(layerName, LayerProfiler.Phase.UPDATER);
                     layerUpdaters[updaterIdx].update(graph.getLayer(layerName), entry.getValue(), iteration, batchSize);
+                    if (section != null)
+                        section.end();
 
 
                     //Gradients may be replaced by BaseUpdater.update()
@@ -143,7 +149,11 @@ public class ComputationGraphUpdater implements Serializable {
             } else {
                 String layerName = entry.getKey();
                 int updaterIdx = layerUpdatersMap.get(layerName);
+                LayerProfiler.Section section = profiler == null ? null
+                                : profiler.start(layerName, LayerProfiler.Phase.UPDATER);
                 layerUpdaters[updaterIdx].update(graph.getLayer(layerName), entry.getValue(), iteration, batchSize);
+                if (section != null)
+                    section.end();
 
 
                 //Gradients may be replaced by BaseUpdater.update()
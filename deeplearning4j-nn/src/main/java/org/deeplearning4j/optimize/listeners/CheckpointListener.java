@@ -0,0 +1,610 @@
+package org.deeplearning4j.optimize.listeners;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.optimize.api.TrainingListener;
+import org.deeplearning4j.util.MappedModelSerializer;
+import org.deeplearning4j.util.ModelSerializer;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * TrainingListener that saves checkpoints of a MultiLayerNetwork or ComputationGraph during fit, without stalling
+ * training for the whole serialization time.
+ *
+ * At an iteration (or epoch) boundary parameters and updater state are copied into one of two snapshot buffers, and
+ * written to disk from a background thread, while training continues. Training thread only blocks if both buffers
+ * are still waiting to be written.
+ *
+ * Full checkpoints are written in {@link MappedModelSerializer} format, and can be restored with
+ * {@link ModelSerializer} as usual. Optionally, only every N-th checkpoint is a full one: other checkpoints are
+ * delta checkpoints, containing only the blocks of parameters (and updater state) that changed by more than
+ * a threshold since the last full checkpoint. Delta checkpoints are restored with
+ * {@link #restoreMultiLayerNetwork(File, boolean)} and {@link #restoreComputationGraph(File, boolean)}.
+ *
+ * Only last {@code keepLast} checkpoints are retained; full checkpoints referenced by retained delta checkpoints
+ * are retained as well.
+ *
+ * PLEASE NOTE: delta checkpoints keep one more copy of parameters and updater state in memory.
+ */
+@Slf4j
+public class CheckpointListener implements TrainingListener {
+    public static final String FULL_EXTENSION = ".dl4j";
+    public static final String DELTA_EXTENSION = ".dl4jdelta";
+
+    private static final byte[] DELTA_MAGIC = {'D', 'L', '4', 'J', 'D', 'E', 'L', 'T'};
+    private static final int DELTA_VERSION = 1;
+    private static final Pattern NAME_PATTERN = Pattern.compile("checkpoint_(\\d+)_iter_(\\d+)\\.dl4j(delta)?");
+
+    private final File directory;
+    private final int saveEveryNIterations;
+    private final int saveEveryNEpochs;
+    private final int keepLast;
+    private final boolean saveUpdater;
+    private final int fullCheckpointFrequency;
+    private final double deltaThreshold;
+    private final int blockSize;
+
+    private final ExecutorService writer;
+    private final BlockingQueue<Integer> freeBuffers = new ArrayBlockingQueue<>(2);
+    private final INDArray[] paramsBuffers = new INDArray[2];
+    private final INDArray[] updaterBuffers = new INDArray[2];
+
+    // these fields are accessed from the writer thread only
+    private INDArray referenceParams;
+    private INDArray referenceUpdater;
+    private File referenceFile;
+    private int deltasSinceFull;
+    private final Deque<Checkpoint> retained = new ArrayDeque<>();
+
+    private long iterationCount = 0;
+    private long epochCount = 0;
+    private long checkpointCount;
+    private volatile File lastCheckpoint;
+    private volatile Exception lastException;
+
+    private static class Checkpoint {
+        private final File file;
+        private final File reference;
+
+        private Checkpoint(File file, File reference) {
+            this.file = file;
+            this.reference = reference;
+        }
+    }
+
+    private CheckpointListener(Builder builder) {
+        this.directory = builder.directory;
+        this.saveEveryNIterations = builder.saveEveryNIterations;
+        this.saveEveryNEpochs = builder.saveEveryNEpochs;
+        this.keepLast = builder.keepLast;
+        this.saveUpdater = builder.saveUpdater;
+        this.fullCheckpointFrequency = builder.fullCheckpointFrequency;
+        this.deltaThreshold = builder.deltaThreshold;
+        this.blockSize = builder.blockSize;
+
+        if (!directory.exists() && !directory.mkdirs())
+            throw new IllegalStateException("Unable to create checkpoint directory: " + directory);
+
+        // numbering continues after checkpoints already present in the directory
+        File last = lastCheckpoint(directory);
+        this.checkpointCount = last == null ? 0 : checkpointNumber(last) + 1;
+
+        freeBuffers.add(0);
+        freeBuffers.add(1);
+
+        writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "CheckpointListener writer");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    @Override
+    public boolean invoked() {
+        return false;
+    }
+
+    @Override
+    public void invoke() {
+
+    }
+
+    @Override
+    public void iterationDone(Model model, int iteration) {
+        iterationCount++;
+        if (saveEveryNIterations > 0 && iterationCount % saveEveryNIterations == 0)
+            checkpoint(model);
+    }
+
+    @Override
+    public void onEpochStart(Model model) {
+
+    }
+
+    @Override
+    public void onEpochEnd(Model model) {
+        epochCount++;
+        if (saveEveryNEpochs > 0 && epochCount % saveEveryNEpochs == 0)
+            checkpoint(model);
+    }
+
+    @Override
+    public void onForwardPass(Model model, List<INDArray> activations) {
+
+    }
+
+    @Override
+    public void onForwardPass(Model model, Map<String, INDArray> activations) {
+
+    }
+
+    @Override
+    public void onGradientCalculation(Model model) {
+
+    }
+
+    @Override
+    public void onBackwardPass(Model model) {
+
+    }
+
+    /**
+     * Snapshots the model state, and schedules it for writing. Called automatically from listener methods,
+     * but can be called manually as well (from the training thread)
+     *
+     * @param model model to checkpoint
+     */
+    public void checkpoint(@NonNull Model model) {
+        final String json;
+        final boolean graph;
+        INDArray updaterState = null;
+        if (model instanceof MultiLayerNetwork) {
+            MultiLayerNetwork network = (MultiLayerNetwork) model;
+            json = network.getLayerWiseConfigurations().toJson();
+            graph = false;
+            if (saveUpdater && network.getUpdater() != null)
+                updaterState = network.getUpdater().getStateViewArray();
+        } else if (model instanceof ComputationGraph) {
+            ComputationGraph cg = (ComputationGraph) model;
+            json = cg.getConfiguration().toJson();
+            graph = true;
+            if (saveUpdater && cg.getUpdater() != null)
+                updaterState = cg.getUpdater().getStateViewArray();
+        } else {
+            throw new IllegalArgumentException("Only MultiLayerNetwork and ComputationGraph are supported, got "
+                            + model.getClass().getName());
+        }
+        if (updaterState != null && updaterState.length() == 0)
+            updaterState = null;
+
+        final int idx;
+        try {
+            idx = freeBuffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+
+        INDArray params = model.params();
+        try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+            if (paramsBuffers[idx] == null || paramsBuffers[idx].length() != params.length())
+                paramsBuffers[idx] = Nd4j.create(1, params.length());
+            paramsBuffers[idx].assign(params);
+
+            if (updaterState != null) {
+                if (updaterBuffers[idx] == null || updaterBuffers[idx].length() != updaterState.length())
+                    updaterBuffers[idx] = Nd4j.create(1, updaterState.length());
+                updaterBuffers[idx].assign(updaterState);
+            }
+        }
+
+        if (Nd4j.getExecutioner() instanceof GridExecutioner)
+            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+
+        final INDArray paramsSnapshot = paramsBuffers[idx];
+        final INDArray updaterSnapshot = updaterState == null ? null : updaterBuffers[idx];
+        final long number = checkpointCount++;
+        final long iteration = iterationCount;
+
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    write(json, graph, paramsSnapshot, updaterSnapshot, number, iteration);
+                } catch (Exception e) {
+                    lastException = e;
+                    log.error("Failed to write checkpoint {}", number, e);
+                } finally {
+                    freeBuffers.add(idx);
+                }
+            }
+        });
+    }
+
+    private void write(String json, boolean graph, INDArray params, INDArray updaterState, long number,
+                    long iteration) throws IOException {
+        long start = System.currentTimeMillis();
+
+        boolean full = fullCheckpointFrequency <= 1 || referenceParams == null
+                        || referenceParams.length() != params.length()
+                        || (referenceUpdater == null) != (updaterState == null)
+                        || deltasSinceFull >= fullCheckpointFrequency - 1;
+
+        String name = "checkpoint_" + number + "_iter_" + iteration + (full ? FULL_EXTENSION : DELTA_EXTENSION);
+        File file = new File(directory, name);
+        File tmp = new File(directory, name + ".tmp");
+
+        if (full) {
+            MappedModelSerializer.writeModel(json, graph, params, updaterState, tmp);
+            if (fullCheckpointFrequency > 1) {
+                referenceParams = copyTo(params, referenceParams);
+                referenceUpdater = updaterState == null ? null : copyTo(updaterState, referenceUpdater);
+            }
+            deltasSinceFull = 0;
+        } else {
+            writeDelta(params, updaterState, tmp);
+            deltasSinceFull++;
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        if (full)
+            referenceFile = file;
+        retained.addLast(new Checkpoint(file, full ? null : referenceFile));
+        lastCheckpoint = file;
+        rotate();
+
+        log.debug("Checkpoint {} written in {} ms", file, System.currentTimeMillis() - start);
+    }
+
+    private static INDArray copyTo(INDArray source, INDArray target) {
+        if (target == null || target.length() != source.length())
+            return source.dup();
+        return target.assign(source);
+    }
+
+    private void writeDelta(INDArray params, INDArray updaterState, File file) throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            dos.write(DELTA_MAGIC);
+            dos.writeInt(DELTA_VERSION);
+            dos.writeUTF(referenceFile.getName());
+            dos.writeInt(blockSize);
+            writeBlocks(dos, params, referenceParams);
+            writeBlocks(dos, updaterState, referenceUpdater);
+        }
+    }
+
+    /**
+     * Writes all blocks having at least one element different from the reference by more than deltaThreshold
+     */
+    private void writeBlocks(DataOutputStream dos, INDArray array, INDArray reference) throws IOException {
+        if (array == null) {
+            dos.writeLong(0);
+            return;
+        }
+
+        DataBuffer data = array.data();
+        DataBuffer ref = reference.data();
+        long length = array.length();
+        boolean isDouble = data.dataType() == DataBuffer.Type.DOUBLE;
+
+        List<Integer> changed = new ArrayList<>();
+        int numBlocks = (int) ((length + blockSize - 1) / blockSize);
+        for (int b = 0; b < numBlocks; b++) {
+            long end = Math.min(length, (long) (b + 1) * blockSize);
+            for (long i = (long) b * blockSize; i < end; i++) {
+                if (Math.abs(data.getDouble(i) - ref.getDouble(i)) > deltaThreshold) {
+                    changed.add(b);
+                    break;
+                }
+            }
+        }
+
+        dos.writeLong(length);
+        dos.writeBoolean(isDouble);
+        dos.writeInt(changed.size());
+        for (int b : changed) {
+            dos.writeInt(b);
+            long end = Math.min(length, (long) (b + 1) * blockSize);
+            for (long i = (long) b * blockSize; i < end; i++) {
+                if (isDouble)
+                    dos.writeDouble(data.getDouble(i));
+                else
+                    dos.writeFloat(data.getFloat(i));
+            }
+        }
+    }
+
+    private void rotate() {
+        if (keepLast <= 0 || retained.size() <= keepLast)
+            return;
+
+        // last keepLast checkpoints are retained, together with full checkpoints they (or future deltas) refer to
+        List<Checkpoint> all = new ArrayList<>(retained);
+        Set<File> keep = new HashSet<>();
+        for (Checkpoint c : all.subList(all.size() - keepLast, all.size())) {
+            keep.add(c.file);
+            if (c.reference != null)
+                keep.add(c.reference);
+        }
+        if (referenceFile != null)
+            keep.add(referenceFile);
+
+        Iterator<Checkpoint> iterator = retained.iterator();
+        while (iterator.hasNext()) {
+            Checkpoint c = iterator.next();
+            if (keep.contains(c.file))
+                continue;
+            iterator.remove();
+            if (!c.file.delete())
+                log.warn("Unable to delete checkpoint {}", c.file);
+        }
+    }
+
+    /**
+     * Blocks until all scheduled checkpoints are written
+     */
+    public void flush() {
+        try {
+            writer.submit(new Runnable() {
+                @Override
+                public void run() {
+
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes scheduled checkpoints, and stops background writer thread
+     */
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return last checkpoint written by this listener, or null if none were written yet
+     */
+    public File getLastCheckpoint() {
+        return lastCheckpoint;
+    }
+
+    /**
+     * @return last exception happened while writing checkpoints, or null
+     */
+    public Exception getLastException() {
+        return lastException;
+    }
+
+    /**
+     * Returns the most recent checkpoint (full or delta) in the directory
+     *
+     * @param directory checkpoint directory
+     * @return last checkpoint file, or null if there are no checkpoints
+     */
+    public static File lastCheckpoint(@NonNull File directory) {
+        File[] files = directory.listFiles();
+        if (files == null)
+            return null;
+
+        File last = null;
+        for (File f : files) {
+            if (NAME_PATTERN.matcher(f.getName()).matches()
+                            && (last == null || checkpointNumber(f) > checkpointNumber(last)))
+                last = f;
+        }
+        return last;
+    }
+
+    /**
+     * Load a multi layer network from a full or delta checkpoint
+     *
+     * @param checkpoint checkpoint file
+     * @param loadUpdater whether to load the updater state or not
+     * @return the loaded multi layer network
+     * @throws IOException
+     */
+    public static MultiLayerNetwork restoreMultiLayerNetwork(@NonNull File checkpoint, boolean loadUpdater)
+                    throws IOException {
+        if (!isDelta(checkpoint))
+            return ModelSerializer.restoreMultiLayerNetwork(checkpoint, loadUpdater);
+
+        MultiLayerNetwork network = ModelSerializer.restoreMultiLayerNetwork(referenceOf(checkpoint), loadUpdater);
+        applyDelta(checkpoint, network.params(), loadUpdater ? network.getUpdater().getStateViewArray() : null);
+        return network;
+    }
+
+    /**
+     * Load a computation graph from a full or delta checkpoint
+     *
+     * @param checkpoint checkpoint file
+     * @param loadUpdater whether to load the updater state or not
+     * @return the loaded computation graph
+     * @throws IOException
+     */
+    public static ComputationGraph restoreComputationGraph(@NonNull File checkpoint, boolean loadUpdater)
+                    throws IOException {
+        if (!isDelta(checkpoint))
+            return ModelSerializer.restoreComputationGraph(checkpoint, loadUpdater);
+
+        ComputationGraph graph = ModelSerializer.restoreComputationGraph(referenceOf(checkpoint), loadUpdater);
+        applyDelta(checkpoint, graph.params(), loadUpdater ? graph.getUpdater().getStateViewArray() : null);
+        return graph;
+    }
+
+    private static boolean isDelta(File checkpoint) throws IOException {
+        if (checkpoint.length() < DELTA_MAGIC.length)
+            return false;
+        byte[] magic = new byte[DELTA_MAGIC.length];
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(checkpoint))) {
+            dis.readFully(magic);
+        }
+        return Arrays.equals(DELTA_MAGIC, magic);
+    }
+
+    private static File referenceOf(File checkpoint) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(checkpoint))) {
+            dis.readFully(new byte[DELTA_MAGIC.length]);
+            dis.readInt();
+            File reference = new File(checkpoint.getAbsoluteFile().getParentFile(), dis.readUTF());
+            if (!reference.exists())
+                throw new FileNotFoundException("Full checkpoint " + reference + " required by delta checkpoint "
+                                + checkpoint + " not found");
+            return reference;
+        }
+    }
+
+    private static void applyDelta(File checkpoint, INDArray params, INDArray updaterState) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(checkpoint)))) {
+            dis.readFully(new byte[DELTA_MAGIC.length]);
+            int version = dis.readInt();
+            if (version > DELTA_VERSION)
+                throw new IllegalStateException("Unsupported delta checkpoint version: " + version);
+            dis.readUTF();
+            int blockSize = dis.readInt();
+            readBlocks(dis, params, blockSize);
+            if (updaterState != null)
+                readBlocks(dis, updaterState, blockSize);
+        }
+    }
+
+    private static void readBlocks(DataInputStream dis, INDArray array, int blockSize) throws IOException {
+        long length = dis.readLong();
+        if (length == 0)
+            return;
+        if (length != array.length())
+            throw new IllegalStateException("Delta checkpoint length " + length + " doesn't match array length "
+                            + array.length());
+
+        boolean isDouble = dis.readBoolean();
+        int numChanged = dis.readInt();
+        for (int i = 0; i < numChanged; i++) {
+            int b = dis.readInt();
+            int start = b * blockSize;
+            int end = (int) Math.min(length, (long) start + blockSize);
+            double[] values = new double[end - start];
+            for (int j = 0; j < values.length; j++)
+                values[j] = isDouble ? dis.readDouble() : dis.readFloat();
+            array.get(NDArrayIndex.point(0), NDArrayIndex.interval(start, end)).assign(Nd4j.create(values));
+        }
+    }
+
+    private static long checkpointNumber(File f) {
+        Matcher m = NAME_PATTERN.matcher(f.getName());
+        if (!m.matches())
+            throw new IllegalArgumentException("Not a checkpoint file: " + f);
+        return Long.parseLong(m.group(1));
+    }
+
+    public static class Builder {
+        private File directory;
+        private int saveEveryNIterations = 0;
+        private int saveEveryNEpochs = 1;
+        private int keepLast = 3;
+        private boolean saveUpdater = true;
+        private int fullCheckpointFrequency = 1;
+        private double deltaThreshold = 0.0;
+        private int blockSize = 65536;
+
+        /**
+         * @param directory directory to write checkpoints to
+         */
+        public Builder(@NonNull File directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * Save checkpoint every N iterations (minibatches). Default: 0 (disabled)
+         */
+        public Builder saveEveryNIterations(int saveEveryNIterations) {
+            this.saveEveryNIterations = saveEveryNIterations;
+            return this;
+        }
+
+        /**
+         * Save checkpoint every N epochs. Default: 1. 0 disables saving on epoch end
+         */
+        public Builder saveEveryNEpochs(int saveEveryNEpochs) {
+            this.saveEveryNEpochs = saveEveryNEpochs;
+            return this;
+        }
+
+        /**
+         * Number of most recent checkpoints to retain. Default: 3. 0 retains all checkpoints
+         */
+        public Builder keepLast(int keepLast) {
+            this.keepLast = keepLast;
+            return this;
+        }
+
+        /**
+         * Whether updater state should be saved. Default: true
+         */
+        public Builder saveUpdater(boolean saveUpdater) {
+            this.saveUpdater = saveUpdater;
+            return this;
+        }
+
+        /**
+         * Enables delta checkpoints: only every fullCheckpointFrequency-th checkpoint is written in full, other
+         * checkpoints contain only blocks with at least one value changed by more than deltaThreshold since the last
+         * full checkpoint. With a threshold of 0.0 delta checkpoints are exact, otherwise values within
+         * the threshold are restored from the full checkpoint.
+         *
+         * @param fullCheckpointFrequency write a full checkpoint every N checkpoints. 1 disables delta checkpoints
+         * @param deltaThreshold absolute change threshold
+         */
+        public Builder deltaCheckpoints(int fullCheckpointFrequency, double deltaThreshold) {
+            if (fullCheckpointFrequency < 1)
+                throw new IllegalArgumentException("Full checkpoint frequency must be >= 1, got "
+                                + fullCheckpointFrequency);
+            if (deltaThreshold < 0)
+                throw new IllegalArgumentException("Delta threshold must be >= 0, got " + deltaThreshold);
+            this.fullCheckpointFrequency = fullCheckpointFrequency;
+            this.deltaThreshold = deltaThreshold;
+            return this;
+        }
+
+        /**
+         * Size of parameter blocks (in elements) compared for delta checkpoints. Default: 65536
+         */
+        public Builder blockSize(int blockSize) {
+            if (blockSize < 1)
+                throw new IllegalArgumentException("Block size must be positive, got " + blockSize);
+            this.blockSize = blockSize;
+            return this;
+        }
+
+        public CheckpointListener build() {
+            return new CheckpointListener(this);
+        }
+    }
+}
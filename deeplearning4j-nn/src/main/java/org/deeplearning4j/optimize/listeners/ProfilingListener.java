@@ -0,0 +1,62 @@
+package org.deeplearning4j.optimize.listeners;
+
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.profiler.LayerProfiler;
+import org.deeplearning4j.optimize.api.IterationListener;
+
+/**
+ * IterationListener that enables per-layer/per-vertex profiling on the model it is attached to (see
+ * {@link LayerProfiler}), and logs the forward, backward and updater timings of each layer every {@code frequency}
+ * iterations.
+ *
+ * Profiling starts at the first iteration the listener sees, unless a profiler was already set on the model.
+ */
+@Slf4j
+public class ProfilingListener implements IterationListener {
+
+    private final int frequency;
+    private final boolean resetAfterReport;
+    private long iterationCount;
+
+    /**
+     * @param frequency Log the profile every {@code frequency} iterations
+     */
+    public ProfilingListener(int frequency) {
+        this(frequency, true);
+    }
+
+    /**
+     * @param frequency        Log the profile every {@code frequency} iterations
+     * @param resetAfterReport If true, each report only covers the iterations since the previous one
+     */
+    public ProfilingListener(int frequency, boolean resetAfterReport) {
+        if (frequency <= 0)
+            throw new IllegalArgumentException("Frequency must be > 0, got " + frequency);
+        this.frequency = frequency;
+        this.resetAfterReport = resetAfterReport;
+    }
+
+    @Override
+    public boolean invoked() {
+        return false;
+    }
+
+    @Override
+    public void invoke() {
+
+    }
+
+    @Override
+    public void iterationDone(Model model, int iteration) {
+        LayerProfiler profiler = LayerProfiler.attach(model);
+        if (profiler == null)
+            return;
+
+        if (++iterationCount % frequency == 0) {
+            log.info("Layer profile at iteration {}:{}", iteration, profiler);
+            if (resetAfterReport)
+                profiler.reset();
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package org.deeplearning4j.util;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.*;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uncompressed model format, alternative to {@link ModelSerializer} zip files.
+ *
+ * Layout: fixed size header, configuration JSON, then raw parameters and (optionally) raw updater state, both stored
+ * in native element format and aligned to {@link #ALIGNMENT} bytes. Writing streams parameters straight from the
+ * network buffers to the file, without any intermediate copies or compression. Restoring reads them straight into
+ * the network buffers, or memory-maps parameters file region directly as the flattened parameters array of the network.
+ *
+ * Memory-mapped parameters are mapped copy-on-write: network can be trained as usual, and file itself is never
+ * modified. Pages are read lazily, on first access. File shouldn't be truncated or modified while network is in use.
+ *
+ * {@link ModelSerializer} restore methods detect this format, and read it (without mapping) as well.
+ * PLEASE NOTE: Normalizers can't be attached to models stored in this format.
+ */
+@Slf4j
+public class MappedModelSerializer {
+    public static final int ALIGNMENT = 64;
+    public static final int FORMAT_VERSION = 1;
+
+    private static final byte[] MAGIC = {'D', 'L', '4', 'J', 'M', 'M', 'A', 'P'};
+    private static final int HEADER_SIZE = 128;
+    private static final int TYPE_MULTILAYER = 0;
+    private static final int TYPE_GRAPH = 1;
+    private static final int CHUNK_SIZE = 8 * 1024 * 1024;
+
+    // mapped buffers must stay reachable while the arrays using their memory are reachable
+    private static final ReferenceQueue<DataBuffer> collected = new ReferenceQueue<>();
+    private static final Set<Mapping> mappings = Collections.newSetFromMap(new ConcurrentHashMap<Mapping, Boolean>());
+
+    private MappedModelSerializer() {}
+
+    private static class Mapping extends WeakReference<DataBuffer> {
+        private final ByteBuffer mapped;
+
+        private Mapping(DataBuffer buffer, ByteBuffer mapped) {
+            super(buffer, collected);
+            this.mapped = mapped;
+        }
+    }
+
+    private static class Header {
+        private int version;
+        private int modelType;
+        private DataBuffer.Type dataType;
+        private ByteOrder byteOrder;
+        private long configOffset;
+        private long configLength;
+        private long paramsOffset;
+        private long paramsLength;
+        private long updaterOffset;
+        private long updaterLength;
+
+        private int elementSize() {
+            return dataType == DataBuffer.Type.DOUBLE ? 8 : 4;
+        }
+    }
+
+    /**
+     * Write a model to a file
+     * @param model the model to write
+     * @param file the file to write to
+     * @param saveUpdater whether to save the updater state or not
+     * @throws IOException
+     */
+    public static void writeModel(@NonNull Model model, @NonNull File file, boolean saveUpdater) throws IOException {
+        try (FileOutputStream stream = new FileOutputStream(file); FileChannel channel = stream.getChannel()) {
+            writeModel(model, channel, saveUpdater);
+        }
+    }
+
+    /**
+     * Write a model to an output stream. Stream isn't closed
+     * @param model the model to write
+     * @param stream the output stream to write to
+     * @param saveUpdater whether to save the updater state or not
+     * @throws IOException
+     */
+    public static void writeModel(@NonNull Model model, @NonNull OutputStream stream, boolean saveUpdater)
+                    throws IOException {
+        writeModel(model, Channels.newChannel(stream), saveUpdater);
+        stream.flush();
+    }
+
+    private static void writeModel(Model model, WritableByteChannel channel, boolean saveUpdater)
+                    throws IOException {
+        String json;
+        int modelType;
+        INDArray updaterState = null;
+        if (model instanceof MultiLayerNetwork) {
+            MultiLayerNetwork network = (MultiLayerNetwork) model;
+            json = network.getLayerWiseConfigurations().toJson();
+            modelType = TYPE_MULTILAYER;
+            if (saveUpdater && network.getUpdater() != null)
+                updaterState = network.getUpdater().getStateViewArray();
+        } else if (model instanceof ComputationGraph) {
+            ComputationGraph graph = (ComputationGraph) model;
+            json = graph.getConfiguration().toJson();
+            modelType = TYPE_GRAPH;
+            if (saveUpdater && graph.getUpdater() != null)
+                updaterState = graph.getUpdater().getStateViewArray();
+        } else {
+            throw new IllegalArgumentException("Only MultiLayerNetwork and ComputationGraph are supported, got "
+                            + model.getClass().getName());
+        }
+
+        writeModel(json, modelType, model.params(), updaterState, channel);
+    }
+
+    /**
+     * Write a model snapshot to a file: configuration plus parameters and updater state captured separately from the
+     * model, for example copied at an iteration boundary and written from another thread
+     *
+     * @param configJson model configuration, as JSON
+     * @param computationGraph true if configuration is ComputationGraphConfiguration, false for MultiLayerConfiguration
+     * @param params flattened parameters
+     * @param updaterState flattened updater state, may be null. Must have the same data type as the parameters
+     * @param file the file to write to
+     * @throws IOException
+     */
+    public static void writeModel(@NonNull String configJson, boolean computationGraph, @NonNull INDArray params,
+                    INDArray updaterState, @NonNull File file) throws IOException {
+        try (FileOutputStream stream = new FileOutputStream(file); FileChannel channel = stream.getChannel()) {
+            writeModel(configJson, computationGraph ? TYPE_GRAPH : TYPE_MULTILAYER, params, updaterState, channel);
+        }
+    }
+
+    private static void writeModel(String json, int modelType, INDArray params, INDArray updaterState,
+                    WritableByteChannel channel) throws IOException {
+        params = contiguous(params);
+        if (updaterState != null && updaterState.length() > 0)
+            updaterState = contiguous(updaterState);
+        else
+            updaterState = null;
+
+        DataBuffer.Type dataType = params.data().dataType();
+        if (dataType != DataBuffer.Type.FLOAT && dataType != DataBuffer.Type.DOUBLE)
+            throw new UnsupportedOperationException("Only FLOAT and DOUBLE parameters are supported, got " + dataType);
+        if (updaterState != null && updaterState.data().dataType() != dataType)
+            throw new IllegalArgumentException("Updater state data type (" + updaterState.data().dataType()
+                            + ") must match parameters data type (" + dataType + ")");
+
+        byte[] config = json.getBytes(StandardCharsets.UTF_8);
+        int elementSize = params.data().getElementSize();
+
+        Header header = new Header();
+        header.version = FORMAT_VERSION;
+        header.modelType = modelType;
+        header.dataType = dataType;
+        header.byteOrder = ByteOrder.nativeOrder();
+        header.configOffset = HEADER_SIZE;
+        header.configLength = config.length;
+        header.paramsOffset = align(header.configOffset + header.configLength);
+        header.paramsLength = params.length();
+        if (updaterState != null) {
+            header.updaterOffset = align(header.paramsOffset + header.paramsLength * elementSize);
+            header.updaterLength = updaterState.length();
+        }
+
+        long position = 0;
+        position += writeFully(channel, headerBytes(header));
+        position += writeFully(channel, ByteBuffer.wrap(config));
+        position += writeFully(channel, ByteBuffer.allocate((int) (header.paramsOffset - position)));
+        position += writeFully(channel, rawBytes(params));
+        if (updaterState != null) {
+            position += writeFully(channel, ByteBuffer.allocate((int) (header.updaterOffset - position)));
+            writeFully(channel, rawBytes(updaterState));
+        }
+    }
+
+    /**
+     * This method checks if given file is stored in this format
+     *
+     * @param file file to check
+     * @return true if file starts with the format magic bytes
+     */
+    public static boolean isMappedModel(@NonNull File file) {
+        if (!file.isFile() || file.length() < HEADER_SIZE)
+            return false;
+
+        byte[] magic = new byte[MAGIC.length];
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(file))) {
+            dis.readFully(magic);
+        } catch (IOException e) {
+            return false;
+        }
+        return Arrays.equals(MAGIC, magic);
+    }
+
+    /**
+     * Load a multi layer network from a file
+     *
+     * @param file the file to load from
+     * @param loadUpdater whether to load the updater state or not
+     * @param mapParameters if true, parameters are memory-mapped from the file instead of being read
+     * @return the loaded multi layer network
+     * @throws IOException
+     */
+    public static MultiLayerNetwork restoreMultiLayerNetwork(@NonNull File file, boolean loadUpdater,
+                    boolean mapParameters) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            Header header = readHeader(channel);
+            if (header.modelType != TYPE_MULTILAYER)
+                throw new IllegalStateException("File doesn't contain MultiLayerNetwork: " + file);
+
+            MultiLayerConfiguration conf = MultiLayerConfiguration.fromJson(readConfig(channel, header));
+            INDArray params = readParams(file, channel, header, mapParameters);
+
+            MultiLayerNetwork network = new MultiLayerNetwork(conf);
+            network.init(params, false);
+
+            if (loadUpdater && header.updaterLength > 0) {
+                INDArray updaterState = readArray(channel, header, header.updaterOffset, header.updaterLength);
+                network.getUpdater().setStateViewArray(network, updaterState, false);
+            }
+            return network;
+        }
+    }
+
+    /**
+     * Load a computation graph from a file
+     *
+     * @param file the file to load from
+     * @param loadUpdater whether to load the updater state or not
+     * @param mapParameters if true, parameters are memory-mapped from the file instead of being read
+     * @return the loaded computation graph
+     * @throws IOException
+     */
+    public static ComputationGraph restoreComputationGraph(@NonNull File file, boolean loadUpdater,
+                    boolean mapParameters) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            Header header = readHeader(channel);
+            if (header.modelType != TYPE_GRAPH)
+                throw new IllegalStateException("File doesn't contain ComputationGraph: " + file);
+
+            ComputationGraphConfiguration conf = ComputationGraphConfiguration.fromJson(readConfig(channel, header));
+            INDArray params = readParams(file, channel, header, mapParameters);
+
+            ComputationGraph graph = new ComputationGraph(conf);
+            graph.init(params, false);
+
+            if (loadUpdater && header.updaterLength > 0) {
+                INDArray updaterState = readArray(channel, header, header.updaterOffset, header.updaterLength);
+                graph.getUpdater().setStateViewArray(updaterState);
+            }
+            return graph;
+        }
+    }
+
+    private static INDArray readParams(File file, FileChannel channel, Header header, boolean mapParameters)
+                    throws IOException {
+        if (mapParameters) {
+            long bytes = header.paramsLength * header.elementSize();
+            if (header.dataType != Nd4j.dataType() || header.byteOrder != ByteOrder.nativeOrder()) {
+                log.warn("Parameters stored as {} {} can't be mapped with {} {}, reading them instead",
+                                header.dataType, header.byteOrder, Nd4j.dataType(), ByteOrder.nativeOrder());
+            } else if (bytes > Integer.MAX_VALUE) {
+                log.warn("Parameters are too large to be mapped ({} bytes), reading them instead", bytes);
+            } else if (!file.canWrite()) {
+                //Copy-on-write mapping requires file opened for writing, even though file isn't modified
+                log.warn("File {} isn't writable, parameters can't be mapped, reading them instead", file);
+            } else {
+                return mapArray(file, header.paramsOffset, header.paramsLength, (int) bytes);
+            }
+        }
+        return readArray(channel, header, header.paramsOffset, header.paramsLength);
+    }
+
+    private static INDArray mapArray(File file, long offset, long length, int bytes) throws IOException {
+        ByteBuffer mapped;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            mapped = channel.map(FileChannel.MapMode.PRIVATE, offset, bytes).order(ByteOrder.nativeOrder());
+        }
+
+        DataBuffer buffer = Nd4j.createBuffer(mapped, Nd4j.dataType(), (int) length);
+
+        Reference<? extends DataBuffer> ref;
+        while ((ref = collected.poll()) != null)
+            mappings.remove(ref);
+        mappings.add(new Mapping(buffer, mapped));
+
+        return Nd4j.create(buffer, new int[] {1, (int) length});
+    }
+
+    private static INDArray readArray(FileChannel channel, Header header, long offset, long length)
+                    throws IOException {
+        INDArray array = Nd4j.create(1, (int) length);
+        long bytes = length * header.elementSize();
+
+        if (header.dataType == array.data().dataType() && header.byteOrder == ByteOrder.nativeOrder()) {
+            //Same element format: read straight into the array buffer
+            ByteBuffer target = array.data().asNio().duplicate();
+            target.clear();
+            target.limit((int) bytes);
+            readFully(channel, target, offset);
+            return array;
+        }
+
+        //Different data type or byte order: convert element by element
+        DataBuffer target = array.data();
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE).order(header.byteOrder);
+        long element = 0;
+        while (element < length) {
+            int count = (int) Math.min(length - element, CHUNK_SIZE / header.elementSize());
+            chunk.clear();
+            chunk.limit(count * header.elementSize());
+            readFully(channel, chunk, offset + element * header.elementSize());
+            chunk.flip();
+            for (int i = 0; i < count; i++, element++) {
+                if (header.dataType == DataBuffer.Type.DOUBLE)
+                    target.put(element, chunk.getDouble());
+                else
+                    target.put(element, chunk.getFloat());
+            }
+        }
+        return array;
+    }
+
+    private static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, buffer, 0);
+        buffer.flip();
+
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(MAGIC, magic))
+            throw new IllegalStateException("Not a mapped model file: unexpected magic bytes");
+
+        Header header = new Header();
+        header.version = buffer.getInt();
+        if (header.version > FORMAT_VERSION)
+            throw new IllegalStateException("Unsupported mapped model format version: " + header.version);
+        header.modelType = buffer.getInt();
+        header.dataType = buffer.getInt() == 8 ? DataBuffer.Type.DOUBLE : DataBuffer.Type.FLOAT;
+        header.byteOrder = buffer.getInt() == 0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        header.configOffset = buffer.getLong();
+        header.configLength = buffer.getLong();
+        header.paramsOffset = buffer.getLong();
+        header.paramsLength = buffer.getLong();
+        header.updaterOffset = buffer.getLong();
+        header.updaterLength = buffer.getLong();
+        return header;
+    }
+
+    private static ByteBuffer headerBytes(Header header) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        buffer.put(MAGIC);
+        buffer.putInt(header.version);
+        buffer.putInt(header.modelType);
+        buffer.putInt(header.elementSize());
+        buffer.putInt(header.byteOrder == ByteOrder.LITTLE_ENDIAN ? 0 : 1);
+        buffer.putLong(header.configOffset);
+        buffer.putLong(header.configLength);
+        buffer.putLong(header.paramsOffset);
+        buffer.putLong(header.paramsLength);
+        buffer.putLong(header.updaterOffset);
+        buffer.putLong(header.updaterLength);
+        buffer.clear();
+        return buffer;
+    }
+
+    private static String readConfig(FileChannel channel, Header header) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) header.configLength);
+        readFully(channel, buffer, header.configOffset);
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns array itself if its buffer can be written as is, or its copy otherwise
+     */
+    private static INDArray contiguous(INDArray array) {
+        if (array.offset() != 0 || array.data().length() != array.length() || array.elementWiseStride() != 1)
+            return array.dup();
+        return array;
+    }
+
+    /**
+     * Returns view of the raw array memory, without copying it
+     */
+    private static ByteBuffer rawBytes(INDArray array) {
+        ByteBuffer buffer = array.data().asNio().duplicate();
+        buffer.clear();
+        buffer.limit(array.length() * array.data().getElementSize());
+        return buffer;
+    }
+
+    private static long align(long position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static long writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        long written = buffer.remaining();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        return written;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new EOFException("Unexpected end of file at position " + position);
+            position += read;
+        }
+    }
+}
@@ -23,9 +23,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.earlystopping.EarlyStoppingConfiguration;
 import org.deeplearning4j.earlystopping.EarlyStoppingResult;
 import org.deeplearning4j.earlystopping.listener.EarlyStoppingListener;
-import org.deeplearning4j.earlystopping.scorecalc.ScoreCalculator;
 import org.deeplearning4j.earlystopping.termination.EpochTerminationCondition;
 import org.deeplearning4j.earlystopping.termination.IterationTerminationCondition;
+import org.deeplearning4j.earlystopping.trainer.EarlyStoppingScoring;
 import org.deeplearning4j.earlystopping.trainer.IEarlyStoppingTrainer;
 import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.graph.ComputationGraph;
@@ -59,8 +59,7 @@ public class EarlyStoppingParallelTrainer<T extends Model> implements IEarlyStop
     private final Iterator<?> iterator;
     private EarlyStoppingListener<T> listener;
     private ParallelWrapper wrapper;
-    private double bestModelScore = Double.MAX_VALUE;
-    private int bestModelEpoch = -1;
+    private final EarlyStoppingScoring<T> scoring;
     private AtomicDouble latestScore = new AtomicDouble(0.0);
     private AtomicBoolean terminate = new AtomicBoolean(false);
     private AtomicInteger iterCount = new AtomicInteger(0);
@@ -90,6 +89,7 @@ public class EarlyStoppingParallelTrainer<T extends Model> implements IEarlyStop
         this.iterator = (train != null ? train : trainMulti);
         this.listener = listener;
         this.model = model;
+        this.scoring = new EarlyStoppingScoring<>(earlyStoppingConfiguration, listener);
 
         // adjust UI listeners
         AveragingIterationListener trainerListener = new AveragingIterationListener(this);
@@ -143,138 +143,69 @@ public class EarlyStoppingParallelTrainer<T extends Model> implements IEarlyStop
 
         Map<Integer, Double> scoreVsEpoch = new LinkedHashMap<>();
 
-        // append the iteration listener
-        int epochCount = 0;
-
-        // iterate through epochs
-        while (true) {
-            // note that we don't call train.reset() because ParallelWrapper does it already
-            try {
-                if (train != null) {
-                    wrapper.fit(train);
-                } else
-                    wrapper.fit(trainMulti);
-            } catch (Exception e) {
-                log.warn("Early stopping training terminated due to exception at epoch {}, iteration {}", epochCount,
-                                iterCount, e);
-                //Load best model to return
-                T bestModel;
-                try {
-                    bestModel = esConfig.getModelSaver().getBestModel();
-                } catch (IOException e2) {
-                    throw new RuntimeException(e2);
-                }
-                return new EarlyStoppingResult<>(EarlyStoppingResult.TerminationReason.Error, e.toString(),
-                                scoreVsEpoch, bestModelEpoch, bestModelScore, epochCount, bestModel);
-            }
+        scoring.start();
+        try {
+            // append the iteration listener
+            int epochCount = 0;
 
-            if (terminate.get()) {
-                //Handle termination condition:
-                log.info("Hit per iteration termination condition at epoch {}, iteration {}. Reason: {}", epochCount,
-                                iterCount, terminationReason);
-
-                if (esConfig.isSaveLastModel()) {
-                    //Save last model:
-                    try {
-                        esConfig.getModelSaver().saveLatestModel(model, 0.0);
-                    } catch (IOException e) {
-                        throw new RuntimeException("Error saving most recent model", e);
-                    }
-                }
-
-                T bestModel;
+            // iterate through epochs
+            while (true) {
+                // note that we don't call train.reset() because ParallelWrapper does it already
                 try {
-                    bestModel = esConfig.getModelSaver().getBestModel();
-                } catch (IOException e2) {
-                    throw new RuntimeException(e2);
-                }
-
-                if (bestModel == null) {
-                    //Could occur with very early termination
-                    bestModel = model;
-                }
-
-                EarlyStoppingResult<T> result = new EarlyStoppingResult<>(
-                                EarlyStoppingResult.TerminationReason.IterationTerminationCondition,
-                                terminationReason.toString(), scoreVsEpoch, bestModelEpoch, bestModelScore, epochCount,
-                                bestModel);
-                if (listener != null) {
-                    listener.onCompletion(result);
-                }
-
-                // clean up
-                wrapper.shutdown();
-                this.wrapper = null;
-
-                return result;
-            }
-
-            log.info("Completed training epoch {}", epochCount);
-
-
-            if ((epochCount == 0 && esConfig.getEvaluateEveryNEpochs() == 1)
-                            || epochCount % esConfig.getEvaluateEveryNEpochs() == 0) {
-                //Calculate score at this epoch:
-                ScoreCalculator sc = esConfig.getScoreCalculator();
-                double score = (sc == null ? 0.0 : esConfig.getScoreCalculator().calculateScore(model));
-                scoreVsEpoch.put(epochCount - 1, score);
-
-                if (sc != null && score < bestModelScore) {
-                    //Save best model:
-                    if (bestModelEpoch == -1) {
-                        //First calculated/reported score
-                        log.info("Score at epoch {}: {}", epochCount, score);
-                    } else {
-                        log.info("New best model: score = {}, epoch = {} (previous: score = {}, epoch = {})", score,
-                                        epochCount, bestModelScore, bestModelEpoch);
-                    }
-                    bestModelScore = score;
-                    bestModelEpoch = epochCount;
-
+                    if (train != null) {
+                        wrapper.fit(train);
+                    } else
+                        wrapper.fit(trainMulti);
+                } catch (Exception e) {
+                    log.warn("Early stopping training terminated due to exception at epoch {}, iteration {}",
+                                    epochCount, iterCount, e);
+                    //Load best model to return
+                    T bestModel;
                     try {
-                        esConfig.getModelSaver().saveBestModel(model, score);
-                    } catch (IOException e) {
-                        throw new RuntimeException("Error saving best model", e);
+                        bestModel = esConfig.getModelSaver().getBestModel();
+                    } catch (IOException e2) {
+                        throw new RuntimeException(e2);
                     }
+                    return new EarlyStoppingResult<>(EarlyStoppingResult.TerminationReason.Error, e.toString(),
+                                    scoreVsEpoch, scoring.getBestModelEpoch(), scoring.getBestModelScore(),
+                                    epochCount, bestModel);
                 }
 
-                if (esConfig.isSaveLastModel()) {
-                    //Save last model:
-                    try {
-                        esConfig.getModelSaver().saveLatestModel(model, score);
-                    } catch (IOException e) {
-                        throw new RuntimeException("Error saving most recent model", e);
+                // score of the previous epoch was calculated while this epoch was trained
+                EarlyStoppingResult<T> pendingResult = scoring.awaitPending(scoreVsEpoch);
+                if (pendingResult != null)
+                    return onEpochTermination(pendingResult);
+
+                if (terminate.get()) {
+                    //Handle termination condition:
+                    log.info("Hit per iteration termination condition at epoch {}, iteration {}. Reason: {}",
+                                    epochCount, iterCount, terminationReason);
+
+                    if (esConfig.isSaveLastModel()) {
+                        //Save last model:
+                        try {
+                            esConfig.getModelSaver().saveLatestModel(model, 0.0);
+                        } catch (IOException e) {
+                            throw new RuntimeException("Error saving most recent model", e);
+                        }
                     }
-                }
 
-                if (listener != null) {
-                    listener.onEpoch(epochCount, score, esConfig, model);
-                }
-
-                //Check per-epoch termination conditions:
-                boolean epochTerminate = false;
-                EpochTerminationCondition termReason = null;
-                for (EpochTerminationCondition c : esConfig.getEpochTerminationConditions()) {
-                    if (c.terminate(epochCount, score)) {
-                        epochTerminate = true;
-                        termReason = c;
-                        wrapper.stopFit();
-                        break;
-                    }
-                }
-                if (epochTerminate) {
-                    log.info("Hit epoch termination condition at epoch {}. Details: {}", epochCount,
-                                    termReason.toString());
                     T bestModel;
                     try {
                         bestModel = esConfig.getModelSaver().getBestModel();
                     } catch (IOException e2) {
                         throw new RuntimeException(e2);
                     }
+
+                    if (bestModel == null) {
+                        //Could occur with very early termination
+                        bestModel = model;
+                    }
+
                     EarlyStoppingResult<T> result = new EarlyStoppingResult<>(
-                                    EarlyStoppingResult.TerminationReason.EpochTerminationCondition,
-                                    termReason.toString(), scoreVsEpoch, bestModelEpoch, bestModelScore, epochCount + 1,
-                                    bestModel);
+                                    EarlyStoppingResult.TerminationReason.IterationTerminationCondition,
+                                    terminationReason.toString(), scoreVsEpoch, scoring.getBestModelEpoch(),
+                                    scoring.getBestModelScore(), epochCount, bestModel);
                     if (listener != null) {
                         listener.onCompletion(result);
                     }
@@ -285,11 +216,34 @@ public class EarlyStoppingParallelTrainer<T extends Model> implements IEarlyStop
 
                     return result;
                 }
+
+                log.info("Completed training epoch {}", epochCount);
+
+
+                if ((epochCount == 0 && esConfig.getEvaluateEveryNEpochs() == 1)
+                                || epochCount % esConfig.getEvaluateEveryNEpochs() == 0) {
+                    EarlyStoppingResult<T> result = scoring.score(epochCount, model, scoreVsEpoch);
+                    if (result != null)
+                        return onEpochTermination(result);
+                }
+                epochCount++;
             }
-            epochCount++;
+        } finally {
+            scoring.shutdown();
         }
     }
 
+    /**
+     * This method stops and releases ParallelWrapper once epoch termination condition was hit
+     */
+    protected EarlyStoppingResult<T> onEpochTermination(EarlyStoppingResult<T> result) {
+        wrapper.stopFit();
+        wrapper.shutdown();
+        this.wrapper = null;
+
+        return result;
+    }
+
     public void setLatestScore(double latestScore) {
         this.latestScore.set(latestScore);
     }
@@ -357,6 +311,7 @@ public class EarlyStoppingParallelTrainer<T extends Model> implements IEarlyStop
     @Override
     public void setListener(EarlyStoppingListener<T> listener) {
         this.listener = listener;
+        this.scoring.setListener(listener);
     }
 
     protected void reset() {
@@ -7,7 +7,9 @@ import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.parallelism.inference.InferenceMetrics;
 import org.deeplearning4j.parallelism.inference.InferenceMode;
+import org.deeplearning4j.parallelism.inference.observers.AsyncInferenceObserver;
 import org.deeplearning4j.parallelism.inference.observers.BasicInferenceObservable;
 import org.deeplearning4j.parallelism.inference.observers.BasicInferenceObserver;
 import org.deeplearning4j.parallelism.inference.InferenceObservable;
@@ -17,11 +19,15 @@ import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.factory.Nd4j;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Observer;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * This class is simple wrapper for ParallelInference using batched input
@@ -37,6 +43,10 @@ public class ParallelInference {
     private int batchLimit;
     private InferenceMode inferenceMode;
     private int queueLimit;
+    private long targetLatency;
+    private boolean sharedParams;
+    // read-only params used by all workers, if sharedParams is enabled
+    private volatile INDArray sharedParamsArray;
 
     // this queue
     private BlockingQueue<InferenceObservable> observables;
@@ -46,6 +56,12 @@ public class ParallelInference {
 
     private InferenceWorker[] zoo;
     private ObservablesProvider provider;
+    private InferenceMetrics metrics;
+    private AtomicLong modelVersion = new AtomicLong(0);
+    private AtomicBoolean isShutdown = new AtomicBoolean(false);
+    // requests are submitted under read lock, shutdown flag is set under write lock: once shutdown() drains the
+    // queue, nothing else can be put there
+    private final ReentrantReadWriteLock shutdownLock = new ReentrantReadWriteLock();
 
 
     protected ParallelInference() {
@@ -54,22 +70,149 @@ public class ParallelInference {
 
     protected void init() {
         observables = new LinkedBlockingQueue<>(queueLimit);
+        metrics = new InferenceMetrics(workers, batchLimit);
+
+        if (sharedParams) {
+            if (Nd4j.getAffinityManager().getNumberOfDevices() > 1) {
+                log.warn("Shared parameters can't be used with multiple devices, each worker will use its own copy of parameters");
+                sharedParams = false;
+            } else {
+                // we dup params here, so original model is free to be trained further
+                sharedParamsArray = model.params().dup();
+
+                if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                    ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+            }
+        }
+
+        if (inferenceMode == InferenceMode.BATCHED) {
+            log.info("Initializing ObservablesProvider...");
+            provider = new ObservablesProvider(nanos, batchLimit, targetLatency, observables);
+        }
 
         zoo = new InferenceWorker[workers];
         for (int i = 0; i < workers; i++) {
             zoo[i] = new InferenceWorker(i, model, observables);
             zoo[i].start();
         }
+    }
 
+    protected long getWorkerCounter(int workerIdx) {
+        return zoo[workerIdx].getCounterValue();
+    }
 
-        if (inferenceMode == InferenceMode.BATCHED) {
-            log.info("Initializing ObservablesProvider...");
-            provider = new ObservablesProvider(nanos, batchLimit, observables);
+    protected long getWorkerModelVersion(int workerIdx) {
+        return zoo[workerIdx].getModelVersion();
+    }
+
+    protected boolean isWorkerUsingSharedParams(int workerIdx) {
+        return sharedParamsArray != null && zoo[workerIdx].isUsingParams(sharedParamsArray);
+    }
+
+    /**
+     * This method returns version of the model, i.e. number of {@link #updateModel(Model)} calls
+     *
+     * @return
+     */
+    public long getModelVersion() {
+        return modelVersion.get();
+    }
+
+    /**
+     * This method updates model used for inference, without stopping workers.
+     *
+     * Parameters of given model are copied into a staging buffer, and each worker copies them into its replica
+     * right before processing next batch. Batches that are being processed at the moment of this call will be
+     * finished with old parameters, so no requests are dropped.
+     * If shared parameters are used, workers switch to staging buffer instead of copying it, and previous buffer
+     * is released once all workers switched.
+     *
+     * PLEASE NOTE: New model should have exactly the same configuration as model this ParallelInference was built
+     * with: only parameters are updated.
+     *
+     * @param model model with updated parameters
+     */
+    public void updateModel(@NonNull Model model) {
+        if (isShutdown.get())
+            throw new IllegalStateException("ParallelInference was shut down");
+
+        if (model.getClass() != this.model.getClass())
+            throw new IllegalArgumentException("Model type [" + model.getClass().getSimpleName()
+                    + "] doesn't match original model type [" + this.model.getClass().getSimpleName() + "]");
+
+        if (model.numParams() != this.model.numParams())
+            throw new IllegalArgumentException("Number of model params [" + model.numParams()
+                    + "] doesn't match original number of params [" + this.model.numParams() + "]");
+
+        synchronized (locker) {
+            // we dup params here, so caller is free to keep training its model
+            INDArray params = model.params().dup();
+
+            if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+
+            long version = modelVersion.incrementAndGet();
+            for (InferenceWorker worker : zoo)
+                worker.stageParams(version, params);
+
+            this.model = model;
+            if (sharedParams)
+                sharedParamsArray = params;
         }
     }
 
-    protected long getWorkerCounter(int workerIdx) {
-        return zoo[workerIdx].getCounterValue();
+    /**
+     * This method stops all inference workers. Requests that are being processed at the moment are finished,
+     * and requests still waiting in the queue are completed with exception.
+     */
+    public void shutdown() {
+        shutdownLock.writeLock().lock();
+        try {
+            if (!isShutdown.compareAndSet(false, true))
+                return;
+        } finally {
+            shutdownLock.writeLock().unlock();
+        }
+
+        for (InferenceWorker worker : zoo)
+            worker.shutdown();
+
+        List<InferenceObservable> pending = new ArrayList<>();
+        observables.drainTo(pending);
+        for (InferenceObservable observable : pending)
+            observable.setOutputException(new IllegalStateException("ParallelInference was shut down"));
+    }
+
+    public boolean isShutdown() {
+        return isShutdown.get();
+    }
+
+    /**
+     * This method returns batch size histogram and per-worker latency metrics
+     *
+     * @return
+     */
+    public InferenceMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * This method returns number of batches (or individual requests in SEQUENTIAL mode) waiting for a free worker
+     *
+     * @return
+     */
+    public int getQueueDepth() {
+        return observables.size();
+    }
+
+    /**
+     * This method returns current batch size limit. In BATCHED mode with latency target specified,
+     * this value is adjusted to keep p99 batch latency below target.
+     *
+     * @return
+     */
+    public int getCurrentBatchLimit() {
+        return provider == null ? batchLimit : provider.getCurrentBatchLimit();
     }
 
     public INDArray output(double[] input) {
@@ -95,16 +238,24 @@ public class ParallelInference {
         BasicInferenceObserver observer = new BasicInferenceObserver();
         InferenceObservable observable;
 
-        if (inferenceMode == InferenceMode.SEQUENTIAL) {
-            observable = new BasicInferenceObservable(input);
-            observable.addObserver(observer);
-            try {
-                observables.put(observable);
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+        shutdownLock.readLock().lock();
+        try {
+            if (isShutdown.get())
+                throw new IllegalStateException("ParallelInference was shut down");
+
+            if (inferenceMode == InferenceMode.SEQUENTIAL) {
+                observable = new BasicInferenceObservable(input);
+                observable.addObserver(observer);
+                try {
+                    observables.put(observable);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            } else {
+                observable = provider.setInput(observer, input);
             }
-        } else {
-            observable = provider.setInput(observer, input);
+        } finally {
+            shutdownLock.readLock().unlock();
         }
 
 
@@ -121,9 +272,50 @@ public class ParallelInference {
                 throw new RuntimeException(e);
         }
 
+        if (observable.getOutputException() != null)
+            throw new RuntimeException(observable.getOutputException());
+
         return observable.getOutput();
     }
 
+    /**
+     * This method submits input for inference, and returns immediately.
+     * Returned future is completed from inference worker thread once output is available, or completed
+     * exceptionally if inference failed, or if this ParallelInference was shut down before processing the input.
+     *
+     * PLEASE NOTE: this method will block only if inference queue is full (see {@link Builder#queueLimit(int)})
+     *
+     * @param input
+     * @return
+     */
+    public CompletableFuture<INDArray[]> outputAsync(INDArray... input) {
+        shutdownLock.readLock().lock();
+        try {
+            if (isShutdown.get()) {
+                CompletableFuture<INDArray[]> future = new CompletableFuture<>();
+                future.completeExceptionally(new IllegalStateException("ParallelInference was shut down"));
+                return future;
+            }
+
+            if (inferenceMode == InferenceMode.SEQUENTIAL) {
+                AsyncInferenceObserver observer = new AsyncInferenceObserver();
+                InferenceObservable observable = new BasicInferenceObservable(input);
+                observable.addObserver(observer);
+                try {
+                    observables.put(observable);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    observer.getFuture().completeExceptionally(e);
+                }
+                return observer.getFuture();
+            } else {
+                return provider.setInputAsync(input);
+            }
+        } finally {
+            shutdownLock.readLock().unlock();
+        }
+    }
+
 
     public static class Builder {
         private Model model;
@@ -133,6 +325,8 @@ public class ParallelInference {
         private int batchLimit = 32;
         private InferenceMode inferenceMode = InferenceMode.SEQUENTIAL;
         private int queueLimit = 64;
+        private long targetLatency = 0;
+        private boolean sharedParams = false;
 
         public Builder(@NonNull ComputationGraph model) {
             this.model = model;
@@ -218,6 +412,43 @@ public class ParallelInference {
             return this;
         }
 
+        /**
+         * This method defines target p99 latency of a single batch. If specified, batch size in BATCHED mode is
+         * adjusted within 1..batchLimit range, based on latency observed for recent batches.
+         *
+         * PLEASE NOTE: This value has no effect in SEQUENTIAL inference mode
+         *
+         * Default value: 0, batch size isn't adjusted
+         *
+         * @param time
+         * @param timeUnit
+         * @return
+         */
+        public Builder targetLatency(long time, @NonNull TimeUnit timeUnit) {
+            if (time < 0)
+                throw new IllegalStateException("Target latency can't be negative");
+
+            this.targetLatency = timeUnit.toNanos(time);
+            return this;
+        }
+
+        /**
+         * This method allows to use single parameters array for all workers, instead of giving each worker its own
+         * copy. Parameters aren't modified during inference, so only activations and workspaces have to be
+         * thread-local. This reduces memory use by a factor equal to number of workers, and improves cache use.
+         *
+         * PLEASE NOTE: This option is suitable for CPU backend only. On systems with multiple devices it's ignored.
+         *
+         * Default value: false
+         *
+         * @param reallyShare
+         * @return
+         */
+        public Builder sharedParams(boolean reallyShare) {
+            this.sharedParams = reallyShare;
+            return this;
+        }
+
         /**
          * This method builds new ParallelInference instance
          *
@@ -232,6 +463,8 @@ public class ParallelInference {
             inference.model = this.model;
             inference.nanos = this.nanos;
             inference.workers = this.workers;
+            inference.targetLatency = this.targetLatency;
+            inference.sharedParams = this.sharedParams;
 
             inference.init();
 
@@ -249,12 +482,17 @@ public class ParallelInference {
         private AtomicBoolean shouldWork = new AtomicBoolean(true);
         private AtomicBoolean isStopped = new AtomicBoolean(false);
         private Model protoModel;
-        private Model replicatedModel;
+        private volatile Model replicatedModel;
         private AtomicLong counter = new AtomicLong(0);
+        private int workerId;
+        // params staged by updateModel(), and version of params currently used by replica
+        private AtomicReference<StagedParams> stagedParams = new AtomicReference<>();
+        private volatile long modelVersion = 0;
 
         private InferenceWorker (int id, @NonNull Model model, @NonNull BlockingQueue inputQueue) {
             this.inputQueue = inputQueue;
             this.protoModel = model;
+            this.workerId = id;
 
             this.setDaemon(true);
             this.setName("InferenceThread-"+id);
@@ -264,11 +502,66 @@ public class ParallelInference {
             return counter.get();
         }
 
+        protected long getModelVersion() {
+            return modelVersion;
+        }
+
+        /**
+         * This method creates model replica that uses given params array as is, without copying it
+         */
+        protected Model createReplica(INDArray params) {
+            if (protoModel instanceof ComputationGraph) {
+                ComputationGraph graph = new ComputationGraph(ComputationGraphConfiguration.fromJson(((ComputationGraph) protoModel).getConfiguration().toJson()));
+                graph.init(params, false);
+                return graph;
+            } else if (protoModel instanceof MultiLayerNetwork) {
+                MultiLayerNetwork network = new MultiLayerNetwork(MultiLayerConfiguration.fromJson(((MultiLayerNetwork) protoModel).getLayerWiseConfigurations().toJson()));
+                network.init(params, false);
+                return network;
+            }
+            throw new IllegalStateException("Unsupported model type: " + protoModel.getClass().getSimpleName());
+        }
+
+        protected boolean isUsingParams(INDArray params) {
+            return replicatedModel != null && replicatedModel.params() == params;
+        }
+
+        protected void stageParams(long version, INDArray params) {
+            stagedParams.set(new StagedParams(version, params));
+        }
+
+        /**
+         * This method swaps replica params with staged ones, if there are any. Called between batches only.
+         */
+        protected void swapParamsIfNeeded() {
+            StagedParams staged = stagedParams.getAndSet(null);
+            if (staged == null)
+                return;
+
+            if (sharedParams) {
+                // staged params are shared by all workers, so we can't copy them into current params array:
+                // other workers might be using it right now. Replica is rebuilt on top of staged params instead
+                replicatedModel = createReplica(staged.params);
+            } else
+                replicatedModel.setParams(staged.params);
+
+            if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+
+            modelVersion = staged.version;
+        }
+
         @Override
         public void run() {
             try {
                 // model should be replicated & initialized here
-                if (protoModel instanceof ComputationGraph) {
+                if (sharedParams) {
+                    INDArray params;
+                    synchronized (locker) {
+                        params = sharedParamsArray;
+                    }
+                    this.replicatedModel = createReplica(params);
+                } else if (protoModel instanceof ComputationGraph) {
                     this.replicatedModel = new ComputationGraph(ComputationGraphConfiguration.fromJson(((ComputationGraph) protoModel).getConfiguration().toJson()));
                     ((ComputationGraph)this.replicatedModel).init();
 
@@ -291,21 +584,36 @@ public class ParallelInference {
                 }
 
                 while (shouldWork.get()) {
-                    InferenceObservable request = inputQueue.take();
+                    // we don't block forever here, to be able to notice shutdown request
+                    InferenceObservable request = inputQueue.poll(100, TimeUnit.MILLISECONDS);
+
+                    swapParamsIfNeeded();
 
                     if (request != null) {
                         counter.incrementAndGet();
 
-                        // FIXME: get rid of instanceof here, model won't change during runtime anyway
-                        if (replicatedModel instanceof ComputationGraph) {
-                            INDArray[] output = ((ComputationGraph) replicatedModel).output(false, request.getInput());
-                            request.setOutput(output);
-                        } else if (replicatedModel instanceof MultiLayerNetwork) {
-                           INDArray output = ((MultiLayerNetwork) replicatedModel).output(request.getInput()[0]);
-                           request.setOutput(output);
+                        long time1 = System.nanoTime();
+                        INDArray[] output = null;
+                        try {
+                            // FIXME: get rid of instanceof here, model won't change during runtime anyway
+                            if (replicatedModel instanceof ComputationGraph) {
+                                output = ((ComputationGraph) replicatedModel).output(false, request.getInput());
+                            } else if (replicatedModel instanceof MultiLayerNetwork) {
+                                output = new INDArray[] {((MultiLayerNetwork) replicatedModel).output(request.getInput()[0])};
+                            }
+                        } catch (Exception e) {
+                            log.error("Inference failed", e);
+                            request.setOutputException(e);
+                            continue;
                         }
+                        long time2 = System.nanoTime() - time1;
 
+                        int batchSize = request instanceof BatchedInferenceObservable ? ((BatchedInferenceObservable) request).getCounter() : 1;
+                        metrics.recordBatch(workerId, batchSize, time2);
+                        if (provider != null)
+                            provider.recordBatchLatency(time2);
 
+                        request.setOutput(output);
                     } else {
                         // just do nothing, i guess and hope for next round?
                     }
@@ -314,54 +622,147 @@ public class ParallelInference {
                 // do nothing
             } catch (Exception e) {
                 throw new RuntimeException(e);
+            } finally {
+                isStopped.set(true);
             }
-            isStopped.set(true);
         }
 
         protected void shutdown() {
             shouldWork.set(false);
-            while (!isStopped.get()){
+
+            // shutdown might be called from the worker thread itself, i.e. from CompletableFuture callback
+            if (Thread.currentThread() == this)
+                return;
+
+            try {
                 // block until main loop is finished
+                this.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
     }
 
+    private static class StagedParams {
+        private final long version;
+        private final INDArray params;
+
+        private StagedParams(long version, INDArray params) {
+            this.version = version;
+            this.params = params;
+        }
+    }
+
 
     protected static class ObservablesProvider {
+        // number of batches used to estimate p99 latency
+        protected static final int LATENCY_WINDOW = 100;
+
         private BlockingQueue<InferenceObservable> targetQueue;
         private long nanos;
         private int batchLimit;
+        private long targetLatency;
+        private volatile int currentBatchLimit;
+        private final long[] latencies = new long[LATENCY_WINDOW];
+        private int latencyCounter = 0;
 
         private volatile BatchedInferenceObservable currentObservable;
         private final Object locker = new Object();
 
         protected ObservablesProvider(long nanos, int batchLimit, @NonNull BlockingQueue<InferenceObservable> queue) {
+            this(nanos, batchLimit, 0, queue);
+        }
+
+        protected ObservablesProvider(long nanos, int batchLimit, long targetLatency, @NonNull BlockingQueue<InferenceObservable> queue) {
             this.targetQueue = queue;
             this.nanos = nanos;
             this.batchLimit = batchLimit;
+            this.targetLatency = targetLatency;
+            this.currentBatchLimit = batchLimit;
         }
 
 
         protected InferenceObservable setInput(@NonNull Observer observer, INDArray... input) {
             synchronized (locker) {
-                boolean isNew = false;
-                if (currentObservable == null || currentObservable.getCounter() >= batchLimit || currentObservable.isLocked()) {
-                    isNew = true;
-                    currentObservable = new BatchedInferenceObservable();
-                }
+                boolean isNew = prepareObservable();
 
-                currentObservable.setInput(input);
+                // observer has to be attached before setInput(): once it releases the lock taken in prepareObservable(),
+                // already queued batch can be processed, and output might be ready before we return
                 currentObservable.addObserver(observer);
+                currentObservable.setInput(input);
 
-                try {
-                    if (isNew)
-                        targetQueue.put(currentObservable);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
+                enqueue(isNew);
 
                 return currentObservable;
             }
         }
+
+        protected CompletableFuture<INDArray[]> setInputAsync(INDArray... input) {
+            synchronized (locker) {
+                boolean isNew = prepareObservable();
+
+                // observer has to be attached before setInput(), see setInput(Observer, ...). Inputs are only added
+                // under this lock, so position of this input is the current counter value
+                AsyncInferenceObserver observer = new AsyncInferenceObserver(currentObservable.getCounter());
+                currentObservable.addObserver(observer);
+                currentObservable.setInput(input);
+
+                enqueue(isNew);
+
+                return observer.getFuture();
+            }
+        }
+
+        private boolean prepareObservable() {
+            if (currentObservable == null || currentObservable.getCounter() >= currentBatchLimit || currentObservable.isLocked()) {
+                currentObservable = new BatchedInferenceObservable();
+                return true;
+            }
+            return false;
+        }
+
+        private void enqueue(boolean isNew) {
+            try {
+                if (isNew)
+                    targetQueue.put(currentObservable);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        protected int getCurrentBatchLimit() {
+            return currentBatchLimit;
+        }
+
+        /**
+         * This method adjusts batch limit once per LATENCY_WINDOW batches: if p99 latency exceeds target,
+         * batch limit is decreased by 25%. If p99 latency is below 80% of target, batch limit is increased by 1.
+         *
+         * @param latency latency of single batch, in nanoseconds
+         */
+        protected void recordBatchLatency(long latency) {
+            if (targetLatency <= 0)
+                return;
+
+            synchronized (latencies) {
+                latencies[latencyCounter++] = latency;
+                if (latencyCounter < latencies.length)
+                    return;
+
+                latencyCounter = 0;
+                long p99 = InferenceMetrics.percentile(Arrays.copyOf(latencies, latencies.length), 99);
+
+                int limit = currentBatchLimit;
+                if (p99 > targetLatency)
+                    limit = Math.max(1, limit - Math.max(1, limit / 4));
+                else if (p99 < targetLatency * 0.8)
+                    limit = Math.min(batchLimit, limit + 1);
+
+                if (limit != currentBatchLimit)
+                    log.debug("p99 batch latency: {} ns, target: {} ns; batch limit: {} -> {}", p99, targetLatency, currentBatchLimit, limit);
+
+                currentBatchLimit = limit;
+            }
+        }
     }
 }
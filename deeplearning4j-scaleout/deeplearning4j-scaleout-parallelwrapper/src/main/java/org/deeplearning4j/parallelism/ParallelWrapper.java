@@ -15,8 +15,17 @@ import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.updater.graph.ComputationGraphUpdater;
 import org.deeplearning4j.optimize.api.IterationListener;
+import org.deeplearning4j.parallelism.affinity.CpuPlacement;
+import org.deeplearning4j.parallelism.affinity.NumaStats;
+import org.deeplearning4j.parallelism.affinity.NumaTopology;
+import org.deeplearning4j.parallelism.affinity.ThreadPinning;
+import org.deeplearning4j.parallelism.dispatch.BatchCostEstimator;
+import org.deeplearning4j.parallelism.dispatch.TimeStepsCostEstimator;
 import org.deeplearning4j.parallelism.factory.DefaultTrainerContext;
 import org.deeplearning4j.parallelism.factory.TrainerContext;
+import org.deeplearning4j.parallelism.gradients.SharedParameters;
+import org.deeplearning4j.parallelism.gradients.WorkerStats;
+import org.deeplearning4j.parallelism.trainer.DefaultTrainer;
 import org.deeplearning4j.parallelism.trainer.Trainer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.api.DataSet;
@@ -30,23 +39,48 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * This is simple data-parallel wrapper
  * suitable for multi-cpu/multi-gpu environments.
  *
- * PLEASE NOTE: This implementation is NOT NUMA-aware.
+ * On multi-socket CPU hosts trainers can be pinned to NUMA nodes, see {@link CpuPlacement}.
  *
  * @author raver119@gmail.com
  */
-// TODO: We want this thing to be NUMA-aware in foreseable future
 @Slf4j
 @Data
 public class ParallelWrapper implements AutoCloseable {
+
+    public enum TrainingMode {
+        /**
+         * Each worker gets one DataSet per iteration, and after all workers are done, models are averaged
+         */
+        AVERAGING,
+
+        /**
+         * Workers pull DataSets from shared queue independently, and exchange updates asynchronously
+         * through shared parameters, without any barriers. See {@link SharedParameters} for details.
+         */
+        SHARED_GRADIENTS,
+
+        /**
+         * Workers pull DataSets from shared queue independently, and train the same parameters array directly:
+         * worker replicas use parameters of the original model as their own params view, without any copies or locks.
+         * Each worker keeps its own gradients, updater state and workspaces. Suitable for CPU backend only.
+         */
+        HOGWILD,
+    }
+
     protected Model model;
     protected int workers = 2;
     protected int prefetchSize = 2;
@@ -64,6 +98,18 @@ public class ParallelWrapper implements AutoCloseable {
     protected boolean isMQ;
     protected WorkspaceMode workspaceMode;
     private Object[] trainerContextArgs;
+    protected TrainingMode trainingMode = TrainingMode.AVERAGING;
+    protected double gradientsThreshold = 0.0;
+    protected int maxStaleness = 0;
+    protected SharedParameters sharedParameters;
+    protected LinkedBlockingQueue<DataSet> sharedQueue;
+    protected LinkedBlockingQueue<MultiDataSet> sharedQueueMDS;
+    protected AtomicInteger sharedRunning;
+    protected boolean workStealing = false;
+    protected BatchCostEstimator batchCostEstimator;
+    protected CpuPlacement cpuPlacement = CpuPlacement.NONE;
+    protected NumaTopology numaTopology;
+    protected NumaStats numaBaseline;
 
     private MagicQueue mq;
 
@@ -126,23 +172,69 @@ public class ParallelWrapper implements AutoCloseable {
         createZooIfNeccessary(true);
         source.reset();
 
+        // prefetch thread inherits affinity of the thread that creates it
+        String previousAffinity = pinForPrefetch();
         MultiDataSetIterator iterator;
-        if (prefetchSize > 0 && source.asyncSupported()) {
-            if (isMQ) {
-                if (workers % Nd4j.getAffinityManager().getNumberOfDevices() != 0)
-                    log.warn("Number of workers [{}] isn't optimal for available devices [{}]", workers,
-                            Nd4j.getAffinityManager().getNumberOfDevices());
-
-                if (mq == null)
-                    mq = new MagicQueue.Builder().setCapacityPerFlow(prefetchSize).setMode(MagicQueue.Mode.SEQUENTIAL).setType(MagicQueue.Type.MDS)
-                            .setNumberOfBuckets(Nd4j.getAffinityManager().getNumberOfDevices()).build();
+        try {
+            if (prefetchSize > 0 && source.asyncSupported()) {
+                if (isMQ) {
+                    if (workers % Nd4j.getAffinityManager().getNumberOfDevices() != 0)
+                        log.warn("Number of workers [{}] isn't optimal for available devices [{}]", workers,
+                                Nd4j.getAffinityManager().getNumberOfDevices());
+
+                    if (mq == null)
+                        mq = new MagicQueue.Builder().setCapacityPerFlow(prefetchSize).setMode(MagicQueue.Mode.SEQUENTIAL).setType(MagicQueue.Type.MDS)
+                                .setNumberOfBuckets(Nd4j.getAffinityManager().getNumberOfDevices()).build();
+
+                    iterator = new AsyncMultiDataSetIterator(source, prefetchSize * workers, mq );
+                } else iterator = new AsyncMultiDataSetIterator(source, prefetchSize);
+            } else
+                iterator = source;
+        } finally {
+            restoreAffinity(previousAffinity);
+        }
 
-                iterator = new AsyncMultiDataSetIterator(source, prefetchSize * workers, mq );
-            } else iterator = new AsyncMultiDataSetIterator(source, prefetchSize);
-        } else
-            iterator = source;
+        if (trainingMode != TrainingMode.AVERAGING) {
+            if (!(model instanceof ComputationGraph))
+                throw new RuntimeException("MultiDataSet must only be used with ComputationGraph model");
+
+            while (iterator.hasNext() && !stopFit.get()) {
+                MultiDataSet dataSet = iterator.next();
+                if (dataSet == null)
+                    throw new ND4JIllegalStateException("You can't have NULL as MultiDataSet");
+
+                dispatchShared(sharedQueueMDS, dataSet);
+                iterationsCounter.incrementAndGet();
+            }
+            finishSharedFit(sharedQueueMDS);
+            return;
+        }
+
+        if (workStealing) {
+            if (!(model instanceof ComputationGraph))
+                throw new RuntimeException("MultiDataSet must only be used with ComputationGraph model");
+
+            List<MultiDataSet> round = new ArrayList<>();
+            List<Double> costs = new ArrayList<>();
+            while (iterator.hasNext() && !stopFit.get()) {
+                MultiDataSet dataSet = iterator.next();
+                if (dataSet == null)
+                    throw new ND4JIllegalStateException("You can't have NULL as MultiDataSet");
+
+                round.add(dataSet);
+                costs.add(batchCostEstimator.cost(dataSet));
+                if (round.size() == workers * averagingFrequency || !iterator.hasNext()) {
+                    fitRound(sharedQueueMDS, round, costs);
+                    round.clear();
+                    costs.clear();
+                }
+            }
+            finishWorkStealingFit();
+            return;
+        }
 
         AtomicInteger locker = new AtomicInteger(0);
+        long roundStart = 0;
 
         while (iterator.hasNext() && !stopFit.get()) {
             MultiDataSet dataSet = iterator.next();
@@ -154,6 +246,8 @@ public class ParallelWrapper implements AutoCloseable {
              now dataSet should be dispatched to next free workers, until all workers are busy. And then we should block till all finished.
             */
             int pos = locker.getAndIncrement();
+            if (pos == 0)
+                roundStart = System.nanoTime();
             zoo[pos].feedMultiDataSet(dataSet);
 
             /*
@@ -170,25 +264,18 @@ public class ParallelWrapper implements AutoCloseable {
                     }
                 }
 
+                recordIdleTime(roundStart, System.nanoTime());
+
                 Nd4j.getMemoryManager().invokeGcOccasionally();
 
                 /*
                     average model, and propagate it to whole
                 */
                 if (iterationsCounter.get() % averagingFrequency == 0 && pos + 1 == workers) {
-                    double score = getScore(locker);
-
-                    // averaging updaters state
-                    if (model instanceof ComputationGraph) {
-                        averageUpdatersState(locker, score);
-                    } else
+                    if (!(model instanceof ComputationGraph))
                         throw new RuntimeException("MultiDataSet must only be used with ComputationGraph model");
 
-                    if (legacyAveraging && Nd4j.getAffinityManager().getNumberOfDevices() > 1) {
-                        for (int cnt = 0; cnt < workers; cnt++) {
-                            zoo[cnt].updateModel(model);
-                        }
-                    }
+                    averageModels(firstTrainers(locker.get()));
                 }
                 locker.set(0);
             }
@@ -203,31 +290,30 @@ public class ParallelWrapper implements AutoCloseable {
         //        iterationsCounter.set(0);
     }
 
-    private double getScore(AtomicInteger locker) {
+    private double getScore(List<Trainer> active) {
         wasAveraged = true;
         double score = 0.0;
         if (!legacyAveraging || Nd4j.getAffinityManager().getNumberOfDevices() == 1) {
             List<INDArray> params = new ArrayList<>();
-            for (int cnt = 0; cnt < workers && cnt < locker.get(); cnt++) {
-                params.add(zoo[cnt].getModel().params());
-                score += zoo[cnt].getModel().score();
+            for (Trainer trainer : active) {
+                params.add(trainer.getModel().params());
+                score += trainer.getModel().score();
             }
 
             Nd4j.averageAndPropagate(model.params(), params);
         }
         else {
             INDArray params = Nd4j.zeros(model.params().shape());
-            int cnt = 0;
-            for (; cnt < workers && cnt < locker.get(); cnt++) {
-                params.addi(zoo[cnt].getModel().params());
-                score += zoo[cnt].getModel().score();
+            for (Trainer trainer : active) {
+                params.addi(trainer.getModel().params());
+                score += trainer.getModel().score();
             }
 
-            params.divi(cnt);
+            params.divi(active.size());
             model.setParams(params);
         }
 
-        score /= Math.min(workers, locker.get());
+        score /= active.size();
 
         // TODO: improve this
         if (reportScore)
@@ -235,7 +321,7 @@ public class ParallelWrapper implements AutoCloseable {
         return score;
     }
 
-    private void averageUpdatersState(AtomicInteger locker, double score) {
+    private void averageUpdatersState(List<Trainer> active, double score) {
         if (averageUpdaters) {
             ComputationGraphUpdater updater = ((ComputationGraph) model).getUpdater();
             int batchSize = 0;
@@ -243,21 +329,20 @@ public class ParallelWrapper implements AutoCloseable {
             if (updater != null && updater.getStateViewArray() != null) {
                 if (!legacyAveraging || Nd4j.getAffinityManager().getNumberOfDevices() == 1) {
                     List<INDArray> updaters = new ArrayList<>();
-                    for (int cnt = 0; cnt < workers && cnt < locker.get(); cnt++) {
-                        ComputationGraph workerModel = (ComputationGraph) zoo[cnt].getModel();
+                    for (Trainer trainer : active) {
+                        ComputationGraph workerModel = (ComputationGraph) trainer.getModel();
                         updaters.add(workerModel.getUpdater().getStateViewArray());
                         batchSize += workerModel.batchSize();
                     }
                     Nd4j.averageAndPropagate(updater.getStateViewArray(), updaters);
                 } else {
                     INDArray state = Nd4j.zeros(updater.getStateViewArray().shape());
-                    int cnt = 0;
-                    for (; cnt < workers && cnt < locker.get(); cnt++) {
-                        ComputationGraph workerModel = (ComputationGraph) zoo[cnt].getModel();
+                    for (Trainer trainer : active) {
+                        ComputationGraph workerModel = (ComputationGraph) trainer.getModel();
                         state.addi(workerModel.getUpdater().getStateViewArray());
                         batchSize += workerModel.batchSize();
                     }
-                    state.divi(cnt);
+                    state.divi(active.size());
                     updater.setStateViewArray(state);
                 }
             }
@@ -266,6 +351,70 @@ public class ParallelWrapper implements AutoCloseable {
         ((ComputationGraph) model).setScore(score);
     }
 
+    private void averageUpdatersStateMLN(List<Trainer> active, double score) {
+        if (averageUpdaters) {
+            Updater updater = ((MultiLayerNetwork) model).getUpdater();
+            int batchSize = 0;
+
+            if (updater != null && updater.getStateViewArray() != null) {
+                if (!legacyAveraging || Nd4j.getAffinityManager().getNumberOfDevices() == 1) {
+                    List<INDArray> updaters = new ArrayList<>();
+                    for (Trainer trainer : active) {
+                        MultiLayerNetwork workerModel = (MultiLayerNetwork) trainer.getModel();
+                        updaters.add(workerModel.getUpdater().getStateViewArray());
+                        batchSize += workerModel.batchSize();
+                    }
+
+                    Nd4j.averageAndPropagate(updater.getStateViewArray(), updaters);
+                }
+                else {
+                    INDArray state = Nd4j.zeros(updater.getStateViewArray().shape());
+                    for (Trainer trainer : active) {
+                        MultiLayerNetwork workerModel = (MultiLayerNetwork) trainer.getModel();
+                        state.addi(workerModel.getUpdater().getStateViewArray().dup());
+                        batchSize += workerModel.batchSize();
+                    }
+                    state.divi(active.size());
+                    updater.setStateViewArray((MultiLayerNetwork) model, state, false);
+                }
+            }
+        }
+
+        ((MultiLayerNetwork) model).setScore(score);
+    }
+
+    /**
+     * This method averages models of given trainers, and propagates averaged model back to them
+     *
+     * @param active trainers that processed at least one DataSet since last averaging
+     */
+    private void averageModels(List<Trainer> active) {
+        double score = getScore(active);
+
+        // averaging updaters state
+        if (model instanceof MultiLayerNetwork) {
+            averageUpdatersStateMLN(active, score);
+        } else if (model instanceof ComputationGraph) {
+            averageUpdatersState(active, score);
+        }
+
+        if (legacyAveraging && Nd4j.getAffinityManager().getNumberOfDevices() > 1) {
+            for (int cnt = 0; cnt < workers; cnt++) {
+                zoo[cnt].updateModel(model);
+            }
+        } else if (active.size() < workers) {
+            // trainers that didn't take part in this round still hold previous model
+            for (int cnt = 0; cnt < workers; cnt++) {
+                if (!active.contains(zoo[cnt]))
+                    zoo[cnt].updateModel(model);
+            }
+        }
+    }
+
+    private List<Trainer> firstTrainers(int count) {
+        return Arrays.asList(zoo).subList(0, Math.min(workers, count));
+    }
+
 
     /**
      * This method allows you to specify IterationListeners for this model.
@@ -347,25 +496,65 @@ public class ParallelWrapper implements AutoCloseable {
         createZooIfNeccessary(false);
         source.reset();
 
+        // prefetch thread inherits affinity of the thread that creates it
+        String previousAffinity = pinForPrefetch();
         DataSetIterator iterator;
-        if (prefetchSize > 0 && source.asyncSupported()) {
-            if (isMQ) {
-                if (workers % Nd4j.getAffinityManager().getNumberOfDevices() != 0)
-                    log.warn("Number of workers [{}] isn't optimal for available devices [{}]", workers,
-                            Nd4j.getAffinityManager().getNumberOfDevices());
-
-                if (mq == null)
-                    mq = new MagicQueue.Builder().setCapacityPerFlow(prefetchSize).setMode(MagicQueue.Mode.SEQUENTIAL).setType(MagicQueue.Type.DS)
-                        .setNumberOfBuckets(Nd4j.getAffinityManager().getNumberOfDevices()).build();
+        try {
+            if (prefetchSize > 0 && source.asyncSupported()) {
+                if (isMQ) {
+                    if (workers % Nd4j.getAffinityManager().getNumberOfDevices() != 0)
+                        log.warn("Number of workers [{}] isn't optimal for available devices [{}]", workers,
+                                Nd4j.getAffinityManager().getNumberOfDevices());
+
+                    if (mq == null)
+                        mq = new MagicQueue.Builder().setCapacityPerFlow(prefetchSize).setMode(MagicQueue.Mode.SEQUENTIAL).setType(MagicQueue.Type.DS)
+                            .setNumberOfBuckets(Nd4j.getAffinityManager().getNumberOfDevices()).build();
 
-                iterator = new AsyncDataSetIterator(source, prefetchSize * workers, mq);
+                    iterator = new AsyncDataSetIterator(source, prefetchSize * workers, mq);
 
+                } else
+                    iterator = new AsyncDataSetIterator(source, prefetchSize * workers);
             } else
-                iterator = new AsyncDataSetIterator(source, prefetchSize * workers);
-        } else
-            iterator = source;
+                iterator = source;
+        } finally {
+            restoreAffinity(previousAffinity);
+        }
+
+        if (trainingMode != TrainingMode.AVERAGING) {
+            while (iterator.hasNext() && !stopFit.get()) {
+                DataSet dataSet = iterator.next();
+                if (dataSet == null)
+                    throw new ND4JIllegalStateException("You can't have NULL as DataSet");
+
+                dispatchShared(sharedQueue, dataSet);
+                iterationsCounter.incrementAndGet();
+            }
+            finishSharedFit(sharedQueue);
+            return;
+        }
+
+        if (workStealing) {
+            List<DataSet> round = new ArrayList<>();
+            List<Double> costs = new ArrayList<>();
+            while (iterator.hasNext() && !stopFit.get()) {
+                DataSet dataSet = iterator.next();
+                if (dataSet == null)
+                    throw new ND4JIllegalStateException("You can't have NULL as DataSet");
+
+                round.add(dataSet);
+                costs.add(batchCostEstimator.cost(dataSet));
+                if (round.size() == workers * averagingFrequency || !iterator.hasNext()) {
+                    fitRound(sharedQueue, round, costs);
+                    round.clear();
+                    costs.clear();
+                }
+            }
+            finishWorkStealingFit();
+            return;
+        }
 
         AtomicInteger locker = new AtomicInteger(0);
+        long roundStart = 0;
         while (iterator.hasNext() && !stopFit.get()) {
             DataSet dataSet = iterator.next();
 
@@ -379,6 +568,8 @@ public class ParallelWrapper implements AutoCloseable {
             if (zoo == null)
                 throw new IllegalStateException(
                         "ParallelWrapper.shutdown() has been called too early and will fail from this point forward.");
+            if (pos == 0)
+                roundStart = System.nanoTime();
             zoo[pos].feedDataSet(dataSet);
 
             /*
@@ -395,55 +586,15 @@ public class ParallelWrapper implements AutoCloseable {
                     }
                 }
 
+                recordIdleTime(roundStart, System.nanoTime());
+
                 Nd4j.getMemoryManager().invokeGcOccasionally();
 
                 /*
                     average model, and propagate it to whole
                 */
                 if (iterationsCounter.get() % averagingFrequency == 0 && pos + 1 == workers) {
-                    double score = getScore(locker);
-
-                    // averaging updaters state
-                    if (model instanceof MultiLayerNetwork) {
-                        if (averageUpdaters) {
-                            Updater updater = ((MultiLayerNetwork) model).getUpdater();
-                            int batchSize = 0;
-
-                            if (updater != null && updater.getStateViewArray() != null) {
-                                if (!legacyAveraging || Nd4j.getAffinityManager().getNumberOfDevices() == 1) {
-                                    List<INDArray> updaters = new ArrayList<>();
-                                    for (int cnt = 0; cnt < workers && cnt < locker.get(); cnt++) {
-                                        MultiLayerNetwork workerModel = (MultiLayerNetwork) zoo[cnt].getModel();
-                                        updaters.add(workerModel.getUpdater().getStateViewArray());
-                                        batchSize += workerModel.batchSize();
-                                    }
-
-                                    Nd4j.averageAndPropagate(updater.getStateViewArray(), updaters);
-                                }
-                                else {
-                                    INDArray state = Nd4j.zeros(updater.getStateViewArray().shape());
-                                    int cnt = 0;
-                                    for (; cnt < workers && cnt < locker.get(); cnt++) {
-                                        MultiLayerNetwork workerModel = (MultiLayerNetwork) zoo[cnt].getModel();
-                                        state.addi(workerModel.getUpdater().getStateViewArray().dup());
-                                        batchSize += workerModel.batchSize();
-                                    }
-                                    state.divi(cnt);
-                                    updater.setStateViewArray((MultiLayerNetwork) model, state, false);
-                                }
-                            }
-                        }
-
-                        ((MultiLayerNetwork) model).setScore(score);
-                    } else if (model instanceof ComputationGraph) {
-                        averageUpdatersState(locker, score);
-                    }
-
-                    if (legacyAveraging && Nd4j.getAffinityManager().getNumberOfDevices() > 1) {
-                        for (int cnt = 0; cnt < workers; cnt++) {
-                            zoo[cnt].updateModel(model);
-                        }
-                    }
+                    averageModels(firstTrainers(locker.get()));
                 }
                 locker.set(0);
             }
@@ -458,8 +609,226 @@ public class ParallelWrapper implements AutoCloseable {
     }
 
 
+    /**
+     * This method puts DataSet into shared queue, blocking while queue is full
+     */
+    private <T> void dispatchShared(LinkedBlockingQueue<T> queue, T dataSet) {
+        if (zoo == null)
+            throw new IllegalStateException(
+                    "ParallelWrapper.shutdown() has been called too early and will fail from this point forward.");
+
+        sharedRunning.incrementAndGet();
+        try {
+            while (!queue.offer(dataSet, 100, TimeUnit.MILLISECONDS))
+                checkTrainers();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * This method blocks until all DataSets from shared queue are processed, and updates score of the model
+     */
+    private <T> void finishSharedFit(LinkedBlockingQueue<T> queue) {
+        // if fit was stopped, we don't want to process the rest of the queue
+        if (stopFit.get()) {
+            List<T> dropped = new ArrayList<>();
+            queue.drainTo(dropped);
+            sharedRunning.addAndGet(-dropped.size());
+        }
+
+        while (sharedRunning.get() > 0) {
+            checkTrainers();
+            LockSupport.parkNanos(50000L);
+        }
+
+        double score = 0.0;
+        for (int cnt = 0; cnt < workers; cnt++)
+            score += zoo[cnt].getModel().score();
+        score /= workers;
+
+        if (model instanceof MultiLayerNetwork)
+            ((MultiLayerNetwork) model).setScore(score);
+        else if (model instanceof ComputationGraph)
+            ((ComputationGraph) model).setScore(score);
+
+        if (reportScore)
+            log.info("Averaged score: " + score);
+
+        wasAveraged = true;
+
+        if (log.isDebugEnabled()) {
+            log.debug("Iterations passed: {}", iterationsCounter.get());
+            if (sharedParameters != null)
+                log.debug("Shared parameters version: {}", sharedParameters.getVersion());
+            for (WorkerStats stats : getWorkerStats())
+                log.debug("{}", stats);
+            if (numaBaseline != null)
+                log.debug("{}", getNumaStats());
+        }
+    }
+
+    /**
+     * This method rethrows exceptions from trainer threads, if any
+     */
+    private void checkTrainers() {
+        for (int cnt = 0; cnt < workers; cnt++)
+            zoo[cnt].isRunning();
+    }
+
+    /**
+     * This method dispatches single averaging round in work-stealing mode: DataSets are put into shared queue
+     * in order of decreasing cost, so expensive DataSets are picked up first and cheap ones fill the gaps at the end
+     * of the round. After all DataSets are processed, models of trainers that took part in the round are averaged.
+     */
+    private <T> void fitRound(LinkedBlockingQueue<T> queue, List<T> round, final List<Double> costs) {
+        Integer[] order = new Integer[round.size()];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Double.compare(costs.get(o2), costs.get(o1));
+            }
+        });
+
+        long[] processed = new long[workers];
+        for (int cnt = 0; cnt < workers; cnt++)
+            processed[cnt] = getStats(zoo[cnt]).getIterations();
+
+        long roundStart = System.nanoTime();
+        for (Integer idx : order)
+            dispatchShared(queue, round.get(idx));
+
+        while (sharedRunning.get() > 0) {
+            checkTrainers();
+            LockSupport.parkNanos(50000L);
+        }
+        recordIdleTime(roundStart, System.nanoTime());
+        iterationsCounter.incrementAndGet();
+
+        Nd4j.getMemoryManager().invokeGcOccasionally();
+
+        List<Trainer> active = new ArrayList<>();
+        for (int cnt = 0; cnt < workers; cnt++)
+            if (getStats(zoo[cnt]).getIterations() > processed[cnt])
+                active.add(zoo[cnt]);
+
+        if (!active.isEmpty())
+            averageModels(active);
+    }
+
+    private void finishWorkStealingFit() {
+        if (!wasAveraged)
+            log.warn("Parameters were never averaged on current fit(). Ratios of batch size, num workers, and averaging frequency may be responsible.");
+
+        if (log.isDebugEnabled()) {
+            log.debug("Iterations passed: {}", iterationsCounter.get());
+            for (WorkerStats stats : getWorkerStats())
+                log.debug("{}", stats);
+            if (numaBaseline != null)
+                log.debug("{}", getNumaStats());
+        }
+    }
+
+    /**
+     * This method adds time between the end of trainer's last DataSet and the end of the round
+     * (or whole round, if trainer didn't get any DataSet) to trainer's idle time
+     */
+    private void recordIdleTime(long roundStart, long roundEnd) {
+        for (int cnt = 0; cnt < workers; cnt++) {
+            WorkerStats stats = getStats(zoo[cnt]);
+            if (stats != null)
+                stats.recordIdle(roundEnd - Math.max(roundStart, stats.getLastRecordTime()));
+        }
+    }
+
+    private static WorkerStats getStats(Trainer trainer) {
+        return trainer instanceof DefaultTrainer ? ((DefaultTrainer) trainer).getStats() : null;
+    }
+
+    /**
+     * This method returns per-worker stats: throughput, idle time, and (for {@link TrainingMode#SHARED_GRADIENTS}
+     * mode) staleness of updates. Empty list is returned if training wasn't started yet, or if custom trainers are used.
+     *
+     * @return
+     */
+    public List<WorkerStats> getWorkerStats() {
+        if (zoo == null)
+            return Collections.emptyList();
+
+        List<WorkerStats> result = new ArrayList<>();
+        for (Trainer trainer : zoo) {
+            WorkerStats stats = getStats(trainer);
+            if (stats != null)
+                result.add(stats);
+        }
+        return result;
+    }
+
+    /**
+     * This method returns the kernel's per-node NUMA allocation counters (numa_miss, numa_foreign, other_node)
+     * accumulated since trainers were placed on NUMA nodes. Counters are system-wide, so other processes running
+     * on the host contribute to them too.
+     *
+     * @return counters, or null if CPU placement is disabled or numastat isn't available on this system
+     */
+    public NumaStats getNumaStats() {
+        if (numaBaseline == null)
+            return null;
+
+        NumaStats current = NumaStats.read();
+        return current == null ? null : current.since(numaBaseline);
+    }
+
+    /**
+     * This method returns true if trainers pull DataSets from shared queue, instead of getting them one by one
+     *
+     * @return
+     */
+    public boolean usesSharedQueue() {
+        return trainingMode != TrainingMode.AVERAGING || workStealing;
+    }
+
     private void createZooIfNeccessary(boolean useMDS) {
         if (zoo == null) {
+            if (trainingMode == TrainingMode.SHARED_GRADIENTS) {
+                if (Nd4j.getAffinityManager().getNumberOfDevices() > 1)
+                    log.warn("SHARED_GRADIENTS training mode applies updates from all workers to the same parameters, and isn't optimal for multi-device environments");
+
+                sharedParameters = new SharedParameters(model.params(), workers, gradientsThreshold, maxStaleness);
+            }
+
+            if (trainingMode == TrainingMode.HOGWILD) {
+                if (Nd4j.getAffinityManager().getNumberOfDevices() > 1)
+                    log.warn("HOGWILD training mode trains single parameters array from all workers, and isn't optimal for multi-device environments");
+
+                if (!(model instanceof MultiLayerNetwork) && !(model instanceof ComputationGraph))
+                    throw new ND4JIllegalStateException("HOGWILD training mode is supported for MultiLayerNetwork and ComputationGraph only");
+            }
+
+            if (usesSharedQueue()) {
+                // in work-stealing mode whole averaging round should fit into the queue
+                int capacity = Math.max(Math.max(1, prefetchSize), workStealing ? averagingFrequency : 1) * workers;
+                sharedQueue = new LinkedBlockingQueue<>(capacity);
+                sharedQueueMDS = new LinkedBlockingQueue<>(capacity);
+                sharedRunning = new AtomicInteger(0);
+            }
+
+            if (cpuPlacement != CpuPlacement.NONE) {
+                if (numaTopology == null)
+                    numaTopology = NumaTopology.detect();
+
+                if (!ThreadPinning.isSupported())
+                    log.warn("Thread pinning isn't supported on this system, {} placement will be ignored", cpuPlacement);
+                else
+                    log.info("Placing {} trainers on {}, {} placement", workers, numaTopology, cpuPlacement);
+
+                // remote allocations are reported relative to the moment trainers were placed
+                numaBaseline = NumaStats.read();
+            }
+
             trainerContext.init(model,trainerContextArgs);
             zoo = new Trainer[workers];
             for (int cnt = 0; cnt < workers; cnt++) {
@@ -469,12 +838,48 @@ public class ParallelWrapper implements AutoCloseable {
                         Nd4j.getAffinityManager().getDeviceForCurrentThread(),
                         useMDS,
                         this, workspaceMode);
+
+                // shared queue modes (incl. work stealing) rely on DefaultTrainer: it's the one polling shared queue,
+                // and its WorkerStats are used to track progress of averaging rounds
+                if (usesSharedQueue() && !(zoo[cnt] instanceof DefaultTrainer)) {
+                    String trainerType = zoo[cnt].getClass().getSimpleName();
+                    zoo = null;
+                    throw new ND4JIllegalStateException("Training mode " + trainingMode
+                                    + (workStealing ? " with work stealing" : "")
+                                    + " is supported with DefaultTrainer only, got " + trainerType + " from "
+                                    + trainerContext.getClass().getSimpleName());
+                }
+            }
+
+            for (int cnt = 0; cnt < workers; cnt++) {
                 zoo[cnt].setUncaughtExceptionHandler(handler);
                 zoo[cnt].start();
             }
         }
     }
 
+    /**
+     * This method pins current thread to the first NUMA node, if CPU placement is enabled, so prefetch thread
+     * created afterwards inherits this affinity
+     *
+     * @return affinity of current thread before pinning, or null if thread wasn't pinned
+     */
+    private String pinForPrefetch() {
+        if (cpuPlacement == CpuPlacement.NONE || numaTopology == null)
+            return null;
+
+        String previous = ThreadPinning.getCurrentThreadAffinity();
+        if (previous != null && ThreadPinning.pinCurrentThread(numaTopology.getCpuList(0)))
+            return previous;
+
+        return null;
+    }
+
+    private void restoreAffinity(String previousAffinity) {
+        if (previousAffinity != null)
+            ThreadPinning.pinCurrentThread(previousAffinity);
+    }
+
     public static class Builder<T extends Model> {
         protected T model;
         protected int workers = Nd4j.getAffinityManager().getNumberOfDevices();
@@ -487,6 +892,13 @@ public class ParallelWrapper implements AutoCloseable {
         protected TrainerContext trainerContext = new DefaultTrainerContext();
         protected Object[] trainerContextArgs;
         protected WorkspaceMode workspaceMode = WorkspaceMode.SEPARATE;
+        protected TrainingMode trainingMode = TrainingMode.AVERAGING;
+        protected double gradientsThreshold = 0.0;
+        protected int maxStaleness = 0;
+        protected boolean workStealing = false;
+        protected BatchCostEstimator batchCostEstimator = new TimeStepsCostEstimator();
+        protected CpuPlacement cpuPlacement = CpuPlacement.NONE;
+        protected NumaTopology numaTopology;
 
         /**
          * Transer context args are for calling a
@@ -617,6 +1029,118 @@ public class ParallelWrapper implements AutoCloseable {
         }
 
 
+        /**
+         * This method allows to choose training mode.
+         * In {@link TrainingMode#SHARED_GRADIENTS} and {@link TrainingMode#HOGWILD} modes averaging-related options
+         * (averagingFrequency, averageUpdaters, useLegacyAveraging) are ignored, and each worker keeps its own
+         * updater state.
+         *
+         * Default value: AVERAGING
+         *
+         * @param mode
+         * @return
+         */
+        public Builder trainingMode(@NonNull TrainingMode mode) {
+            this.trainingMode = mode;
+            return this;
+        }
+
+        /**
+         * This method allows to specify quantization threshold for updates shared in
+         * {@link TrainingMode#SHARED_GRADIENTS} mode. Update elements below threshold are accumulated locally,
+         * and other elements are shared as +/- threshold.
+         *
+         * Default value: 0.0, updates are shared as is
+         *
+         * @param threshold
+         * @return
+         */
+        public Builder gradientsThreshold(double threshold) {
+            if (threshold < 0.0)
+                throw new IllegalArgumentException("Threshold can't be negative");
+
+            this.gradientsThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * This method allows to specify max number of updates from other workers, that worker replica may miss
+         * before it's refreshed from shared parameters, in {@link TrainingMode#SHARED_GRADIENTS} mode.
+         *
+         * Default value: 0, replica is refreshed whenever any other worker shared an update
+         *
+         * @param maxStaleness
+         * @return
+         */
+        public Builder maxStaleness(int maxStaleness) {
+            if (maxStaleness < 0)
+                throw new IllegalArgumentException("Max staleness can't be negative");
+
+            this.maxStaleness = maxStaleness;
+            return this;
+        }
+
+        /**
+         * This method allows to pin trainer threads to NUMA nodes of multi-socket CPU host.
+         * Each trainer is pinned to all CPUs of its node before it creates its model replica, so replica params,
+         * gradients, updater state and workspaces are allocated in local memory. Prefetch thread is placed on the
+         * first node. Remote allocations per node (numa_miss, numa_foreign, other_node from numastat) since
+         * placement are reported via {@link ParallelWrapper#getNumaStats()}; threads migrating off their node
+         * (i.e. if pinning was overridden) are reported via {@link WorkerStats#getMigratedOffNodeFraction()}.
+         *
+         * PLEASE NOTE: Pinning is supported on Linux only, and requires taskset utility.
+         *
+         * Default value: NONE
+         *
+         * @param placement
+         * @return
+         */
+        public Builder cpuPlacement(@NonNull CpuPlacement placement) {
+            this.cpuPlacement = placement;
+            return this;
+        }
+
+        /**
+         * This method allows to override detected NUMA topology of the host, used for CPU placement
+         *
+         * @param topology
+         * @return
+         */
+        public Builder numaTopology(@NonNull NumaTopology topology) {
+            this.numaTopology = topology;
+            return this;
+        }
+
+        /**
+         * This method enables/disables work-stealing dispatch for {@link TrainingMode#AVERAGING} mode.
+         * If enabled, each averaging round consists of (workers * averagingFrequency) DataSets, put into shared
+         * queue in order of decreasing cost. Trainers pull DataSets from this queue as soon as they're free,
+         * instead of getting exactly one DataSet per iteration, so trainers don't wait for each other when
+         * DataSets have different cost (i.e. variable length sequences).
+         *
+         * Default value: false
+         *
+         * @param reallyUse
+         * @return
+         */
+        public Builder workStealing(boolean reallyUse) {
+            this.workStealing = reallyUse;
+            return this;
+        }
+
+        /**
+         * This method allows to specify how cost of DataSets is estimated for work-stealing dispatch.
+         *
+         * Default value: {@link TimeStepsCostEstimator}
+         *
+         * @param estimator
+         * @return
+         */
+        public Builder batchCostEstimator(@NonNull BatchCostEstimator estimator) {
+            this.batchCostEstimator = estimator;
+            return this;
+        }
+
         /**
          * This method enables/disables averaged model score reporting
          *
@@ -641,6 +1165,13 @@ public class ParallelWrapper implements AutoCloseable {
             wrapper.legacyAveraging = this.legacyAveraging;
             wrapper.isMQ = this.isMQ;
             wrapper.workspaceMode = this.workspaceMode;
+            wrapper.trainingMode = this.trainingMode;
+            wrapper.gradientsThreshold = this.gradientsThreshold;
+            wrapper.maxStaleness = this.maxStaleness;
+            wrapper.workStealing = this.workStealing && this.trainingMode == TrainingMode.AVERAGING;
+            wrapper.batchCostEstimator = this.batchCostEstimator;
+            wrapper.cpuPlacement = this.cpuPlacement;
+            wrapper.numaTopology = this.numaTopology;
 
             return wrapper;
         }
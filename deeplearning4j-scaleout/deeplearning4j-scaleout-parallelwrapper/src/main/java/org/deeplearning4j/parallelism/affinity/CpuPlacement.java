@@ -0,0 +1,43 @@
+package org.deeplearning4j.parallelism.affinity;
+
+/**
+ * This enum describes how ParallelWrapper trainers are placed on NUMA nodes of the host.
+ *
+ * Each trainer thread is pinned to all CPUs of its node, and allocates its replica and workspaces from this thread,
+ * so memory is allocated on the local node (first-touch policy).
+ */
+public enum CpuPlacement {
+    /**
+     * Trainer threads aren't pinned, OS scheduler decides where they run
+     */
+    NONE,
+
+    /**
+     * Trainers are split into contiguous blocks, one block per node: i.e. 4 trainers on 2 nodes are placed as 0,0,1,1
+     */
+    COMPACT,
+
+    /**
+     * Trainers are distributed over nodes round-robin: i.e. 4 trainers on 2 nodes are placed as 0,1,0,1
+     */
+    SCATTER;
+
+    /**
+     * This method returns node the given trainer should be placed on
+     *
+     * @param workerId   id of the trainer, 0..numWorkers-1
+     * @param numWorkers total number of trainers
+     * @param topology   topology of the host
+     * @return node id, or -1 for {@link #NONE}
+     */
+    public int nodeFor(int workerId, int numWorkers, NumaTopology topology) {
+        switch (this) {
+            case COMPACT:
+                return (int) ((long) workerId * topology.numNodes() / Math.max(1, numWorkers));
+            case SCATTER:
+                return workerId % topology.numNodes();
+            default:
+                return -1;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.deeplearning4j.parallelism.affinity;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Snapshot of the kernel's per-node NUMA allocation counters (/sys/devices/system/node/node*&#47;numastat), in pages.
+ * These are system-wide counters: differences between two snapshots taken around training show how many pages were
+ * allocated off their preferred node during that time.
+ *
+ * Counters used:<br>
+ * - numa_miss: pages allocated on this node, although process preferred another node<br>
+ * - numa_foreign: pages intended for this node, but allocated on another node<br>
+ * - other_node: pages allocated on this node while process was running on another node, i.e. memory accessed
+ *   cross-socket by the process that allocated it
+ */
+@Slf4j
+public class NumaStats {
+    private static final String NODES_PATH = "/sys/devices/system/node";
+
+    private final Map<Integer, Map<String, Long>> counters;
+
+    public NumaStats(@NonNull Map<Integer, Map<String, Long>> counters) {
+        this.counters = counters;
+    }
+
+    /**
+     * This method reads current counters of all nodes
+     *
+     * @return snapshot, or null if numastat isn't available on this system
+     */
+    public static NumaStats read() {
+        File[] nodes = new File(NODES_PATH).listFiles();
+        if (nodes == null)
+            return null;
+
+        Map<Integer, Map<String, Long>> counters = new TreeMap<>();
+        try {
+            for (File f : nodes) {
+                File stat = new File(f, "numastat");
+                if (!f.getName().matches("node\\d+") || !stat.exists())
+                    continue;
+
+                counters.put(Integer.parseInt(f.getName().substring(4)),
+                                parse(new String(Files.readAllBytes(stat.toPath()), StandardCharsets.UTF_8)));
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Unable to read NUMA stats", e);
+            return null;
+        }
+
+        return counters.isEmpty() ? null : new NumaStats(counters);
+    }
+
+    /**
+     * This method parses content of single numastat file, i.e. "numa_hit 123\nnuma_miss 0\n..."
+     *
+     * @param numastat
+     * @return
+     */
+    public static Map<String, Long> parse(@NonNull String numastat) {
+        Map<String, Long> result = new TreeMap<>();
+        for (String line : numastat.split("\n")) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length == 2)
+                result.put(parts[0], Long.parseLong(parts[1]));
+        }
+        return result;
+    }
+
+    /**
+     * This method returns counters accumulated since the given earlier snapshot
+     *
+     * @param earlier
+     * @return
+     */
+    public NumaStats since(@NonNull NumaStats earlier) {
+        Map<Integer, Map<String, Long>> delta = new TreeMap<>();
+        for (Map.Entry<Integer, Map<String, Long>> node : counters.entrySet()) {
+            Map<String, Long> before = earlier.counters.get(node.getKey());
+            Map<String, Long> values = new TreeMap<>();
+            for (Map.Entry<String, Long> e : node.getValue().entrySet()) {
+                Long b = before == null ? null : before.get(e.getKey());
+                values.put(e.getKey(), e.getValue() - (b == null ? 0 : b));
+            }
+            delta.put(node.getKey(), values);
+        }
+        return new NumaStats(delta);
+    }
+
+    /**
+     * Ids of nodes in this snapshot, as numbered by the kernel
+     */
+    public Set<Integer> getNodes() {
+        return Collections.unmodifiableSet(counters.keySet());
+    }
+
+    public long getCounter(int node, @NonNull String name) {
+        Map<String, Long> values = counters.get(node);
+        Long value = values == null ? null : values.get(name);
+        return value == null ? 0 : value;
+    }
+
+    public long getNumaMiss(int node) {
+        return getCounter(node, "numa_miss");
+    }
+
+    public long getNumaForeign(int node) {
+        return getCounter(node, "numa_foreign");
+    }
+
+    public long getOtherNode(int node) {
+        return getCounter(node, "other_node");
+    }
+
+    /**
+     * Fraction of pages allocated on the given node, that were allocated by processes running on another node
+     */
+    public double getRemoteFraction(int node) {
+        long local = getCounter(node, "local_node");
+        long other = getOtherNode(node);
+        return local + other == 0 ? 0.0 : other / (double) (local + other);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("NumaStats(");
+        boolean first = true;
+        for (int node : counters.keySet()) {
+            if (!first)
+                builder.append(", ");
+            first = false;
+            builder.append(String.format("node%d: numa_miss=%d, numa_foreign=%d, other_node=%d, remote=%.2f", node,
+                            getNumaMiss(node), getNumaForeign(node), getOtherNode(node), getRemoteFraction(node)));
+        }
+        return builder.append(')').toString();
+    }
+}
@@ -0,0 +1,198 @@
+package org.deeplearning4j.parallelism.affinity;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class describes CPU topology of the host: set of NUMA nodes (usually one per socket), and logical CPUs
+ * belonging to each node.
+ *
+ * On Linux topology is read from /sys/devices/system/node. On other systems, or if sysfs isn't available,
+ * single node with all available processors is assumed.
+ */
+@Slf4j
+public class NumaTopology {
+    private static final String NODES_PATH = "/sys/devices/system/node";
+
+    private final int[][] cpus;
+
+    /**
+     * @param cpus CPU ids for each node
+     */
+    public NumaTopology(@NonNull int[][] cpus) {
+        if (cpus.length == 0)
+            throw new IllegalArgumentException("Topology should have at least one node");
+
+        for (int[] node : cpus)
+            if (node == null || node.length == 0)
+                throw new IllegalArgumentException("Each node should have at least one CPU");
+
+        this.cpus = cpus;
+    }
+
+    /**
+     * This method creates topology from Linux cpulist strings (i.e. "0-7,16-23"), one per node
+     *
+     * @param cpuLists
+     * @return
+     */
+    public static NumaTopology fromCpuLists(@NonNull String... cpuLists) {
+        int[][] cpus = new int[cpuLists.length][];
+        for (int i = 0; i < cpuLists.length; i++)
+            cpus[i] = parseCpuList(cpuLists[i]);
+
+        return new NumaTopology(cpus);
+    }
+
+    /**
+     * This method returns single-node topology with all available processors
+     *
+     * @return
+     */
+    public static NumaTopology singleNode() {
+        int[] cpus = new int[Runtime.getRuntime().availableProcessors()];
+        for (int i = 0; i < cpus.length; i++)
+            cpus[i] = i;
+
+        return new NumaTopology(new int[][] {cpus});
+    }
+
+    /**
+     * This method detects topology of the current host
+     *
+     * @return
+     */
+    public static NumaTopology detect() {
+        File[] nodes = new File(NODES_PATH).listFiles();
+        if (nodes == null)
+            return singleNode();
+
+        List<File> nodeDirs = new ArrayList<>();
+        for (File f : nodes)
+            if (f.getName().matches("node\\d+") && new File(f, "cpulist").exists())
+                nodeDirs.add(f);
+
+        if (nodeDirs.isEmpty())
+            return singleNode();
+
+        Collections.sort(nodeDirs, (o1, o2) -> Integer.compare(nodeId(o1), nodeId(o2)));
+
+        List<String> lists = new ArrayList<>();
+        try {
+            for (File f : nodeDirs) {
+                String list = new String(Files.readAllBytes(new File(f, "cpulist").toPath()), StandardCharsets.UTF_8)
+                                .trim();
+                // memory-only nodes have no CPUs
+                if (!list.isEmpty())
+                    lists.add(list);
+            }
+        } catch (IOException e) {
+            log.warn("Unable to read NUMA topology, assuming single node", e);
+            return singleNode();
+        }
+
+        if (lists.isEmpty())
+            return singleNode();
+
+        return fromCpuLists(lists.toArray(new String[lists.size()]));
+    }
+
+    private static int nodeId(File dir) {
+        return Integer.parseInt(dir.getName().substring(4));
+    }
+
+    /**
+     * This method parses Linux cpulist string, i.e. "0-3,8,10-11"
+     *
+     * @param cpuList
+     * @return
+     */
+    public static int[] parseCpuList(@NonNull String cpuList) {
+        List<Integer> result = new ArrayList<>();
+        for (String part : cpuList.trim().split(",")) {
+            part = part.trim();
+            if (part.isEmpty())
+                continue;
+
+            int dash = part.indexOf('-');
+            if (dash < 0) {
+                result.add(Integer.parseInt(part));
+            } else {
+                int from = Integer.parseInt(part.substring(0, dash));
+                int to = Integer.parseInt(part.substring(dash + 1));
+                for (int i = from; i <= to; i++)
+                    result.add(i);
+            }
+        }
+
+        int[] array = new int[result.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = result.get(i);
+        return array;
+    }
+
+    public int numNodes() {
+        return cpus.length;
+    }
+
+    /**
+     * This method returns CPU ids of the given node
+     *
+     * @param node
+     * @return
+     */
+    public int[] getCpus(int node) {
+        return cpus[node].clone();
+    }
+
+    /**
+     * This method returns cpulist string for the given node, suitable for taskset
+     *
+     * @param node
+     * @return
+     */
+    public String getCpuList(int node) {
+        StringBuilder builder = new StringBuilder();
+        for (int cpu : cpus[node]) {
+            if (builder.length() > 0)
+                builder.append(',');
+            builder.append(cpu);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * This method returns node the given CPU belongs to, or -1 if CPU is unknown
+     *
+     * @param cpu
+     * @return
+     */
+    public int getNode(int cpu) {
+        for (int n = 0; n < cpus.length; n++)
+            for (int c : cpus[n])
+                if (c == cpu)
+                    return n;
+
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("NumaTopology(");
+        for (int n = 0; n < cpus.length; n++) {
+            if (n > 0)
+                builder.append(", ");
+            builder.append("node").append(n).append('=').append(Arrays.toString(cpus[n]));
+        }
+        return builder.append(')').toString();
+    }
+}
@@ -0,0 +1,113 @@
+package org.deeplearning4j.parallelism.affinity;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Utility methods for pinning current thread to a set of CPUs.
+ *
+ * JVM has no API for thread affinity, so on Linux native thread id is resolved via /proc/thread-self, and affinity
+ * is changed with taskset utility. On other systems, or if taskset isn't available, pinning is disabled
+ * and all methods are no-ops.
+ */
+@Slf4j
+public class ThreadPinning {
+    private static final Path THREAD_SELF = Paths.get("/proc/thread-self");
+    private static final File DEV_NULL = new File("/dev/null");
+    private static final AtomicBoolean disabled = new AtomicBoolean(!Files.exists(THREAD_SELF));
+
+    private ThreadPinning() {}
+
+    /**
+     * @return true, if thread pinning is supported on this system
+     */
+    public static boolean isSupported() {
+        return !disabled.get();
+    }
+
+    /**
+     * This method pins current thread to given CPUs.
+     * Threads created by current thread afterwards inherit this affinity.
+     *
+     * @param cpuList Linux cpulist string, i.e. "0-7,16-23"
+     * @return true if thread was pinned, false otherwise
+     */
+    public static boolean pinCurrentThread(@NonNull String cpuList) {
+        if (disabled.get())
+            return false;
+
+        try {
+            String tid = THREAD_SELF.toRealPath().getFileName().toString();
+            // we don't need output: discard it, so taskset can't block on a full pipe
+            Process process = new ProcessBuilder("taskset", "-p", "-c", cpuList, tid).redirectErrorStream(true)
+                            .redirectOutput(ProcessBuilder.Redirect.appendTo(DEV_NULL)).start();
+
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                log.warn("Unable to pin thread [{}] to CPUs [{}], taskset timed out", tid, cpuList);
+                return false;
+            }
+            if (process.exitValue() != 0) {
+                log.warn("Unable to pin thread [{}] to CPUs [{}], taskset failed", tid, cpuList);
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            if (disabled.compareAndSet(false, true))
+                log.warn("Thread pinning isn't available, taskset can't be executed: {}", e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * This method returns CPUs current thread is allowed to run on, as Linux cpulist string
+     *
+     * @return cpulist, or null if not available
+     */
+    public static String getCurrentThreadAffinity() {
+        if (disabled.get())
+            return null;
+
+        try {
+            List<String> lines = Files.readAllLines(THREAD_SELF.resolve("status"), StandardCharsets.UTF_8);
+            for (String line : lines)
+                if (line.startsWith("Cpus_allowed_list:"))
+                    return line.substring("Cpus_allowed_list:".length()).trim();
+        } catch (IOException e) {
+            // nothing to do here
+        }
+        return null;
+    }
+
+    /**
+     * This method returns CPU current thread was last running on
+     *
+     * @return CPU id, or -1 if not available
+     */
+    public static int getCurrentCpu() {
+        if (disabled.get())
+            return -1;
+
+        try {
+            String stat = new String(Files.readAllBytes(THREAD_SELF.resolve("stat")), StandardCharsets.UTF_8);
+            // thread name may contain spaces, so fields are counted after closing bracket. CPU is field 39
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            return Integer.parseInt(fields[36]);
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.deeplearning4j.parallelism.dispatch;
+
+import org.nd4j.linalg.dataset.api.DataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+
+/**
+ * This interface describes estimation of relative cost of fitting a single DataSet.
+ * Estimations are used by ParallelWrapper in work-stealing mode to dispatch expensive DataSets first.
+ *
+ * Only relative values matter: DataSets with higher cost are expected to take more time to fit.
+ */
+public interface BatchCostEstimator {
+
+    /**
+     * This method returns estimated cost of fitting given DataSet
+     *
+     * @param dataSet
+     * @return
+     */
+    double cost(DataSet dataSet);
+
+    /**
+     * This method returns estimated cost of fitting given MultiDataSet
+     *
+     * @param dataSet
+     * @return
+     */
+    double cost(MultiDataSet dataSet);
+}
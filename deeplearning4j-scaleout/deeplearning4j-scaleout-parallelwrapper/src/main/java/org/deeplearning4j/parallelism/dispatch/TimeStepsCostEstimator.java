@@ -0,0 +1,47 @@
+package org.deeplearning4j.parallelism.dispatch;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.DataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+
+/**
+ * Default BatchCostEstimator implementation: cost of DataSet is the number of time steps that'll be processed.
+ *
+ * - If features mask is available, cost is the number of unmasked time steps.
+ * - For time series features (rank 3) without mask, cost is number of examples * time series length.
+ * - Otherwise cost is the number of examples.
+ *
+ * For MultiDataSet, costs of all inputs are summed up.
+ */
+public class TimeStepsCostEstimator implements BatchCostEstimator {
+
+    @Override
+    public double cost(DataSet dataSet) {
+        return cost(dataSet.getFeatures(), dataSet.getFeaturesMaskArray());
+    }
+
+    @Override
+    public double cost(MultiDataSet dataSet) {
+        INDArray[] features = dataSet.getFeatures();
+        INDArray[] masks = dataSet.getFeaturesMaskArrays();
+
+        double cost = 0.0;
+        for (int i = 0; i < features.length; i++)
+            cost += cost(features[i], masks != null && i < masks.length ? masks[i] : null);
+
+        return cost;
+    }
+
+    protected double cost(INDArray features, INDArray mask) {
+        if (mask != null)
+            return mask.sumNumber().doubleValue();
+
+        if (features == null)
+            return 0.0;
+
+        if (features.rank() == 3)
+            return (double) features.size(0) * features.size(2);
+
+        return features.size(0);
+    }
+}
@@ -5,6 +5,7 @@ import org.deeplearning4j.nn.conf.WorkspaceMode;
 import org.deeplearning4j.optimize.api.IterationListener;
 import org.deeplearning4j.parallelism.MagicQueue;
 import org.deeplearning4j.parallelism.ParallelWrapper;
+import org.deeplearning4j.parallelism.affinity.CpuPlacement;
 import org.deeplearning4j.parallelism.trainer.DefaultTrainer;
 import org.deeplearning4j.parallelism.trainer.Trainer;
 
@@ -41,13 +42,36 @@ public class DefaultTrainerContext implements TrainerContext {
     @Override
     public Trainer create(int threadId, Model model, int rootDevice, boolean useMDS, ParallelWrapper wrapper, WorkspaceMode mode) {
 
-        DefaultTrainer trainer = DefaultTrainer.builder()
+        DefaultTrainer.DefaultTrainerBuilder builder = DefaultTrainer.builder()
                 .originalModel(model)
                 .replicatedModel(model)
                 .threadId(threadId)
                 .parallelWrapper(wrapper)
                 .workspaceMode(mode)
-                .useMDS(useMDS).build();
+                .useMDS(useMDS);
+
+        // in SHARED_GRADIENTS and work-stealing modes all trainers pull DataSets from the same queue
+        if (wrapper != null && wrapper.usesSharedQueue()) {
+            builder.queue(wrapper.getSharedQueue())
+                    .queueMDS(wrapper.getSharedQueueMDS())
+                    .running(wrapper.getSharedRunning());
+
+            // in SHARED_GRADIENTS mode trainers share parameters as well
+            if (wrapper.getTrainingMode() == ParallelWrapper.TrainingMode.SHARED_GRADIENTS)
+                builder.sharedParameters(wrapper.getSharedParameters());
+
+            // in HOGWILD mode trainers train parameters of the original model directly
+            if (wrapper.getTrainingMode() == ParallelWrapper.TrainingMode.HOGWILD)
+                builder.hogwild(true);
+        }
+
+        // trainers are pinned to NUMA nodes according to placement policy
+        if (wrapper != null && wrapper.getCpuPlacement() != CpuPlacement.NONE) {
+            builder.numaTopology(wrapper.getNumaTopology())
+                    .numaNode(wrapper.getCpuPlacement().nodeFor(threadId, wrapper.getWorkers(), wrapper.getNumaTopology()));
+        }
+
+        DefaultTrainer trainer = builder.build();
 
         trainer.setName("DefaultTrainer thread " + threadId);
         trainer.setDaemon(true);
@@ -0,0 +1,130 @@
+package org.deeplearning4j.parallelism.gradients;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.indexing.BooleanIndexing;
+import org.nd4j.linalg.indexing.conditions.Conditions;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class holds parameters shared between ParallelWrapper workers in
+ * {@link org.deeplearning4j.parallelism.ParallelWrapper.TrainingMode#SHARED_GRADIENTS} mode.
+ *
+ * Workers train their own model replicas, and push parameter updates (difference between replica params before and
+ * after fit) into this buffer whenever they're done with a minibatch. Updates are applied in place, without any locks,
+ * Hogwild-style: concurrent updates may partially overwrite each other, and readers may see partially applied updates.
+ * Version counter is incremented once per applied update, and is used to measure staleness of worker replicas.
+ *
+ * If threshold is positive, updates are quantized before sharing: elements with absolute value below threshold
+ * are not shared at all, and other elements are shared as +/- threshold. Whatever wasn't shared stays
+ * in worker-local residual, and gets added to the next update of the same worker.
+ *
+ * PLEASE NOTE: Updates are applied from worker threads directly, so this mode is suitable for CPU backend mostly.
+ */
+@Slf4j
+public class SharedParameters {
+    @Getter protected final INDArray params;
+    @Getter protected final double threshold;
+    @Getter protected final int maxStaleness;
+    protected final AtomicLong version = new AtomicLong(0);
+    protected final List<WorkerStats> stats;
+
+    /**
+     * @param params       parameters to be shared. Updates are applied to this array in place
+     * @param numWorkers   number of workers that'll be pushing updates
+     * @param threshold    quantization threshold for updates. 0 to share updates as is
+     * @param maxStaleness max number of updates from other workers that worker replica may miss before it has to
+     *                     refresh its parameters from shared buffer. 0 to refresh after each minibatch
+     */
+    public SharedParameters(@NonNull INDArray params, int numWorkers, double threshold, int maxStaleness) {
+        if (threshold < 0.0)
+            throw new IllegalArgumentException("Threshold can't be negative: " + threshold);
+        if (maxStaleness < 0)
+            throw new IllegalArgumentException("Max staleness can't be negative: " + maxStaleness);
+
+        this.params = params;
+        this.threshold = threshold;
+        this.maxStaleness = maxStaleness;
+
+        List<WorkerStats> list = new ArrayList<>(numWorkers);
+        for (int i = 0; i < numWorkers; i++)
+            list.add(new WorkerStats(i));
+        this.stats = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * This method returns number of updates applied to shared parameters so far
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * This method applies (already encoded) update to shared parameters
+     *
+     * @param update update to be added to shared parameters
+     * @return version of shared parameters after this update
+     */
+    public long applyUpdate(@NonNull INDArray update) {
+        params.addi(update);
+        return version.incrementAndGet();
+    }
+
+    /**
+     * This method copies current shared parameters into target array
+     *
+     * @param target array to copy parameters to
+     * @return version of shared parameters at the moment copy was started
+     */
+    public long pullParameters(@NonNull INDArray target) {
+        long v = version.get();
+        target.assign(params);
+        return v;
+    }
+
+    /**
+     * This method encodes update for sharing, using threshold specified for this buffer.
+     * If threshold is 0, update is returned as is.
+     *
+     * PLEASE NOTE: This method modifies given array, leaving residual (part of update that wasn't encoded) in it
+     *
+     * @param update update to be encoded
+     * @return encoded update
+     */
+    public INDArray encodeUpdate(@NonNull INDArray update) {
+        if (threshold == 0.0) {
+            INDArray encoded = update.dup();
+            update.assign(0.0);
+            return encoded;
+        }
+
+        INDArray encoded = update.dup();
+        BooleanIndexing.replaceWhere(encoded, 0.0, Conditions.absLessThan(threshold));
+        Transforms.sign(encoded, false).muli(threshold);
+        update.subi(encoded);
+        return encoded;
+    }
+
+    /**
+     * This method returns stats holder for specific worker
+     *
+     * @param workerId id of the worker
+     */
+    public WorkerStats getWorkerStats(int workerId) {
+        return stats.get(workerId);
+    }
+
+    /**
+     * This method returns stats for all workers
+     */
+    public List<WorkerStats> getWorkerStats() {
+        return stats;
+    }
+}
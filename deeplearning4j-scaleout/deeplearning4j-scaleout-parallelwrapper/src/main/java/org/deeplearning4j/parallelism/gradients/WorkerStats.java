@@ -0,0 +1,204 @@
+package org.deeplearning4j.parallelism.gradients;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-worker throughput, idle time and staleness stats for ParallelWrapper trainers.
+ *
+ * Idle time is the time worker spent waiting for other workers at the end of each averaging round.
+ * If worker is placed on a NUMA node, CPU it runs on is sampled periodically: samples outside of the assigned node
+ * mean the worker thread migrated off its node (i.e. pinning failed or was overridden). This is not a measure of
+ * remote memory traffic, see {@link org.deeplearning4j.parallelism.ParallelWrapper#getNumaStats()} for that.
+ * Staleness is tracked for {@link org.deeplearning4j.parallelism.ParallelWrapper.TrainingMode#SHARED_GRADIENTS}
+ * training mode only: staleness of an update is the number of updates from other workers that were applied to shared parameters
+ * after this worker last refreshed its replica, and before this update was applied.
+ *
+ * Stats are updated by the worker thread only, but can be read from any thread.
+ */
+public class WorkerStats {
+    @Getter private final int workerId;
+    private final AtomicLong iterations = new AtomicLong(0);
+    private final AtomicLong examples = new AtomicLong(0);
+    private final AtomicLong fitTime = new AtomicLong(0);
+    private final AtomicLong sharingTime = new AtomicLong(0);
+    private final AtomicLong totalStaleness = new AtomicLong(0);
+    private final AtomicLong maxStaleness = new AtomicLong(0);
+    private final AtomicLong refreshes = new AtomicLong(0);
+    private final AtomicLong idleTime = new AtomicLong(0);
+    private final AtomicLong placementSamples = new AtomicLong(0);
+    private final AtomicLong migratedSamples = new AtomicLong(0);
+    private volatile int numaNode = -1;
+    private volatile long lastStaleness;
+    private volatile long lastRecordTime;
+
+    public WorkerStats(int workerId) {
+        this.workerId = workerId;
+    }
+
+    /**
+     * This method records single minibatch processed by this worker
+     *
+     * @param numExamples   number of examples in minibatch
+     * @param fitNanos      time spent in fit(), in nanoseconds
+     * @param sharingNanos  time spent on encoding/applying update and refreshing replica, in nanoseconds
+     * @param staleness     staleness of the update
+     * @param refreshed     true if worker replica was refreshed from shared parameters after this minibatch
+     */
+    public void record(int numExamples, long fitNanos, long sharingNanos, long staleness, boolean refreshed) {
+        iterations.incrementAndGet();
+        examples.addAndGet(numExamples);
+        fitTime.addAndGet(fitNanos);
+        sharingTime.addAndGet(sharingNanos);
+        totalStaleness.addAndGet(staleness);
+        lastStaleness = staleness;
+
+        long max;
+        while (staleness > (max = maxStaleness.get()) && !maxStaleness.compareAndSet(max, staleness));
+
+        if (refreshed)
+            refreshes.incrementAndGet();
+
+        lastRecordTime = System.nanoTime();
+    }
+
+    /**
+     * This method records time this worker spent waiting for other workers
+     *
+     * @param idleNanos idle time, in nanoseconds. Negative values are ignored
+     */
+    public void recordIdle(long idleNanos) {
+        if (idleNanos > 0)
+            idleTime.addAndGet(idleNanos);
+    }
+
+    /**
+     * This method records whether worker thread was running on its assigned NUMA node
+     *
+     * @param onNode true if worker was running on CPU of its assigned node
+     */
+    public void recordPlacement(boolean onNode) {
+        placementSamples.incrementAndGet();
+        if (!onNode)
+            migratedSamples.incrementAndGet();
+    }
+
+    public void setNumaNode(int numaNode) {
+        this.numaNode = numaNode;
+    }
+
+    /**
+     * NUMA node this worker is placed on, or -1 if worker isn't placed
+     */
+    public int getNumaNode() {
+        return numaNode;
+    }
+
+    /**
+     * Fraction of placement samples where worker thread had migrated off its assigned NUMA node. Expected to be 0
+     * when pinning succeeded; it doesn't say anything about remote memory accesses.
+     */
+    public double getMigratedOffNodeFraction() {
+        long samples = placementSamples.get();
+        return samples == 0 ? 0.0 : migratedSamples.get() / (double) samples;
+    }
+
+    /**
+     * {@link System#nanoTime()} at the moment last minibatch was recorded, or 0 if nothing was recorded yet
+     */
+    public long getLastRecordTime() {
+        return lastRecordTime;
+    }
+
+    /**
+     * Total time spent waiting for other workers, in milliseconds
+     */
+    public long getIdleTimeMillis() {
+        return idleTime.get() / 1000000L;
+    }
+
+    /**
+     * Fraction of worker time (busy and idle) spent waiting for other workers
+     */
+    public double getIdleFraction() {
+        long idle = idleTime.get();
+        long total = fitTime.get() + sharingTime.get() + idle;
+        return total == 0 ? 0.0 : idle / (double) total;
+    }
+
+    public long getIterations() {
+        return iterations.get();
+    }
+
+    public long getExamples() {
+        return examples.get();
+    }
+
+    /**
+     * Total time spent in fit() calls, in milliseconds
+     */
+    public long getFitTimeMillis() {
+        return fitTime.get() / 1000000L;
+    }
+
+    /**
+     * Total time spent on sharing updates and refreshing replica, in milliseconds
+     */
+    public long getSharingTimeMillis() {
+        return sharingTime.get() / 1000000L;
+    }
+
+    /**
+     * Number of examples processed per second of worker busy time (fit and sharing)
+     */
+    public double getExamplesPerSecond() {
+        long time = fitTime.get() + sharingTime.get();
+        return time == 0 ? 0.0 : examples.get() * 1e9 / time;
+    }
+
+    /**
+     * Number of minibatches processed per second of worker busy time (fit and sharing)
+     */
+    public double getIterationsPerSecond() {
+        long time = fitTime.get() + sharingTime.get();
+        return time == 0 ? 0.0 : iterations.get() * 1e9 / time;
+    }
+
+    public double getAverageStaleness() {
+        long iters = iterations.get();
+        return iters == 0 ? 0.0 : totalStaleness.get() / (double) iters;
+    }
+
+    public long getMaxStaleness() {
+        return maxStaleness.get();
+    }
+
+    public long getLastStaleness() {
+        return lastStaleness;
+    }
+
+    /**
+     * Number of times worker replica was refreshed from shared parameters
+     */
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+
+    @Override
+    public String toString() {
+        if (numaNode >= 0)
+            return String.format("%s, numaNode=%d, migratedOffNode=%.2f", toStringWithoutPlacement(), numaNode,
+                            getMigratedOffNodeFraction());
+
+        return toStringWithoutPlacement();
+    }
+
+    private String toStringWithoutPlacement() {
+        return String.format("Worker %d: iterations=%d, examples=%d, examples/sec=%.2f, avgStaleness=%.2f, "
+                        + "maxStaleness=%d, refreshes=%d, fitTimeMs=%d, sharingTimeMs=%d, idleTimeMs=%d",
+                        workerId, getIterations(), getExamples(), getExamplesPerSecond(), getAverageStaleness(),
+                        getMaxStaleness(), getRefreshes(), getFitTimeMillis(), getSharingTimeMillis(),
+                        getIdleTimeMillis());
+    }
+}
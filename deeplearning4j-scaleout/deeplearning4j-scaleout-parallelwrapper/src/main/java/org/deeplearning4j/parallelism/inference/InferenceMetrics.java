@@ -0,0 +1,149 @@
+package org.deeplearning4j.parallelism.inference;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class holds ParallelInference metrics: batch size histogram, and per-worker latency.
+ *
+ * Latency percentiles are calculated over last {@link #LATENCY_WINDOW} batches processed by each worker.
+ */
+public class InferenceMetrics {
+    public static final int LATENCY_WINDOW = 1024;
+
+    private final AtomicLongArray batchSizes;
+    private final AtomicLong[] batches;
+    private final AtomicLong[] requests;
+    private final AtomicLong[] totalNanos;
+    private final long[][] latencies;
+    private final long[] latencyPositions;
+
+    /**
+     * @param numWorkers   number of inference workers
+     * @param maxBatchSize max expected batch size. Larger batches are counted in the last bucket of histogram
+     */
+    public InferenceMetrics(int numWorkers, int maxBatchSize) {
+        this.batchSizes = new AtomicLongArray(maxBatchSize + 1);
+        this.batches = new AtomicLong[numWorkers];
+        this.requests = new AtomicLong[numWorkers];
+        this.totalNanos = new AtomicLong[numWorkers];
+        this.latencies = new long[numWorkers][];
+        this.latencyPositions = new long[numWorkers];
+
+        for (int i = 0; i < numWorkers; i++) {
+            batches[i] = new AtomicLong(0);
+            requests[i] = new AtomicLong(0);
+            totalNanos[i] = new AtomicLong(0);
+            latencies[i] = new long[LATENCY_WINDOW];
+        }
+    }
+
+    /**
+     * This method records single batch processed by worker
+     *
+     * @param workerId  id of the worker
+     * @param batchSize number of requests in the batch
+     * @param nanos     time spent on the batch, in nanoseconds
+     */
+    public void recordBatch(int workerId, int batchSize, long nanos) {
+        batchSizes.incrementAndGet(Math.min(batchSize, batchSizes.length() - 1));
+        batches[workerId].incrementAndGet();
+        requests[workerId].addAndGet(batchSize);
+        totalNanos[workerId].addAndGet(nanos);
+
+        // latencies window is used as ring buffer
+        long[] window = latencies[workerId];
+        synchronized (window) {
+            long pos = latencyPositions[workerId];
+            window[(int) (pos % LATENCY_WINDOW)] = nanos;
+            latencyPositions[workerId] = pos + 1;
+        }
+    }
+
+    public int getNumWorkers() {
+        return batches.length;
+    }
+
+    /**
+     * This method returns batch size histogram: element i is the number of batches with i requests.
+     * Last element holds number of batches with maxBatchSize or more requests.
+     *
+     * @return
+     */
+    public long[] getBatchSizeHistogram() {
+        long[] result = new long[batchSizes.length()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = batchSizes.get(i);
+        return result;
+    }
+
+    /**
+     * This method returns number of batches processed by specified worker
+     */
+    public long getBatches(int workerId) {
+        return batches[workerId].get();
+    }
+
+    /**
+     * This method returns number of requests processed by specified worker
+     */
+    public long getRequests(int workerId) {
+        return requests[workerId].get();
+    }
+
+    /**
+     * This method returns mean batch latency for specified worker, in milliseconds
+     */
+    public double getMeanLatencyMillis(int workerId) {
+        long cnt = batches[workerId].get();
+        return cnt == 0 ? 0.0 : totalNanos[workerId].get() / (cnt * 1e6);
+    }
+
+    /**
+     * This method returns batch latency percentile for specified worker, in milliseconds
+     *
+     * @param workerId   id of the worker
+     * @param percentile percentile, in range 0..100
+     * @return
+     */
+    public double getLatencyPercentileMillis(int workerId, double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Percentile should be in range 0..100");
+
+        long[] sorted;
+        long[] window = latencies[workerId];
+        synchronized (window) {
+            sorted = Arrays.copyOf(window, (int) Math.min(latencyPositions[workerId], LATENCY_WINDOW));
+        }
+        return percentile(sorted, percentile) / 1e6;
+    }
+
+    /**
+     * This method returns given percentile of values. Input array is sorted in place.
+     *
+     * @param values     values
+     * @param percentile percentile, in range 0..100
+     * @return percentile value, or 0 for empty array
+     */
+    public static long percentile(long[] values, double percentile) {
+        if (values.length == 0)
+            return 0;
+
+        Arrays.sort(values);
+        int idx = (int) Math.ceil(percentile / 100.0 * values.length) - 1;
+        return values[Math.max(0, Math.min(values.length - 1, idx))];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("InferenceMetrics(batchSizeHistogram=")
+                        .append(Arrays.toString(getBatchSizeHistogram()));
+        for (int i = 0; i < getNumWorkers(); i++) {
+            builder.append(String.format(", worker %d: batches=%d, requests=%d, meanMs=%.3f, p99Ms=%.3f", i,
+                            getBatches(i), getRequests(i), getMeanLatencyMillis(i),
+                            getLatencyPercentileMillis(i, 99)));
+        }
+        return builder.append(")").toString();
+    }
+}
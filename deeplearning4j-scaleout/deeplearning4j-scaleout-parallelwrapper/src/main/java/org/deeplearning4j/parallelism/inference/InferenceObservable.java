@@ -18,4 +18,19 @@ public interface InferenceObservable {
     void addObserver(Observer observer);
 
     INDArray[] getOutput();
+
+    /**
+     * This method is called by inference worker if output can't be produced for given input.
+     * Observers should be notified in the same way as for {@link #setOutput(INDArray...)}
+     *
+     * @param exception
+     */
+    void setOutputException(Exception exception);
+
+    /**
+     * This method returns exception thrown during inference, or null if there was none
+     *
+     * @return
+     */
+    Exception getOutputException();
 }
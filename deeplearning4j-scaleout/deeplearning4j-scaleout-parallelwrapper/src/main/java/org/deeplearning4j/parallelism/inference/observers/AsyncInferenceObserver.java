@@ -0,0 +1,50 @@
+package org.deeplearning4j.parallelism.inference.observers;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.parallelism.inference.InferenceObservable;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.Observable;
+import java.util.Observer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Observer implementation that completes CompletableFuture instead of blocking caller thread
+ */
+@Slf4j
+public class AsyncInferenceObserver implements Observer {
+    @Getter private final CompletableFuture<INDArray[]> future = new CompletableFuture<>();
+    private final int position;
+
+    /**
+     * Observer for SEQUENTIAL inference
+     */
+    public AsyncInferenceObserver() {
+        this(-1);
+    }
+
+    /**
+     * Observer for BATCHED inference
+     *
+     * @param position position of the input within the batch
+     */
+    public AsyncInferenceObserver(int position) {
+        this.position = position;
+    }
+
+    @Override
+    public void update(Observable o, Object arg) {
+        InferenceObservable observable = (InferenceObservable) o;
+        try {
+            if (observable.getOutputException() != null)
+                future.completeExceptionally(observable.getOutputException());
+            else if (position >= 0 && observable instanceof BatchedInferenceObservable)
+                future.complete(((BatchedInferenceObservable) observable).getOutput(position));
+            else
+                future.complete(observable.getOutput());
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+    }
+}
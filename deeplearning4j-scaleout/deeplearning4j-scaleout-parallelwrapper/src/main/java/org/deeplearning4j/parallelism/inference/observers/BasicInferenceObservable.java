@@ -16,6 +16,7 @@ public class BasicInferenceObservable extends Observable implements InferenceObs
     @Getter private INDArray[] input;
     @Getter private long id;
     @Getter private INDArray[] output;
+    @Getter private Exception outputException;
 
 
     public BasicInferenceObservable(INDArray... inputs) {
@@ -33,4 +34,11 @@ public class BasicInferenceObservable extends Observable implements InferenceObs
         this.setChanged();
         notifyObservers();
     }
+
+    @Override
+    public void setOutputException(Exception exception) {
+        this.outputException = exception;
+        this.setChanged();
+        notifyObservers();
+    }
 }
@@ -122,6 +122,15 @@ public class BatchedInferenceObservable extends BasicInferenceObservable impleme
         position.set(pos);
     }
 
+    /**
+     * This method returns position of the last input added to this batch from the current thread
+     *
+     * @return
+     */
+    public int getPosition() {
+        return position.get();
+    }
+
     public int getCounter() {
         return counter.get();
     }
@@ -146,4 +155,15 @@ public class BatchedInferenceObservable extends BasicInferenceObservable impleme
 
         return outputs.get(position.get());
     }
+
+    /**
+     * This method returns output for input with specific position within this batch.
+     * Unlike {@link #getOutput()}, it can be used from any thread.
+     *
+     * @param position
+     * @return
+     */
+    public INDArray[] getOutput(int position) {
+        return outputs.get(position);
+    }
 }
@@ -17,6 +17,10 @@ import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.updater.graph.ComputationGraphUpdater;
 import org.deeplearning4j.optimize.api.IterationListener;
 import org.deeplearning4j.parallelism.ParallelWrapper;
+import org.deeplearning4j.parallelism.affinity.NumaTopology;
+import org.deeplearning4j.parallelism.affinity.ThreadPinning;
+import org.deeplearning4j.parallelism.gradients.SharedParameters;
+import org.deeplearning4j.parallelism.gradients.WorkerStats;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
 import org.nd4j.linalg.dataset.api.DataSet;
@@ -44,6 +48,9 @@ import java.util.concurrent.locks.LockSupport;
 @NoArgsConstructor
 @AllArgsConstructor
 public class DefaultTrainer extends Thread implements Trainer {
+    // reading current CPU isn't free: placement is sampled once per this number of minibatches
+    public static final int PLACEMENT_SAMPLE_FREQUENCY = 100;
+
     protected Model originalModel;
     protected Model replicatedModel;
     protected LinkedBlockingQueue<DataSet> queue = new LinkedBlockingQueue<>();
@@ -59,6 +66,22 @@ public class DefaultTrainer extends Thread implements Trainer {
     protected ParallelWrapper parallelWrapper;
     protected WorkspaceMode workspaceMode;
 
+    // SHARED_GRADIENTS mode only: shared parameters, replica params at last sync, and update part not shared yet
+    protected SharedParameters sharedParameters;
+    protected INDArray sharedBase;
+    protected INDArray sharedResidual;
+    protected long lastRefreshVersion;
+    protected long pushesSinceRefresh;
+
+    // HOGWILD mode only: replica uses params array of the original model as its own params
+    protected boolean hogwild;
+
+    protected WorkerStats stats;
+
+    // CPU placement: topology of the host and node this trainer is pinned to. null topology means no placement
+    protected NumaTopology numaTopology;
+    protected int numaNode;
+    protected long placementCounter;
 
 
     @Override
@@ -155,6 +178,13 @@ public class DefaultTrainer extends Thread implements Trainer {
         setupIfNeccessary();
         
         try {
+            // thread is pinned before replica is created, so params and workspaces are allocated on local node
+            if (numaTopology != null) {
+                getStats().setNumaNode(numaNode);
+                if (!ThreadPinning.pinCurrentThread(numaTopology.getCpuList(numaNode)))
+                    log.warn("Trainer thread {} wasn't pinned to NUMA node {}", threadId, numaNode);
+            }
+
             // we create fresh network, with the same configuration, as initially created by user
             // however, we don't need clone or anything here
             if (originalModel instanceof MultiLayerNetwork) {
@@ -163,11 +193,15 @@ public class DefaultTrainer extends Thread implements Trainer {
                     conf.setWorkspaceMode(workspaceMode);
                     this.replicatedModel = new MultiLayerNetwork(conf);
 
-                    replicatedModel.init();
+                    if (hogwild)
+                        ((MultiLayerNetwork) replicatedModel).init(originalModel.params(), false);
+                    else
+                        replicatedModel.init();
 
                     // we replicate original model params & updater state, just in case it's pre-trained model
                     synchronized (originalModel) {
-                        replicatedModel.setParams(originalModel.params());
+                        if (!hogwild)
+                            replicatedModel.setParams(originalModel.params());
 
                         Updater updaterReplica = ((MultiLayerNetwork) replicatedModel).getUpdater();
                         Updater updaterOrigina = ((MultiLayerNetwork) originalModel).getUpdater();
@@ -198,11 +232,16 @@ public class DefaultTrainer extends Thread implements Trainer {
                     conf.setWorkspaceMode(workspaceMode);
 
                     this.replicatedModel = new ComputationGraph(conf);
-                    this.replicatedModel.init();
+
+                    if (hogwild)
+                        ((ComputationGraph) replicatedModel).init(originalModel.params(), false);
+                    else
+                        this.replicatedModel.init();
 
                     // we replicate original model params & updater state, just in case it's pre-trained model
                     synchronized (originalModel) {
-                        replicatedModel.setParams(originalModel.params());
+                        if (!hogwild)
+                            replicatedModel.setParams(originalModel.params());
 
                         ComputationGraphUpdater updaterReplica = ((ComputationGraph) replicatedModel).getUpdater();
                         ComputationGraphUpdater updaterOrigina = ((ComputationGraph) originalModel).getUpdater();
@@ -227,10 +266,14 @@ public class DefaultTrainer extends Thread implements Trainer {
                 }
             }
 
+            if (sharedParameters != null)
+                initSharedState();
+
             if (!useMDS) {
                 while (!shouldStop.get()) {
                     DataSet dataSet = queue.poll(100, TimeUnit.MILLISECONDS);
                     if (dataSet != null) {
+                        long time1 = System.nanoTime();
 
                         //if (Nd4j.getAffinityManager().getDeviceForCurrentThread() != Nd4j.getAffinityManager().getDeviceForArray(dataSet.getFeatures()))
                         //    log.debug("Thread: {}; Bad align for data: {}/{}", Thread.currentThread().getId(), Nd4j.getAffinityManager().getDeviceForCurrentThread(), Nd4j.getAffinityManager().getDeviceForArray(dataSet.getFeatures()));
@@ -244,6 +287,13 @@ public class DefaultTrainer extends Thread implements Trainer {
                         if (Nd4j.getExecutioner() instanceof GridExecutioner)
                             ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
 
+                        if (sharedParameters != null)
+                            shareUpdate(dataSet.numExamples(), System.nanoTime() - time1);
+                        else
+                            getStats().record(dataSet.numExamples(), System.nanoTime() - time1, 0, 0, false);
+
+                        samplePlacement();
+
                         running.decrementAndGet();
                     }
                 }
@@ -253,6 +303,7 @@ public class DefaultTrainer extends Thread implements Trainer {
                 while (!shouldStop.get()) {
                     MultiDataSet dataSet = queueMDS.poll(100, TimeUnit.MILLISECONDS);
                     if (dataSet != null) {
+                        long time1 = System.nanoTime();
                         if (replicatedModel instanceof ComputationGraph) {
                             ((ComputationGraph) replicatedModel).fit(dataSet);
                         } else
@@ -261,6 +312,13 @@ public class DefaultTrainer extends Thread implements Trainer {
                         if (Nd4j.getExecutioner() instanceof GridExecutioner)
                             ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
 
+                        if (sharedParameters != null)
+                            shareUpdate(dataSet.getFeatures(0).size(0), System.nanoTime() - time1);
+                        else
+                            getStats().record(dataSet.getFeatures(0).size(0), System.nanoTime() - time1, 0, 0, false);
+
+                        samplePlacement();
+
                         running.decrementAndGet();
                     }
                 }
@@ -270,6 +328,75 @@ public class DefaultTrainer extends Thread implements Trainer {
         }
     }
 
+    /**
+     * This method refreshes replica from shared parameters, and resets local sharing state
+     */
+    protected void initSharedState() {
+        INDArray params = replicatedModel.params();
+        lastRefreshVersion = sharedParameters.pullParameters(params);
+        pushesSinceRefresh = 0;
+        sharedBase = params.dup();
+        sharedResidual = Nd4j.zeros(params.shape());
+    }
+
+    /**
+     * This method pushes update produced by last minibatch to shared parameters, and refreshes replica
+     * if it missed too many updates from other workers
+     *
+     * @param numExamples number of examples in last minibatch
+     * @param fitNanos time spent on last minibatch
+     */
+    protected void shareUpdate(int numExamples, long fitNanos) {
+        long time1 = System.nanoTime();
+        INDArray params = replicatedModel.params();
+
+        // update since last sync, plus whatever wasn't shared before due to threshold
+        sharedResidual.addi(params).subi(sharedBase);
+        sharedBase.assign(params);
+
+        INDArray encoded = sharedParameters.encodeUpdate(sharedResidual);
+        long version = sharedParameters.applyUpdate(encoded);
+        pushesSinceRefresh++;
+
+        long staleness = version - lastRefreshVersion - pushesSinceRefresh;
+        boolean refresh = staleness > sharedParameters.getMaxStaleness();
+        if (refresh) {
+            lastRefreshVersion = sharedParameters.pullParameters(params);
+            pushesSinceRefresh = 0;
+            sharedBase.assign(params);
+        }
+
+        if (Nd4j.getExecutioner() instanceof GridExecutioner)
+            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+
+        getStats().record(numExamples, fitNanos, System.nanoTime() - time1, staleness, refresh);
+    }
+
+    /**
+     * This method checks if trainer thread is still running on CPU of its NUMA node, once per
+     * {@link #PLACEMENT_SAMPLE_FREQUENCY} minibatches
+     */
+    protected void samplePlacement() {
+        if (numaTopology == null || placementCounter++ % PLACEMENT_SAMPLE_FREQUENCY != 0)
+            return;
+
+        int cpu = ThreadPinning.getCurrentCpu();
+        if (cpu >= 0)
+            getStats().recordPlacement(numaTopology.getNode(cpu) == numaNode);
+    }
+
+    /**
+     * This method returns throughput and idle time stats of this trainer
+     *
+     * @return
+     */
+    public synchronized WorkerStats getStats() {
+        if (stats == null)
+            stats = sharedParameters != null ? sharedParameters.getWorkerStats(threadId) : new WorkerStats(threadId);
+
+        return stats;
+    }
+
     @Override
     public void waitTillRunning() {
         while (running.get() != 0) {
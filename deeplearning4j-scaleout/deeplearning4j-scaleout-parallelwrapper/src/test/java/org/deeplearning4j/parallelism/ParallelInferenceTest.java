@@ -6,7 +6,11 @@ import org.datavec.api.util.ClassPathResource;
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.datasets.iterator.impl.MnistDataSetIterator;
 import org.deeplearning4j.eval.Evaluation;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.parallelism.inference.InferenceMetrics;
 import org.deeplearning4j.parallelism.inference.InferenceMode;
 import org.deeplearning4j.parallelism.inference.InferenceObservable;
 import org.deeplearning4j.parallelism.inference.observers.BasicInferenceObserver;
@@ -25,7 +29,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -239,6 +246,241 @@ public class ParallelInferenceTest {
     }
 
 
+    @Test
+    public void testOutputAsyncSequential() throws Exception {
+        ParallelInference inf = new ParallelInference.Builder(model)
+                .inferenceMode(InferenceMode.SEQUENTIAL)
+                .workers(2)
+                .build();
+
+        List<INDArray> inputs = new ArrayList<>();
+        List<CompletableFuture<INDArray[]>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            INDArray features = iterator.next().getFeatureMatrix();
+            inputs.add(features);
+            futures.add(inf.outputAsync(features));
+        }
+
+        for (int i = 0; i < inputs.size(); i++) {
+            INDArray[] output = futures.get(i).get(30, TimeUnit.SECONDS);
+            assertEquals(1, output.length);
+            assertEquals(model.output(inputs.get(i)), output[0]);
+        }
+
+        InferenceMetrics metrics = inf.getMetrics();
+        assertEquals(20, metrics.getRequests(0) + metrics.getRequests(1));
+        assertEquals(20, metrics.getBatchSizeHistogram()[1]);
+    }
+
+    @Test
+    public void testOutputAsyncBatched() throws Exception {
+        ParallelInference inf = new ParallelInference.Builder(model)
+                .inferenceMode(InferenceMode.BATCHED)
+                .batchLimit(8)
+                .workers(2)
+                .build();
+
+        List<INDArray> inputs = new ArrayList<>();
+        List<CompletableFuture<INDArray[]>> futures = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            INDArray features = iterator.next().getFeatureMatrix();
+            inputs.add(features);
+            futures.add(inf.outputAsync(features));
+        }
+
+        for (int i = 0; i < inputs.size(); i++) {
+            INDArray output = futures.get(i).get(30, TimeUnit.SECONDS)[0];
+            assertEquals(model.output(inputs.get(i)), output.reshape(1, output.length()));
+        }
+
+        InferenceMetrics metrics = inf.getMetrics();
+        long[] histogram = metrics.getBatchSizeHistogram();
+        long requests = 0;
+        for (int i = 0; i < histogram.length; i++)
+            requests += i * histogram[i];
+        assertEquals(64, requests);
+        assertEquals(64, metrics.getRequests(0) + metrics.getRequests(1));
+        log.info("{}", metrics);
+    }
+
+    @Test
+    public void testAdaptiveBatchLimit() throws Exception {
+        LinkedBlockingQueue queue = new LinkedBlockingQueue();
+        ParallelInference.ObservablesProvider provider = new ParallelInference.ObservablesProvider(10000000L, 16,
+                TimeUnit.MILLISECONDS.toNanos(10), queue);
+
+        assertEquals(16, provider.getCurrentBatchLimit());
+
+        // slow batches: limit goes down
+        for (int i = 0; i < ParallelInference.ObservablesProvider.LATENCY_WINDOW; i++)
+            provider.recordBatchLatency(TimeUnit.MILLISECONDS.toNanos(i == 50 ? 5 : 20));
+        assertEquals(12, provider.getCurrentBatchLimit());
+
+        // fast batches: limit goes up again, one step per window
+        for (int i = 0; i < ParallelInference.ObservablesProvider.LATENCY_WINDOW; i++)
+            provider.recordBatchLatency(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(13, provider.getCurrentBatchLimit());
+
+        // new batches are limited by current limit
+        BasicInferenceObserver observer = new BasicInferenceObserver();
+        InferenceObservable first = null;
+        for (int i = 0; i < 13; i++) {
+            InferenceObservable observable = provider.setInput(observer, Nd4j.create(10));
+            if (first == null)
+                first = observable;
+            assertTrue(first == observable);
+        }
+        assertTrue(first != provider.setInput(observer, Nd4j.create(10)));
+    }
+
+    @Test
+    public void testUpdateModel() throws Exception {
+        for (InferenceMode mode : InferenceMode.values()) {
+            ParallelInference inf = new ParallelInference.Builder(model)
+                    .inferenceMode(mode)
+                    .workers(2)
+                    .build();
+
+            INDArray features = iterator.next().getFeatureMatrix();
+            INDArray before = inf.output(features);
+            assertEquals(model.output(features), before);
+
+            MultiLayerNetwork updated = model.clone();
+            updated.params().muli(0.5);
+            assertNotEquals(model.output(features), updated.output(features));
+
+            inf.updateModel(updated);
+            assertEquals(1, inf.getModelVersion());
+
+            // every worker swaps params before processing its next batch
+            for (int i = 0; i < 10; i++)
+                assertEquals(updated.output(features), inf.output(features).reshape(1, 10));
+
+            // original model isn't affected
+            assertEquals(before, model.output(features));
+
+            inf.shutdown();
+            assertTrue(inf.isShutdown());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpdateModelWrongType() throws Exception {
+        ParallelInference inf = new ParallelInference.Builder(model).workers(1).build();
+        try {
+            inf.updateModel(new ComputationGraph(new NeuralNetConfiguration.Builder().graphBuilder().addInputs("in")
+                    .addLayer("out", new OutputLayer.Builder().nIn(10).nOut(10).build(), "in").setOutputs("out")
+                    .build()));
+        } finally {
+            inf.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testOutputAfterShutdown() throws Exception {
+        ParallelInference inf = new ParallelInference.Builder(model)
+                .inferenceMode(InferenceMode.SEQUENTIAL)
+                .workers(2)
+                .build();
+
+        inf.output(iterator.next().getFeatureMatrix());
+        inf.shutdown();
+        // second call is no-op
+        inf.shutdown();
+
+        inf.output(iterator.next().getFeatureMatrix());
+    }
+
+    @Test(timeout = 60000L)
+    public void testOutputAsyncRacingShutdown() throws Exception {
+        for (InferenceMode mode : InferenceMode.values()) {
+            final ParallelInference inf = new ParallelInference.Builder(model)
+                    .inferenceMode(mode)
+                    .batchLimit(4)
+                    .queueLimit(4)
+                    .workers(2)
+                    .build();
+
+            final INDArray features = iterator.next().getFeatureMatrix();
+            final Queue<CompletableFuture<INDArray[]>> futures = new LinkedBlockingQueue<>();
+            Thread[] producers = new Thread[4];
+            for (int t = 0; t < producers.length; t++) {
+                producers[t] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < 50; i++)
+                            futures.add(inf.outputAsync(features));
+                    }
+                });
+                producers[t].start();
+            }
+
+            Thread.sleep(10);
+            inf.shutdown();
+
+            for (Thread producer : producers)
+                producer.join();
+
+            // every request is either processed, or completed exceptionally: none of them is left hanging
+            assertEquals(200, futures.size());
+            for (CompletableFuture<INDArray[]> future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+
+            assertTrue(inf.outputAsync(features).isCompletedExceptionally());
+        }
+    }
+
+    @Test
+    public void testSharedParams() throws Exception {
+        ParallelInference inf = new ParallelInference.Builder(model)
+                .inferenceMode(InferenceMode.BATCHED)
+                .batchLimit(8)
+                .workers(2)
+                .sharedParams(true)
+                .build();
+
+        INDArray features = iterator.next().getFeatureMatrix();
+        assertEquals(model.output(features), inf.output(features).reshape(1, 10));
+
+        // both replicas should be built on top of the same params array
+        waitForSharedParams(inf, 2);
+
+        evalClassifcationMultipleThreads(inf, iterator, 10);
+
+        MultiLayerNetwork updated = model.clone();
+        updated.params().muli(0.5);
+        inf.updateModel(updated);
+
+        for (int i = 0; i < 10; i++)
+            assertEquals(updated.output(features), inf.output(features).reshape(1, 10));
+
+        // staged params become new shared params
+        waitForSharedParams(inf, 2);
+
+        inf.shutdown();
+    }
+
+    protected void waitForSharedParams(ParallelInference inf, int workers) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            boolean shared = true;
+            for (int w = 0; w < workers; w++)
+                shared &= inf.isWorkerUsingSharedParams(w);
+
+            if (shared)
+                return;
+
+            // replica is updated only when worker wakes up
+            inf.output(iterator.next().getFeatureMatrix());
+            Thread.sleep(50);
+        }
+        fail("Workers aren't using shared params");
+    }
+
     protected void evalClassifcationSingleThread(@NonNull ParallelInference inf, @NonNull DataSetIterator iterator) {
         DataSet ds = iterator.next();
         log.info("NumColumns: {}", ds.getLabels().columns());
@@ -1,5 +1,6 @@
 package org.deeplearning4j.parallelism;
 
+import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
 import org.deeplearning4j.datasets.iterator.impl.MnistDataSetIterator;
 import org.deeplearning4j.eval.Evaluation;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
@@ -14,6 +15,8 @@ import org.deeplearning4j.nn.conf.layers.setup.ConvolutionLayerSetup;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
 import org.deeplearning4j.optimize.listeners.ScoreIterationListener;
+import org.deeplearning4j.parallelism.gradients.WorkerStats;
+import org.deeplearning4j.parallelism.trainer.Trainer;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -24,12 +27,17 @@ import org.nd4j.linalg.lossfunctions.LossFunctions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
+import static org.junit.Assert.*;
+
 
 /**
  * Created by agibsonccc on 11/12/16.
  */
 public class ParallelWrapperTest {
     private static final Logger log = LoggerFactory.getLogger(ParallelWrapperTest.class);
+    private static final int IRIS_EPOCHS = 20;
 
     @Test
     public void testParallelWrapperRun() throws Exception {
@@ -128,5 +136,93 @@ public class ParallelWrapperTest {
         wrapper.shutdown();
     }
 
+    @Test
+    public void testSharedGradientsMode() throws Exception {
+        MultiLayerNetwork model = irisModel();
+        ParallelWrapper wrapper = fitIris(model, new ParallelWrapper.Builder<>(model).workers(4).prefetchBuffer(4)
+                        .trainingMode(ParallelWrapper.TrainingMode.SHARED_GRADIENTS).gradientsThreshold(1e-4)
+                        .maxStaleness(2));
+
+        for (WorkerStats s : wrapper.getWorkerStats())
+            assertTrue(s.getMaxStaleness() >= s.getLastStaleness());
+        assertEquals(15 * IRIS_EPOCHS, wrapper.getSharedParameters().getVersion());
+
+        wrapper.shutdown();
+    }
+
+    @Test
+    public void testHogwildMode() throws Exception {
+        MultiLayerNetwork model = irisModel();
+        ParallelWrapper wrapper = fitIris(model, new ParallelWrapper.Builder<>(model).workers(4).prefetchBuffer(4)
+                        .trainingMode(ParallelWrapper.TrainingMode.HOGWILD));
+
+        // all workers train original model params directly
+        for (Trainer trainer : wrapper.getZoo()) {
+            assertEquals(model.params(), trainer.getModel().params());
+            assertNotSame(model, trainer.getModel());
+        }
+
+        wrapper.shutdown();
+    }
+
+    @Test
+    public void testWorkStealingMode() throws Exception {
+        MultiLayerNetwork model = irisModel();
+        ParallelWrapper wrapper = fitIris(model, new ParallelWrapper.Builder<>(model).workers(4).prefetchBuffer(4)
+                        .averagingFrequency(3).workStealing(true));
+
+        assertTrue(wrapper.usesSharedQueue());
+        for (WorkerStats s : wrapper.getWorkerStats())
+            assertTrue(s.getIdleFraction() >= 0.0 && s.getIdleFraction() < 1.0);
+
+        wrapper.shutdown();
+    }
+
+    private static MultiLayerNetwork irisModel() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).iterations(1)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).updater(Updater.SGD)
+                        .learningRate(0.1).weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(10).activation(Activation.TANH).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(10).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .backprop(true).pretrain(false).build();
+        MultiLayerNetwork model = new MultiLayerNetwork(conf);
+        model.init();
+        return model;
+    }
+
+    /**
+     * Trains the model on Iris with a wrapper built by the given (mode-specific) builder, and checks that the score
+     * improved and that 4 workers processed every minibatch exactly once. The wrapper is returned for mode-specific
+     * checks, and has to be shut down by the caller
+     */
+    private static ParallelWrapper fitIris(MultiLayerNetwork model, ParallelWrapper.Builder builder) {
+        DataSetIterator iris = new IrisDataSetIterator(10, 150);
+        DataSet all = new IrisDataSetIterator(150, 150).next();
+        double scoreBefore = model.score(all);
+        INDArray paramsBefore = model.params().dup();
+
+        ParallelWrapper wrapper = builder.build();
+        for (int i = 0; i < IRIS_EPOCHS; i++)
+            wrapper.fit(iris);
+
+        assertNotEquals(paramsBefore, model.params());
+        double scoreAfter = model.score(all);
+        log.info("Score before: {}, after: {}", scoreBefore, scoreAfter);
+        assertTrue(scoreAfter < scoreBefore);
+
+        List<WorkerStats> stats = wrapper.getWorkerStats();
+        assertEquals(4, stats.size());
+        long iterations = 0;
+        long examples = 0;
+        for (WorkerStats s : stats) {
+            log.info("{}", s);
+            iterations += s.getIterations();
+            examples += s.getExamples();
+        }
+        assertEquals(15 * IRIS_EPOCHS, iterations);
+        assertEquals(150 * IRIS_EPOCHS, examples);
+        return wrapper;
+    }
 
 }
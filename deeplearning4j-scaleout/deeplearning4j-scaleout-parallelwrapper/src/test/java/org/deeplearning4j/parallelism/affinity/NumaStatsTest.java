@@ -0,0 +1,31 @@
+package org.deeplearning4j.parallelism.affinity;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+public class NumaStatsTest {
+
+    @Test
+    public void testSince() {
+        Map<Integer, Map<String, Long>> before = new TreeMap<>();
+        before.put(0, NumaStats.parse("numa_hit 100\nnuma_miss 5\nnuma_foreign 1\nlocal_node 90\nother_node 10\n"));
+        before.put(1, NumaStats.parse("numa_hit 50\nnuma_miss 0\nnuma_foreign 5\nlocal_node 50\nother_node 0\n"));
+
+        Map<Integer, Map<String, Long>> after = new TreeMap<>();
+        after.put(0, NumaStats.parse("numa_hit 200\nnuma_miss 8\nnuma_foreign 1\nlocal_node 170\nother_node 30\n"));
+        after.put(1, NumaStats.parse("numa_hit 60\nnuma_miss 0\nnuma_foreign 8\nlocal_node 60\nother_node 0\n"));
+
+        NumaStats delta = new NumaStats(after).since(new NumaStats(before));
+        assertEquals(2, delta.getNodes().size());
+        assertEquals(3, delta.getNumaMiss(0));
+        assertEquals(3, delta.getNumaForeign(1));
+        assertEquals(20, delta.getOtherNode(0));
+        assertEquals(0.2, delta.getRemoteFraction(0), 1e-6);
+        assertEquals(0.0, delta.getRemoteFraction(1), 1e-6);
+        assertEquals(0, delta.getCounter(2, "numa_miss"));
+    }
+}
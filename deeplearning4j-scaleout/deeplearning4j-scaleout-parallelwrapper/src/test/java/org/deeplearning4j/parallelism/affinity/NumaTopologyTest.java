@@ -0,0 +1,45 @@
+package org.deeplearning4j.parallelism.affinity;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NumaTopologyTest {
+
+    @Test
+    public void testCpuLists() {
+        assertArrayEquals(new int[] {0, 1, 2, 3, 8, 10, 11}, NumaTopology.parseCpuList("0-3,8,10-11\n"));
+
+        NumaTopology topology = NumaTopology.fromCpuLists("0-3,8-11", "4-7,12-15");
+        assertEquals(2, topology.numNodes());
+        assertEquals("4,5,6,7,12,13,14,15", topology.getCpuList(1));
+        assertEquals(0, topology.getNode(9));
+        assertEquals(1, topology.getNode(12));
+        assertEquals(-1, topology.getNode(16));
+    }
+
+    @Test
+    public void testPlacement() {
+        NumaTopology topology = NumaTopology.fromCpuLists("0-3", "4-7");
+
+        int[] compact = new int[5];
+        int[] scatter = new int[5];
+        for (int i = 0; i < 5; i++) {
+            compact[i] = CpuPlacement.COMPACT.nodeFor(i, 5, topology);
+            scatter[i] = CpuPlacement.SCATTER.nodeFor(i, 5, topology);
+            assertEquals(-1, CpuPlacement.NONE.nodeFor(i, 5, topology));
+        }
+
+        assertArrayEquals(new int[] {0, 0, 0, 1, 1}, compact);
+        assertArrayEquals(new int[] {0, 1, 0, 1, 0}, scatter);
+    }
+
+    @Test
+    public void testDetect() {
+        NumaTopology topology = NumaTopology.detect();
+        assertTrue(topology.numNodes() >= 1);
+        assertTrue(topology.getCpus(0).length >= 1);
+    }
+}
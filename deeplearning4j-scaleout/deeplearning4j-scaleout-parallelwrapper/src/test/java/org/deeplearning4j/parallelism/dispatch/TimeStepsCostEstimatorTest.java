@@ -0,0 +1,34 @@
+package org.deeplearning4j.parallelism.dispatch;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.MultiDataSet;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimeStepsCostEstimatorTest {
+
+    @Test
+    public void testCost() {
+        BatchCostEstimator estimator = new TimeStepsCostEstimator();
+
+        // feed-forward data: number of examples
+        assertEquals(8.0, estimator.cost(new DataSet(Nd4j.create(8, 4), Nd4j.create(8, 3))), 0.0);
+
+        // time series without mask: examples * time steps
+        assertEquals(50.0, estimator.cost(new DataSet(Nd4j.create(5, 3, 10), Nd4j.create(5, 2, 10))), 0.0);
+
+        // time series with mask: unmasked time steps only
+        INDArray mask = Nd4j.zeros(5, 10);
+        mask.getRow(0).assign(1.0);
+        mask.putScalar(1, 0, 1.0);
+        DataSet masked = new DataSet(Nd4j.create(5, 3, 10), Nd4j.create(5, 2, 10), mask, mask);
+        assertEquals(11.0, estimator.cost(masked), 0.0);
+
+        MultiDataSet mds = new MultiDataSet(new INDArray[] {Nd4j.create(5, 3, 10), Nd4j.create(5, 4)},
+                        new INDArray[] {Nd4j.create(5, 2)});
+        assertEquals(55.0, estimator.cost(mds), 0.0);
+    }
+}
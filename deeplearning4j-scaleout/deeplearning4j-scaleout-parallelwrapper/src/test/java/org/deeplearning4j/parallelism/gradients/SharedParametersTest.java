@@ -0,0 +1,42 @@
+package org.deeplearning4j.parallelism.gradients;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.junit.Assert.assertEquals;
+
+public class SharedParametersTest {
+
+    @Test
+    public void testThresholdEncoding() {
+        SharedParameters shared = new SharedParameters(Nd4j.zeros(1, 5), 1, 0.5, 0);
+
+        INDArray update = Nd4j.create(new double[] {0.1, -0.7, 1.3, -0.2, 0.5});
+        INDArray encoded = shared.encodeUpdate(update);
+
+        assertEquals(Nd4j.create(new double[] {0.0, -0.5, 0.5, 0.0, 0.5}), encoded);
+        // residual stays in update array
+        assertEquals(Nd4j.create(new double[] {0.1, -0.2, 0.8, -0.2, 0.0}), update);
+
+        assertEquals(1, shared.applyUpdate(encoded));
+        assertEquals(2, shared.applyUpdate(encoded));
+        assertEquals(Nd4j.create(new double[] {0.0, -1.0, 1.0, 0.0, 1.0}), shared.getParams());
+
+        INDArray target = Nd4j.create(1, 5);
+        assertEquals(2, shared.pullParameters(target));
+        assertEquals(shared.getParams(), target);
+    }
+
+    @Test
+    public void testNoThreshold() {
+        SharedParameters shared = new SharedParameters(Nd4j.zeros(1, 3), 2, 0.0, 0);
+
+        INDArray update = Nd4j.create(new double[] {0.1, -0.7, 1.3});
+        INDArray encoded = shared.encodeUpdate(update);
+
+        assertEquals(Nd4j.create(new double[] {0.1, -0.7, 1.3}), encoded);
+        assertEquals(Nd4j.zeros(1, 3), update);
+        assertEquals(2, shared.getWorkerStats().size());
+    }
+}
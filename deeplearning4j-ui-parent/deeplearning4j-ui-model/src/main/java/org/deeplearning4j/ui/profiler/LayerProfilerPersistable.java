@@ -0,0 +1,102 @@
+package org.deeplearning4j.ui.profiler;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.apache.commons.compress.utils.IOUtils;
+import org.deeplearning4j.api.storage.Persistable;
+import org.deeplearning4j.nn.profiler.LayerProfiler;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Per-layer/per-vertex profile of a model at a given iteration, as stored by {@link LayerProfilerStatsListener}
+ */
+@AllArgsConstructor
+@Data
+public class LayerProfilerPersistable implements Persistable {
+
+    public static final String TYPE_ID = "LayerProfiler";
+
+    private String sessionID;
+    private String workerID;
+    private long timestamp;
+    private int iteration;
+    private List<LayerProfiler.Summary> summaries;
+
+    public LayerProfilerPersistable() {}
+
+    @Override
+    public String getSessionID() {
+        return sessionID;
+    }
+
+    @Override
+    public String getTypeID() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public String getWorkerID() {
+        return workerID;
+    }
+
+    @Override
+    public long getTimeStamp() {
+        return timestamp;
+    }
+
+    @Override
+    public int encodingLengthBytes() {
+        return encode().length;
+    }
+
+    @Override
+    public byte[] encode() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(this);
+        } catch (IOException e) {
+            throw new RuntimeException(e); //Shouldn't normally happen
+        }
+
+        return baos.toByteArray();
+    }
+
+    @Override
+    public void encode(ByteBuffer buffer) {
+        buffer.put(encode());
+    }
+
+    @Override
+    public void encode(OutputStream outputStream) throws IOException {
+        outputStream.write(encode());
+    }
+
+    @Override
+    public void decode(byte[] decode) {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(decode))) {
+            LayerProfilerPersistable p = (LayerProfilerPersistable) ois.readObject();
+            this.sessionID = p.sessionID;
+            this.workerID = p.workerID;
+            this.timestamp = p.timestamp;
+            this.iteration = p.iteration;
+            this.summaries = p.summaries;
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException(e); //Shouldn't normally happen
+        }
+    }
+
+    @Override
+    public void decode(ByteBuffer buffer) {
+        byte[] arr = new byte[buffer.remaining()];
+        buffer.get(arr);
+        decode(arr);
+    }
+
+    @Override
+    public void decode(InputStream inputStream) throws IOException {
+        decode(IOUtils.toByteArray(inputStream));
+    }
+}
@@ -0,0 +1,163 @@
+package org.deeplearning4j.ui.profiler;
+
+import org.deeplearning4j.api.storage.StatsStorageRouter;
+import org.deeplearning4j.api.storage.listener.RoutingIterationListener;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.profiler.LayerProfiler;
+import org.deeplearning4j.ui.storage.impl.JavaStorageMetaData;
+import org.deeplearning4j.util.UIDProvider;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Enables per-layer/per-vertex profiling on the model it is attached to (see {@link LayerProfiler}), and posts the
+ * aggregated forward, backward and updater timings of each layer to a {@link StatsStorageRouter} (usually the
+ * StatsStorage used by the training UI) every {@code frequency} iterations, as {@link LayerProfilerPersistable}
+ * updates with type ID {@link LayerProfilerPersistable#TYPE_ID}.
+ *
+ * To have the profile stored alongside the regular training statistics, pass the session ID of the StatsListener.
+ * For logging the profile instead, see {@link org.deeplearning4j.optimize.listeners.ProfilingListener}.
+ */
+public class LayerProfilerStatsListener implements RoutingIterationListener {
+
+    private StatsStorageRouter router;
+    private final int frequency;
+    private String sessionID;
+    private String workerID;
+    private boolean staticInfoPosted = false;
+    private long iterationCount;
+
+    public LayerProfilerStatsListener(StatsStorageRouter router) {
+        this(router, 10);
+    }
+
+    public LayerProfilerStatsListener(StatsStorageRouter router, int frequency) {
+        this(router, frequency, null, null);
+    }
+
+    /**
+     * @param router    Where to post the profiles
+     * @param frequency Post the profile every {@code frequency} iterations; each profile covers the iterations since
+     *                  the previous one
+     * @param sessionID Session ID (if null: random)
+     * @param workerID  Worker ID (if null: JVM UID + thread ID)
+     */
+    public LayerProfilerStatsListener(StatsStorageRouter router, int frequency, String sessionID, String workerID) {
+        if (frequency <= 0)
+            throw new IllegalArgumentException("Frequency must be > 0, got " + frequency);
+        this.router = router;
+        this.frequency = frequency;
+        if (sessionID == null) {
+            this.sessionID = UUID.randomUUID().toString();
+        } else {
+            this.sessionID = sessionID;
+        }
+        if (workerID == null) {
+            this.workerID = UIDProvider.getJVMUID() + "_" + Thread.currentThread().getId();
+        } else {
+            this.workerID = workerID;
+        }
+    }
+
+    @Override
+    public void setStorageRouter(StatsStorageRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public StatsStorageRouter getStorageRouter() {
+        return router;
+    }
+
+    @Override
+    public void setWorkerID(String workerID) {
+        this.workerID = workerID;
+    }
+
+    @Override
+    public String getWorkerID() {
+        return workerID;
+    }
+
+    @Override
+    public void setSessionID(String sessionID) {
+        this.sessionID = sessionID;
+    }
+
+    @Override
+    public String getSessionID() {
+        return sessionID;
+    }
+
+    @Override
+    public boolean invoked() {
+        return false;
+    }
+
+    @Override
+    public void invoke() {
+
+    }
+
+    @Override
+    public void iterationDone(Model model, int iteration) {
+        LayerProfiler profiler = LayerProfiler.attach(model);
+        if (profiler == null)
+            return;
+
+        if (!staticInfoPosted) {
+            //Static info: marks the start of profiling (no timings yet), and registers the session with the storage
+            long initTime = System.currentTimeMillis();
+            router.putStorageMetaData(new JavaStorageMetaData(initTime, sessionID, LayerProfilerPersistable.TYPE_ID,
+                            workerID, LayerProfilerPersistable.class, LayerProfilerPersistable.class));
+            router.putStaticInfo(new LayerProfilerPersistable(sessionID, workerID, initTime, iteration,
+                            Collections.<LayerProfiler.Summary>emptyList()));
+            staticInfoPosted = true;
+        }
+
+        if (++iterationCount % frequency == 0) {
+            router.putUpdate(new LayerProfilerPersistable(sessionID, workerID, System.currentTimeMillis(), iteration,
+                            profiler.getSummaries()));
+            profiler.reset();
+        }
+    }
+
+    @Override
+    public void onEpochStart(Model model) {
+        //No op
+    }
+
+    @Override
+    public void onEpochEnd(Model model) {
+        //No op
+    }
+
+    @Override
+    public void onForwardPass(Model model, List<INDArray> activations) {
+        //No op
+    }
+
+    @Override
+    public void onForwardPass(Model model, Map<String, INDArray> activations) {
+        //No op
+    }
+
+    @Override
+    public void onGradientCalculation(Model model) {
+        //No op
+    }
+
+    @Override
+    public void onBackwardPass(Model model) {
+        //No op
+    }
+
+    @Override
+    public LayerProfilerStatsListener clone() {
+        return new LayerProfilerStatsListener(router, frequency, null, null);
+    }
+}
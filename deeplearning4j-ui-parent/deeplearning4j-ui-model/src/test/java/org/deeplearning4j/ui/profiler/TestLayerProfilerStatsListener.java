@@ -0,0 +1,62 @@
+package org.deeplearning4j.ui.profiler;
+
+import org.deeplearning4j.api.storage.Persistable;
+import org.deeplearning4j.api.storage.StatsStorage;
+import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.profiler.LayerProfiler;
+import org.deeplearning4j.ui.storage.mapdb.MapDBStatsStorage;
+import org.junit.Test;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class TestLayerProfilerStatsListener {
+
+    @Test
+    public void testListener() {
+        DataSet ds = new IrisDataSetIterator(150, 150).next();
+
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(10).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(10).nOut(3).build())
+                        .pretrain(false).backprop(true).build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        StatsStorage ss = new MapDBStatsStorage(); //in-memory
+        net.setListeners(new LayerProfilerStatsListener(ss, 2, "session", "worker"));
+        for (int i = 0; i < 5; i++)
+            net.fit(ds);
+        assertNotNull(net.getProfiler());
+
+        assertEquals(1, ss.listSessionIDs().size());
+        assertEquals(LayerProfilerPersistable.TYPE_ID, ss.listTypeIDsForSession("session").get(0));
+        assertNotNull(ss.getStorageMetaData("session", LayerProfilerPersistable.TYPE_ID));
+        assertNotNull(ss.getStaticInfo("session", LayerProfilerPersistable.TYPE_ID, "worker"));
+
+        //Profiling starts after the first iteration: reports at iterations 2 and 4 (1 and 3 recorded iterations)
+        List<Persistable> updates = ss.getAllUpdatesAfter("session", LayerProfilerPersistable.TYPE_ID, "worker", 0);
+        assertEquals(2, updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            LayerProfilerPersistable p = (LayerProfilerPersistable) updates.get(i);
+            //forward: layer0; backward: layer1, layer0; updater: layer0, layer1
+            assertEquals(5, p.getSummaries().size());
+            for (LayerProfiler.Summary s : p.getSummaries())
+                assertEquals(i == 0 ? 1 : 2, s.getCount());
+
+            LayerProfilerPersistable decoded = new LayerProfilerPersistable();
+            decoded.decode(p.encode());
+            assertEquals(p, decoded);
+        }
+    }
+}